@@ -25,7 +25,19 @@ CREATE TABLE IF NOT EXISTS knowledge_documents (
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     vectorized BOOLEAN NOT NULL DEFAULT FALSE,
-    status VARCHAR(20) NOT NULL DEFAULT 'PENDING'
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    simhash BIGINT  -- 正文SimHash指纹（近似重复检测）
+);
+
+# 已有数据库补充指纹列
+ALTER TABLE knowledge_documents ADD COLUMN IF NOT EXISTS simhash BIGINT;
+
+# 近似重复文档的备用URL（归并到规范文档）
+CREATE TABLE IF NOT EXISTS knowledge_document_aliases (
+    source_url VARCHAR(1000) PRIMARY KEY,
+    canonical_id BIGINT NOT NULL REFERENCES knowledge_documents(id) ON DELETE CASCADE,
+    hamming_distance SMALLINT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
 
 # 5. 创建向量存储表（Spring AI PGVector使用）
@@ -53,14 +65,41 @@ CREATE INDEX IF NOT EXISTS idx_knowledge_documents_category ON knowledge_documen
 CREATE INDEX IF NOT EXISTS idx_knowledge_documents_status ON knowledge_documents(status);
 CREATE INDEX IF NOT EXISTS idx_knowledge_documents_vectorized ON knowledge_documents(vectorized);
 CREATE INDEX IF NOT EXISTS idx_knowledge_documents_created_at ON knowledge_documents(created_at);
+CREATE INDEX IF NOT EXISTS idx_knowledge_document_aliases_canonical_id ON knowledge_document_aliases(canonical_id);
 
 # 向量相似度搜索索引
 CREATE INDEX IF NOT EXISTS idx_vector_store_embedding ON vector_store 
 USING hnsw (embedding vector_cosine_ops) WITH (m = 16, ef_construction = 64);
+# 构建参数对应 app.vector-search.hnsw.*；调整后通过 POST /api/v1/admin/vector-search/indexes/rebuild 并发重建
 
 # 对话记忆索引
 CREATE INDEX IF NOT EXISTS idx_chat_memory_conversation_id ON ai_chat_memory(conversation_id);
 CREATE INDEX IF NOT EXISTS idx_chat_memory_created_at ON ai_chat_memory(created_at);
+# 按会话读取最近窗口 / 裁剪旧消息
+CREATE INDEX IF NOT EXISTS idx_chat_memory_conversation_created ON ai_chat_memory(conversation_id, created_at DESC);
+
+# 教务日程表（由教务日程缓存定期全量加载到内存区间索引，工具调用不直接查询）
+CREATE TABLE IF NOT EXISTS academic_calendar_events (
+    id BIGSERIAL PRIMARY KEY,
+    semester VARCHAR(50) NOT NULL,
+    title VARCHAR(200) NOT NULL,
+    category VARCHAR(50),
+    start_date DATE NOT NULL,
+    end_date DATE NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CHECK (end_date >= start_date)
+);
+
+CREATE TABLE IF NOT EXISTS exam_slots (
+    id BIGSERIAL PRIMARY KEY,
+    semester VARCHAR(50) NOT NULL,
+    course_name VARCHAR(200) NOT NULL,
+    exam_date DATE NOT NULL,
+    start_time TIME NOT NULL,
+    end_time TIME NOT NULL,
+    location VARCHAR(100),
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
 
 # =============================================
 # 声纹识别相关表
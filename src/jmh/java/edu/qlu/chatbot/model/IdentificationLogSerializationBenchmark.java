@@ -0,0 +1,163 @@
+package edu.qlu.chatbot.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 识别日志列表序列化基准测试
+ *
+ * 对比 /api/v1/voiceprint/logs 原先的完整实体列表（含User-Agent与嵌套用户）与投影视图流式输出，
+ * 以及gzip压缩后的开销。各组合的响应字节数在每轮结束时打印到基准日志中。
+ *
+ * @author QLU AI Team
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdentificationLogSerializationBenchmark {
+
+    /**
+     * 日志条数（接口上限为1000）
+     */
+    @Param({"50", "1000"})
+    private int rows;
+
+    /**
+     * 投影字段：default 为默认字段，* 为全部字段
+     */
+    @Param({"default", "*"})
+    private String fields;
+
+    private ObjectMapper objectMapper;
+    private List<VoiceprintIdentificationLog> logs;
+    private Set<VoiceprintIdentificationLogView.Field> selectedFields;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        selectedFields = VoiceprintIdentificationLogView.parseFields("default".equals(fields) ? null : fields);
+
+        logs = new ArrayList<>(rows);
+        LocalDateTime base = LocalDateTime.of(2024, 5, 1, 8, 0);
+        for (int i = 0; i < rows; i++) {
+            User user = new User();
+            user.setId(10001L + i % 200);
+            user.setUsername("student" + (10001 + i % 200));
+            user.setEmail("student" + (10001 + i % 200) + "@stu.qlu.edu.cn");
+            user.setFullName("学生" + (i % 200));
+
+            VoiceprintIdentificationLog log = new VoiceprintIdentificationLog();
+            log.setId((long) i + 1);
+            log.setRequestId("req_" + (1714521600000L + i) + "_" + Integer.toHexString(i * 7919));
+            log.setIdentifiedUserId(user.getId());
+            log.setIflytekFeatureId("user_" + user.getId() + "_1700000000000");
+            log.setConfidenceScore(BigDecimal.valueOf(0.6 + (i % 40) / 100.0));
+            log.setAudioFileName("identify_" + i + ".wav");
+            log.setIdentificationTime(base.plusSeconds(i * 37L));
+            log.setApiResponseSid("ase000e1f2a@dx18b1c2d3e4f5a6b7c8");
+            log.setApiResponseCode(0);
+            log.setApiResponseMessage("success");
+            log.setProcessingDurationMs(800 + i % 500);
+            log.setClientIp("10.20." + (i % 250) + "." + (i % 100));
+            log.setUserAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 "
+                    + "(KHTML, like Gecko) Chrome/124.0.0.0 Safari/537.36");
+            log.setCreatedAt(log.getIdentificationTime());
+            log.setIdentifiedUser(user);
+            logs.add(log);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void reportSizes() throws IOException {
+        System.out.printf("[rows=%d, fields=%s] full=%dB, full+gzip=%dB, projected=%dB, projected+gzip=%dB%n",
+                rows, fields, fullEntities().length, gzip(fullEntities()).length,
+                projectedStream().size(), projectedStreamGzip().size());
+    }
+
+    /**
+     * 原实现：在内存中构造完整实体列表后整体序列化
+     */
+    @Benchmark
+    public byte[] fullEntities() throws IOException {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("status", "success");
+        response.put("logs", logs);
+        response.put("count", logs.size());
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    /**
+     * 现实现：逐条投影并以流式JSON写出
+     */
+    @Benchmark
+    public ByteArrayOutputStream projectedStream() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeProjected(out);
+        return out;
+    }
+
+    @Benchmark
+    public ByteArrayOutputStream projectedStreamGzip() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            writeProjected(gzip);
+        }
+        return out;
+    }
+
+    private void writeProjected(OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.writeStartObject();
+        generator.writeStringField("status", "success");
+        generator.writeArrayFieldStart("logs");
+        for (VoiceprintIdentificationLog log : logs) {
+            generator.writeObject(VoiceprintIdentificationLogView.of(log, selectedFields));
+        }
+        generator.writeEndArray();
+        generator.writeNumberField("count", logs.size());
+        generator.writeEndObject();
+        generator.flush();
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,111 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.config.VoiceprintConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 音频处理基准测试
+ *
+ * 通过公开的 {@link AudioProcessingService#processAudioBytes(byte[], String)} 测量不同采样率、声道、
+ * 时长下的完整处理耗时（格式转换 + Base64编码），并单独测量转换后PCM的Base64编码耗时，
+ * 两者之差即为格式转换的耗时。
+ *
+ * @author QLU AI Team
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AudioProcessingBenchmark {
+
+    /**
+     * 源音频格式：采样率_声道数_位深
+     */
+    @Param({"16000_1_16", "44100_2_16", "48000_2_16", "8000_1_8"})
+    private String format;
+
+    /**
+     * 音频时长（秒）
+     */
+    @Param({"3", "15"})
+    private int seconds;
+
+    private AudioProcessingService audioProcessingService;
+    private byte[] wavBytes;
+    private byte[] pcmBytes;
+
+    @Setup
+    public void setUp() throws Exception {
+        audioProcessingService = new AudioProcessingService(new VoiceprintConfig(), new SimpleMeterRegistry());
+
+        String[] parts = format.split("_");
+        wavBytes = wav(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]),
+                       Integer.parseInt(parts[2]), seconds);
+        pcmBytes = Base64.getDecoder().decode(audioProcessingService.processAudioBytes(wavBytes, "bench.wav"));
+    }
+
+    @Benchmark
+    public String processAudioBytes() throws Exception {
+        return audioProcessingService.processAudioBytes(wavBytes, "bench.wav");
+    }
+
+    @Benchmark
+    public String encodeBase64() {
+        return Base64.getEncoder().encodeToString(pcmBytes);
+    }
+
+    /**
+     * 生成带语音频段谐波的WAV文件
+     */
+    private static byte[] wav(int sampleRate, int channels, int bits, int seconds) throws Exception {
+        int frames = sampleRate * seconds;
+        int bytesPerSample = bits / 8;
+        byte[] pcm = new byte[frames * channels * bytesPerSample];
+        int index = 0;
+        for (int i = 0; i < frames; i++) {
+            double t = (double) i / sampleRate;
+            double value = 0.5 * Math.sin(2 * Math.PI * 220 * t)
+                    + 0.3 * Math.sin(2 * Math.PI * 440 * t)
+                    + 0.1 * Math.sin(2 * Math.PI * 1760 * t);
+            for (int channel = 0; channel < channels; channel++) {
+                if (bytesPerSample == 1) {
+                    // WAV的8bit采样为无符号格式
+                    pcm[index++] = (byte) (128 + (int) (value * 100));
+                } else {
+                    short sample = (short) (value * 16000);
+                    pcm[index++] = (byte) (sample & 0xFF);
+                    pcm[index++] = (byte) ((sample >> 8) & 0xFF);
+                }
+            }
+        }
+
+        AudioFormat audioFormat = new AudioFormat(sampleRate, bits, channels, bits > 8, false);
+        AudioInputStream stream = new AudioInputStream(new ByteArrayInputStream(pcm), audioFormat, frames);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(pcm.length + 44);
+        AudioSystem.write(stream, AudioFileFormat.Type.WAVE, out);
+        return out.toByteArray();
+    }
+}
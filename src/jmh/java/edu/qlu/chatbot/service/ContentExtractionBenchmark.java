@@ -0,0 +1,170 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.config.DataCollectionProperties;
+import edu.qlu.chatbot.model.DocumentChunk;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 网页正文提取基准测试
+ *
+ * 使用模拟学校新闻/通知页结构（导航、侧栏、页脚 + 正文）的HTML，
+ * 分别测量 {@link MainContentExtractor#extract(Document)} 评分提取（即采集时使用的正文提取）、
+ * 原“首个命中选择器”方法、“解析+提取”全流程以及 {@link DocumentChunker} 对正文节点的结构化分块。
+ * 吞吐量（页/秒）= 1e6 / 平均耗时（微秒）；两种方法的输出字符数在每轮结束时打印。
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContentExtractionBenchmark {
+
+    /**
+     * 页面布局：article 命中首个选择器；container 需回退到靠后的选择器；body 无任何匹配
+     */
+    @Param({"article", "container", "body"})
+    private String layout;
+
+    /**
+     * 正文段落数
+     */
+    @Param({"10", "200"})
+    private int paragraphs;
+
+    private MainContentExtractor contentExtractor;
+    private DocumentChunker documentChunker;
+    private String html;
+    private Document document;
+
+    @Setup
+    public void setUp() {
+        DataCollectionProperties properties = new DataCollectionProperties();
+        contentExtractor = new MainContentExtractor(properties);
+        documentChunker = new DocumentChunker(properties);
+        html = page(layout, paragraphs);
+        document = Jsoup.parse(html, "https://www.qlu.edu.cn/");
+    }
+
+    @Benchmark
+    public String extractContent() {
+        return contentExtractor.extract(document).text();
+    }
+
+    @Benchmark
+    public String legacyExtractContent() {
+        return legacyExtract(document);
+    }
+
+    @Benchmark
+    public String parseAndExtract() {
+        return contentExtractor.extract(Jsoup.parse(html, "https://www.qlu.edu.cn/")).text();
+    }
+
+    @Benchmark
+    public List<DocumentChunk> chunk() {
+        return documentChunker.chunk("https://www.qlu.edu.cn/", contentExtractor.extract(document));
+    }
+
+    @TearDown(Level.Trial)
+    public void reportOutputSize() {
+        System.out.printf("[layout=%s, paragraphs=%d] page=%d chars, legacy=%d chars, extractor=%d chars%n",
+                layout, paragraphs, document.body().text().length(),
+                legacyExtract(document).length(), contentExtractor.extract(document).text().length());
+    }
+
+    /**
+     * 原实现：依次尝试8个选择器，取首个文本超过100字的节点，否则回退到body
+     */
+    private static String legacyExtract(Document doc) {
+        String[] selectors = {
+            "article", ".content", ".main-content", "#content",
+            ".post-content", ".entry-content", "main", ".container"
+        };
+        for (String selector : selectors) {
+            Elements elements = doc.select(selector);
+            if (!elements.isEmpty()) {
+                Element first = elements.first();
+                String text = first.text();
+                if (text.length() > 100) {
+                    return text;
+                }
+            }
+        }
+        return doc.body().text();
+    }
+
+    private static String page(String layout, int paragraphs) {
+        StringBuilder body = new StringBuilder();
+        body.append("<h1>关于2024-2025学年第二学期期末考试安排的通知</h1>")
+            .append("<div class=\"meta\">发布时间：2025-06-01 来源：教务处 浏览次数：1024</div>");
+        for (int i = 0; i < paragraphs; i++) {
+            body.append("<p>各学院、各位同学：根据学校教学工作安排，本学期期末考试将于第")
+                .append(i % 20 + 1)
+                .append("周进行，请各学院按照教学进度组织复习，考生须携带学生证和身份证按时参加考试，")
+                .append("<a href=\"/jwc/info/").append(i).append(".htm\">查看详细安排</a>。</p>");
+            if (i % 10 == 9) {
+                body.append("<table><tr><th>课程</th><th>时间</th><th>地点</th></tr>")
+                    .append("<tr><td>高等数学</td><td>08:30-10:30</td><td>1号教学楼101</td></tr></table>");
+            }
+        }
+
+        String main = switch (layout) {
+            case "article" -> "<article>" + body + "</article>";
+            case "container" -> "<div class=\"container\"><div class=\"wrap\">" + body + "</div></div>";
+            default -> "<div class=\"wrap\">" + body + "</div>";
+        };
+
+        StringBuilder nav = new StringBuilder("<div class=\"nav\"><ul>");
+        for (int i = 0; i < 30; i++) {
+            nav.append("<li><a href=\"/column/").append(i).append("\">栏目").append(i).append("</a></li>");
+        }
+        nav.append("</ul></div>");
+
+        StringBuilder side = new StringBuilder("<div class=\"side\"><h3>快速通道</h3><a href=\"/jwxt\">教务系统</a><ul>");
+        for (int i = 0; i < 20; i++) {
+            side.append("<li><a href=\"/info/").append(i).append(".htm\">关于做好2025年第").append(i)
+                .append("批次学生学籍异动审核工作的通知</a><span>2025-05-").append(i % 28 + 1).append("</span></li>");
+        }
+        side.append("</ul></div>");
+
+        StringBuilder links = new StringBuilder("<div class=\"links\">友情链接：");
+        for (int i = 0; i < 40; i++) {
+            links.append("<a href=\"https://site").append(i).append(".edu.cn\">兄弟院校").append(i).append("</a>");
+        }
+        links.append("</div>");
+
+        return "<!DOCTYPE html><html lang=\"zh-CN\"><head><meta charset=\"utf-8\">"
+                + "<title>齐鲁工业大学教务处</title>"
+                + "<script>var _hmt = _hmt || [];</script><style>.nav{float:left}</style></head><body>"
+                + "<div class=\"header\"><img src=\"/logo.png\" alt=\"齐鲁工业大学\"></div>"
+                + nav
+                + side
+                + main
+                + links
+                + "<div class=\"footer\">版权所有 齐鲁工业大学（山东省科学院） 地址：山东省济南市长清区大学路3501号</div>"
+                + "</body></html>";
+    }
+}
@@ -0,0 +1,238 @@
+package edu.qlu.chatbot.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.qlu.chatbot.config.VoiceprintConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSession;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 讯飞声纹客户端基准测试
+ *
+ * 通过公开的 searchByAudioFeature / addAudioFeature 测量一次调用的客户端开销：请求体构建与JSON序列化、
+ * HMAC-SHA256认证签名、响应JSON解析及结果解码。客户端注入返回固定响应的HttpClient，不发起实际网络请求。
+ *
+ * @author QLU AI Team
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+// 客户端按讯飞签名要求显式设置Host请求头，java.net.http 默认禁止设置该头
+@Fork(value = 1, jvmArgsAppend = "-Djdk.httpclient.allowRestrictedHeaders=host")
+public class IFlytekVoiceprintClientBenchmark {
+
+    /**
+     * 音频时长（秒），16kHz/16bit/单声道PCM
+     */
+    @Param({"3", "15"})
+    private int seconds;
+
+    private IFlytekVoiceprintClient client;
+    private String audioBase64;
+
+    @Setup
+    public void setUp() throws Exception {
+        VoiceprintConfig config = new VoiceprintConfig();
+        config.setAppId("bench-app-id");
+        config.setApiKey("bench-api-key-0123456789abcdef");
+        config.setApiSecret("bench-api-secret-0123456789abcdef");
+        client = new IFlytekVoiceprintClient(config, new SimpleMeterRegistry(),
+                new CannedHttpClient(cannedResponse(new ObjectMapper())));
+
+        byte[] pcm = new byte[16000 * 2 * seconds];
+        new Random(42).nextBytes(pcm);
+        audioBase64 = Base64.getEncoder().encodeToString(pcm);
+    }
+
+    @Benchmark
+    public Map<String, Object> search() throws Exception {
+        return client.searchByAudioFeature("qlu_voiceprint_group", audioBase64, 5);
+    }
+
+    @Benchmark
+    public Map<String, Object> enroll() throws Exception {
+        return client.addAudioFeature(
+                "qlu_voiceprint_group", "user_10001_1700000000000", audioBase64, "{\"userId\":10001}");
+    }
+
+    /**
+     * 构造与线上一致的响应：payload.searchFeaRes / payload.createFeatureRes 的 text 为Base64编码的JSON，
+     * 同一响应同时满足检索与注册两种调用
+     */
+    private static String cannedResponse(ObjectMapper objectMapper) throws Exception {
+        List<Map<String, Object>> scoreList = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Map<String, Object> score = new HashMap<>();
+            score.put("featureId", "user_" + (10001 + i) + "_1700000000000");
+            score.put("featureInfo", "{\"userId\":" + (10001 + i) + "}");
+            score.put("score", 0.92 - i * 0.07);
+            scoreList.add(score);
+        }
+        String text = objectMapper.writeValueAsString(Map.of("scoreList", scoreList));
+
+        Map<String, Object> header = new HashMap<>();
+        header.put("code", 0);
+        header.put("message", "success");
+        header.put("sid", "ase000e1f2a@dx18b1c2d3e4f5a6b7c8");
+
+        String created = objectMapper.writeValueAsString(Map.of("featureId", "user_10001_1700000000000"));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("header", header);
+        response.put("payload", Map.of("searchFeaRes", result(text), "createFeatureRes", result(created)));
+        return objectMapper.writeValueAsString(response);
+    }
+
+    private static Map<String, Object> result(String text) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("encoding", "utf8");
+        result.put("compress", "raw");
+        result.put("format", "json");
+        result.put("text", Base64.getEncoder().encodeToString(text.getBytes(StandardCharsets.UTF_8)));
+        return result;
+    }
+
+    /**
+     * 对任意请求都同步返回固定200响应的HttpClient
+     */
+    private static final class CannedHttpClient extends HttpClient {
+
+        private final String body;
+
+        CannedHttpClient(String body) {
+            this.body = body;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+            return (HttpResponse<T>) new CannedResponse(request, body);
+        }
+
+        @Override
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+                                                                HttpResponse.BodyHandler<T> handler) {
+            return CompletableFuture.completedFuture(send(request, handler));
+        }
+
+        @Override
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler,
+                                                                HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+            return sendAsync(request, handler);
+        }
+
+        @Override
+        public Optional<CookieHandler> cookieHandler() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<Duration> connectTimeout() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Redirect followRedirects() {
+            return Redirect.NEVER;
+        }
+
+        @Override
+        public Optional<ProxySelector> proxy() {
+            return Optional.empty();
+        }
+
+        @Override
+        public SSLContext sslContext() {
+            return null;
+        }
+
+        @Override
+        public SSLParameters sslParameters() {
+            return null;
+        }
+
+        @Override
+        public Optional<Authenticator> authenticator() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Version version() {
+            return Version.HTTP_1_1;
+        }
+
+        @Override
+        public Optional<Executor> executor() {
+            return Optional.empty();
+        }
+    }
+
+    private record CannedResponse(HttpRequest request, String body) implements HttpResponse<String> {
+
+        @Override
+        public int statusCode() {
+            return 200;
+        }
+
+        @Override
+        public Optional<HttpResponse<String>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return HttpHeaders.of(Map.of(), (name, value) -> true);
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri() {
+            return request.uri();
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_1_1;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package edu.qlu.chatbot.cache;
+
+import edu.qlu.chatbot.config.PostgresJdbc;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 基于 PostgreSQL LISTEN/NOTIFY 的跨节点缓存失效
+ *
+ * 本节点的查找缓存因写操作被清空时，通过 pg_notify 广播 "节点ID:命名空间"；
+ * 其他节点在专用连接上 LISTEN 同一通道，收到后只清空本地缓存。
+ * 默认关闭，多实例部署时设置 app.cache.invalidation.enabled=true 启用。
+ *
+ * @author QLU AI Team
+ * @since 1.0.0
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.cache.invalidation", name = "enabled", havingValue = "true")
+public class CacheInvalidationNotifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationNotifier.class);
+
+    private static final int POLL_TIMEOUT_MS = 5000;
+    private static final long RECONNECT_DELAY_MS = 5000;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final String channel;
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+
+    private final ExecutorService publisher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-invalidation-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Thread listenerThread;
+    private volatile boolean running;
+
+    public CacheInvalidationNotifier(DataSource dataSource,
+                                     @Value("${app.cache.invalidation.channel:qlu_cache_invalidation}") String channel) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("非法的通知通道名: " + channel);
+        }
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.channel = channel;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        MybatisTinyLfuCache.setClearListener(this::publish);
+        listenerThread = new Thread(this::listenLoop, "cache-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+        logger.info("跨节点缓存失效已启用: channel={}, nodeId={}", channel, nodeId);
+    }
+
+    /**
+     * 广播失效通知（异步执行，不阻塞写操作的提交）
+     */
+    private void publish(String cacheId) {
+        publisher.execute(() -> {
+            try {
+                jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, channel, nodeId + ":" + cacheId);
+            } catch (Exception e) {
+                logger.warn("缓存失效通知发送失败: cacheId={}, error={}", cacheId, e.getMessage());
+            }
+        });
+    }
+
+    private void listenLoop() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                logger.info("开始监听缓存失效通知: channel={}", channel);
+
+                while (running) {
+                    for (String payload : PostgresJdbc.notifications(connection, POLL_TIMEOUT_MS)) {
+                        handle(payload);
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    break;
+                }
+                logger.warn("缓存失效监听连接异常，{}ms后重连: {}", RECONNECT_DELAY_MS, e.getMessage());
+                // 断线期间可能漏收通知，重连前清空本地缓存
+                MybatisTinyLfuCache.instances().forEach(MybatisTinyLfuCache::clearLocal);
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+    }
+
+    private void handle(String payload) {
+        int separator = payload.indexOf(':');
+        if (separator < 0 || payload.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+        String cacheId = payload.substring(separator + 1);
+        MybatisTinyLfuCache cache = MybatisTinyLfuCache.instance(cacheId);
+        if (cache != null) {
+            cache.clearLocal();
+            logger.debug("收到跨节点缓存失效通知: cacheId={}", cacheId);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        MybatisTinyLfuCache.setClearListener(null);
+        publisher.shutdown();
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+}
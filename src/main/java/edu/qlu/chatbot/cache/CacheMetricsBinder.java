@@ -0,0 +1,60 @@
+package edu.qlu.chatbot.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+/**
+ * 查找缓存指标导出
+ *
+ * 指标命名与Micrometer的Caffeine绑定保持一致：
+ * cache.gets{result=hit|miss}、cache.evictions、cache.size，另加 cache.hit.ratio。
+ * 容器中没有MeterRegistry时可通过 {@link MybatisTinyLfuCache#statistics()} 获取统计数据。
+ *
+ * @author QLU AI Team
+ * @since 1.0.0
+ */
+@Component
+public class CacheMetricsBinder implements SmartInitializingSingleton {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public CacheMetricsBinder(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        meterRegistry.ifAvailable(registry -> MybatisTinyLfuCache.instances().forEach(cache -> bind(registry, cache)));
+    }
+
+    private void bind(MeterRegistry registry, MybatisTinyLfuCache cache) {
+        TinyLfuCache<Object, Object> stats = cache.getDelegate();
+        Tags tags = Tags.of("cache", cache.getName());
+
+        FunctionCounter.builder("cache.gets", stats, TinyLfuCache::getHitCount)
+            .tags(tags).tag("result", "hit")
+            .description("缓存命中次数")
+            .register(registry);
+        FunctionCounter.builder("cache.gets", stats, TinyLfuCache::getMissCount)
+            .tags(tags).tag("result", "miss")
+            .description("缓存未命中次数")
+            .register(registry);
+        FunctionCounter.builder("cache.evictions", stats, TinyLfuCache::getEvictionCount)
+            .tags(tags)
+            .description("缓存淘汰次数")
+            .register(registry);
+        Gauge.builder("cache.size", stats, TinyLfuCache::size)
+            .tags(tags)
+            .description("缓存条目数")
+            .register(registry);
+        Gauge.builder("cache.hit.ratio", stats, TinyLfuCache::getHitRatio)
+            .tags(tags)
+            .description("缓存命中率")
+            .register(registry);
+    }
+}
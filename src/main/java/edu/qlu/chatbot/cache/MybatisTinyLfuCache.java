@@ -0,0 +1,224 @@
+package edu.qlu.chatbot.cache;
+
+import org.apache.ibatis.builder.InitializingObject;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.io.Resources;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 基于 W-TinyLFU 的 MyBatis 二级缓存
+ *
+ * 在Mapper XML中通过 {@code <cache type="edu.qlu.chatbot.cache.MybatisTinyLfuCache">} 启用。
+ * MyBatis在同一命名空间（及cache-ref引用它的命名空间）执行 insert/update/delete 并提交后
+ * 调用 {@link #clear()}，从而实现写操作失效；跨节点失效通过 {@link #setClearListener} 挂接。
+ *
+ * MyBatis对自定义缓存不会再包装序列化装饰器，因此这里自行按序列化形式存储：写入时序列化，
+ * 每次命中反序列化出新的副本，调用方修改返回的实体不会影响缓存及其他线程。缓存的结果对象必须可序列化。
+ *
+ * @author QLU AI Team
+ * @since 1.0.0
+ */
+public class MybatisTinyLfuCache implements Cache, InitializingObject {
+
+    private static final Logger logger = LoggerFactory.getLogger(MybatisTinyLfuCache.class);
+
+    /**
+     * 已创建的缓存实例（按命名空间），供指标导出和跨节点失效使用
+     */
+    private static final Map<String, MybatisTinyLfuCache> INSTANCES = new ConcurrentHashMap<>();
+
+    private static volatile Consumer<String> clearListener;
+
+    private final String id;
+    private int maximumSize = 10000;
+    private TinyLfuCache<Object, Object> delegate;
+
+    public MybatisTinyLfuCache(String id) {
+        this.id = id;
+    }
+
+    /**
+     * 由MyBatis根据 {@code <property name="maximumSize">} 注入
+     */
+    public void setMaximumSize(int maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    @Override
+    public void initialize() {
+        this.delegate = new TinyLfuCache<>(maximumSize);
+        INSTANCES.put(id, this);
+        logger.info("MyBatis查找缓存已创建: namespace={}, maximumSize={}", id, maximumSize);
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+        delegate.put(key, serialize(value));
+    }
+
+    @Override
+    public Object getObject(Object key) {
+        Object value = delegate.get(key);
+        return value == null ? null : deserialize((byte[]) value);
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+        return delegate.remove(key);
+    }
+
+    /**
+     * 写操作提交后由MyBatis调用：清空本地缓存并通知其他节点
+     */
+    @Override
+    public void clear() {
+        clearLocal();
+        Consumer<String> listener = clearListener;
+        if (listener != null) {
+            listener.accept(id);
+        }
+    }
+
+    /**
+     * 仅清空本地缓存（收到其他节点的失效通知时使用，避免再次广播）
+     */
+    public void clearLocal() {
+        delegate.clear();
+        logger.debug("MyBatis查找缓存已清空: namespace={}", id);
+    }
+
+    @Override
+    public int getSize() {
+        return delegate.size();
+    }
+
+    public TinyLfuCache<Object, Object> getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * 缓存名称（命名空间的简单类名）
+     */
+    public String getName() {
+        return id.substring(id.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * 获取所有已创建的缓存实例
+     */
+    public static Collection<MybatisTinyLfuCache> instances() {
+        return Collections.unmodifiableCollection(INSTANCES.values());
+    }
+
+    /**
+     * 按命名空间获取缓存实例
+     */
+    public static MybatisTinyLfuCache instance(String id) {
+        return INSTANCES.get(id);
+    }
+
+    /**
+     * 各缓存的统计快照
+     */
+    public static Map<String, Object> statistics() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (MybatisTinyLfuCache cache : INSTANCES.values()) {
+            TinyLfuCache<Object, Object> stats = cache.delegate;
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("size", stats.size());
+            item.put("maximumSize", stats.getMaximumSize());
+            item.put("hitCount", stats.getHitCount());
+            item.put("missCount", stats.getMissCount());
+            item.put("evictionCount", stats.getEvictionCount());
+            item.put("hitRatio", stats.getHitRatio());
+            result.put(cache.getName(), item);
+        }
+        return result;
+    }
+
+    /**
+     * 设置本地清空后的回调（用于跨节点失效广播），传null取消
+     */
+    public static void setClearListener(Consumer<String> listener) {
+        clearListener = listener;
+    }
+
+    private static byte[] serialize(Object value) {
+        if (value != null && !(value instanceof Serializable)) {
+            throw new CacheException("缓存的对象必须实现Serializable: " + value.getClass().getName());
+        }
+        try (ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+             ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new CacheException("缓存对象序列化失败", e);
+        }
+    }
+
+    private static Object deserialize(byte[] value) {
+        try (ObjectInputStream in = new ResourcesObjectInputStream(new ByteArrayInputStream(value))) {
+            return in.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new CacheException("缓存对象反序列化失败", e);
+        }
+    }
+
+    /**
+     * 按MyBatis的类加载规则解析类（兼容devtools等自定义类加载器）
+     */
+    private static final class ResourcesObjectInputStream extends ObjectInputStream {
+
+        ResourcesObjectInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            try {
+                return Resources.classForName(desc.getName());
+            } catch (ClassNotFoundException e) {
+                return super.resolveClass(desc);
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Cache other)) {
+            return false;
+        }
+        return id.equals(other.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return id.hashCode();
+    }
+}
@@ -0,0 +1,122 @@
+package edu.qlu.chatbot.cache;
+
+import edu.qlu.chatbot.service.DeadlineExceededException;
+import edu.qlu.chatbot.service.RequestDeadline;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 相同请求合并（single-flight）
+ *
+ * 同一个键同时只有一个调用方真正执行加载逻辑，其余并发调用方等待并共享同一结果（包括异常）。
+ * 加载完成后立即移除，不缓存结果——结果缓存由上层负责，本类只消除缓存未命中瞬间的重复请求。
+ *
+ * 等待方按自身的 {@link RequestDeadline} 限定等待时间；执行方因自身截止时间到期而失败时，
+ * 等待方不沿用该超时，而是在自身截止时间内重新执行或加入新的请求。
+ *
+ * @param <K> 键类型（需实现equals/hashCode）
+ * @param <V> 结果类型
+ * @author QLU AI Team
+ * @since 1.0.0
+ */
+public class SingleFlight<K, V> {
+
+    private static final String DEADLINE_STAGE = "single-flight";
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalescedCount = new LongAdder();
+
+    /**
+     * 执行或加入同键的进行中请求
+     *
+     * @param key 请求键
+     * @param loader 加载逻辑
+     * @return 加载结果
+     */
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing;
+        while ((existing = inFlight.putIfAbsent(key, created)) != null) {
+            coalescedCount.increment();
+            try {
+                return await(existing);
+            } catch (LeaderDeadlineExceeded e) {
+                // 执行方的截止时间不是本调用方的，剩余时间内重试
+                inFlight.remove(key, existing);
+                RequestDeadline.check(DEADLINE_STAGE);
+            }
+        }
+
+        try {
+            V value = loader.get();
+            created.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+
+    private V await(CompletableFuture<V> future) {
+        RequestDeadline deadline = RequestDeadline.current();
+        try {
+            if (deadline == null) {
+                return future.get();
+            }
+            long remainingNanos = deadline.remainingNanos();
+            if (remainingNanos <= 0) {
+                throw new DeadlineExceededException(DEADLINE_STAGE);
+            }
+            return future.get(remainingNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException(DEADLINE_STAGE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待合并请求结果时被中断", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof DeadlineExceededException) {
+                throw new LeaderDeadlineExceeded();
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * 执行方因自身截止时间到期而失败，仅在本类内部用于触发重试
+     */
+    private static final class LeaderDeadlineExceeded extends RuntimeException {
+
+        private LeaderDeadlineExceeded() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * 当前进行中的请求数
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * 累计被合并（未实际执行）的调用次数
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+}
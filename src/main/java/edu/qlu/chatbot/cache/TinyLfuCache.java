@@ -0,0 +1,267 @@
+package edu.qlu.chatbot.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * W-TinyLFU 有界缓存
+ *
+ * 结构与Caffeine一致：
+ * - 窗口区（约1%容量，LRU）：吸收新写入的条目，应对突发访问
+ * - 主区（SLRU）：试用段（probation）+ 保护段（protected，约80%），
+ *   试用段中再次命中的条目晋升到保护段
+ * - 频率草图（Count-Min Sketch，4bit计数，定期减半老化）：
+ *   窗口区淘汰的候选者只有在访问频率高于主区淘汰者时才会被接纳
+ *
+ * 所有操作在同一把锁内完成，适合读多写少、容量在数万以内的查找缓存。
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ * @author QLU AI Team
+ * @since 1.0.0
+ */
+public class TinyLfuCache<K, V> {
+
+    private final int maximumSize;
+    private final int windowMaximum;
+    private final int protectedMaximum;
+
+    private final LinkedHashMap<K, V> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, V> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, V> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    public TinyLfuCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("缓存容量必须大于0: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.windowMaximum = Math.max(1, maximumSize / 100);
+        this.protectedMaximum = (int) ((maximumSize - windowMaximum) * 0.8);
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    /**
+     * 查询缓存
+     *
+     * @return 缓存值，未命中返回null
+     */
+    public synchronized V get(K key) {
+        sketch.increment(key);
+
+        V value = window.get(key);
+        if (value != null) {
+            hitCount++;
+            return value;
+        }
+
+        value = protectedSegment.get(key);
+        if (value != null) {
+            hitCount++;
+            return value;
+        }
+
+        value = probation.remove(key);
+        if (value != null) {
+            hitCount++;
+            promote(key, value);
+            return value;
+        }
+
+        missCount++;
+        return null;
+    }
+
+    /**
+     * 写入缓存，null值不缓存
+     */
+    public synchronized void put(K key, V value) {
+        if (key == null || value == null) {
+            return;
+        }
+        if (window.containsKey(key)) {
+            window.put(key, value);
+            return;
+        }
+        if (protectedSegment.containsKey(key)) {
+            protectedSegment.put(key, value);
+            return;
+        }
+        if (probation.containsKey(key)) {
+            probation.put(key, value);
+            return;
+        }
+
+        sketch.increment(key);
+        window.put(key, value);
+        if (window.size() > windowMaximum) {
+            Map.Entry<K, V> candidate = removeEldest(window);
+            admit(candidate.getKey(), candidate.getValue());
+        }
+    }
+
+    public synchronized V remove(K key) {
+        V value = window.remove(key);
+        if (value == null) {
+            value = probation.remove(key);
+        }
+        if (value == null) {
+            value = protectedSegment.remove(key);
+        }
+        return value;
+    }
+
+    public synchronized void clear() {
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+    }
+
+    public synchronized int size() {
+        return window.size() + probation.size() + protectedSegment.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * 命中率，无请求时为0
+     */
+    public synchronized double getHitRatio() {
+        long total = hitCount + missCount;
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * 试用段命中后晋升到保护段，保护段溢出时将最久未访问的条目降级回试用段
+     */
+    private void promote(K key, V value) {
+        protectedSegment.put(key, value);
+        if (protectedSegment.size() > protectedMaximum) {
+            Map.Entry<K, V> demoted = removeEldest(protectedSegment);
+            probation.put(demoted.getKey(), demoted.getValue());
+        }
+    }
+
+    /**
+     * TinyLFU准入：主区未满直接接纳，否则与主区淘汰者比较访问频率
+     */
+    private void admit(K candidateKey, V candidateValue) {
+        int mainSize = probation.size() + protectedSegment.size();
+        if (mainSize < maximumSize - windowMaximum) {
+            probation.put(candidateKey, candidateValue);
+            return;
+        }
+
+        LinkedHashMap<K, V> victimSegment = probation.isEmpty() ? protectedSegment : probation;
+        evictionCount++;
+        if (victimSegment.isEmpty()) {
+            return;
+        }
+        K victimKey = victimSegment.keySet().iterator().next();
+        if (sketch.frequency(candidateKey) > sketch.frequency(victimKey)) {
+            victimSegment.remove(victimKey);
+            probation.put(candidateKey, candidateValue);
+        }
+    }
+
+    private Map.Entry<K, V> removeEldest(LinkedHashMap<K, V> segment) {
+        Iterator<Map.Entry<K, V>> iterator = segment.entrySet().iterator();
+        Map.Entry<K, V> eldest = iterator.next();
+        Map.Entry<K, V> copy = Map.entry(eldest.getKey(), eldest.getValue());
+        iterator.remove();
+        return copy;
+    }
+
+    /**
+     * Count-Min Sketch 频率草图
+     * 4行、每个计数器4bit（16个计数器打包在一个long中），累计采样数达到阈值后所有计数减半
+     */
+    static final class FrequencySketch {
+        private static final long[] SEEDS = {
+            0x97cb3127L, 0xab4b9b3dL, 0xc3a5c85cL, 0x8f0f4e1dL
+        };
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        private final long[] table;
+        private final int tableMask;
+        private final int sampleSize;
+        private int size;
+
+        FrequencySketch(int maximumSize) {
+            int counters = Integer.highestOneBit(Math.max(16, maximumSize - 1)) << 1;
+            this.table = new long[Math.max(1, counters / 16) * 4];
+            this.tableMask = table.length - 1;
+            this.sampleSize = 10 * maximumSize;
+        }
+
+        int frequency(Object key) {
+            int hash = spread(key.hashCode());
+            int frequency = Integer.MAX_VALUE;
+            for (int row = 0; row < 4; row++) {
+                int index = indexOf(hash, row);
+                int offset = counterOffset(hash, row);
+                frequency = Math.min(frequency, (int) ((table[index] >>> offset) & 0xF));
+            }
+            return frequency;
+        }
+
+        void increment(Object key) {
+            int hash = spread(key.hashCode());
+            boolean added = false;
+            for (int row = 0; row < 4; row++) {
+                int index = indexOf(hash, row);
+                int offset = counterOffset(hash, row);
+                long mask = 0xFL << offset;
+                if ((table[index] & mask) != mask) {
+                    table[index] += 1L << offset;
+                    added = true;
+                }
+            }
+            if (added && ++size >= sampleSize) {
+                reset();
+            }
+        }
+
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (table[i] >>> 1) & RESET_MASK;
+            }
+            size /= 2;
+        }
+
+        private int indexOf(int hash, int row) {
+            long h = (hash + SEEDS[row]) * SEEDS[row];
+            h += h >>> 32;
+            return (int) h & tableMask;
+        }
+
+        private int counterOffset(int hash, int row) {
+            return (((hash >>> (row << 3)) & 0xF) << 2);
+        }
+
+        private static int spread(int x) {
+            x = ((x >>> 16) ^ x) * 0x45d9f3b;
+            x = ((x >>> 16) ^ x) * 0x45d9f3b;
+            return (x >>> 16) ^ x;
+        }
+    }
+}
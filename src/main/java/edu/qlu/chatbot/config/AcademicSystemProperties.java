@@ -0,0 +1,188 @@
+package edu.qlu.chatbot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 教务系统接入配置属性类
+ *
+ * 从application.properties中读取教务系统地址、登录凭证与连接池相关的配置
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@Component
+@ConfigurationProperties(prefix = "app.academic-system")
+public class AcademicSystemProperties {
+
+    /**
+     * 是否接入真实教务系统，关闭时教务工具返回模拟数据
+     */
+    private boolean enabled = false;
+
+    /**
+     * 教务系统根地址
+     */
+    private String baseUrl;
+
+    /**
+     * 登录账号（服务账号）
+     */
+    private String username;
+
+    /**
+     * 登录密码
+     */
+    private String password;
+
+    /**
+     * 登录接口路径
+     */
+    private String loginPath = "/api/login";
+
+    /**
+     * 考试安排查询接口路径
+     */
+    private String examPath = "/api/exams";
+
+    /**
+     * 课程查询接口路径
+     */
+    private String coursePath = "/api/courses";
+
+    /**
+     * 连接池最大连接数
+     */
+    private int maxConnections = 50;
+
+    /**
+     * 建立连接超时时间（毫秒）
+     */
+    private int connectTimeoutMs = 3000;
+
+    /**
+     * 等待响应超时时间（毫秒）
+     */
+    private int responseTimeoutMs = 5000;
+
+    /**
+     * 从连接池获取连接的超时时间（毫秒）
+     */
+    private int connectionRequestTimeoutMs = 2000;
+
+    /**
+     * 登录会话有效期（分钟），到期前主动重新登录
+     */
+    private int sessionTtlMinutes = 25;
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public void setBaseUrl(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public String getLoginPath() {
+        return loginPath;
+    }
+
+    public void setLoginPath(String loginPath) {
+        this.loginPath = loginPath;
+    }
+
+    public String getExamPath() {
+        return examPath;
+    }
+
+    public void setExamPath(String examPath) {
+        this.examPath = examPath;
+    }
+
+    public String getCoursePath() {
+        return coursePath;
+    }
+
+    public void setCoursePath(String coursePath) {
+        this.coursePath = coursePath;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public int getConnectTimeoutMs() {
+        return connectTimeoutMs;
+    }
+
+    public void setConnectTimeoutMs(int connectTimeoutMs) {
+        this.connectTimeoutMs = connectTimeoutMs;
+    }
+
+    public int getResponseTimeoutMs() {
+        return responseTimeoutMs;
+    }
+
+    public void setResponseTimeoutMs(int responseTimeoutMs) {
+        this.responseTimeoutMs = responseTimeoutMs;
+    }
+
+    public int getConnectionRequestTimeoutMs() {
+        return connectionRequestTimeoutMs;
+    }
+
+    public void setConnectionRequestTimeoutMs(int connectionRequestTimeoutMs) {
+        this.connectionRequestTimeoutMs = connectionRequestTimeoutMs;
+    }
+
+    public int getSessionTtlMinutes() {
+        return sessionTtlMinutes;
+    }
+
+    public void setSessionTtlMinutes(int sessionTtlMinutes) {
+        this.sessionTtlMinutes = sessionTtlMinutes;
+    }
+
+    @Override
+    public String toString() {
+        return "AcademicSystemProperties{" +
+                "enabled=" + enabled +
+                ", baseUrl='" + baseUrl + '\'' +
+                ", username='" + username + '\'' +
+                ", loginPath='" + loginPath + '\'' +
+                ", maxConnections=" + maxConnections +
+                ", connectTimeoutMs=" + connectTimeoutMs +
+                ", responseTimeoutMs=" + responseTimeoutMs +
+                ", sessionTtlMinutes=" + sessionTtlMinutes +
+                '}';
+    }
+}
@@ -1,5 +1,7 @@
 package edu.qlu.chatbot.config;
 
+import edu.qlu.chatbot.service.TokenBudgetEstimator;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -13,6 +15,22 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class ChatConfig {
 
+    /**
+     * 默认系统提示词
+     */
+    public static final String SYSTEM_PROMPT = """
+            你是齐鲁工业大学的智能教务助手，专门为学生和教职工提供学术事务咨询服务。
+            
+            你的职责包括：
+            1. 回答关于课程安排、选课、成绩查询等教务相关问题
+            2. 提供学校政策、规章制度的解释说明
+            3. 协助处理学籍管理、转专业、休学复学等事务咨询
+            4. 解答关于考试安排、补考重修等学习相关问题
+            5. 提供校园生活、奖学金、就业指导等信息
+            
+            请用专业、友好的语气回答问题，如果不确定答案，请建议用户联系相关部门。
+            """;
+
     /**
      * 配置ChatClient Bean
      * 
@@ -22,18 +40,22 @@ public class ChatConfig {
     @Bean
     public ChatClient chatClient(ChatClient.Builder builder) {
         return builder
-                .defaultSystem("""
-                    你是齐鲁工业大学的智能教务助手，专门为学生和教职工提供学术事务咨询服务。
-                    
-                    你的职责包括：
-                    1. 回答关于课程安排、选课、成绩查询等教务相关问题
-                    2. 提供学校政策、规章制度的解释说明
-                    3. 协助处理学籍管理、转专业、休学复学等事务咨询
-                    4. 解答关于考试安排、补考重修等学习相关问题
-                    5. 提供校园生活、奖学金、就业指导等信息
-                    
-                    请用专业、友好的语气回答问题，如果不确定答案，请建议用户联系相关部门。
-                    """)
+                .defaultSystem(SYSTEM_PROMPT)
+                .defaultToolNames(ToolsConfig.TOOL_NAMES)
                 .build();
     }
+
+    /**
+     * 配置多模型路由器：按请求复杂度选择模型，超时或限流时故障转移，并限制各模型并发
+     *
+     * @param properties 多模型路由配置
+     * @param tokenBudgetEstimator token估算器
+     * @param meterRegistry 指标注册表
+     * @return 模型路由器
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ModelRouter modelRouter(ModelRoutingProperties properties, TokenBudgetEstimator tokenBudgetEstimator,
+                                   MeterRegistry meterRegistry) {
+        return new ModelRouter(properties, tokenBudgetEstimator, meterRegistry);
+    }
 }
@@ -0,0 +1,190 @@
+package edu.qlu.chatbot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 会话记忆配置属性类
+ *
+ * 从application.properties中读取会话记忆相关的配置
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@Component
+@ConfigurationProperties(prefix = "app.chat.memory")
+public class ChatMemoryProperties {
+
+    /**
+     * 每个会话带入模型上下文的最近消息条数
+     */
+    private int windowSize = 20;
+
+    /**
+     * 进程内缓存的最大会话数（超出后按LRU淘汰）
+     */
+    private int maxConversations = 1000;
+
+    /**
+     * 每个会话在数据库中保留的最大消息条数
+     */
+    private int maxPersistedMessages = 200;
+
+    /**
+     * 异步写库间隔（毫秒）
+     */
+    private long flushIntervalMs = 1000;
+
+    /**
+     * 单次批量写库的最大消息条数
+     */
+    private int flushBatchSize = 200;
+
+    /**
+     * 会话压缩（滚动摘要）配置
+     */
+    private Compaction compaction = new Compaction();
+
+    // Getters and Setters
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public void setWindowSize(int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    public int getMaxConversations() {
+        return maxConversations;
+    }
+
+    public void setMaxConversations(int maxConversations) {
+        this.maxConversations = maxConversations;
+    }
+
+    public int getMaxPersistedMessages() {
+        return maxPersistedMessages;
+    }
+
+    public void setMaxPersistedMessages(int maxPersistedMessages) {
+        this.maxPersistedMessages = maxPersistedMessages;
+    }
+
+    public long getFlushIntervalMs() {
+        return flushIntervalMs;
+    }
+
+    public void setFlushIntervalMs(long flushIntervalMs) {
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    public int getFlushBatchSize() {
+        return flushBatchSize;
+    }
+
+    public void setFlushBatchSize(int flushBatchSize) {
+        this.flushBatchSize = flushBatchSize;
+    }
+
+    public Compaction getCompaction() {
+        return compaction;
+    }
+
+    public void setCompaction(Compaction compaction) {
+        this.compaction = compaction;
+    }
+
+    @Override
+    public String toString() {
+        return "ChatMemoryProperties{" +
+                "windowSize=" + windowSize +
+                ", maxConversations=" + maxConversations +
+                ", maxPersistedMessages=" + maxPersistedMessages +
+                ", flushIntervalMs=" + flushIntervalMs +
+                ", flushBatchSize=" + flushBatchSize +
+                ", compaction=" + compaction +
+                '}';
+    }
+
+    /**
+     * 会话压缩配置
+     */
+    public static class Compaction {
+
+        /**
+         * 是否启用会话压缩
+         */
+        private boolean enabled = true;
+
+        /**
+         * 窗口内消息的token预算，超出后异步将较早轮次合并进摘要
+         */
+        private int tokenBudget = 2000;
+
+        /**
+         * 压缩后保留的最近消息条数
+         */
+        private int keepRecentMessages = 6;
+
+        /**
+         * 摘要最大字数
+         */
+        private int maxSummaryChars = 300;
+
+        /**
+         * 摘要任务等待队列容量，队列满时跳过本次压缩
+         */
+        private int queueCapacity = 100;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getTokenBudget() {
+            return tokenBudget;
+        }
+
+        public void setTokenBudget(int tokenBudget) {
+            this.tokenBudget = tokenBudget;
+        }
+
+        public int getKeepRecentMessages() {
+            return keepRecentMessages;
+        }
+
+        public void setKeepRecentMessages(int keepRecentMessages) {
+            this.keepRecentMessages = keepRecentMessages;
+        }
+
+        public int getMaxSummaryChars() {
+            return maxSummaryChars;
+        }
+
+        public void setMaxSummaryChars(int maxSummaryChars) {
+            this.maxSummaryChars = maxSummaryChars;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        @Override
+        public String toString() {
+            return "Compaction{" +
+                    "enabled=" + enabled +
+                    ", tokenBudget=" + tokenBudget +
+                    ", keepRecentMessages=" + keepRecentMessages +
+                    ", maxSummaryChars=" + maxSummaryChars +
+                    ", queueCapacity=" + queueCapacity +
+                    '}';
+        }
+    }
+}
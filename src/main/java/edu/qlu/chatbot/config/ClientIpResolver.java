@@ -0,0 +1,205 @@
+package edu.qlu.chatbot.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 客户端标识解析工具类
+ *
+ * 只有连接地址属于可信代理时才读取 X-Forwarded-For / X-Real-IP：从右向左跳过可信代理，
+ * 取最右侧的非可信地址作为客户端IP（左侧的地址由客户端自行填写，不可信）；否则直接使用连接地址。
+ * 限流拦截器（HTTP接口与WebSocket握手）把解析出的客户端标识与IP存入请求属性，
+ * 服务层的公平队列与识别日志统一使用这两个属性，保证同一客户端在各条路径上的标识一致。
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+public final class ClientIpResolver {
+
+    /**
+     * 请求属性名：限流使用的客户端标识（"user:"+用户标识 或 "ip:"+客户端IP）
+     */
+    public static final String CLIENT_KEY_ATTRIBUTE = ClientIpResolver.class.getName() + ".clientKey";
+
+    /**
+     * 请求属性名：解析出的客户端IP
+     */
+    public static final String CLIENT_IP_ATTRIBUTE = ClientIpResolver.class.getName() + ".clientIp";
+
+    /**
+     * 非Web请求（定时任务、批量导入等）使用的客户端标识
+     */
+    public static final String INTERNAL_CLIENT = "internal";
+
+    /**
+     * IP字面量（IPv4/IPv6），避免对非IP内容触发DNS解析
+     */
+    private static final Pattern IP_LITERAL = Pattern.compile("[0-9A-Fa-f:.]+");
+
+    private ClientIpResolver() {
+    }
+
+    /**
+     * 获取客户端IP地址（仅信任可信代理写入的代理头）
+     *
+     * @param request HTTP请求
+     * @param trustedProxies 可信代理地址（IP或CIDR）
+     */
+    public static String resolve(HttpServletRequest request, List<String> trustedProxies) {
+        return resolve(request.getRemoteAddr(), request.getHeader("X-Forwarded-For"),
+                request.getHeader("X-Real-IP"), trustedProxies);
+    }
+
+    /**
+     * 获取客户端IP地址
+     *
+     * @param remoteAddr 连接地址
+     * @param xForwardedFor X-Forwarded-For 请求头
+     * @param xRealIp X-Real-IP 请求头
+     * @param trustedProxies 可信代理地址（IP或CIDR）
+     */
+    public static String resolve(String remoteAddr, String xForwardedFor, String xRealIp, List<String> trustedProxies) {
+        if (remoteAddr == null || !isTrusted(remoteAddr, trustedProxies)) {
+            return remoteAddr;
+        }
+
+        if (StringUtils.hasText(xForwardedFor)) {
+            String[] hops = xForwardedFor.split(",");
+            String leftmost = null;
+            for (int i = hops.length - 1; i >= 0; i--) {
+                String hop = hops[i].trim();
+                if (hop.isEmpty() || "unknown".equalsIgnoreCase(hop)) {
+                    continue;
+                }
+                if (!isTrusted(hop, trustedProxies)) {
+                    return hop;
+                }
+                leftmost = hop;
+            }
+            // 整条链都是可信代理时取最左侧的地址
+            if (leftmost != null) {
+                return leftmost;
+            }
+        }
+
+        if (StringUtils.hasText(xRealIp) && !"unknown".equalsIgnoreCase(xRealIp.trim())) {
+            return xRealIp.trim();
+        }
+
+        return remoteAddr;
+    }
+
+    /**
+     * 构造客户端标识：信任网关用户头且请求带有用户标识时按用户，否则按客户端IP
+     *
+     * @param userId 网关写入的用户标识（可为null）
+     * @param clientIp 客户端IP
+     */
+    public static String clientKey(String userId, String clientIp) {
+        if (StringUtils.hasText(userId)) {
+            return "user:" + userId.trim();
+        }
+        return clientIp != null ? "ip:" + clientIp : INTERNAL_CLIENT;
+    }
+
+    /**
+     * 请求的客户端IP：优先取限流拦截器写入的IP，否则为连接地址
+     */
+    public static String clientIp(HttpServletRequest request) {
+        Object clientIp = request.getAttribute(CLIENT_IP_ATTRIBUTE);
+        return clientIp != null ? clientIp.toString() : request.getRemoteAddr();
+    }
+
+    /**
+     * 当前请求线程的客户端标识：优先取限流拦截器写入的标识，其次为客户端IP，非Web请求返回 {@link #INTERNAL_CLIENT}
+     */
+    public static String currentClientKey() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return INTERNAL_CLIENT;
+        }
+        HttpServletRequest request = servletAttributes.getRequest();
+        Object clientKey = request.getAttribute(CLIENT_KEY_ATTRIBUTE);
+        if (clientKey != null) {
+            return clientKey.toString();
+        }
+        return clientKey(null, clientIp(request));
+    }
+
+    /**
+     * 判断地址是否属于可信代理
+     */
+    static boolean isTrusted(String address, List<String> trustedProxies) {
+        if (trustedProxies == null || trustedProxies.isEmpty()) {
+            return false;
+        }
+        byte[] bytes = toBytes(address);
+        if (bytes == null) {
+            return false;
+        }
+        for (String proxy : trustedProxies) {
+            if (proxy != null && matches(bytes, proxy.trim())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(byte[] address, String proxy) {
+        int slash = proxy.indexOf('/');
+        byte[] network = toBytes(slash < 0 ? proxy : proxy.substring(0, slash));
+        if (network == null || network.length != address.length) {
+            return false;
+        }
+        int prefix;
+        try {
+            prefix = slash < 0 ? network.length * 8 : Integer.parseInt(proxy.substring(slash + 1));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        prefix = Math.max(0, Math.min(prefix, network.length * 8));
+        int fullBytes = prefix / 8;
+        for (int i = 0; i < fullBytes; i++) {
+            if (address[i] != network[i]) {
+                return false;
+            }
+        }
+        int remainingBits = prefix % 8;
+        if (remainingBits == 0) {
+            return true;
+        }
+        int mask = 0xFF << (8 - remainingBits);
+        return (address[fullBytes] & mask) == (network[fullBytes] & mask);
+    }
+
+    private static byte[] toBytes(String address) {
+        if (address == null) {
+            return null;
+        }
+        String literal = address.trim();
+        if (literal.startsWith("[") && literal.endsWith("]")) {
+            literal = literal.substring(1, literal.length() - 1);
+        }
+        int zone = literal.indexOf('%');
+        if (zone >= 0) {
+            literal = literal.substring(0, zone);
+        }
+        if (literal.isEmpty() || !IP_LITERAL.matcher(literal).matches()
+                || (literal.indexOf(':') < 0 && literal.chars().filter(c -> c == '.').count() != 3)) {
+            return null;
+        }
+        try {
+            return InetAddress.getByName(literal).getAddress();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+}
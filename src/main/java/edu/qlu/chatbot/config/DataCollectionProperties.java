@@ -3,7 +3,10 @@ package edu.qlu.chatbot.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 数据采集配置属性类
@@ -51,6 +54,64 @@ public class DataCollectionProperties {
      */
     private int crawlDelay = 1000;
 
+    /**
+     * 文档分块配置
+     */
+    private Chunking chunking = new Chunking();
+
+    /**
+     * 附件采集配置
+     */
+    private Attachments attachments = new Attachments();
+
+    /**
+     * JavaScript渲染采集配置
+     */
+    private Rendering rendering = new Rendering();
+
+    /**
+     * 近似重复检测配置
+     */
+    private Dedup dedup = new Dedup();
+
+    /**
+     * 批量写入配置
+     */
+    private Bulk bulk = new Bulk();
+
+    /**
+     * 知识库快照配置
+     */
+    private Snapshot snapshot = new Snapshot();
+
+    /**
+     * 站点正文提取规则，键为站点域名（同时匹配其子域名）
+     */
+    private Map<String, SiteRule> sites = new LinkedHashMap<>();
+
+    /**
+     * 查找URL所在站点的正文提取规则，优先匹配最长的域名
+     *
+     * @return 匹配的规则，没有时返回null
+     */
+    public SiteRule siteRuleFor(String host) {
+        if (host == null || sites.isEmpty()) {
+            return null;
+        }
+        SiteRule matched = null;
+        int matchedLength = -1;
+        for (Map.Entry<String, SiteRule> entry : sites.entrySet()) {
+            String domain = entry.getKey();
+            boolean matches = host.equalsIgnoreCase(domain)
+                    || host.toLowerCase().endsWith("." + domain.toLowerCase());
+            if (matches && domain.length() > matchedLength) {
+                matched = entry.getValue();
+                matchedLength = domain.length();
+            }
+        }
+        return matched;
+    }
+
     // Getters and Setters
     public List<String> getBaseUrls() {
         return baseUrls;
@@ -100,6 +161,62 @@ public class DataCollectionProperties {
         this.crawlDelay = crawlDelay;
     }
 
+    public Chunking getChunking() {
+        return chunking;
+    }
+
+    public void setChunking(Chunking chunking) {
+        this.chunking = chunking;
+    }
+
+    public Attachments getAttachments() {
+        return attachments;
+    }
+
+    public void setAttachments(Attachments attachments) {
+        this.attachments = attachments;
+    }
+
+    public Rendering getRendering() {
+        return rendering;
+    }
+
+    public void setRendering(Rendering rendering) {
+        this.rendering = rendering;
+    }
+
+    public Dedup getDedup() {
+        return dedup;
+    }
+
+    public void setDedup(Dedup dedup) {
+        this.dedup = dedup;
+    }
+
+    public Bulk getBulk() {
+        return bulk;
+    }
+
+    public void setBulk(Bulk bulk) {
+        this.bulk = bulk;
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(Snapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public Map<String, SiteRule> getSites() {
+        return sites;
+    }
+
+    public void setSites(Map<String, SiteRule> sites) {
+        this.sites = sites;
+    }
+
     @Override
     public String toString() {
         return "DataCollectionProperties{" +
@@ -109,6 +226,506 @@ public class DataCollectionProperties {
                 ", retryCount=" + retryCount +
                 ", maxPagesPerSite=" + maxPagesPerSite +
                 ", crawlDelay=" + crawlDelay +
+                ", chunking=" + chunking +
+                ", attachments=" + attachments +
+                ", rendering=" + rendering +
+                ", dedup=" + dedup +
+                ", bulk=" + bulk +
+                ", snapshot=" + snapshot +
+                ", sites=" + sites +
                 '}';
     }
+
+    /**
+     * 单个站点的正文提取规则
+     */
+    public static class SiteRule {
+
+        /**
+         * 正文节点的CSS选择器，命中且有文本时跳过评分直接使用（可用逗号组合标题与正文）
+         */
+        private String contentSelector;
+
+        /**
+         * 需要从正文中移除的节点选择器（如分享栏、打印/关闭按钮）
+         */
+        private List<String> removeSelectors = new ArrayList<>();
+
+        public String getContentSelector() {
+            return contentSelector;
+        }
+
+        public void setContentSelector(String contentSelector) {
+            this.contentSelector = contentSelector;
+        }
+
+        public List<String> getRemoveSelectors() {
+            return removeSelectors;
+        }
+
+        public void setRemoveSelectors(List<String> removeSelectors) {
+            this.removeSelectors = removeSelectors;
+        }
+
+        @Override
+        public String toString() {
+            return "SiteRule{" +
+                    "contentSelector='" + contentSelector + '\'' +
+                    ", removeSelectors=" + removeSelectors +
+                    '}';
+        }
+    }
+
+    /**
+     * 文档分块配置
+     */
+    public static class Chunking {
+
+        /**
+         * 采集后是否将分块同步到向量库
+         */
+        private boolean indexEnabled = true;
+
+        /**
+         * 单个分块的最大字符数
+         */
+        private int maxChars = 800;
+
+        public boolean isIndexEnabled() {
+            return indexEnabled;
+        }
+
+        public void setIndexEnabled(boolean indexEnabled) {
+            this.indexEnabled = indexEnabled;
+        }
+
+        public int getMaxChars() {
+            return maxChars;
+        }
+
+        public void setMaxChars(int maxChars) {
+            this.maxChars = maxChars;
+        }
+
+        @Override
+        public String toString() {
+            return "Chunking{" +
+                    "indexEnabled=" + indexEnabled +
+                    ", maxChars=" + maxChars +
+                    '}';
+        }
+    }
+
+    /**
+     * 附件（PDF/Word/Excel通知）采集配置
+     */
+    public static class Attachments {
+
+        /**
+         * 是否采集页面中的附件
+         */
+        private boolean enabled = true;
+
+        /**
+         * 附件下载大小上限（字节），超过时放弃
+         */
+        private long maxBytes = 20L * 1024 * 1024;
+
+        /**
+         * 单个附件提取的最大字符数
+         */
+        private int maxChars = 200000;
+
+        /**
+         * 单个页面最多采集的附件数
+         */
+        private int maxPerPage = 20;
+
+        /**
+         * 附件下载与解析的工作线程数
+         */
+        private int workerThreads = 2;
+
+        /**
+         * 等待处理的附件队列容量，队列满时跳过新附件，不阻塞页面采集
+         */
+        private int queueCapacity = 50;
+
+        /**
+         * 附件下载超时时间（毫秒）
+         */
+        private int downloadTimeoutMs = 30000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        public int getMaxChars() {
+            return maxChars;
+        }
+
+        public void setMaxChars(int maxChars) {
+            this.maxChars = maxChars;
+        }
+
+        public int getMaxPerPage() {
+            return maxPerPage;
+        }
+
+        public void setMaxPerPage(int maxPerPage) {
+            this.maxPerPage = maxPerPage;
+        }
+
+        public int getWorkerThreads() {
+            return workerThreads;
+        }
+
+        public void setWorkerThreads(int workerThreads) {
+            this.workerThreads = workerThreads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getDownloadTimeoutMs() {
+            return downloadTimeoutMs;
+        }
+
+        public void setDownloadTimeoutMs(int downloadTimeoutMs) {
+            this.downloadTimeoutMs = downloadTimeoutMs;
+        }
+
+        @Override
+        public String toString() {
+            return "Attachments{" +
+                    "enabled=" + enabled +
+                    ", maxBytes=" + maxBytes +
+                    ", maxChars=" + maxChars +
+                    ", maxPerPage=" + maxPerPage +
+                    ", workerThreads=" + workerThreads +
+                    ", queueCapacity=" + queueCapacity +
+                    ", downloadTimeoutMs=" + downloadTimeoutMs +
+                    '}';
+        }
+    }
+
+    /**
+     * JavaScript渲染采集配置（HtmlUnit）
+     */
+    public static class Rendering {
+
+        /**
+         * 是否启用渲染采集
+         */
+        private boolean enabled = true;
+
+        /**
+         * 允许渲染的URL正则，只有匹配的页面才会在Jsoup结果过少时改用HtmlUnit渲染
+         */
+        private List<String> urlPatterns = new ArrayList<>();
+
+        /**
+         * Jsoup提取的正文字符数低于该值时才改用渲染
+         */
+        private int minTextLength = 200;
+
+        /**
+         * WebClient池大小（同时渲染的页面数）
+         */
+        private int poolSize = 2;
+
+        /**
+         * 等待空闲WebClient的最长时间（毫秒）
+         */
+        private long borrowTimeoutMs = 30000;
+
+        /**
+         * 页面加载超时时间（毫秒）
+         */
+        private int pageTimeoutMs = 20000;
+
+        /**
+         * 单个脚本执行超时时间（毫秒）
+         */
+        private long javascriptTimeoutMs = 10000;
+
+        /**
+         * 等待后台脚本（定时器、异步请求）完成的最长时间（毫秒）
+         */
+        private long backgroundJavascriptWaitMs = 3000;
+
+        /**
+         * 屏蔽的资源URL正则（图片、样式、字体、统计脚本），命中时返回空响应
+         */
+        private List<String> blockedUrlPatterns = new ArrayList<>(List.of(
+                "(?i)\\.(png|jpe?g|gif|webp|bmp|ico|svg|css|woff2?|ttf|eot|mp3|mp4)(\\?.*)?$",
+                "(?i)//([^/]+\\.)?(hm\\.baidu\\.com|google-analytics\\.com|googletagmanager\\.com|cnzz\\.com|51\\.la)/"
+        ));
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<String> getUrlPatterns() {
+            return urlPatterns;
+        }
+
+        public void setUrlPatterns(List<String> urlPatterns) {
+            this.urlPatterns = urlPatterns;
+        }
+
+        public int getMinTextLength() {
+            return minTextLength;
+        }
+
+        public void setMinTextLength(int minTextLength) {
+            this.minTextLength = minTextLength;
+        }
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public long getBorrowTimeoutMs() {
+            return borrowTimeoutMs;
+        }
+
+        public void setBorrowTimeoutMs(long borrowTimeoutMs) {
+            this.borrowTimeoutMs = borrowTimeoutMs;
+        }
+
+        public int getPageTimeoutMs() {
+            return pageTimeoutMs;
+        }
+
+        public void setPageTimeoutMs(int pageTimeoutMs) {
+            this.pageTimeoutMs = pageTimeoutMs;
+        }
+
+        public long getJavascriptTimeoutMs() {
+            return javascriptTimeoutMs;
+        }
+
+        public void setJavascriptTimeoutMs(long javascriptTimeoutMs) {
+            this.javascriptTimeoutMs = javascriptTimeoutMs;
+        }
+
+        public long getBackgroundJavascriptWaitMs() {
+            return backgroundJavascriptWaitMs;
+        }
+
+        public void setBackgroundJavascriptWaitMs(long backgroundJavascriptWaitMs) {
+            this.backgroundJavascriptWaitMs = backgroundJavascriptWaitMs;
+        }
+
+        public List<String> getBlockedUrlPatterns() {
+            return blockedUrlPatterns;
+        }
+
+        public void setBlockedUrlPatterns(List<String> blockedUrlPatterns) {
+            this.blockedUrlPatterns = blockedUrlPatterns;
+        }
+
+        @Override
+        public String toString() {
+            return "Rendering{" +
+                    "enabled=" + enabled +
+                    ", urlPatterns=" + urlPatterns +
+                    ", minTextLength=" + minTextLength +
+                    ", poolSize=" + poolSize +
+                    ", borrowTimeoutMs=" + borrowTimeoutMs +
+                    ", pageTimeoutMs=" + pageTimeoutMs +
+                    ", javascriptTimeoutMs=" + javascriptTimeoutMs +
+                    ", backgroundJavascriptWaitMs=" + backgroundJavascriptWaitMs +
+                    ", blockedUrlPatterns=" + blockedUrlPatterns +
+                    '}';
+        }
+    }
+
+    /**
+     * 近似重复检测配置（SimHash）
+     */
+    public static class Dedup {
+
+        /**
+         * 是否启用近似重复检测
+         */
+        private boolean enabled = true;
+
+        /**
+         * 指纹汉明距离不超过该值视为近似重复，按16位分段索引时取值0-3，超出时启动失败
+         */
+        private int maxHammingDistance = 3;
+
+        /**
+         * 正文少于该字符数时不做重复检测（短文本指纹不稳定）
+         */
+        private int minTextLength = 100;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxHammingDistance() {
+            return maxHammingDistance;
+        }
+
+        public void setMaxHammingDistance(int maxHammingDistance) {
+            this.maxHammingDistance = maxHammingDistance;
+        }
+
+        public int getMinTextLength() {
+            return minTextLength;
+        }
+
+        public void setMinTextLength(int minTextLength) {
+            this.minTextLength = minTextLength;
+        }
+
+        @Override
+        public String toString() {
+            return "Dedup{" +
+                    "enabled=" + enabled +
+                    ", maxHammingDistance=" + maxHammingDistance +
+                    ", minTextLength=" + minTextLength +
+                    '}';
+        }
+    }
+
+    /**
+     * 批量写入配置
+     */
+    public static class Bulk {
+
+        /**
+         * 每批写入的文档数
+         */
+        private int batchSize = 500;
+
+        /**
+         * 知识库为空（首次导入）时是否使用PostgreSQL COPY写入
+         */
+        private boolean copyOnInitialLoad = true;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public boolean isCopyOnInitialLoad() {
+            return copyOnInitialLoad;
+        }
+
+        public void setCopyOnInitialLoad(boolean copyOnInitialLoad) {
+            this.copyOnInitialLoad = copyOnInitialLoad;
+        }
+
+        @Override
+        public String toString() {
+            return "Bulk{" +
+                    "batchSize=" + batchSize +
+                    ", copyOnInitialLoad=" + copyOnInitialLoad +
+                    '}';
+        }
+    }
+
+    /**
+     * 知识库快照导出/导入配置
+     */
+    public static class Snapshot {
+
+        /**
+         * 快照文件所在目录，接口只接受该目录下的文件名
+         */
+        private String directory = "data/snapshots";
+
+        /**
+         * 导出时的向量编码：FLOAT32 或 INT8（体积约1/4，有量化误差）
+         */
+        private String embeddingEncoding = "FLOAT32";
+
+        /**
+         * 每个行组的行数
+         */
+        private int rowsPerBlock = 1024;
+
+        /**
+         * 是否允许 replace=true 的覆盖导入（会先TRUNCATE知识库三张表），默认关闭，仅在需要时临时开启
+         */
+        private boolean allowReplace = false;
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public String getEmbeddingEncoding() {
+            return embeddingEncoding;
+        }
+
+        public void setEmbeddingEncoding(String embeddingEncoding) {
+            this.embeddingEncoding = embeddingEncoding;
+        }
+
+        public int getRowsPerBlock() {
+            return rowsPerBlock;
+        }
+
+        public void setRowsPerBlock(int rowsPerBlock) {
+            this.rowsPerBlock = rowsPerBlock;
+        }
+
+        public boolean isAllowReplace() {
+            return allowReplace;
+        }
+
+        public void setAllowReplace(boolean allowReplace) {
+            this.allowReplace = allowReplace;
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot{" +
+                    "directory='" + directory + '\'' +
+                    ", embeddingEncoding='" + embeddingEncoding + '\'' +
+                    ", rowsPerBlock=" + rowsPerBlock +
+                    ", allowReplace=" + allowReplace +
+                    '}';
+        }
+    }
 }
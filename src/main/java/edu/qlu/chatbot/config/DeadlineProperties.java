@@ -0,0 +1,81 @@
+package edu.qlu.chatbot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 请求截止时间配置属性类
+ *
+ * 从application.properties中读取各类请求的处理时间预算，
+ * 下游的大模型、工具、讯飞接口与数据库语句共享该预算
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@Component
+@ConfigurationProperties(prefix = "app.deadline")
+public class DeadlineProperties {
+
+    /**
+     * 是否启用请求截止时间
+     */
+    private boolean enabled = true;
+
+    /**
+     * 聊天请求的处理时间预算（毫秒）
+     */
+    private long chatMs = 40000;
+
+    /**
+     * 声纹识别请求的处理时间预算（毫秒）
+     */
+    private long identifyMs = 15000;
+
+    /**
+     * 聊天请求的时间预算，未启用时为0（不设截止时间）
+     */
+    public long chatBudgetMs() {
+        return enabled ? chatMs : 0;
+    }
+
+    /**
+     * 声纹识别请求的时间预算，未启用时为0（不设截止时间）
+     */
+    public long identifyBudgetMs() {
+        return enabled ? identifyMs : 0;
+    }
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getChatMs() {
+        return chatMs;
+    }
+
+    public void setChatMs(long chatMs) {
+        this.chatMs = chatMs;
+    }
+
+    public long getIdentifyMs() {
+        return identifyMs;
+    }
+
+    public void setIdentifyMs(long identifyMs) {
+        this.identifyMs = identifyMs;
+    }
+
+    @Override
+    public String toString() {
+        return "DeadlineProperties{" +
+                "enabled=" + enabled +
+                ", chatMs=" + chatMs +
+                ", identifyMs=" + identifyMs +
+                '}';
+    }
+}
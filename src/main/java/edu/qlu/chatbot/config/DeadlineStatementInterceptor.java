@@ -0,0 +1,48 @@
+package edu.qlu.chatbot.config;
+
+import edu.qlu.chatbot.service.RequestDeadline;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * MyBatis语句截止时间拦截器
+ *
+ * 当前线程绑定了 {@link RequestDeadline} 时，把语句的查询超时（setQueryTimeout）收紧到请求剩余时间，
+ * 已超时的请求不再执行语句；未绑定截止时间的语句保持原有超时设置。
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@Component
+@Intercepts({
+    @Signature(type = StatementHandler.class, method = "prepare",
+               args = {Connection.class, Integer.class})
+})
+public class DeadlineStatementInterceptor implements Interceptor {
+
+    private static final String STAGE = "mapper";
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        if (RequestDeadline.current() == null) {
+            return invocation.proceed();
+        }
+        RequestDeadline.check(STAGE);
+        Statement statement = (Statement) invocation.proceed();
+        long remainingMs = RequestDeadline.capMillis(Long.MAX_VALUE, STAGE);
+        // JDBC超时以秒为单位，向上取整避免剩余不足1秒时被设为0（不限时）
+        int remainingSeconds = (int) Math.min(Integer.MAX_VALUE, (remainingMs + 999) / 1000);
+        int configured = statement.getQueryTimeout();
+        if (configured == 0 || remainingSeconds < configured) {
+            statement.setQueryTimeout(remainingSeconds);
+        }
+        return statement;
+    }
+}
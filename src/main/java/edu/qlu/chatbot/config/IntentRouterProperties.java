@@ -0,0 +1,134 @@
+package edu.qlu.chatbot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 意图快速通道配置属性类
+ *
+ * 从application.properties中读取意图路由相关的配置
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@Component
+@ConfigurationProperties(prefix = "app.intent")
+public class IntentRouterProperties {
+
+    /**
+     * 是否启用快速通道（关闭后所有消息都交给大模型）
+     */
+    private boolean enabled = true;
+
+    /**
+     * 参与快速通道判定的最大消息字数，更长的消息通常带有需要模型理解的上下文
+     */
+    private int maxMessageLength = 40;
+
+    /**
+     * 关键词（含意图词与虚词）覆盖消息字符的最低比例，达到后直接判定为置信匹配
+     */
+    private double minCoverage = 0.75;
+
+    /**
+     * 向量最近质心复核配置
+     */
+    private Embedding embedding = new Embedding();
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxMessageLength() {
+        return maxMessageLength;
+    }
+
+    public void setMaxMessageLength(int maxMessageLength) {
+        this.maxMessageLength = maxMessageLength;
+    }
+
+    public double getMinCoverage() {
+        return minCoverage;
+    }
+
+    public void setMinCoverage(double minCoverage) {
+        this.minCoverage = minCoverage;
+    }
+
+    public Embedding getEmbedding() {
+        return embedding;
+    }
+
+    public void setEmbedding(Embedding embedding) {
+        this.embedding = embedding;
+    }
+
+    @Override
+    public String toString() {
+        return "IntentRouterProperties{" +
+                "enabled=" + enabled +
+                ", maxMessageLength=" + maxMessageLength +
+                ", minCoverage=" + minCoverage +
+                ", embedding=" + embedding +
+                '}';
+    }
+
+    /**
+     * 向量复核配置
+     */
+    public static class Embedding {
+
+        /**
+         * 是否在关键词覆盖不足时使用向量最近质心复核
+         */
+        private boolean enabled = true;
+
+        /**
+         * 与意图质心的最低余弦相似度
+         */
+        private double similarityThreshold = 0.8;
+
+        /**
+         * 质心计算失败后的重试间隔（毫秒），期间只使用关键词判定
+         */
+        private long retryIntervalMs = 600000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getSimilarityThreshold() {
+            return similarityThreshold;
+        }
+
+        public void setSimilarityThreshold(double similarityThreshold) {
+            this.similarityThreshold = similarityThreshold;
+        }
+
+        public long getRetryIntervalMs() {
+            return retryIntervalMs;
+        }
+
+        public void setRetryIntervalMs(long retryIntervalMs) {
+            this.retryIntervalMs = retryIntervalMs;
+        }
+
+        @Override
+        public String toString() {
+            return "Embedding{" +
+                    "enabled=" + enabled +
+                    ", similarityThreshold=" + similarityThreshold +
+                    ", retryIntervalMs=" + retryIntervalMs +
+                    '}';
+        }
+    }
+}
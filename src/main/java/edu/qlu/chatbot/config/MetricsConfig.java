@@ -0,0 +1,92 @@
+package edu.qlu.chatbot.config;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.JvmMemoryMetrics;
+import io.micrometer.core.instrument.binder.jvm.JvmThreadMetrics;
+import io.micrometer.core.instrument.binder.system.ProcessorMetrics;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.simple.CountingMode;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 指标配置类
+ *
+ * 主要功能：
+ * - 提供应用级MeterRegistry（累计计数模式，供Prometheus文本格式导出）
+ * - 为 qlu.* 计时器开启百分位直方图（p50/p95/p99 + 直方图桶）
+ * - 绑定JVM内存、线程、CPU基础指标
+ *
+ * 自定义指标：
+ * - qlu.llm.requests / qlu.llm.tokens：大模型调用耗时与token用量
+ * - qlu.iflytek.requests{func}：讯飞声纹API调用
+ * - qlu.audio.conversion{stage}：音频转换各阶段
+ * - qlu.mapper.statements{statement}：MyBatis语句执行
+ * - qlu.crawler.fetch{host}：网页采集
+ * - qlu.voiceprint.requests{operation}：声纹注册/识别端到端耗时
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * 自定义指标名前缀
+     */
+    public static final String METRIC_PREFIX = "qlu.";
+
+    @Bean
+    @ConditionalOnMissingBean(MeterRegistry.class)
+    public MeterRegistry meterRegistry() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry(new SimpleConfig() {
+            @Override
+            public String get(String key) {
+                return null;
+            }
+
+            @Override
+            public CountingMode mode() {
+                return CountingMode.CUMULATIVE;
+            }
+        }, Clock.SYSTEM);
+
+        registry.config()
+                .commonTags("application", "academic-affairs-chatbot")
+                .meterFilter(percentileHistograms());
+
+        new JvmMemoryMetrics().bindTo(registry);
+        new JvmThreadMetrics().bindTo(registry);
+        new ProcessorMetrics().bindTo(registry);
+        return registry;
+    }
+
+    /**
+     * 为自定义计时器开启百分位与直方图
+     */
+    private MeterFilter percentileHistograms() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!id.getName().startsWith(METRIC_PREFIX) || id.getType() != Meter.Type.TIMER) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .percentiles(0.5, 0.95, 0.99)
+                        .percentilesHistogram(true)
+                        .minimumExpectedValue((double) Duration.ofMillis(1).toNanos())
+                        .maximumExpectedValue((double) Duration.ofSeconds(60).toNanos())
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+}
@@ -0,0 +1,430 @@
+package edu.qlu.chatbot.config;
+
+import com.alibaba.cloud.ai.dashscope.chat.DashScopeChatOptions;
+import edu.qlu.chatbot.service.AhoCorasickMatcher;
+import edu.qlu.chatbot.service.DeadlineExceededException;
+import edu.qlu.chatbot.service.ModelUnavailableException;
+import edu.qlu.chatbot.service.RequestDeadline;
+import edu.qlu.chatbot.service.TokenBudgetEstimator;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 多模型路由器
+ *
+ * 按请求估算的复杂度选择模型，并在调用失败时沿备用链故障转移：
+ * - 复杂度：用户消息与含历史提示词的token数，加上“分析”“比较”等特征词的命中数，
+ *   分为简单（qwen-turbo）、一般（qwen-plus）、复杂（qwen-max）三档
+ * - 故障转移：超时或限流（HTTP 429 / Throttling）时转移到该模型配置的备用模型，其他错误直接抛出
+ * - 并发限制：每个模型一个信号量，等待许可超时同样转移到备用模型，全部候选都无许可时抛出
+ *   {@link ModelUnavailableException}
+ * - 截止时间：每次尝试与故障转移前检查请求截止时间（{@link RequestDeadline}），已超时则不再调用模型；
+ *   绑定了截止时间的调用在独立线程上执行并最多等待剩余时间，超时后中断调用并抛出 {@link DeadlineExceededException}，
+ *   不受下游读超时与重试次数影响；被放弃的调用可能不响应中断，模型许可在调用真正结束时才归还，
+ *   并发上限不会被仍在执行的调用突破
+ *
+ * 指标：qlu.llm.model.requests{model,outcome} 记录各模型耗时，qlu.llm.model.cost{model} 按单价累计费用（元），
+ * qlu.llm.model.failover{from,to,reason} 记录转移次数，qlu.llm.model.inflight{model} 为在途请求数。
+ * {@link #getModelStatistics()} 汇总各模型的p95与单次成本，并给出满足p95目标的最低成本模型建议。
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+public class ModelRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelRouter.class);
+
+    /** 给出成本建议前每个模型至少需要的成功调用次数 */
+    private static final long MIN_SAMPLES_FOR_RECOMMENDATION = 20;
+
+    private static final String LLM_STAGE = "llm";
+
+    private static final AhoCorasickMatcher<Boolean> COMPLEXITY_CUES = AhoCorasickMatcher.of(
+            List.of("分析", "比较", "对比", "区别", "优缺点", "解释", "为什么", "原因", "如何", "怎样", "规划", "计划",
+                    "方案", "总结", "论文", "详细", "步骤", "建议", "评价", "推导", "证明", "代码")
+                    .stream().collect(Collectors.toMap(cue -> cue, cue -> Boolean.TRUE)));
+
+    private final ModelRoutingProperties properties;
+    private final TokenBudgetEstimator tokenBudgetEstimator;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+
+    /**
+     * 受截止时间约束的模型调用线程池；并发已由各模型的信号量限制
+     */
+    private final ExecutorService callExecutor;
+
+    public ModelRouter(ModelRoutingProperties properties, TokenBudgetEstimator tokenBudgetEstimator,
+                       MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.tokenBudgetEstimator = tokenBudgetEstimator;
+        this.meterRegistry = meterRegistry;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.callExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "llm-call-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 按路由结果调用模型
+     *
+     * @param message 用户消息
+     * @param history 会话历史
+     * @param invocation 以指定模型选项发起一次调用；路由关闭时固定使用 standardModel 的选项
+     * @return 模型响应
+     */
+    public ChatResponse call(String message, List<Message> history, Function<ChatOptions, ChatResponse> invocation) {
+        if (!properties.isEnabled()) {
+            return invokeWithinDeadline(invocation, options(properties.getStandardModel()), () -> { });
+        }
+
+        Tier tier = classify(message, history);
+        List<String> candidates = candidates(tier);
+        for (int i = 0; i < candidates.size(); i++) {
+            String model = candidates.get(i);
+            String next = i + 1 < candidates.size() ? candidates.get(i + 1) : null;
+            RequestDeadline.check(LLM_STAGE);
+            ChatOptions modelOptions = options(model);
+            Semaphore semaphore = permits(model);
+            if (!tryAcquire(semaphore)) {
+                recordFailover(model, next, "saturated");
+                continue;
+            }
+            long start = System.nanoTime();
+            String outcome = "error";
+            try {
+                ChatResponse response = invokeWithinDeadline(invocation, modelOptions, semaphore::release);
+                outcome = "success";
+                recordCost(model, response);
+                return response;
+            } catch (RuntimeException e) {
+                String reason = e instanceof DeadlineExceededException ? null : failoverReason(e);
+                if (reason == null || next == null) {
+                    throw e;
+                }
+                // 请求已超时则不再转移，避免为已放弃的请求继续消耗备用模型
+                RequestDeadline.check(LLM_STAGE);
+                outcome = reason;
+                recordFailover(model, next, reason);
+                logger.warn("模型调用失败，转移到备用模型: model={}, fallback={}, reason={}, error={}",
+                        model, next, reason, e.getMessage());
+            } finally {
+                requestTimer(model, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+        throw new ModelUnavailableException("所有候选模型并发已满: " + candidates);
+    }
+
+    /**
+     * 在剩余时间内执行一次调用：未绑定截止时间时直接在当前线程执行，
+     * 否则提交到调用线程池并最多等待剩余时间，超时后中断调用
+     *
+     * @param release 调用真正结束（或确定不会执行）时调用一次，用于归还模型许可；
+     *                超时放弃的调用仍在执行时由调用线程在结束后归还
+     */
+    private ChatResponse invokeWithinDeadline(Function<ChatOptions, ChatResponse> invocation, ChatOptions options,
+                                              Runnable release) {
+        RequestDeadline deadline = RequestDeadline.current();
+        if (deadline == null) {
+            try {
+                return invocation.apply(options);
+            } finally {
+                release.run();
+            }
+        }
+        long remainingNanos = deadline.remainingNanos();
+        if (remainingNanos <= 0) {
+            release.run();
+            throw new DeadlineExceededException(LLM_STAGE);
+        }
+        // 0：尚未开始，1：执行中（由调用线程归还许可），2：开始前已被放弃（由等待方归还许可）
+        AtomicInteger state = new AtomicInteger();
+        // 工具调用可能依赖请求上下文（客户端标识等），随截止时间一并传递到调用线程
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        Future<ChatResponse> future;
+        try {
+            future = callExecutor.submit(RequestDeadline.wrap(() -> {
+                if (!state.compareAndSet(0, 1)) {
+                    return null;
+                }
+                RequestContextHolder.setRequestAttributes(requestAttributes);
+                try {
+                    return invocation.apply(options);
+                } finally {
+                    RequestContextHolder.resetRequestAttributes();
+                    release.run();
+                }
+            }));
+        } catch (RejectedExecutionException e) {
+            release.run();
+            throw e;
+        }
+        try {
+            return future.get(remainingNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            abandon(future, state, release);
+            throw new DeadlineExceededException(LLM_STAGE);
+        } catch (InterruptedException e) {
+            abandon(future, state, release);
+            Thread.currentThread().interrupt();
+            throw new DeadlineExceededException(LLM_STAGE);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * 放弃等待：中断调用；调用尚未开始时不会再执行，由此处归还许可
+     */
+    private static void abandon(Future<ChatResponse> future, AtomicInteger state, Runnable release) {
+        future.cancel(true);
+        if (state.compareAndSet(0, 2)) {
+            release.run();
+        }
+    }
+
+    /**
+     * 关闭调用线程池
+     */
+    public void shutdown() {
+        callExecutor.shutdownNow();
+    }
+
+    /**
+     * 估算请求复杂度
+     */
+    public Tier classify(String message, List<Message> history) {
+        int messageTokens = tokenBudgetEstimator.estimate(message);
+        int promptTokens = messageTokens + tokenBudgetEstimator.estimate(history);
+        long cues = COMPLEXITY_CUES.findAll(message).stream()
+                .map(AhoCorasickMatcher.Match::keyword)
+                .distinct()
+                .count();
+        if (message != null && message.chars().filter(c -> c == '?' || c == '？').count() >= 2) {
+            cues++;
+        }
+
+        if (messageTokens >= properties.getComplexMinMessageTokens()
+                || promptTokens >= properties.getComplexMinPromptTokens()
+                || cues >= properties.getComplexMinCues()) {
+            return Tier.COMPLEX;
+        }
+        if (messageTokens <= properties.getSimpleMaxMessageTokens() && cues == 0) {
+            return Tier.SIMPLE;
+        }
+        return Tier.STANDARD;
+    }
+
+    /**
+     * 指定复杂度的候选模型：首选模型及其备用链（去重）
+     */
+    public List<String> candidates(Tier tier) {
+        String primary = switch (tier) {
+            case SIMPLE -> properties.getSimpleModel();
+            case STANDARD -> properties.getStandardModel();
+            case COMPLEX -> properties.getComplexModel();
+        };
+        Set<String> chain = new LinkedHashSet<>();
+        String model = primary;
+        while (model != null && !model.isBlank() && chain.add(model)) {
+            model = properties.modelOf(model).getFallback();
+        }
+        return new ArrayList<>(chain);
+    }
+
+    /**
+     * 各模型延迟、成本汇总及满足p95目标的最低成本模型建议
+     */
+    public Map<String, Object> getModelStatistics() {
+        Map<String, Object> models = new LinkedHashMap<>();
+        String recommended = null;
+        double recommendedCost = Double.MAX_VALUE;
+        for (String model : knownModels()) {
+            Timer timer = meterRegistry.find("qlu.llm.model.requests").tags("model", model, "outcome", "success").timer();
+            long count = timer != null ? timer.count() : 0;
+            double p95Ms = timer != null ? p95Ms(timer.takeSnapshot()) : 0;
+            double cost = meterRegistry.find("qlu.llm.model.cost").tags("model", model).counters().stream()
+                    .mapToDouble(counter -> counter.count())
+                    .sum();
+            double costPerRequest = count == 0 ? 0 : cost / count;
+
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("requests", count);
+            entry.put("p95Ms", Math.round(p95Ms));
+            entry.put("meanMs", timer != null ? Math.round(timer.mean(TimeUnit.MILLISECONDS)) : 0);
+            entry.put("totalCost", cost);
+            entry.put("costPerRequest", costPerRequest);
+            models.put(model, entry);
+
+            if (count >= MIN_SAMPLES_FOR_RECOMMENDATION && p95Ms <= properties.getP95TargetMs()
+                    && costPerRequest < recommendedCost) {
+                recommended = model;
+                recommendedCost = costPerRequest;
+            }
+        }
+
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("p95TargetMs", properties.getP95TargetMs());
+        statistics.put("models", models);
+        statistics.put("recommendedModel", recommended);
+        return statistics;
+    }
+
+    /**
+     * 判断异常是否应转移到备用模型
+     *
+     * @return "timeout"、"rate_limit"，不应转移时为null
+     */
+    static String failoverReason(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof SocketTimeoutException || current instanceof HttpTimeoutException
+                    || current instanceof TimeoutException) {
+                return "timeout";
+            }
+            if (current instanceof RestClientResponseException response && response.getStatusCode().value() == 429) {
+                return "rate_limit";
+            }
+            String text = current.getMessage() == null ? "" : current.getMessage().toLowerCase(Locale.ROOT);
+            if (text.contains("429") || text.contains("throttling") || text.contains("rate limit")) {
+                return "rate_limit";
+            }
+            if (text.contains("timed out") || text.contains("timeout")) {
+                return "timeout";
+            }
+            if (current.getCause() == current) {
+                break;
+            }
+        }
+        return null;
+    }
+
+    private ChatOptions options(String model) {
+        DashScopeChatOptions.DashscopeChatOptionsBuilder builder = DashScopeChatOptions.builder().withModel(model);
+        Integer maxTokens = properties.modelOf(model).getMaxTokens();
+        if (maxTokens != null) {
+            builder.withMaxToken(maxTokens);
+        }
+        return builder.build();
+    }
+
+    private boolean tryAcquire(Semaphore semaphore) {
+        try {
+            return semaphore.tryAcquire(RequestDeadline.capMillis(properties.getAcquireTimeoutMs(), LLM_STAGE),
+                    TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Semaphore permits(String model) {
+        return permits.computeIfAbsent(model, name -> {
+            int limit = Math.max(1, properties.modelOf(name).getMaxConcurrency());
+            Semaphore semaphore = new Semaphore(limit);
+            Gauge.builder("qlu.llm.model.inflight", semaphore, s -> limit - s.availablePermits())
+                    .description("各模型在途请求数")
+                    .tag("model", name)
+                    .register(meterRegistry);
+            return semaphore;
+        });
+    }
+
+    private void recordCost(String model, ChatResponse response) {
+        Usage usage = response != null && response.getMetadata() != null ? response.getMetadata().getUsage() : null;
+        if (usage == null) {
+            return;
+        }
+        ModelRoutingProperties.Model config = properties.modelOf(model);
+        double cost = tokens(usage.getPromptTokens()) / 1000.0 * config.getInputPricePer1k()
+                + tokens(usage.getCompletionTokens()) / 1000.0 * config.getOutputPricePer1k();
+        if (cost > 0) {
+            meterRegistry.counter("qlu.llm.model.cost", "model", model).increment(cost);
+        }
+    }
+
+    private void recordFailover(String from, String to, String reason) {
+        meterRegistry.counter("qlu.llm.model.failover",
+                "from", from, "to", to != null ? to : "none", "reason", reason).increment();
+    }
+
+    private Timer requestTimer(String model, String outcome) {
+        return Timer.builder("qlu.llm.model.requests")
+                .description("各模型调用耗时")
+                .tag("model", model)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private Set<String> knownModels() {
+        Set<String> models = new LinkedHashSet<>();
+        for (Tier tier : Tier.values()) {
+            models.addAll(candidates(tier));
+        }
+        models.addAll(properties.getModels().keySet());
+        return models;
+    }
+
+    private static double p95Ms(HistogramSnapshot snapshot) {
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            if (percentile.percentile() == 0.95) {
+                return percentile.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return snapshot.max(TimeUnit.MILLISECONDS);
+    }
+
+    private static int tokens(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    /**
+     * 请求复杂度
+     */
+    public enum Tier {
+        SIMPLE, STANDARD, COMPLEX
+    }
+}
@@ -0,0 +1,273 @@
+package edu.qlu.chatbot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 多模型路由配置属性类
+ *
+ * 从application.properties中读取按请求复杂度选择模型、故障转移与并发限制相关的配置
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@Component
+@ConfigurationProperties(prefix = "app.model-routing")
+public class ModelRoutingProperties {
+
+    /**
+     * 是否启用多模型路由（关闭后每次调用都使用 standardModel 及其 max-tokens，不做分级、并发限制与故障转移）
+     */
+    private boolean enabled = true;
+
+    /**
+     * 简单问题使用的模型
+     */
+    private String simpleModel = "qwen-turbo";
+
+    /**
+     * 一般问题使用的模型
+     */
+    private String standardModel = "qwen-plus";
+
+    /**
+     * 复杂问题使用的模型
+     */
+    private String complexModel = "qwen-max";
+
+    /**
+     * 用户消息token数不超过该值且无复杂度特征时视为简单问题
+     */
+    private int simpleMaxMessageTokens = 40;
+
+    /**
+     * 用户消息token数达到该值时视为复杂问题
+     */
+    private int complexMinMessageTokens = 300;
+
+    /**
+     * 含历史的提示词token数达到该值时视为复杂问题
+     */
+    private int complexMinPromptTokens = 3000;
+
+    /**
+     * 复杂度特征词（如“分析”“比较”）命中数达到该值时视为复杂问题
+     */
+    private int complexMinCues = 2;
+
+    /**
+     * 等待模型并发许可的最长时间（毫秒），超时后转移到下一个候选模型
+     */
+    private long acquireTimeoutMs = 200;
+
+    /**
+     * p95延迟目标（毫秒），用于给出满足目标的最低成本模型建议
+     */
+    private long p95TargetMs = 8000;
+
+    /**
+     * 各模型配置，键为模型名称
+     */
+    private Map<String, Model> models = new LinkedHashMap<>();
+
+    /**
+     * 获取指定模型的配置，未配置时返回默认值
+     */
+    public Model modelOf(String name) {
+        Model model = models.get(name);
+        return model != null ? model : Model.DEFAULT;
+    }
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getSimpleModel() {
+        return simpleModel;
+    }
+
+    public void setSimpleModel(String simpleModel) {
+        this.simpleModel = simpleModel;
+    }
+
+    public String getStandardModel() {
+        return standardModel;
+    }
+
+    public void setStandardModel(String standardModel) {
+        this.standardModel = standardModel;
+    }
+
+    public String getComplexModel() {
+        return complexModel;
+    }
+
+    public void setComplexModel(String complexModel) {
+        this.complexModel = complexModel;
+    }
+
+    public int getSimpleMaxMessageTokens() {
+        return simpleMaxMessageTokens;
+    }
+
+    public void setSimpleMaxMessageTokens(int simpleMaxMessageTokens) {
+        this.simpleMaxMessageTokens = simpleMaxMessageTokens;
+    }
+
+    public int getComplexMinMessageTokens() {
+        return complexMinMessageTokens;
+    }
+
+    public void setComplexMinMessageTokens(int complexMinMessageTokens) {
+        this.complexMinMessageTokens = complexMinMessageTokens;
+    }
+
+    public int getComplexMinPromptTokens() {
+        return complexMinPromptTokens;
+    }
+
+    public void setComplexMinPromptTokens(int complexMinPromptTokens) {
+        this.complexMinPromptTokens = complexMinPromptTokens;
+    }
+
+    public int getComplexMinCues() {
+        return complexMinCues;
+    }
+
+    public void setComplexMinCues(int complexMinCues) {
+        this.complexMinCues = complexMinCues;
+    }
+
+    public long getAcquireTimeoutMs() {
+        return acquireTimeoutMs;
+    }
+
+    public void setAcquireTimeoutMs(long acquireTimeoutMs) {
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    public long getP95TargetMs() {
+        return p95TargetMs;
+    }
+
+    public void setP95TargetMs(long p95TargetMs) {
+        this.p95TargetMs = p95TargetMs;
+    }
+
+    public Map<String, Model> getModels() {
+        return models;
+    }
+
+    public void setModels(Map<String, Model> models) {
+        this.models = models;
+    }
+
+    @Override
+    public String toString() {
+        return "ModelRoutingProperties{" +
+                "enabled=" + enabled +
+                ", simpleModel='" + simpleModel + '\'' +
+                ", standardModel='" + standardModel + '\'' +
+                ", complexModel='" + complexModel + '\'' +
+                ", simpleMaxMessageTokens=" + simpleMaxMessageTokens +
+                ", complexMinMessageTokens=" + complexMinMessageTokens +
+                ", complexMinPromptTokens=" + complexMinPromptTokens +
+                ", complexMinCues=" + complexMinCues +
+                ", acquireTimeoutMs=" + acquireTimeoutMs +
+                ", p95TargetMs=" + p95TargetMs +
+                ", models=" + models +
+                '}';
+    }
+
+    /**
+     * 单个模型配置
+     */
+    public static class Model {
+
+        static final Model DEFAULT = new Model();
+
+        /**
+         * 最大并发请求数
+         */
+        private int maxConcurrency = 20;
+
+        /**
+         * 单次回复的最大token数，为空时使用全局默认值
+         */
+        private Integer maxTokens;
+
+        /**
+         * 超时或限流时转移到的备用模型，为空表示不转移
+         */
+        private String fallback;
+
+        /**
+         * 输入价格（元/千token）
+         */
+        private double inputPricePer1k;
+
+        /**
+         * 输出价格（元/千token）
+         */
+        private double outputPricePer1k;
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        public Integer getMaxTokens() {
+            return maxTokens;
+        }
+
+        public void setMaxTokens(Integer maxTokens) {
+            this.maxTokens = maxTokens;
+        }
+
+        public String getFallback() {
+            return fallback;
+        }
+
+        public void setFallback(String fallback) {
+            this.fallback = fallback;
+        }
+
+        public double getInputPricePer1k() {
+            return inputPricePer1k;
+        }
+
+        public void setInputPricePer1k(double inputPricePer1k) {
+            this.inputPricePer1k = inputPricePer1k;
+        }
+
+        public double getOutputPricePer1k() {
+            return outputPricePer1k;
+        }
+
+        public void setOutputPricePer1k(double outputPricePer1k) {
+            this.outputPricePer1k = outputPricePer1k;
+        }
+
+        @Override
+        public String toString() {
+            return "Model{" +
+                    "maxConcurrency=" + maxConcurrency +
+                    ", maxTokens=" + maxTokens +
+                    ", fallback='" + fallback + '\'' +
+                    ", inputPricePer1k=" + inputPricePer1k +
+                    ", outputPricePer1k=" + outputPricePer1k +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package edu.qlu.chatbot.config;
+
+import edu.qlu.chatbot.service.RequestDeadline;
+import edu.qlu.chatbot.service.ToolExecutionService;
+import edu.qlu.chatbot.service.ToolExecutionService.ToolInvocation;
+import edu.qlu.chatbot.service.ToolExecutionService.ToolResult;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.model.ToolContext;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.DefaultToolCallingManager;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.ai.model.tool.ToolExecutionResult;
+import org.springframework.ai.tool.ToolCallback;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.execution.ToolExecutionException;
+import org.springframework.ai.tool.execution.ToolExecutionExceptionProcessor;
+import org.springframework.ai.tool.resolution.ToolCallbackResolver;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 并行工具调用管理器
+ *
+ * Spring AI 默认的 DefaultToolCallingManager 按顺序逐个执行模型请求的工具。
+ * 本实现沿用其工具解析、异常处理与会话历史构造方式，但将同一轮中的全部工具调用
+ * 交给 {@link ToolExecutionService} 并行执行，总耗时取决于最慢的工具而不是所有工具之和。
+ * 超时或执行失败的工具以错误信息作为结果返回给模型，不影响其他工具的结果。
+ * 请求截止时间已过时不再执行工具，也不再把结果交给模型进行下一轮调用。
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+public class ParallelToolCallingManager implements ToolCallingManager {
+
+    private static final String TOOLS_STAGE = "tools";
+
+    private final ToolCallingManager definitionResolver;
+    private final ToolCallbackResolver toolCallbackResolver;
+    private final ToolExecutionExceptionProcessor exceptionProcessor;
+    private final ToolExecutionService toolExecutionService;
+
+    public ParallelToolCallingManager(ToolCallbackResolver toolCallbackResolver,
+                                      ToolExecutionExceptionProcessor exceptionProcessor,
+                                      ToolExecutionService toolExecutionService) {
+        this.definitionResolver = DefaultToolCallingManager.builder()
+                .toolCallbackResolver(toolCallbackResolver)
+                .toolExecutionExceptionProcessor(exceptionProcessor)
+                .build();
+        this.toolCallbackResolver = toolCallbackResolver;
+        this.exceptionProcessor = exceptionProcessor;
+        this.toolExecutionService = toolExecutionService;
+    }
+
+    @Override
+    public List<ToolDefinition> resolveToolDefinitions(ToolCallingChatOptions chatOptions) {
+        return definitionResolver.resolveToolDefinitions(chatOptions);
+    }
+
+    @Override
+    public ToolExecutionResult executeToolCalls(Prompt prompt, ChatResponse chatResponse) {
+        AssistantMessage assistantMessage = chatResponse.getResults().stream()
+                .map(Generation::getOutput)
+                .filter(AssistantMessage::hasToolCalls)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No tool call requested by the chat model"));
+
+        List<Message> history = new ArrayList<>(prompt.copy().getInstructions());
+        history.add(new AssistantMessage(assistantMessage.getText(), assistantMessage.getMetadata(),
+                                         assistantMessage.getToolCalls()));
+        ToolContext toolContext = buildToolContext(prompt, history);
+
+        List<ToolCallback> optionCallbacks = prompt.getOptions() instanceof ToolCallingChatOptions options
+                ? options.getToolCallbacks() : List.of();
+        List<AssistantMessage.ToolCall> toolCalls = assistantMessage.getToolCalls();
+        List<ToolCallback> callbacks = new ArrayList<>(toolCalls.size());
+        List<ToolInvocation> invocations = new ArrayList<>(toolCalls.size());
+        boolean returnDirect = true;
+        for (AssistantMessage.ToolCall toolCall : toolCalls) {
+            ToolCallback callback = resolve(toolCall.name(), optionCallbacks);
+            String arguments = StringUtils.hasText(toolCall.arguments()) ? toolCall.arguments() : "{}";
+            callbacks.add(callback);
+            invocations.add(new ToolInvocation(toolCall.name(), () -> callback.call(arguments, toolContext)));
+            returnDirect &= callback.getToolMetadata().returnDirect();
+        }
+
+        RequestDeadline.check(TOOLS_STAGE);
+        List<ToolResult> results = toolExecutionService.invokeAll(invocations);
+        RequestDeadline.check(TOOLS_STAGE);
+        List<ToolResponseMessage.ToolResponse> responses = new ArrayList<>(toolCalls.size());
+        for (int i = 0; i < toolCalls.size(); i++) {
+            AssistantMessage.ToolCall toolCall = toolCalls.get(i);
+            ToolResult result = results.get(i);
+            String responseData = result.isSuccess()
+                    ? result.result()
+                    : exceptionProcessor.process(toToolExecutionException(callbacks.get(i).getToolDefinition(), result.error()));
+            responses.add(new ToolResponseMessage.ToolResponse(toolCall.id(), toolCall.name(),
+                                                               responseData != null ? responseData : ""));
+        }
+
+        history.add(new ToolResponseMessage(responses, Map.of()));
+        return ToolExecutionResult.builder()
+                .conversationHistory(history)
+                .returnDirect(returnDirect)
+                .build();
+    }
+
+    private ToolCallback resolve(String toolName, List<ToolCallback> optionCallbacks) {
+        ToolCallback callback = optionCallbacks.stream()
+                .filter(candidate -> toolName.equals(candidate.getToolDefinition().name()))
+                .findFirst()
+                .orElseGet(() -> toolCallbackResolver.resolve(toolName));
+        if (callback == null) {
+            throw new IllegalStateException("No ToolCallback found for tool name: " + toolName);
+        }
+        return callback;
+    }
+
+    private static ToolContext buildToolContext(Prompt prompt, List<Message> history) {
+        Map<String, Object> context = Map.of();
+        if (prompt.getOptions() instanceof ToolCallingChatOptions options
+                && !CollectionUtils.isEmpty(options.getToolContext())) {
+            context = new HashMap<>(options.getToolContext());
+            context.put(ToolContext.TOOL_CALL_HISTORY, List.copyOf(history));
+        }
+        return new ToolContext(context);
+    }
+
+    private static ToolExecutionException toToolExecutionException(ToolDefinition definition, Throwable error) {
+        return error instanceof ToolExecutionException toolExecutionException
+                ? toolExecutionException : new ToolExecutionException(definition, error);
+    }
+}
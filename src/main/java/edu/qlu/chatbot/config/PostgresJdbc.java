@@ -0,0 +1,146 @@
+package edu.qlu.chatbot.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * PostgreSQL JDBC驱动扩展接口（COPY、LISTEN/NOTIFY）的访问工具类
+ *
+ * 驱动以 runtime 范围引入，业务代码不直接编译依赖 org.postgresql 的类，
+ * 而是在运行时按类名加载 PGConnection 等接口并通过反射调用；驱动不在类路径上时
+ * {@link #isPostgres(Connection)} 返回 false，调用方据此退回标准JDBC写法。
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+public final class PostgresJdbc {
+
+    private static final Api API = Api.load();
+
+    private PostgresJdbc() {
+    }
+
+    /**
+     * 判断连接是否为PostgreSQL驱动连接（可unwrap为PGConnection）
+     */
+    public static boolean isPostgres(Connection connection) throws SQLException {
+        return API != null && connection.isWrapperFor(API.pgConnection);
+    }
+
+    /**
+     * 开始一个 COPY ... FROM STDIN 操作
+     *
+     * @param connection PostgreSQL连接
+     * @param sql COPY语句
+     */
+    public static CopyIn copyIn(Connection connection, String sql) throws SQLException {
+        Object pgConnection = unwrap(connection);
+        Object copyManager = invoke(API.getCopyApi, pgConnection);
+        return new CopyIn(invoke(API.copyIn, copyManager, sql));
+    }
+
+    /**
+     * 读取连接上已到达的异步通知，最多等待 timeoutMillis 毫秒
+     *
+     * @return 通知的payload，没有通知时为空列表
+     */
+    public static List<String> notifications(Connection connection, int timeoutMillis) throws SQLException {
+        Object pgConnection = unwrap(connection);
+        Object[] notifications = (Object[]) invoke(API.getNotifications, pgConnection, timeoutMillis);
+        if (notifications == null) {
+            return List.of();
+        }
+        List<String> payloads = new ArrayList<>(notifications.length);
+        for (Object notification : notifications) {
+            payloads.add((String) invoke(API.getParameter, notification));
+        }
+        return payloads;
+    }
+
+    private static Object unwrap(Connection connection) throws SQLException {
+        if (API == null) {
+            throw new SQLException("类路径上没有PostgreSQL JDBC驱动");
+        }
+        return connection.unwrap(API.pgConnection);
+    }
+
+    private static Object invoke(Method method, Object target, Object... args) throws SQLException {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new SQLException("调用PostgreSQL驱动失败: " + method.getName(), cause);
+        } catch (IllegalAccessException e) {
+            throw new SQLException("调用PostgreSQL驱动失败: " + method.getName(), e);
+        }
+    }
+
+    /**
+     * 进行中的 COPY ... FROM STDIN 操作（对应驱动的 org.postgresql.copy.CopyIn）
+     */
+    public static final class CopyIn {
+
+        private final Object delegate;
+
+        private CopyIn(Object delegate) {
+            this.delegate = delegate;
+        }
+
+        public void writeToCopy(byte[] bytes, int offset, int length) throws SQLException {
+            invoke(API.writeToCopy, delegate, bytes, offset, length);
+        }
+
+        /**
+         * 结束COPY并返回写入的行数
+         */
+        public long endCopy() throws SQLException {
+            return (Long) invoke(API.endCopy, delegate);
+        }
+
+        public void cancelCopy() throws SQLException {
+            invoke(API.cancelCopy, delegate);
+        }
+
+        public boolean isActive() throws SQLException {
+            return (Boolean) invoke(API.isActive, delegate);
+        }
+    }
+
+    /**
+     * 驱动扩展接口的类与方法，驱动不存在时为null
+     */
+    private record Api(Class<?> pgConnection, Method getCopyApi, Method copyIn, Method writeToCopy, Method endCopy,
+                       Method cancelCopy, Method isActive, Method getNotifications, Method getParameter) {
+
+        static Api load() {
+            ClassLoader classLoader = PostgresJdbc.class.getClassLoader();
+            try {
+                Class<?> pgConnection = Class.forName("org.postgresql.PGConnection", false, classLoader);
+                Class<?> copyManager = Class.forName("org.postgresql.copy.CopyManager", false, classLoader);
+                Class<?> copyIn = Class.forName("org.postgresql.copy.CopyIn", false, classLoader);
+                Class<?> notification = Class.forName("org.postgresql.PGNotification", false, classLoader);
+                return new Api(pgConnection,
+                        pgConnection.getMethod("getCopyAPI"),
+                        copyManager.getMethod("copyIn", String.class),
+                        copyIn.getMethod("writeToCopy", byte[].class, int.class, int.class),
+                        copyIn.getMethod("endCopy"),
+                        copyIn.getMethod("cancelCopy"),
+                        copyIn.getMethod("isActive"),
+                        pgConnection.getMethod("getNotifications", int.class),
+                        notification.getMethod("getParameter"));
+            } catch (ClassNotFoundException | NoSuchMethodException e) {
+                return null;
+            }
+        }
+    }
+}
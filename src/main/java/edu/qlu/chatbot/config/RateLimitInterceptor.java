@@ -0,0 +1,110 @@
+package edu.qlu.chatbot.config;
+
+import edu.qlu.chatbot.service.RateLimitExceededException;
+import edu.qlu.chatbot.service.RateLimiter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * 接口限流拦截器
+ *
+ * 按配置的规则对匹配路径的请求执行令牌桶限流，客户端标识为用户（信任网关用户头时）或客户端IP；
+ * 超限时直接返回 429 Too Many Requests 并带上 Retry-After 响应头。
+ * 同时作为WebSocket握手拦截器注册在实时识别端点上，握手请求按同样的规则限流。
+ * 解析出的客户端标识与IP写入请求属性（WebSocket为会话属性），供服务层的公平队列与识别日志使用。
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor, HandshakeInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitInterceptor.class);
+
+    private final RateLimitProperties properties;
+    private final RateLimiter rateLimiter;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public RateLimitInterceptor(RateLimitProperties properties, RateLimiter rateLimiter) {
+        this.properties = properties;
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        String clientIp = ClientIpResolver.resolve(request, properties.getTrustedProxies());
+        String clientKey = ClientIpResolver.clientKey(
+                properties.isTrustUserHeader() ? request.getHeader(properties.getUserHeader()) : null, clientIp);
+        request.setAttribute(ClientIpResolver.CLIENT_IP_ATTRIBUTE, clientIp);
+        request.setAttribute(ClientIpResolver.CLIENT_KEY_ATTRIBUTE, clientKey);
+        // CORS预检请求不计入限流
+        if (!properties.isEnabled() || CorsUtils.isPreFlightRequest(request)) {
+            return true;
+        }
+
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (Map.Entry<String, RateLimitProperties.Rule> rule : properties.getRules().entrySet()) {
+            String pattern = rule.getValue().getPath();
+            if (pattern == null || !pathMatcher.match(pattern, path)) {
+                continue;
+            }
+            long retryAfterMs = rateLimiter.tryAcquire(rule.getKey(), clientKey);
+            if (retryAfterMs > 0) {
+                logger.warn("请求被限流: rule={}, client={}, path={}, retryAfter={}ms",
+                        rule.getKey(), clientKey, path, retryAfterMs);
+                writeTooManyRequests(response, new RateLimitExceededException("请求过于频繁，请稍后再试", retryAfterMs));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) throws Exception {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)
+                || !(response instanceof ServletServerHttpResponse servletResponse)) {
+            return true;
+        }
+        HttpServletRequest httpRequest = servletRequest.getServletRequest();
+        if (!preHandle(httpRequest, servletResponse.getServletResponse(), wsHandler)) {
+            return false;
+        }
+        attributes.put(ClientIpResolver.CLIENT_IP_ATTRIBUTE, httpRequest.getAttribute(ClientIpResolver.CLIENT_IP_ATTRIBUTE));
+        attributes.put(ClientIpResolver.CLIENT_KEY_ATTRIBUTE, httpRequest.getAttribute(ClientIpResolver.CLIENT_KEY_ATTRIBUTE));
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+
+    private static void writeTooManyRequests(HttpServletResponse response, RateLimitExceededException e) throws Exception {
+        long retryAfterSeconds = e.getRetryAfterSeconds();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"status\":\"error\",\"message\":\"" + e.getMessage()
+                + "\",\"retryAfterSeconds\":" + retryAfterSeconds + "}");
+    }
+}
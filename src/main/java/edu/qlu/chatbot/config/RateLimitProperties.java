@@ -0,0 +1,254 @@
+package edu.qlu.chatbot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 限流与公平排队配置属性类
+ *
+ * 从application.properties中读取接口限流规则与外部服务排队相关的配置
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@Component
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * 是否启用接口限流
+     */
+    private boolean enabled = true;
+
+    /**
+     * 是否信任网关写入的用户标识请求头（信任时按用户限流，否则按客户端IP限流）
+     */
+    private boolean trustUserHeader = false;
+
+    /**
+     * 用户标识请求头名称
+     */
+    private String userHeader = "X-User-Id";
+
+    /**
+     * 可信反向代理地址（IP或CIDR）。仅当连接来自这些地址时才读取 X-Forwarded-For / X-Real-IP，
+     * 并取最右侧的非可信地址作为客户端IP；为空时一律使用连接地址
+     */
+    private List<String> trustedProxies = new ArrayList<>();
+
+    /**
+     * 限流规则，键为规则名称
+     */
+    private Map<String, Rule> rules = new LinkedHashMap<>();
+
+    /**
+     * 公平排队配置，键为外部资源名称（llm、iflytek）
+     */
+    private Map<String, Queue> queues = new LinkedHashMap<>();
+
+    /**
+     * 客户端排队权重，键为客户端标识，未配置时为1
+     */
+    private Map<String, Double> weights = new LinkedHashMap<>();
+
+    /**
+     * 获取指定资源的排队配置，未配置时返回默认值
+     */
+    public Queue queueOf(String resource) {
+        Queue queue = queues.get(resource);
+        return queue != null ? queue : Queue.DEFAULT;
+    }
+
+    /**
+     * 获取客户端排队权重
+     */
+    public double weightOf(String clientKey) {
+        Double weight = weights.get(clientKey);
+        return weight != null && weight > 0 ? weight : 1.0;
+    }
+
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isTrustUserHeader() {
+        return trustUserHeader;
+    }
+
+    public void setTrustUserHeader(boolean trustUserHeader) {
+        this.trustUserHeader = trustUserHeader;
+    }
+
+    public String getUserHeader() {
+        return userHeader;
+    }
+
+    public void setUserHeader(String userHeader) {
+        this.userHeader = userHeader;
+    }
+
+    public List<String> getTrustedProxies() {
+        return trustedProxies;
+    }
+
+    public void setTrustedProxies(List<String> trustedProxies) {
+        this.trustedProxies = trustedProxies;
+    }
+
+    public Map<String, Rule> getRules() {
+        return rules;
+    }
+
+    public void setRules(Map<String, Rule> rules) {
+        this.rules = rules;
+    }
+
+    public Map<String, Queue> getQueues() {
+        return queues;
+    }
+
+    public void setQueues(Map<String, Queue> queues) {
+        this.queues = queues;
+    }
+
+    public Map<String, Double> getWeights() {
+        return weights;
+    }
+
+    public void setWeights(Map<String, Double> weights) {
+        this.weights = weights;
+    }
+
+    @Override
+    public String toString() {
+        return "RateLimitProperties{" +
+                "enabled=" + enabled +
+                ", trustUserHeader=" + trustUserHeader +
+                ", userHeader='" + userHeader + '\'' +
+                ", trustedProxies=" + trustedProxies +
+                ", rules=" + rules +
+                ", queues=" + queues +
+                ", weights=" + weights +
+                '}';
+    }
+
+    /**
+     * 接口限流规则（令牌桶）
+     */
+    public static class Rule {
+
+        /**
+         * 适用的接口路径（Ant风格）
+         */
+        private String path;
+
+        /**
+         * 每分钟补充的令牌数
+         */
+        private int permitsPerMinute = 30;
+
+        /**
+         * 桶容量（允许的突发请求数）
+         */
+        private int burst = 5;
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public int getPermitsPerMinute() {
+            return permitsPerMinute;
+        }
+
+        public void setPermitsPerMinute(int permitsPerMinute) {
+            this.permitsPerMinute = permitsPerMinute;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+
+        @Override
+        public String toString() {
+            return "Rule{" +
+                    "path='" + path + '\'' +
+                    ", permitsPerMinute=" + permitsPerMinute +
+                    ", burst=" + burst +
+                    '}';
+        }
+    }
+
+    /**
+     * 外部资源公平排队配置
+     */
+    public static class Queue {
+
+        static final Queue DEFAULT = new Queue();
+
+        /**
+         * 同时调用该资源的最大请求数
+         */
+        private int maxConcurrency = 16;
+
+        /**
+         * 最长排队时间（毫秒），超时返回429
+         */
+        private long maxWaitMs = 10000;
+
+        /**
+         * 单个客户端最多排队的请求数
+         */
+        private int maxQueuedPerClient = 2;
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        public long getMaxWaitMs() {
+            return maxWaitMs;
+        }
+
+        public void setMaxWaitMs(long maxWaitMs) {
+            this.maxWaitMs = maxWaitMs;
+        }
+
+        public int getMaxQueuedPerClient() {
+            return maxQueuedPerClient;
+        }
+
+        public void setMaxQueuedPerClient(int maxQueuedPerClient) {
+            this.maxQueuedPerClient = maxQueuedPerClient;
+        }
+
+        @Override
+        public String toString() {
+            return "Queue{" +
+                    "maxConcurrency=" + maxConcurrency +
+                    ", maxWaitMs=" + maxWaitMs +
+                    ", maxQueuedPerClient=" + maxQueuedPerClient +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package edu.qlu.chatbot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 工具调用配置属性类
+ *
+ * 从application.properties中读取工具并行调度、超时与结果缓存相关的配置
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@Component
+@ConfigurationProperties(prefix = "app.tools")
+public class ToolExecutionProperties {
+
+    /**
+     * 工具调用线程池大小（同一轮中模型请求的多个工具并行执行）
+     */
+    private int maxConcurrency = 8;
+
+    /**
+     * 工具调用等待队列容量，队列满时拒绝新的调用并按超时返回
+     */
+    private int queueCapacity = 64;
+
+    /**
+     * 未单独配置的工具的默认超时时间（毫秒）
+     */
+    private long defaultTimeoutMs = 5000;
+
+    /**
+     * 每个工具结果缓存的最大条目数
+     */
+    private int cacheMaximumSize = 500;
+
+    /**
+     * 按工具名配置的超时与缓存有效期，未配置的工具不缓存结果
+     */
+    private Map<String, Tool> tool = new HashMap<>();
+
+    /**
+     * 获取指定工具的超时时间（毫秒）
+     */
+    public long timeoutMsOf(String toolName) {
+        Tool settings = tool.get(toolName);
+        return settings != null && settings.getTimeoutMs() > 0 ? settings.getTimeoutMs() : defaultTimeoutMs;
+    }
+
+    /**
+     * 获取指定工具结果的缓存有效期（秒），0表示不缓存
+     */
+    public long cacheTtlSecondsOf(String toolName) {
+        Tool settings = tool.get(toolName);
+        return settings != null ? settings.getCacheTtlSeconds() : 0;
+    }
+
+    // Getters and Setters
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public long getDefaultTimeoutMs() {
+        return defaultTimeoutMs;
+    }
+
+    public void setDefaultTimeoutMs(long defaultTimeoutMs) {
+        this.defaultTimeoutMs = defaultTimeoutMs;
+    }
+
+    public int getCacheMaximumSize() {
+        return cacheMaximumSize;
+    }
+
+    public void setCacheMaximumSize(int cacheMaximumSize) {
+        this.cacheMaximumSize = cacheMaximumSize;
+    }
+
+    public Map<String, Tool> getTool() {
+        return tool;
+    }
+
+    public void setTool(Map<String, Tool> tool) {
+        this.tool = tool;
+    }
+
+    @Override
+    public String toString() {
+        return "ToolExecutionProperties{" +
+                "maxConcurrency=" + maxConcurrency +
+                ", queueCapacity=" + queueCapacity +
+                ", defaultTimeoutMs=" + defaultTimeoutMs +
+                ", cacheMaximumSize=" + cacheMaximumSize +
+                ", tool=" + tool +
+                '}';
+    }
+
+    /**
+     * 单个工具的调用配置
+     */
+    public static class Tool {
+
+        /**
+         * 调用超时时间（毫秒），0表示使用默认值
+         */
+        private long timeoutMs;
+
+        /**
+         * 结果缓存有效期（秒），0表示不缓存
+         */
+        private long cacheTtlSeconds;
+
+        public long getTimeoutMs() {
+            return timeoutMs;
+        }
+
+        public void setTimeoutMs(long timeoutMs) {
+            this.timeoutMs = timeoutMs;
+        }
+
+        public long getCacheTtlSeconds() {
+            return cacheTtlSeconds;
+        }
+
+        public void setCacheTtlSeconds(long cacheTtlSeconds) {
+            this.cacheTtlSeconds = cacheTtlSeconds;
+        }
+
+        @Override
+        public String toString() {
+            return "Tool{" +
+                    "timeoutMs=" + timeoutMs +
+                    ", cacheTtlSeconds=" + cacheTtlSeconds +
+                    '}';
+        }
+    }
+}
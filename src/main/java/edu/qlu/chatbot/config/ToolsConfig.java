@@ -2,6 +2,10 @@ package edu.qlu.chatbot.config;
 
 import edu.qlu.chatbot.service.AcademicToolsService;
 import edu.qlu.chatbot.service.AcademicToolsService.*;
+import edu.qlu.chatbot.service.ToolExecutionService;
+import org.springframework.ai.model.tool.ToolCallingManager;
+import org.springframework.ai.tool.execution.ToolExecutionExceptionProcessor;
+import org.springframework.ai.tool.resolution.ToolCallbackResolver;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Description;
@@ -13,6 +17,7 @@ import java.util.function.Function;
  * 
  * 将教务服务的方法注册为Spring AI可调用的工具函数
  * AI模型可以根据用户问题自动选择和调用这些工具
+ * 工具函数经由 {@link ToolExecutionService} 缓存查询结果，同一轮中的多个工具调用并行执行
  * 
  * @author AI Assistant
  * @version 1.0.0
@@ -20,10 +25,32 @@ import java.util.function.Function;
 @Configuration
 public class ToolsConfig {
 
+    /**
+     * 注册给模型的工具名称（与下方工具Bean名称一致）
+     */
+    public static final String[] TOOL_NAMES = {
+        "getCourseInfo", "getGradeInfo", "getExamSchedule", "getLibraryInfo", "getAcademicCalendar"
+    };
+
     private final AcademicToolsService academicToolsService;
+    private final ToolExecutionService toolExecutionService;
 
-    public ToolsConfig(AcademicToolsService academicToolsService) {
+    public ToolsConfig(AcademicToolsService academicToolsService, ToolExecutionService toolExecutionService) {
         this.academicToolsService = academicToolsService;
+        this.toolExecutionService = toolExecutionService;
+    }
+
+    /**
+     * 并行工具调用管理器，替换Spring AI默认的顺序执行实现
+     *
+     * @param toolCallbackResolver 工具回调解析器（Spring AI自动配置）
+     * @param exceptionProcessor 工具异常处理器（Spring AI自动配置）
+     * @return 工具调用管理器
+     */
+    @Bean
+    public ToolCallingManager toolCallingManager(ToolCallbackResolver toolCallbackResolver,
+                                                 ToolExecutionExceptionProcessor exceptionProcessor) {
+        return new ParallelToolCallingManager(toolCallbackResolver, exceptionProcessor, toolExecutionService);
     }
 
     /**
@@ -35,7 +62,7 @@ public class ToolsConfig {
     @Description("查询齐鲁工业大学的课程信息，包括课程名称、授课教师、上课时间、地点和选课情况。" +
                 "当用户询问课程相关信息、选课、课程安排等问题时使用此工具。")
     public Function<CourseQuery, CourseInfo> getCourseInfo() {
-        return academicToolsService::getCourseInfo;
+        return query -> toolExecutionService.cached("getCourseInfo", query, academicToolsService::getCourseInfo);
     }
 
     /**
@@ -48,7 +75,7 @@ public class ToolsConfig {
                 "当用户询问成绩、GPA、学分等相关问题时使用此工具。" +
                 "需要提供学号和学期信息。")
     public Function<GradeQuery, GradeInfo> getGradeInfo() {
-        return academicToolsService::getGradeInfo;
+        return query -> toolExecutionService.cached("getGradeInfo", query, academicToolsService::getGradeInfo);
     }
 
     /**
@@ -60,7 +87,7 @@ public class ToolsConfig {
     @Description("查询考试安排信息，包括考试时间、地点、座位号等。" +
                 "当用户询问考试时间、考试地点、考试安排等问题时使用此工具。")
     public Function<ExamQuery, ExamSchedule> getExamSchedule() {
-        return academicToolsService::getExamSchedule;
+        return query -> toolExecutionService.cached("getExamSchedule", query, academicToolsService::getExamSchedule);
     }
 
     /**
@@ -72,7 +99,7 @@ public class ToolsConfig {
     @Description("查询图书馆的相关信息，包括开放时间、座位情况、图书检索等。" +
                 "当用户询问图书馆开放时间、座位、借书、还书、图书查找等问题时使用此工具。")
     public Function<LibraryQuery, LibraryInfo> getLibraryInfo() {
-        return academicToolsService::getLibraryInfo;
+        return query -> toolExecutionService.cached("getLibraryInfo", query, academicToolsService::getLibraryInfo);
     }
 
     /**
@@ -82,8 +109,9 @@ public class ToolsConfig {
      */
     @Bean
     @Description("查询学校的校历信息，包括学期安排、重要日期、假期安排等。" +
-                "当用户询问开学时间、放假时间、考试时间、校历安排等问题时使用此工具。")
+                "当用户询问开学时间、放假时间、考试时间、校历安排等问题时使用此工具。" +
+                "询问某段时间内的安排时，通过startDate和endDate（yyyy-MM-dd）指定日期范围。")
     public Function<CalendarQuery, AcademicCalendar> getAcademicCalendar() {
-        return academicToolsService::getAcademicCalendar;
+        return query -> toolExecutionService.cached("getAcademicCalendar", query, academicToolsService::getAcademicCalendar);
     }
 }
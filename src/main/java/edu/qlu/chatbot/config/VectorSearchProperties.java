@@ -0,0 +1,193 @@
+package edu.qlu.chatbot.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 向量检索配置属性类
+ *
+ * 从application.properties中读取向量索引存储方式与检索相关的配置
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@Component
+@ConfigurationProperties(prefix = "app.vector-search")
+public class VectorSearchProperties {
+
+    /**
+     * 索引存储方式：FLOAT32（原始向量）、HALFVEC（半精度）、BINARY（二值量化 + 全精度重排）
+     */
+    private String storageMode = "FLOAT32";
+
+    /**
+     * 嵌入向量维度（与 vector_store.embedding 列一致）
+     */
+    private int dimensions = 1536;
+
+    /**
+     * 索引使用的前N维（降维），0表示使用全部维度
+     */
+    private int indexDimensions = 0;
+
+    /**
+     * 近似检索的候选倍数：先按索引取 topK * rerankFactor 个候选，再用全精度向量重排
+     */
+    private int rerankFactor = 4;
+
+    /**
+     * 默认返回的结果数
+     */
+    private int topK = 5;
+
+    /**
+     * 启动时为当前存储方式创建HNSW索引（已存在时跳过）
+     */
+    private boolean createIndexOnStartup = true;
+
+    /**
+     * HNSW索引构建与检索参数
+     */
+    private Hnsw hnsw = new Hnsw();
+
+    // Getters and Setters
+    public String getStorageMode() {
+        return storageMode;
+    }
+
+    public void setStorageMode(String storageMode) {
+        this.storageMode = storageMode;
+    }
+
+    public int getDimensions() {
+        return dimensions;
+    }
+
+    public void setDimensions(int dimensions) {
+        this.dimensions = dimensions;
+    }
+
+    public int getIndexDimensions() {
+        return indexDimensions;
+    }
+
+    public void setIndexDimensions(int indexDimensions) {
+        this.indexDimensions = indexDimensions;
+    }
+
+    public int getRerankFactor() {
+        return rerankFactor;
+    }
+
+    public void setRerankFactor(int rerankFactor) {
+        this.rerankFactor = rerankFactor;
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    public void setTopK(int topK) {
+        this.topK = topK;
+    }
+
+    public boolean isCreateIndexOnStartup() {
+        return createIndexOnStartup;
+    }
+
+    public void setCreateIndexOnStartup(boolean createIndexOnStartup) {
+        this.createIndexOnStartup = createIndexOnStartup;
+    }
+
+    public Hnsw getHnsw() {
+        return hnsw;
+    }
+
+    public void setHnsw(Hnsw hnsw) {
+        this.hnsw = hnsw;
+    }
+
+    @Override
+    public String toString() {
+        return "VectorSearchProperties{" +
+                "storageMode='" + storageMode + '\'' +
+                ", dimensions=" + dimensions +
+                ", indexDimensions=" + indexDimensions +
+                ", rerankFactor=" + rerankFactor +
+                ", topK=" + topK +
+                ", createIndexOnStartup=" + createIndexOnStartup +
+                ", hnsw=" + hnsw +
+                '}';
+    }
+
+    /**
+     * HNSW参数配置
+     */
+    public static class Hnsw {
+
+        /**
+         * 每个节点的最大连接数（构建参数，修改后需重建索引）
+         */
+        private int m = 16;
+
+        /**
+         * 构建时的候选列表大小（构建参数，不小于 2 * m）
+         */
+        private int efConstruction = 64;
+
+        /**
+         * 检索时的候选列表大小（每次检索通过 SET LOCAL hnsw.ef_search 设置）
+         */
+        private int efSearch = 40;
+
+        /**
+         * 基准测试中比较的 ef_search 取值
+         */
+        private List<Integer> benchmarkEfSearch = new ArrayList<>(List.of(20, 40, 80, 160));
+
+        public int getM() {
+            return m;
+        }
+
+        public void setM(int m) {
+            this.m = m;
+        }
+
+        public int getEfConstruction() {
+            return efConstruction;
+        }
+
+        public void setEfConstruction(int efConstruction) {
+            this.efConstruction = efConstruction;
+        }
+
+        public int getEfSearch() {
+            return efSearch;
+        }
+
+        public void setEfSearch(int efSearch) {
+            this.efSearch = efSearch;
+        }
+
+        public List<Integer> getBenchmarkEfSearch() {
+            return benchmarkEfSearch;
+        }
+
+        public void setBenchmarkEfSearch(List<Integer> benchmarkEfSearch) {
+            this.benchmarkEfSearch = benchmarkEfSearch;
+        }
+
+        @Override
+        public String toString() {
+            return "Hnsw{" +
+                    "m=" + m +
+                    ", efConstruction=" + efConstruction +
+                    ", efSearch=" + efSearch +
+                    ", benchmarkEfSearch=" + benchmarkEfSearch +
+                    '}';
+        }
+    }
+}
@@ -3,6 +3,9 @@ package edu.qlu.chatbot.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * 讯飞声纹识别配置类
  * 
@@ -43,6 +46,16 @@ public class VoiceprintConfig {
      */
     private Audio audio = new Audio();
     
+    /**
+     * 批量注册配置
+     */
+    private Batch batch = new Batch();
+    
+    /**
+     * 实时流式识别配置
+     */
+    private Stream stream = new Stream();
+    
     // Getter和Setter方法
     public String getAppId() {
         return appId;
@@ -92,6 +105,22 @@ public class VoiceprintConfig {
         this.audio = audio;
     }
     
+    public Batch getBatch() {
+        return batch;
+    }
+    
+    public void setBatch(Batch batch) {
+        this.batch = batch;
+    }
+    
+    public Stream getStream() {
+        return stream;
+    }
+    
+    public void setStream(Stream stream) {
+        this.stream = stream;
+    }
+    
     /**
      * API配置内部类
      */
@@ -252,6 +281,175 @@ public class VoiceprintConfig {
         }
     }
     
+    /**
+     * 批量注册配置内部类
+     */
+    public static class Batch {
+        /**
+         * 单次批量注册允许的最大条目数
+         */
+        private int maxItems = 500;
+        
+        /**
+         * 音频解码并行度（ForkJoin线程数）
+         */
+        private int decodeParallelism = Runtime.getRuntime().availableProcessors();
+        
+        /**
+         * 讯飞API最大并发调用数
+         */
+        private int apiConcurrency = 4;
+        
+        /**
+         * 成功条目每次多行INSERT写入的条目数；某块写入失败时该块逐条重试
+         */
+        private int insertChunkSize = 50;
+        
+        /**
+         * 批量注册NDJSON响应的异步请求超时时间（毫秒），覆盖Spring MVC默认的异步超时
+         */
+        private long streamTimeoutMs = 1800000;
+        
+        // Getter和Setter方法
+        public int getMaxItems() {
+            return maxItems;
+        }
+        
+        public void setMaxItems(int maxItems) {
+            this.maxItems = maxItems;
+        }
+        
+        public int getDecodeParallelism() {
+            return decodeParallelism;
+        }
+        
+        public void setDecodeParallelism(int decodeParallelism) {
+            this.decodeParallelism = decodeParallelism;
+        }
+        
+        public int getApiConcurrency() {
+            return apiConcurrency;
+        }
+        
+        public void setApiConcurrency(int apiConcurrency) {
+            this.apiConcurrency = apiConcurrency;
+        }
+        
+        public int getInsertChunkSize() {
+            return insertChunkSize;
+        }
+        
+        public void setInsertChunkSize(int insertChunkSize) {
+            this.insertChunkSize = insertChunkSize;
+        }
+        
+        public long getStreamTimeoutMs() {
+            return streamTimeoutMs;
+        }
+        
+        public void setStreamTimeoutMs(long streamTimeoutMs) {
+            this.streamTimeoutMs = streamTimeoutMs;
+        }
+    }
+    
+    /**
+     * 实时流式识别配置
+     */
+    public static class Stream {
+        /**
+         * 触发识别所需的最短有效语音时长（毫秒）
+         */
+        private int minSpeechMs = 3000;
+        
+        /**
+         * 单次会话最长录音时长（毫秒），达到后即使语音不足也触发识别
+         */
+        private int maxDurationMs = 15000;
+        
+        /**
+         * 能量VAD阈值（20ms窗口内16bit样本的RMS）
+         */
+        private int vadRmsThreshold = 500;
+        
+        /**
+         * 识别任务最大并发数
+         */
+        private int identifyConcurrency = 4;
+        
+        /**
+         * 等待执行的识别任务数上限，队列满时新的识别请求返回“服务繁忙”
+         */
+        private int identifyQueueCapacity = 16;
+        
+        /**
+         * 允许建立WebSocket连接的来源（Origin模式，支持通配符）
+         */
+        private List<String> allowedOriginPatterns = new ArrayList<>(
+            List.of("http://localhost:*", "https://*.qlu.edu.cn"));
+        
+        /**
+         * 单条二进制消息最大字节数
+         */
+        private int maxFrameBytes = 65536;
+        
+        // Getter和Setter方法
+        public int getMinSpeechMs() {
+            return minSpeechMs;
+        }
+        
+        public void setMinSpeechMs(int minSpeechMs) {
+            this.minSpeechMs = minSpeechMs;
+        }
+        
+        public int getMaxDurationMs() {
+            return maxDurationMs;
+        }
+        
+        public void setMaxDurationMs(int maxDurationMs) {
+            this.maxDurationMs = maxDurationMs;
+        }
+        
+        public int getVadRmsThreshold() {
+            return vadRmsThreshold;
+        }
+        
+        public void setVadRmsThreshold(int vadRmsThreshold) {
+            this.vadRmsThreshold = vadRmsThreshold;
+        }
+        
+        public int getIdentifyConcurrency() {
+            return identifyConcurrency;
+        }
+        
+        public void setIdentifyConcurrency(int identifyConcurrency) {
+            this.identifyConcurrency = identifyConcurrency;
+        }
+        
+        public int getIdentifyQueueCapacity() {
+            return identifyQueueCapacity;
+        }
+        
+        public void setIdentifyQueueCapacity(int identifyQueueCapacity) {
+            this.identifyQueueCapacity = identifyQueueCapacity;
+        }
+        
+        public List<String> getAllowedOriginPatterns() {
+            return allowedOriginPatterns;
+        }
+        
+        public void setAllowedOriginPatterns(List<String> allowedOriginPatterns) {
+            this.allowedOriginPatterns = allowedOriginPatterns;
+        }
+        
+        public int getMaxFrameBytes() {
+            return maxFrameBytes;
+        }
+        
+        public void setMaxFrameBytes(int maxFrameBytes) {
+            this.maxFrameBytes = maxFrameBytes;
+        }
+    }
+    
     @Override
     public String toString() {
         return "VoiceprintConfig{" +
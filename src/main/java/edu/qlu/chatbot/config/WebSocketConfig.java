@@ -0,0 +1,42 @@
+package edu.qlu.chatbot.config;
+
+import edu.qlu.chatbot.controller.VoiceprintStreamHandler;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * WebSocket配置类
+ *
+ * 主要功能：
+ * - 注册实时声纹识别端点 /ws/voiceprint/identify
+ * - 握手请求经限流拦截器按客户端限流
+ * - 允许的来源由 iflytek.voiceprint.stream.allowed-origin-patterns 配置
+ *
+ * @author QLU AI Team
+ * @since 1.0.0
+ */
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final VoiceprintStreamHandler voiceprintStreamHandler;
+    private final RateLimitInterceptor rateLimitInterceptor;
+    private final VoiceprintConfig voiceprintConfig;
+
+    public WebSocketConfig(VoiceprintStreamHandler voiceprintStreamHandler,
+                           RateLimitInterceptor rateLimitInterceptor,
+                           VoiceprintConfig voiceprintConfig) {
+        this.voiceprintStreamHandler = voiceprintStreamHandler;
+        this.rateLimitInterceptor = rateLimitInterceptor;
+        this.voiceprintConfig = voiceprintConfig;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(voiceprintStreamHandler, "/ws/voiceprint/identify")
+                .addInterceptors(rateLimitInterceptor)
+                .setAllowedOriginPatterns(voiceprintConfig.getStream().getAllowedOriginPatterns().toArray(String[]::new));
+    }
+}
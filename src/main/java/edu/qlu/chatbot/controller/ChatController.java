@@ -1,11 +1,17 @@
 package edu.qlu.chatbot.controller;
 
+import edu.qlu.chatbot.config.DeadlineProperties;
 import edu.qlu.chatbot.model.ChatRequest;
 import edu.qlu.chatbot.model.ChatResponse;
 import edu.qlu.chatbot.service.ChatService;
 import edu.qlu.chatbot.service.DataCollectionService;
+import edu.qlu.chatbot.service.DeadlineExceededException;
+import edu.qlu.chatbot.service.RateLimitExceededException;
+import edu.qlu.chatbot.service.RequestDeadline;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -32,15 +38,20 @@ public class ChatController {
 
     private final ChatService chatService;
     private final DataCollectionService dataCollectionService;
+    private final DeadlineProperties deadlineProperties;
 
-    public ChatController(ChatService chatService, DataCollectionService dataCollectionService) {
+    public ChatController(ChatService chatService, DataCollectionService dataCollectionService,
+                          DeadlineProperties deadlineProperties) {
         this.chatService = chatService;
         this.dataCollectionService = dataCollectionService;
+        this.deadlineProperties = deadlineProperties;
     }
 
     /**
      * 聊天接口
      * 
+     * 请求在配置的时间预算内处理，超时返回504，模型、工具与数据库调用不再继续
+     * 
      * @param request 聊天请求
      * @return 聊天响应
      */
@@ -48,9 +59,18 @@ public class ChatController {
     public ResponseEntity<ChatResponse> chat(@Valid @RequestBody ChatRequest request) {
         logger.info("收到聊天请求: {}", request);
         
-        try {
+        try (RequestDeadline.Scope deadline = RequestDeadline.start(deadlineProperties.chatBudgetMs())) {
             ChatResponse response = chatService.chat(request);
             return ResponseEntity.ok(response);
+        } catch (DeadlineExceededException e) {
+            logger.warn("聊天请求处理超时: stage={}", e.getStage());
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                    .body(ChatResponse.error("请求处理超时，请稍后再试", request.getConversationId()));
+        } catch (RateLimitExceededException e) {
+            logger.warn("聊天请求排队超限: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()))
+                    .body(ChatResponse.error(e.getMessage(), request.getConversationId()));
         } catch (Exception e) {
             logger.error("处理聊天请求失败", e);
             ChatResponse errorResponse = ChatResponse.error(
@@ -0,0 +1,95 @@
+package edu.qlu.chatbot.controller;
+
+import edu.qlu.chatbot.service.KnowledgeSnapshotService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 知识库快照REST API控制器（管理员接口）
+ *
+ * 提供知识库快照的导出与导入：
+ * - 导出当前知识库到快照目录
+ * - 从快照目录导入知识库（可选覆盖）
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@RestController
+@RequestMapping("/api/v1/admin/knowledge-snapshot")
+public class KnowledgeSnapshotController {
+
+    private static final Logger logger = LoggerFactory.getLogger(KnowledgeSnapshotController.class);
+
+    private final KnowledgeSnapshotService knowledgeSnapshotService;
+
+    public KnowledgeSnapshotController(KnowledgeSnapshotService knowledgeSnapshotService) {
+        this.knowledgeSnapshotService = knowledgeSnapshotService;
+    }
+
+    /**
+     * 导出知识库快照接口
+     *
+     * @param file 快照文件名（*.qkb）
+     * @return 导出的行数、文件大小与耗时
+     */
+    @PostMapping("/export")
+    public ResponseEntity<Map<String, Object>> export(@RequestParam("file") String file) {
+        logger.info("导出知识库快照: {}", file);
+        try {
+            return success(knowledgeSnapshotService.export(file));
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (Exception e) {
+            logger.error("导出知识库快照接口异常", e);
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "系统异常: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 导入知识库快照接口
+     *
+     * @param file 快照文件名（*.qkb）
+     * @param replace 目标知识库非空时是否清空后导入（需开启 app.data-collection.snapshot.allow-replace，否则返回403）
+     * @return 导入的行数、文件大小与耗时
+     */
+    @PostMapping("/import")
+    public ResponseEntity<Map<String, Object>> importSnapshot(@RequestParam("file") String file,
+                                                              @RequestParam(value = "replace", defaultValue = "false")
+                                                              boolean replace) {
+        logger.info("导入知识库快照: {}, replace={}", file, replace);
+        try {
+            return success(knowledgeSnapshotService.importSnapshot(file, replace));
+        } catch (SecurityException e) {
+            logger.warn("拒绝覆盖导入知识库快照: {}", file);
+            return error(HttpStatus.FORBIDDEN, e.getMessage());
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (Exception e) {
+            logger.error("导入知识库快照接口异常", e);
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "系统异常: " + e.getMessage());
+        }
+    }
+
+    private static ResponseEntity<Map<String, Object>> success(KnowledgeSnapshotService.SnapshotResult result) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "success");
+        response.put("result", result);
+        return ResponseEntity.ok(response);
+    }
+
+    private static ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "error");
+        response.put("message", message);
+        return ResponseEntity.status(status).body(response);
+    }
+}
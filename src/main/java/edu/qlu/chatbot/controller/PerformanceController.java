@@ -0,0 +1,98 @@
+package edu.qlu.chatbot.controller;
+
+import edu.qlu.chatbot.config.ModelRouter;
+import edu.qlu.chatbot.service.PerformanceMetricsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 性能指标REST API控制器
+ *
+ * 提供热点路径（大模型、讯飞API、音频转换、Mapper语句、网页采集）的性能数据：
+ * - 性能摘要接口（JSON）
+ * - 各模型延迟与成本汇总接口
+ * - Prometheus文本格式抓取接口
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@RestController
+@RequestMapping("/api/v1/performance")
+public class PerformanceController {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceController.class);
+
+    private static final MediaType PROMETHEUS_TEXT =
+            MediaType.parseMediaType("text/plain; version=0.0.4; charset=utf-8");
+
+    private final PerformanceMetricsService performanceMetricsService;
+    private final ModelRouter modelRouter;
+
+    public PerformanceController(PerformanceMetricsService performanceMetricsService, ModelRouter modelRouter) {
+        this.performanceMetricsService = performanceMetricsService;
+        this.modelRouter = modelRouter;
+    }
+
+    /**
+     * 获取性能摘要接口
+     *
+     * @return 各计时器的调用次数、平均/最大耗时及分位数
+     */
+    @GetMapping("/statistics")
+    public ResponseEntity<Map<String, Object>> getStatistics() {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "success");
+            response.put("statistics", performanceMetricsService.getPerformanceSummary());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("查询性能摘要接口异常", e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "error");
+            response.put("message", "系统异常: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * 获取各模型延迟与成本汇总接口
+     *
+     * @return 各模型的调用次数、p95、单次成本及满足p95目标的最低成本模型建议
+     */
+    @GetMapping("/models")
+    public ResponseEntity<Map<String, Object>> getModelStatistics() {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "success");
+            response.put("statistics", modelRouter.getModelStatistics());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("查询模型统计接口异常", e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "error");
+            response.put("message", "系统异常: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Prometheus抓取接口
+     *
+     * @return Prometheus文本格式指标
+     */
+    @GetMapping("/prometheus")
+    public ResponseEntity<String> prometheus() {
+        return ResponseEntity.ok()
+                .contentType(PROMETHEUS_TEXT)
+                .body(performanceMetricsService.scrapePrometheus());
+    }
+}
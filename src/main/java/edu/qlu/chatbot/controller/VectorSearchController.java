@@ -0,0 +1,145 @@
+package edu.qlu.chatbot.controller;
+
+import edu.qlu.chatbot.service.VectorSearchBenchmark;
+import edu.qlu.chatbot.service.VectorSearchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 向量检索REST API控制器（管理员接口）
+ *
+ * 提供向量索引的维护与评估：
+ * - 为指定存储方式/索引维度创建HNSW索引
+ * - 以新的 m/ef_construction 并发重建HNSW索引
+ * - 在现有知识库上运行召回率/延迟基准（可比较多个 ef_search 取值）
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@RestController
+@RequestMapping("/api/v1/admin/vector-search")
+public class VectorSearchController {
+
+    private static final Logger logger = LoggerFactory.getLogger(VectorSearchController.class);
+
+    private final VectorSearchService vectorSearchService;
+    private final VectorSearchBenchmark vectorSearchBenchmark;
+
+    public VectorSearchController(VectorSearchService vectorSearchService,
+                                  VectorSearchBenchmark vectorSearchBenchmark) {
+        this.vectorSearchService = vectorSearchService;
+        this.vectorSearchBenchmark = vectorSearchBenchmark;
+    }
+
+    /**
+     * 创建向量索引接口
+     *
+     * @param mode 存储方式（FLOAT32/HALFVEC/BINARY）
+     * @param dimensions 索引使用的维度，0表示全部维度
+     * @return 索引名称与大小
+     */
+    @PostMapping("/indexes")
+    public ResponseEntity<Map<String, Object>> createIndex(@RequestParam("mode") String mode,
+                                                           @RequestParam(value = "dimensions", defaultValue = "0")
+                                                           int dimensions) {
+        try {
+            VectorSearchService.SearchPlan plan = new VectorSearchService.SearchPlan(
+                    VectorSearchService.StorageMode.valueOf(mode.toUpperCase(Locale.ROOT)),
+                    vectorSearchService.currentPlan().dimensions(), dimensions);
+            vectorSearchService.createIndex(plan);
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "success");
+            response.put("index", plan.indexName());
+            response.put("indexBytes", vectorSearchService.indexSize(plan));
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, "不支持的存储方式: " + mode);
+        } catch (Exception e) {
+            logger.error("创建向量索引接口异常", e);
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "系统异常: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 并发重建向量索引接口
+     *
+     * @param mode 存储方式（FLOAT32/HALFVEC/BINARY）
+     * @param dimensions 索引使用的维度，0表示全部维度
+     * @param m 每个节点的最大连接数
+     * @param efConstruction 构建时的候选列表大小
+     * @return 索引名称、构建参数、大小与耗时
+     */
+    @PostMapping("/indexes/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildIndex(@RequestParam("mode") String mode,
+                                                            @RequestParam(value = "dimensions", defaultValue = "0")
+                                                            int dimensions,
+                                                            @RequestParam("m") int m,
+                                                            @RequestParam("efConstruction") int efConstruction) {
+        logger.info("并发重建向量索引: mode={}, dimensions={}, m={}, efConstruction={}",
+                mode, dimensions, m, efConstruction);
+        try {
+            VectorSearchService.SearchPlan plan = new VectorSearchService.SearchPlan(
+                    VectorSearchService.StorageMode.valueOf(mode.toUpperCase(Locale.ROOT)),
+                    vectorSearchService.currentPlan().dimensions(), dimensions);
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "success");
+            response.put("result", vectorSearchService.rebuildIndex(plan, m, efConstruction));
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (Exception e) {
+            logger.error("重建向量索引接口异常", e);
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "系统异常: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 召回率/延迟基准接口
+     *
+     * @param queries 抽样查询数
+     * @param k 评估的top-k
+     * @param efSearch 比较的 ef_search 取值，缺省时使用配置的取值列表
+     * @return 各检索方案与 ef_search 的recall@k、平均/p50/p95延迟、索引大小与构建参数
+     */
+    @PostMapping("/benchmark")
+    public ResponseEntity<Map<String, Object>> benchmark(@RequestParam(value = "queries", defaultValue = "50") int queries,
+                                                         @RequestParam(value = "k", defaultValue = "10") int k,
+                                                         @RequestParam(value = "efSearch", required = false)
+                                                         List<Integer> efSearch) {
+        if (queries <= 0 || queries > 1000 || k <= 0 || k > 100) {
+            return error(HttpStatus.BAD_REQUEST, "queries取值1-1000，k取值1-100");
+        }
+        if (efSearch != null && efSearch.stream().anyMatch(ef -> ef <= 0 || ef > 1000)) {
+            return error(HttpStatus.BAD_REQUEST, "efSearch取值1-1000");
+        }
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "success");
+            response.put("currentPlan", vectorSearchService.currentPlan().toString());
+            response.put("results", efSearch == null ? vectorSearchBenchmark.run(queries, k)
+                    : vectorSearchBenchmark.run(queries, k, efSearch));
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("向量检索基准接口异常", e);
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "系统异常: " + e.getMessage());
+        }
+    }
+
+    private static ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "error");
+        response.put("message", message);
+        return ResponseEntity.status(status).body(response);
+    }
+}
@@ -1,20 +1,41 @@
 package edu.qlu.chatbot.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import edu.qlu.chatbot.config.DeadlineProperties;
+import edu.qlu.chatbot.config.VoiceprintConfig;
 import edu.qlu.chatbot.model.*;
+import edu.qlu.chatbot.service.DeadlineExceededException;
+import edu.qlu.chatbot.service.RateLimitExceededException;
+import edu.qlu.chatbot.service.RequestDeadline;
+import edu.qlu.chatbot.service.VoiceprintBatchEnrollmentService;
+import edu.qlu.chatbot.service.VoiceprintBatchEnrollmentService.BatchEnrollItem;
 import edu.qlu.chatbot.service.VoiceprintService;
 import edu.qlu.chatbot.service.AudioProcessingService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 声纹识别控制器
@@ -32,11 +53,24 @@ public class VoiceprintController {
     
     private final VoiceprintService voiceprintService;
     private final AudioProcessingService audioProcessingService;
+    private final VoiceprintBatchEnrollmentService batchEnrollmentService;
+    private final DeadlineProperties deadlineProperties;
+    private final VoiceprintConfig voiceprintConfig;
+    // 与Spring Boot默认配置一致：日期时间输出为ISO-8601字符串
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
     
     public VoiceprintController(VoiceprintService voiceprintService, 
-                              AudioProcessingService audioProcessingService) {
+                              AudioProcessingService audioProcessingService,
+                              VoiceprintBatchEnrollmentService batchEnrollmentService,
+                              DeadlineProperties deadlineProperties,
+                              VoiceprintConfig voiceprintConfig) {
         this.voiceprintService = voiceprintService;
         this.audioProcessingService = audioProcessingService;
+        this.batchEnrollmentService = batchEnrollmentService;
+        this.deadlineProperties = deadlineProperties;
+        this.voiceprintConfig = voiceprintConfig;
     }
     
     /**
@@ -86,9 +120,71 @@ public class VoiceprintController {
         }
     }
     
+    /**
+     * 声纹批量注册接口
+     * 
+     * 支持两种上传方式：
+     * - archive: ZIP压缩包，条目文件名或目录名以用户ID开头（如 1001.wav、1001/sample.wav）
+     * - userIds + files: 一一对应的用户ID列表与音频文件列表
+     * 
+     * 以NDJSON逐行返回每个条目的注册结果，最后一行为汇总信息。
+     * 响应流使用 iflytek.voiceprint.batch.stream-timeout-ms 作为异步超时，写出失败（客户端断开）时停止处理剩余条目
+     * 
+     * @param archive ZIP压缩包（可选）
+     * @param userIds 用户ID列表（可选）
+     * @param files 音频文件列表（可选）
+     * @param featureInfo 特征信息（可选）
+     * @param request HTTP请求（用于设置异步超时）
+     * @return NDJSON流式结果
+     */
+    @PostMapping(value = "/enroll/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> enrollVoiceprintBatch(
+            @RequestParam(value = "archive", required = false) MultipartFile archive,
+            @RequestParam(value = "userIds", required = false) List<Long> userIds,
+            @RequestParam(value = "files", required = false) List<MultipartFile> files,
+            @RequestParam(value = "featureInfo", required = false) String featureInfo,
+            HttpServletRequest request) {
+        
+        List<BatchEnrollItem> items;
+        try {
+            items = readBatchItems(archive, userIds, files);
+        } catch (IllegalArgumentException | IOException e) {
+            logger.warn("声纹批量注册请求无效: {}", e.getMessage());
+            VoiceprintEnrollResponse response = VoiceprintEnrollResponse.error(e.getMessage());
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(out -> writeNdjsonLine(out, response));
+        }
+        
+        logger.info("收到声纹批量注册请求: 条目数={}", items.size());
+        
+        StreamingResponseBody body = out -> batchEnrollmentService.enrollBatch(items, featureInfo, result -> {
+            synchronized (out) {
+                try {
+                    writeNdjsonLine(out, result);
+                    out.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+        
+        // 大批次需要数分钟，不使用Spring MVC默认的异步超时，避免结果流中途被截断
+        AsyncWebRequest asyncWebRequest = WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest();
+        if (asyncWebRequest != null) {
+            asyncWebRequest.setTimeout(voiceprintConfig.getBatch().getStreamTimeoutMs());
+        }
+        
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+    
     /**
      * 声纹识别接口
      * 
+     * 请求在配置的时间预算内处理，超时返回504，不再继续调用讯飞接口
+     * 
      * @param file 音频文件
      * @param request HTTP请求
      * @return 识别结果
@@ -98,7 +194,7 @@ public class VoiceprintController {
             @RequestParam("file") MultipartFile file,
             HttpServletRequest request) {
         
-        try {
+        try (RequestDeadline.Scope deadline = RequestDeadline.start(deadlineProperties.identifyBudgetMs())) {
             logger.info("收到声纹识别请求: fileName={}, fileSize={}", 
                        file.getOriginalFilename(), file.getSize());
             
@@ -121,6 +217,15 @@ public class VoiceprintController {
                 return ResponseEntity.badRequest().body(response);
             }
             
+        } catch (DeadlineExceededException e) {
+            logger.warn("声纹识别请求处理超时: stage={}", e.getStage());
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                    .body(VoiceprintIdentificationResponse.error("请求处理超时，请稍后再试"));
+        } catch (RateLimitExceededException e) {
+            logger.warn("声纹识别请求排队超限: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()))
+                    .body(VoiceprintIdentificationResponse.error(e.getMessage()));
         } catch (Exception e) {
             logger.error("声纹识别接口异常", e);
             VoiceprintIdentificationResponse response = VoiceprintIdentificationResponse.error("系统异常: " + e.getMessage());
@@ -211,41 +316,60 @@ public class VoiceprintController {
     /**
      * 获取识别日志接口
      * 
+     * 日志以数据库游标逐条读出并直接写入响应，不在内存中构造完整列表；
+     * 每条日志只输出 fields 参数选择的字段（逗号分隔，"*" 为全部字段，缺省为常用字段），
+     * 日志条数 count 在列表之后输出。
+     * 
      * @param userId 用户ID（可选）
      * @param limit 限制数量
+     * @param fields 返回的字段（可选）
      * @return 识别日志列表
      */
     @GetMapping("/logs")
-    public ResponseEntity<Map<String, Object>> getIdentificationLogs(
+    public ResponseEntity<StreamingResponseBody> getIdentificationLogs(
             @RequestParam(value = "userId", required = false) Long userId,
-            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+            @RequestParam(value = "limit", defaultValue = "50") int limit,
+            @RequestParam(value = "fields", required = false) String fields) {
         
+        logger.info("收到查询识别日志请求: userId={}, limit={}, fields={}", userId, limit, fields);
+        
+        Set<VoiceprintIdentificationLogView.Field> selectedFields;
         try {
-            logger.info("收到查询识别日志请求: userId={}, limit={}", userId, limit);
-            
-            if (limit <= 0 || limit > 1000) {
-                limit = 50; // 默认限制
-            }
-            
-            List<VoiceprintIdentificationLog> logs = voiceprintService.getIdentificationLogs(userId, limit);
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("status", "success");
-            response.put("logs", logs);
-            response.put("count", logs.size());
-            response.put("userId", userId);
-            response.put("limit", limit);
-            
-            logger.info("查询识别日志完成: userId={}, count={}", userId, logs.size());
-            return ResponseEntity.ok(response);
-            
-        } catch (Exception e) {
-            logger.error("查询识别日志接口异常: userId={}", userId, e);
+            selectedFields = VoiceprintIdentificationLogView.parseFields(fields);
+        } catch (IllegalArgumentException e) {
             Map<String, Object> response = new HashMap<>();
             response.put("status", "error");
-            response.put("message", "系统异常: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> out.write(objectMapper.writeValueAsBytes(response)));
         }
+        
+        int effectiveLimit = limit <= 0 || limit > 1000 ? 50 : limit; // 默认限制
+        StreamingResponseBody body = out -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+            generator.writeStartObject();
+            generator.writeStringField("status", "success");
+            generator.writeObjectField("userId", userId);
+            generator.writeNumberField("limit", effectiveLimit);
+            generator.writeArrayFieldStart("logs");
+            int count = voiceprintService.streamIdentificationLogs(userId, effectiveLimit, log -> {
+                try {
+                    generator.writeObject(VoiceprintIdentificationLogView.of(log, selectedFields));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+            generator.writeNumberField("count", count);
+            generator.writeEndObject();
+            generator.flush();
+            logger.info("查询识别日志完成: userId={}, count={}", userId, count);
+        };
+        
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
     
     /**
@@ -313,6 +437,23 @@ public class VoiceprintController {
         }
     }
     
+    /**
+     * 将批量注册请求参数转换为条目列表
+     */
+    private List<BatchEnrollItem> readBatchItems(MultipartFile archive, List<Long> userIds,
+                                                 List<MultipartFile> files) throws IOException {
+        if (archive != null && !archive.isEmpty()) {
+            return batchEnrollmentService.readZipArchive(archive.getInputStream());
+        }
+        
+        return batchEnrollmentService.readMultipartItems(userIds, files);
+    }
+    
+    private void writeNdjsonLine(OutputStream out, Object value) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(value));
+        out.write("\n".getBytes(StandardCharsets.UTF_8));
+    }
+    
     /**
      * 健康检查接口
      * 
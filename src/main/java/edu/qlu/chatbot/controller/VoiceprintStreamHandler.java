@@ -0,0 +1,315 @@
+package edu.qlu.chatbot.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.qlu.chatbot.config.ClientIpResolver;
+import edu.qlu.chatbot.config.DeadlineProperties;
+import edu.qlu.chatbot.config.VoiceprintConfig;
+import edu.qlu.chatbot.model.VoiceprintIdentificationResponse;
+import edu.qlu.chatbot.service.AudioProcessingService;
+import edu.qlu.chatbot.service.AudioProcessingService.AudioProcessingException;
+import edu.qlu.chatbot.service.AudioProcessingService.StreamingAudioNormalizer;
+import edu.qlu.chatbot.service.DeadlineExceededException;
+import edu.qlu.chatbot.service.RateLimitExceededException;
+import edu.qlu.chatbot.service.RequestDeadline;
+import edu.qlu.chatbot.service.VoiceprintService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 实时声纹识别WebSocket处理器
+ *
+ * 通信协议：
+ * 1. 客户端发送文本消息 {"type":"start","sampleRate":48000,"channels":1}
+ * 2. 客户端持续发送二进制消息（16bit小端PCM）
+ * 3. 服务端逐帧规范化音频并推送 {"type":"progress"}，
+ *    有效语音达到 min-speech-ms（或总时长达到 max-duration-ms）时立即触发识别
+ * 4. 服务端推送 {"type":"result","data":{...}} 后关闭连接
+ * 客户端也可发送 {"type":"stop"} 以当前已采集的音频立即识别。
+ *
+ * 识别从触发时刻起受请求截止时间约束，连接关闭时截止时间随之取消，尚未发出的讯飞调用不再执行。
+ *
+ * @author QLU AI Team
+ * @since 1.0.0
+ */
+@Component
+public class VoiceprintStreamHandler extends AbstractWebSocketHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(VoiceprintStreamHandler.class);
+
+    private static final int SEND_TIME_LIMIT_MS = 5000;
+    private static final int SEND_BUFFER_LIMIT_BYTES = 64 * 1024;
+    private static final long PROGRESS_INTERVAL_MS = 500;
+
+    private final VoiceprintService voiceprintService;
+    private final AudioProcessingService audioProcessingService;
+    private final VoiceprintConfig config;
+    private final ObjectMapper objectMapper;
+    private final DeadlineProperties deadlineProperties;
+
+    private final Map<String, StreamState> states = new ConcurrentHashMap<>();
+    private final ExecutorService identifyExecutor;
+
+    public VoiceprintStreamHandler(VoiceprintService voiceprintService,
+                                   AudioProcessingService audioProcessingService,
+                                   VoiceprintConfig config,
+                                   ObjectMapper objectMapper,
+                                   DeadlineProperties deadlineProperties) {
+        this.voiceprintService = voiceprintService;
+        this.audioProcessingService = audioProcessingService;
+        this.config = config;
+        this.objectMapper = objectMapper;
+        this.deadlineProperties = deadlineProperties;
+
+        // 有界队列：积压超过上限时拒绝新的识别并提示服务繁忙，而不是无限排队直到超时
+        AtomicInteger threadCounter = new AtomicInteger();
+        int threads = Math.max(1, config.getStream().getIdentifyConcurrency());
+        this.identifyExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, config.getStream().getIdentifyQueueCapacity())),
+            runnable -> {
+                Thread thread = new Thread(runnable, "voiceprint-stream-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        session.setBinaryMessageSizeLimit(config.getStream().getMaxFrameBytes());
+        WebSocketSession safeSession = new ConcurrentWebSocketSessionDecorator(
+            session, SEND_TIME_LIMIT_MS, SEND_BUFFER_LIMIT_BYTES);
+        String clientIp = resolveClientIp(session);
+        Object clientKey = session.getAttributes().get(ClientIpResolver.CLIENT_KEY_ATTRIBUTE);
+        states.put(session.getId(), new StreamState(safeSession,
+                                                    clientKey != null ? clientKey.toString() : ClientIpResolver.clientKey(null, clientIp),
+                                                    clientIp,
+                                                    session.getHandshakeHeaders().getFirst(HttpHeaders.USER_AGENT)));
+        logger.info("实时声纹识别连接建立: sessionId={}", session.getId());
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        StreamState state = states.get(session.getId());
+        if (state == null) {
+            return;
+        }
+
+        JsonNode command = objectMapper.readTree(message.getPayload());
+        String type = command.path("type").asText();
+        switch (type) {
+            case "start" -> {
+                if (state.normalizer != null) {
+                    sendError(state, "会话已开始");
+                    return;
+                }
+                int sampleRate = command.path("sampleRate").asInt(config.getAudio().getTargetSampleRate());
+                int channels = command.path("channels").asInt(1);
+                try {
+                    state.normalizer = audioProcessingService.createStreamingNormalizer(sampleRate, channels);
+                } catch (AudioProcessingException e) {
+                    sendError(state, e.getMessage());
+                    state.session.close(CloseStatus.BAD_DATA);
+                    return;
+                }
+                logger.info("实时声纹识别开始: sessionId={}, sampleRate={}, channels={}",
+                           session.getId(), sampleRate, channels);
+                send(state, Map.of("type", "ready",
+                                   "minSpeechMs", config.getStream().getMinSpeechMs(),
+                                   "maxDurationMs", config.getStream().getMaxDurationMs()));
+            }
+            case "stop" -> {
+                if (state.normalizer == null || state.normalizer.getDurationMillis() == 0) {
+                    sendError(state, "尚未接收到音频数据");
+                    return;
+                }
+                triggerIdentification(state, "stop");
+            }
+            default -> sendError(state, "未知的消息类型: " + type);
+        }
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws Exception {
+        StreamState state = states.get(session.getId());
+        if (state == null || state.triggered) {
+            // 已触发识别后继续到达的音频帧直接丢弃
+            return;
+        }
+        if (state.normalizer == null) {
+            sendError(state, "请先发送start消息");
+            return;
+        }
+
+        ByteBuffer payload = message.getPayload();
+        if (payload.hasArray()) {
+            state.normalizer.append(payload.array(), payload.arrayOffset() + payload.position(), payload.remaining());
+        } else {
+            byte[] bytes = new byte[payload.remaining()];
+            payload.get(bytes);
+            state.normalizer.append(bytes, 0, bytes.length);
+        }
+
+        long speechMs = state.normalizer.getSpeechMillis();
+        long durationMs = state.normalizer.getDurationMillis();
+        if (speechMs >= config.getStream().getMinSpeechMs()) {
+            triggerIdentification(state, "speech");
+        } else if (durationMs >= config.getStream().getMaxDurationMs()) {
+            triggerIdentification(state, "maxDuration");
+        } else {
+            long now = System.currentTimeMillis();
+            if (now - state.lastProgressAt >= PROGRESS_INTERVAL_MS) {
+                state.lastProgressAt = now;
+                send(state, Map.of("type", "progress", "speechMs", speechMs, "durationMs", durationMs));
+            }
+        }
+    }
+
+    /**
+     * 触发识别（每个会话仅一次），识别在独立线程池中执行，不阻塞音频帧的接收
+     */
+    private void triggerIdentification(StreamState state, String reason) throws IOException {
+        if (state.triggered) {
+            return;
+        }
+        state.triggered = true;
+
+        StreamingAudioNormalizer normalizer = state.normalizer;
+        String audioBase64 = normalizer.toBase64();
+        String audioFileName = "stream_" + state.session.getId() + ".pcm";
+        logger.info("实时声纹识别触发: sessionId={}, reason={}, speechMs={}, durationMs={}",
+                   state.session.getId(), reason, normalizer.getSpeechMillis(), normalizer.getDurationMillis());
+
+        send(state, Map.of("type", "identifying", "reason", reason,
+                           "speechMs", normalizer.getSpeechMillis(), "durationMs", normalizer.getDurationMillis()));
+
+        RequestDeadline deadline = RequestDeadline.of(deadlineProperties.identifyBudgetMs());
+        state.deadline = deadline;
+        try {
+            identifyExecutor.execute(() -> {
+                VoiceprintIdentificationResponse response;
+                try (RequestDeadline.Scope scope = RequestDeadline.bind(deadline)) {
+                    response = voiceprintService.identifyAudio(
+                        audioBase64, audioFileName, state.clientKey, state.clientIp, state.userAgent);
+                } catch (RateLimitExceededException e) {
+                    closeOverloaded(state, e.getMessage());
+                    return;
+                } catch (DeadlineExceededException e) {
+                    logger.warn("实时声纹识别超时或连接已关闭: sessionId={}, stage={}",
+                               state.session.getId(), e.getStage());
+                    closeOverloaded(state, "识别超时，请稍后重试");
+                    return;
+                }
+                try {
+                    Map<String, Object> result = new LinkedHashMap<>();
+                    result.put("type", "result");
+                    result.put("data", response);
+                    send(state, result);
+                    state.session.close(CloseStatus.NORMAL);
+                } catch (IOException e) {
+                    logger.warn("实时声纹识别结果发送失败: sessionId={}, error={}",
+                               state.session.getId(), e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            sendError(state, "服务繁忙，请稍后重试");
+            state.session.close(CloseStatus.SERVICE_OVERLOAD);
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        logger.warn("实时声纹识别连接异常: sessionId={}, error={}", session.getId(), exception.getMessage());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        StreamState state = states.remove(session.getId());
+        if (state != null && state.deadline != null) {
+            // 客户端已断开，放弃尚未完成的识别
+            state.deadline.cancel();
+        }
+        logger.info("实时声纹识别连接关闭: sessionId={}, status={}", session.getId(), status);
+    }
+
+    private void closeOverloaded(StreamState state, String message) {
+        try {
+            sendError(state, message);
+            state.session.close(CloseStatus.SERVICE_OVERLOAD);
+        } catch (IOException e) {
+            logger.warn("实时声纹识别限流通知发送失败: sessionId={}, error={}",
+                       state.session.getId(), e.getMessage());
+        }
+    }
+
+    private void send(StreamState state, Object payload) throws IOException {
+        if (state.session.isOpen()) {
+            state.session.sendMessage(new TextMessage(objectMapper.writeValueAsString(payload)));
+        }
+    }
+
+    private void sendError(StreamState state, String message) throws IOException {
+        send(state, Map.of("type", "error", "message", message));
+    }
+
+    /**
+     * 客户端IP：取握手时限流拦截器解析的IP（已按可信代理处理代理头），否则为连接地址
+     */
+    private String resolveClientIp(WebSocketSession session) {
+        Object clientIp = session.getAttributes().get(ClientIpResolver.CLIENT_IP_ATTRIBUTE);
+        if (clientIp != null) {
+            return clientIp.toString();
+        }
+        InetSocketAddress remoteAddress = session.getRemoteAddress();
+        return remoteAddress != null ? remoteAddress.getAddress().getHostAddress() : null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        identifyExecutor.shutdown();
+    }
+
+    /**
+     * 单个WebSocket会话的识别状态
+     * 消息处理在同一会话内串行执行，识别结果在线程池中发送，因此标志位使用volatile
+     */
+    private static class StreamState {
+        private final WebSocketSession session;
+        private final String clientKey;
+        private final String clientIp;
+        private final String userAgent;
+        private StreamingAudioNormalizer normalizer;
+        private volatile boolean triggered;
+        private volatile RequestDeadline deadline;
+        private long lastProgressAt;
+
+        StreamState(WebSocketSession session, String clientKey, String clientIp, String userAgent) {
+            this.session = session;
+            this.clientKey = clientKey;
+            this.clientIp = clientIp;
+            this.userAgent = userAgent;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package edu.qlu.chatbot.mapper;
+
+import edu.qlu.chatbot.model.CalendarEvent;
+import edu.qlu.chatbot.model.ExamSlot;
+import org.apache.ibatis.annotations.*;
+
+import java.util.List;
+
+/**
+ * 教务日程MyBatis Mapper
+ *
+ * 提供对 academic_calendar_events、exam_slots 表的全量读取，供教务日程缓存定期加载
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@Mapper
+public interface AcademicScheduleMapper {
+
+    /**
+     * 查询全部校历事件
+     */
+    @Select("SELECT id, semester, title, category, start_date, end_date FROM academic_calendar_events ORDER BY start_date")
+    @Results({
+        @Result(property = "startDate", column = "start_date"),
+        @Result(property = "endDate", column = "end_date")
+    })
+    List<CalendarEvent> findAllCalendarEvents();
+
+    /**
+     * 查询全部考试场次
+     */
+    @Select("SELECT id, semester, course_name, exam_date, start_time, end_time, location FROM exam_slots ORDER BY exam_date, start_time")
+    @Results({
+        @Result(property = "courseName", column = "course_name"),
+        @Result(property = "examDate", column = "exam_date"),
+        @Result(property = "startTime", column = "start_time"),
+        @Result(property = "endTime", column = "end_time")
+    })
+    List<ExamSlot> findAllExamSlots();
+}
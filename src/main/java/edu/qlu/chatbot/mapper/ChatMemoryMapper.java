@@ -0,0 +1,104 @@
+package edu.qlu.chatbot.mapper;
+
+import edu.qlu.chatbot.model.ChatMemoryRecord;
+import org.apache.ibatis.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 会话记忆MyBatis Mapper
+ *
+ * 提供对 ai_chat_memory 表的读写操作
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@Mapper
+public interface ChatMemoryMapper {
+
+    /**
+     * 批量插入消息
+     */
+    @Insert("""
+        <script>
+        INSERT INTO ai_chat_memory (conversation_id, message_type, content, metadata, created_at)
+        VALUES
+        <foreach collection="records" item="r" separator=",">
+            (#{r.conversationId}, #{r.messageType}, #{r.content}, CAST(#{r.metadata} AS JSONB), #{r.createdAt})
+        </foreach>
+        </script>
+        """)
+    int batchInsert(@Param("records") List<ChatMemoryRecord> records);
+
+    /**
+     * 查询会话在指定时间之后最近的若干条消息（按时间正序返回，不含摘要记录）
+     */
+    @Select("""
+        <script>
+        SELECT conversation_id, message_type, content, created_at FROM (
+            SELECT conversation_id, message_type, content, created_at
+            FROM ai_chat_memory
+            WHERE conversation_id = #{conversationId}
+              AND message_type &lt;&gt; 'SUMMARY'
+              <if test="after != null">AND created_at &gt; #{after}</if>
+            ORDER BY created_at DESC
+            LIMIT #{limit}
+        ) recent
+        ORDER BY created_at ASC
+        </script>
+        """)
+    @Results({
+        @Result(property = "conversationId", column = "conversation_id"),
+        @Result(property = "messageType", column = "message_type"),
+        @Result(property = "createdAt", column = "created_at")
+    })
+    List<ChatMemoryRecord> findRecentByConversationId(@Param("conversationId") String conversationId,
+                                                      @Param("after") LocalDateTime after,
+                                                      @Param("limit") int limit);
+
+    /**
+     * 查询会话的滚动摘要
+     */
+    @Select("""
+        SELECT conversation_id, message_type, content, CAST(metadata AS TEXT) AS metadata, created_at
+        FROM ai_chat_memory
+        WHERE conversation_id = #{conversationId} AND message_type = 'SUMMARY'
+        ORDER BY created_at DESC
+        LIMIT 1
+        """)
+    @Results({
+        @Result(property = "conversationId", column = "conversation_id"),
+        @Result(property = "messageType", column = "message_type"),
+        @Result(property = "createdAt", column = "created_at")
+    })
+    ChatMemoryRecord findSummary(String conversationId);
+
+    /**
+     * 删除会话的滚动摘要
+     */
+    @Delete("DELETE FROM ai_chat_memory WHERE conversation_id = #{conversationId} AND message_type = 'SUMMARY'")
+    int deleteSummary(String conversationId);
+
+    /**
+     * 删除会话中超出保留条数的旧消息（摘要记录不参与裁剪）
+     */
+    @Delete("""
+        DELETE FROM ai_chat_memory
+        WHERE conversation_id = #{conversationId}
+          AND message_type <> 'SUMMARY'
+          AND created_at <= (
+            SELECT created_at FROM ai_chat_memory
+            WHERE conversation_id = #{conversationId} AND message_type <> 'SUMMARY'
+            ORDER BY created_at DESC
+            OFFSET #{keep} LIMIT 1
+          )
+        """)
+    int trimConversation(@Param("conversationId") String conversationId, @Param("keep") int keep);
+
+    /**
+     * 删除会话的全部消息
+     */
+    @Delete("DELETE FROM ai_chat_memory WHERE conversation_id = #{conversationId}")
+    int deleteByConversationId(String conversationId);
+}
@@ -1,7 +1,10 @@
 package edu.qlu.chatbot.mapper;
 
 import edu.qlu.chatbot.model.KnowledgeDocument;
+import edu.qlu.chatbot.model.KnowledgeDocumentSummary;
 import org.apache.ibatis.annotations.*;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -9,7 +12,8 @@ import java.util.List;
 /**
  * 知识文档MyBatis Mapper
  * 
- * 提供对KnowledgeDocument实体的数据库操作
+ * 提供对KnowledgeDocument实体的数据库操作。列表查询只返回 {@link KnowledgeDocumentSummary}（不含正文），
+ * 正文通过 findById / findContentById 按需加载。
  * 
  * @author AI Assistant
  * @version 1.0.0
@@ -17,18 +21,64 @@ import java.util.List;
 @Mapper
 public interface KnowledgeDocumentMapper {
 
+    /**
+     * 摘要投影列（不含 content）
+     */
+    String SUMMARY_COLUMNS =
+            "id, title, source_url, document_type, category, created_at, updated_at, vectorized, status";
+
     /**
      * 插入新文档
      */
     @Insert("""
         INSERT INTO knowledge_documents 
-        (title, content, source_url, document_type, category, created_at, updated_at, vectorized, status)
+        (title, content, source_url, document_type, category, created_at, updated_at, vectorized, status, simhash)
         VALUES (#{title}, #{content}, #{sourceUrl}, #{documentType}, #{category}, 
-                #{createdAt}, #{updatedAt}, #{vectorized}, #{status})
+                #{createdAt}, #{updatedAt}, #{vectorized}, #{status}, #{simhash})
         """)
     @Options(useGeneratedKeys = true, keyProperty = "id")
     int insert(KnowledgeDocument document);
 
+    /**
+     * 批量插入或更新文档（按source_url），已存在的文档保留创建时间，其余字段以本次采集为准
+     *
+     * 同一批次中source_url不能重复；生成的ID按批次顺序回填到各文档
+     */
+    @Insert("""
+        <script>
+        INSERT INTO knowledge_documents
+        (title, content, source_url, document_type, category, created_at, updated_at, vectorized, status, simhash)
+        VALUES
+        <foreach collection="documents" item="d" separator=",">
+            (#{d.title}, #{d.content}, #{d.sourceUrl}, #{d.documentType}, #{d.category},
+             #{d.createdAt}, #{d.updatedAt}, #{d.vectorized}, #{d.status}, #{d.simhash})
+        </foreach>
+        ON CONFLICT (source_url) DO UPDATE SET
+            title = EXCLUDED.title, content = EXCLUDED.content, document_type = EXCLUDED.document_type,
+            category = EXCLUDED.category, updated_at = EXCLUDED.updated_at, vectorized = EXCLUDED.vectorized,
+            status = EXCLUDED.status, simhash = EXCLUDED.simhash
+        </script>
+        """)
+    @Options(useGeneratedKeys = true, keyProperty = "documents.id", keyColumn = "id")
+    int batchUpsert(@Param("documents") List<KnowledgeDocument> documents);
+
+    /**
+     * 标记文档已向量化（分块在文档写入成功后才同步到向量库）
+     */
+    @Update("""
+        <script>
+        UPDATE knowledge_documents SET vectorized = TRUE WHERE id IN
+        <foreach collection="ids" item="id" open="(" separator="," close=")">#{id}</foreach>
+        </script>
+        """)
+    int markVectorized(@Param("ids") List<Long> ids);
+
+    /**
+     * 按ID加载文档正文（摘要列表中的文档需要正文时按需加载）
+     */
+    @Select("SELECT content FROM knowledge_documents WHERE id = #{id}")
+    String findContentById(Long id);
+
     /**
      * 根据ID查找文档
      */
@@ -54,70 +104,77 @@ public interface KnowledgeDocumentMapper {
     KnowledgeDocument findBySourceUrl(String sourceUrl);
 
     /**
-     * 检查URL是否已存在
+     * 检查URL是否已存在（包括已归并为近似重复文档备用URL的地址）
      */
-    @Select("SELECT COUNT(*) FROM knowledge_documents WHERE source_url = #{sourceUrl}")
+    @Select("""
+        SELECT COUNT(*) FROM (
+            SELECT source_url FROM knowledge_documents WHERE source_url = #{sourceUrl}
+            UNION
+            SELECT source_url FROM knowledge_document_aliases WHERE source_url = #{sourceUrl}
+        ) urls
+        """)
     boolean existsBySourceUrl(String sourceUrl);
 
+    /**
+     * 根据ID查找文档的源URL，文档不存在时返回null
+     */
+    @Select("SELECT source_url FROM knowledge_documents WHERE id = #{id}")
+    String findSourceUrlById(Long id);
+
+    /**
+     * 记录近似重复文档的备用URL，URL已记录时忽略
+     */
+    @Insert("""
+        INSERT INTO knowledge_document_aliases (source_url, canonical_id, hamming_distance, created_at)
+        VALUES (#{sourceUrl}, #{canonicalId}, #{hammingDistance}, NOW())
+        ON CONFLICT (source_url) DO NOTHING
+        """)
+    int insertAlias(@Param("sourceUrl") String sourceUrl, @Param("canonicalId") Long canonicalId,
+                    @Param("hammingDistance") int hammingDistance);
+
+    /**
+     * 查找归并到规范文档的备用URL
+     */
+    @Select("SELECT source_url FROM knowledge_document_aliases WHERE canonical_id = #{canonicalId} ORDER BY created_at")
+    List<String> findAlternateUrls(Long canonicalId);
+
+    /**
+     * 逐行扫描所有文档指纹（启动时重建近似重复索引，不在内存中缓存结果列表）
+     */
+    @Select("SELECT id, simhash FROM knowledge_documents WHERE simhash IS NOT NULL")
+    @Options(fetchSize = 1000)
+    @ResultType(Fingerprint.class)
+    void scanFingerprints(ResultHandler<Fingerprint> handler);
+
     /**
      * 根据文档类型查找文档
      */
-    @Select("SELECT * FROM knowledge_documents WHERE document_type = #{documentType}")
-    @Results({
-        @Result(property = "sourceUrl", column = "source_url"),
-        @Result(property = "documentType", column = "document_type"),
-        @Result(property = "createdAt", column = "created_at"),
-        @Result(property = "updatedAt", column = "updated_at")
-    })
-    List<KnowledgeDocument> findByDocumentType(String documentType);
+    @Select("SELECT " + SUMMARY_COLUMNS + " FROM knowledge_documents WHERE document_type = #{documentType}")
+    List<KnowledgeDocumentSummary> findByDocumentType(String documentType);
 
     /**
      * 根据分类查找文档
      */
-    @Select("SELECT * FROM knowledge_documents WHERE category = #{category}")
-    @Results({
-        @Result(property = "sourceUrl", column = "source_url"),
-        @Result(property = "documentType", column = "document_type"),
-        @Result(property = "createdAt", column = "created_at"),
-        @Result(property = "updatedAt", column = "updated_at")
-    })
-    List<KnowledgeDocument> findByCategory(String category);
+    @Select("SELECT " + SUMMARY_COLUMNS + " FROM knowledge_documents WHERE category = #{category}")
+    List<KnowledgeDocumentSummary> findByCategory(String category);
 
     /**
      * 查找未向量化的文档
      */
-    @Select("SELECT * FROM knowledge_documents WHERE vectorized = false AND status = 'COMPLETED'")
-    @Results({
-        @Result(property = "sourceUrl", column = "source_url"),
-        @Result(property = "documentType", column = "document_type"),
-        @Result(property = "createdAt", column = "created_at"),
-        @Result(property = "updatedAt", column = "updated_at")
-    })
-    List<KnowledgeDocument> findUnvectorizedDocuments();
+    @Select("SELECT " + SUMMARY_COLUMNS + " FROM knowledge_documents WHERE vectorized = false AND status = 'COMPLETED'")
+    List<KnowledgeDocumentSummary> findUnvectorizedDocuments();
 
     /**
      * 根据处理状态查找文档
      */
-    @Select("SELECT * FROM knowledge_documents WHERE status = #{status}")
-    @Results({
-        @Result(property = "sourceUrl", column = "source_url"),
-        @Result(property = "documentType", column = "document_type"),
-        @Result(property = "createdAt", column = "created_at"),
-        @Result(property = "updatedAt", column = "updated_at")
-    })
-    List<KnowledgeDocument> findByStatus(String status);
+    @Select("SELECT " + SUMMARY_COLUMNS + " FROM knowledge_documents WHERE status = #{status}")
+    List<KnowledgeDocumentSummary> findByStatus(String status);
 
     /**
      * 查找最近更新的文档
      */
-    @Select("SELECT * FROM knowledge_documents WHERE updated_at > #{since}")
-    @Results({
-        @Result(property = "sourceUrl", column = "source_url"),
-        @Result(property = "documentType", column = "document_type"),
-        @Result(property = "createdAt", column = "created_at"),
-        @Result(property = "updatedAt", column = "updated_at")
-    })
-    List<KnowledgeDocument> findByUpdatedAtAfter(LocalDateTime since);
+    @Select("SELECT " + SUMMARY_COLUMNS + " FROM knowledge_documents WHERE updated_at > #{since}")
+    List<KnowledgeDocumentSummary> findByUpdatedAtAfter(LocalDateTime since);
 
     /**
      * 按分类统计文档数量
@@ -126,32 +183,21 @@ public interface KnowledgeDocumentMapper {
     List<CategoryCount> countByCategory();
 
     /**
-     * 根据关键词搜索文档（标题和内容）
+     * 根据关键词搜索文档（标题和内容），只返回摘要列
      */
-    @Select("""
-        SELECT * FROM knowledge_documents 
-        WHERE LOWER(title) LIKE LOWER(CONCAT('%', #{keyword}, '%')) 
+    @Select("SELECT " + SUMMARY_COLUMNS + """
+         FROM knowledge_documents
+        WHERE LOWER(title) LIKE LOWER(CONCAT('%', #{keyword}, '%'))
            OR LOWER(content) LIKE LOWER(CONCAT('%', #{keyword}, '%'))
         """)
-    @Results({
-        @Result(property = "sourceUrl", column = "source_url"),
-        @Result(property = "documentType", column = "document_type"),
-        @Result(property = "createdAt", column = "created_at"),
-        @Result(property = "updatedAt", column = "updated_at")
-    })
-    List<KnowledgeDocument> searchByKeyword(String keyword);
+    List<KnowledgeDocumentSummary> searchByKeyword(String keyword);
 
     /**
      * 查找待处理的文档（用于批量处理）
      */
-    @Select("SELECT * FROM knowledge_documents WHERE status = 'PENDING' ORDER BY created_at ASC LIMIT #{limit}")
-    @Results({
-        @Result(property = "sourceUrl", column = "source_url"),
-        @Result(property = "documentType", column = "document_type"),
-        @Result(property = "createdAt", column = "created_at"),
-        @Result(property = "updatedAt", column = "updated_at")
-    })
-    List<KnowledgeDocument> findPendingDocuments(int limit);
+    @Select("SELECT " + SUMMARY_COLUMNS
+            + " FROM knowledge_documents WHERE status = 'PENDING' ORDER BY created_at ASC LIMIT #{limit}")
+    List<KnowledgeDocumentSummary> findPendingDocuments(int limit);
 
     /**
      * 更新文档
@@ -184,16 +230,13 @@ public interface KnowledgeDocumentMapper {
     int deleteOldDocuments(LocalDateTime cutoffDate);
 
     /**
-     * 获取所有文档
+     * 以游标流式扫描所有文档摘要（按创建时间倒序，每次从数据库拉取 fetchSize 行）
+     *
+     * 游标需在事务内遍历并在结束后关闭
      */
-    @Select("SELECT * FROM knowledge_documents ORDER BY created_at DESC")
-    @Results({
-        @Result(property = "sourceUrl", column = "source_url"),
-        @Result(property = "documentType", column = "document_type"),
-        @Result(property = "createdAt", column = "created_at"),
-        @Result(property = "updatedAt", column = "updated_at")
-    })
-    List<KnowledgeDocument> findAll();
+    @Select("SELECT " + SUMMARY_COLUMNS + " FROM knowledge_documents ORDER BY created_at DESC")
+    @Options(fetchSize = 500)
+    Cursor<KnowledgeDocumentSummary> streamAll();
 
     /**
      * 统计总文档数
@@ -213,4 +256,17 @@ public interface KnowledgeDocumentMapper {
         public Long getCount() { return count; }
         public void setCount(Long count) { this.count = count; }
     }
+
+    /**
+     * 文档指纹内部类
+     */
+    class Fingerprint {
+        private Long id;
+        private Long simhash;
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+        public Long getSimhash() { return simhash; }
+        public void setSimhash(Long simhash) { this.simhash = simhash; }
+    }
 }
@@ -4,6 +4,7 @@ import edu.qlu.chatbot.model.User;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -24,6 +25,14 @@ public interface UserMapper {
      */
     User findById(@Param("id") Long id);
     
+    /**
+     * 根据ID集合批量查询用户
+     * 
+     * @param ids 用户ID集合（不能为空集合）
+     * @return 用户列表，不存在的ID不会出现在结果中
+     */
+    List<User> findByIds(@Param("ids") Collection<Long> ids);
+    
     /**
      * 根据用户名查询用户
      * 
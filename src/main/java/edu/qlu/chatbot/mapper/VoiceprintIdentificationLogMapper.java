@@ -3,6 +3,7 @@ package edu.qlu.chatbot.mapper;
 import edu.qlu.chatbot.model.VoiceprintIdentificationLog;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -67,6 +68,16 @@ public interface VoiceprintIdentificationLogMapper {
      */
     List<VoiceprintIdentificationLog> findRecent(@Param("limit") int limit);
     
+    /**
+     * 以游标流式读取最近的识别日志（包含用户名）
+     * 需在事务内遍历，结果按识别时间倒序
+     * 
+     * @param userId 用户ID（可选）
+     * @param limit 限制条数
+     * @return 识别日志游标
+     */
+    Cursor<VoiceprintIdentificationLog> streamRecent(@Param("userId") Long userId, @Param("limit") int limit);
+    
     /**
      * 查询所有识别日志（包含用户信息）
      * 
@@ -5,6 +5,7 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -51,6 +52,8 @@ public interface VoiceprintMapper {
     
     /**
      * 根据讯飞特征ID查询声纹记录（包含用户信息）
+     * 结果走查找缓存，不包含识别统计字段（lastIdentifiedAt、identificationCount、updatedAt），
+     * 需要这些字段时使用 {@link #findByFeatureId(String)}
      * 
      * @param featureId 讯飞特征ID
      * @return 声纹对象（包含关联的用户信息），如果不存在则返回null
@@ -87,6 +90,14 @@ public interface VoiceprintMapper {
      */
     int insert(Voiceprint voiceprint);
     
+    /**
+     * 批量插入声纹记录（单条多行INSERT语句）
+     * 
+     * @param voiceprints 声纹对象列表（不能为空列表）
+     * @return 影响的行数
+     */
+    int batchInsert(@Param("voiceprints") List<Voiceprint> voiceprints);
+    
     /**
      * 更新声纹记录信息
      * 
@@ -96,7 +107,7 @@ public interface VoiceprintMapper {
     int update(Voiceprint voiceprint);
     
     /**
-     * 更新声纹记录的识别统计信息
+     * 更新声纹记录的识别统计信息（不清空查找缓存）
      * 
      * @param featureId 讯飞特征ID
      * @param lastIdentifiedAt 最后识别时间
@@ -145,6 +156,14 @@ public interface VoiceprintMapper {
      */
     boolean existsByUserId(@Param("userId") Long userId);
     
+    /**
+     * 在给定用户中查询已注册（激活）声纹的用户ID
+     * 
+     * @param userIds 用户ID集合（不能为空集合）
+     * @return 已注册声纹的用户ID列表
+     */
+    List<Long> findEnrolledUserIds(@Param("userIds") Collection<Long> userIds);
+    
     /**
      * 检查讯飞特征ID是否存在
      * 
@@ -0,0 +1,111 @@
+package edu.qlu.chatbot.model;
+
+import java.time.LocalDate;
+
+/**
+ * 校历事件实体类
+ *
+ * 对应 academic_calendar_events 表，单日事件的开始与结束日期相同
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+public class CalendarEvent {
+
+    private Long id;
+
+    /**
+     * 所属学期（如：2024-2025学年第一学期）
+     */
+    private String semester;
+
+    /**
+     * 事件名称
+     */
+    private String title;
+
+    /**
+     * 事件类别（如：教学、考试、假期、注册）
+     */
+    private String category;
+
+    /**
+     * 开始日期（含）
+     */
+    private LocalDate startDate;
+
+    /**
+     * 结束日期（含）
+     */
+    private LocalDate endDate;
+
+    public CalendarEvent() {
+    }
+
+    public CalendarEvent(String semester, String title, String category, LocalDate startDate, LocalDate endDate) {
+        this.semester = semester;
+        this.title = title;
+        this.category = category;
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getSemester() {
+        return semester;
+    }
+
+    public void setSemester(String semester) {
+        this.semester = semester;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    @Override
+    public String toString() {
+        return "CalendarEvent{" +
+                "semester='" + semester + '\'' +
+                ", title='" + title + '\'' +
+                ", startDate=" + startDate +
+                ", endDate=" + endDate +
+                '}';
+    }
+}
@@ -0,0 +1,99 @@
+package edu.qlu.chatbot.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * 会话记忆记录实体类
+ *
+ * 对应 ai_chat_memory 表中的一条消息；message_type 为 SUMMARY 的记录保存会话的滚动摘要
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+public class ChatMemoryRecord {
+
+    /**
+     * 会话ID
+     */
+    private String conversationId;
+
+    /**
+     * 消息类型（USER, ASSISTANT, SYSTEM, SUMMARY）
+     */
+    private String messageType;
+
+    /**
+     * 消息内容
+     */
+    private String content;
+
+    /**
+     * 创建时间（同一会话内严格递增，用于还原消息顺序）
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * 附加元数据（JSON），摘要记录中保存 summarizedUntil 等信息
+     */
+    private String metadata;
+
+    public ChatMemoryRecord() {
+    }
+
+    public ChatMemoryRecord(String conversationId, String messageType, String content, LocalDateTime createdAt) {
+        this.conversationId = conversationId;
+        this.messageType = messageType;
+        this.content = content;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and Setters
+    public String getConversationId() {
+        return conversationId;
+    }
+
+    public void setConversationId(String conversationId) {
+        this.conversationId = conversationId;
+    }
+
+    public String getMessageType() {
+        return messageType;
+    }
+
+    public void setMessageType(String messageType) {
+        this.messageType = messageType;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getMetadata() {
+        return metadata;
+    }
+
+    public void setMetadata(String metadata) {
+        this.metadata = metadata;
+    }
+
+    @Override
+    public String toString() {
+        return "ChatMemoryRecord{" +
+                "conversationId='" + conversationId + '\'' +
+                ", messageType='" + messageType + '\'' +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
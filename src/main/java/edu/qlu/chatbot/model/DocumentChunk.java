@@ -0,0 +1,115 @@
+package edu.qlu.chatbot.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 知识文档分块实体类
+ *
+ * 由 DocumentChunker 按页面结构切分得到，是向量化与检索的最小单位。
+ * 分块ID由来源URL、标题路径和分块文本共同决定（基于名称的UUID），
+ * 页面其他部分变化时未改动分块的ID保持不变，重新向量化时只需处理ID发生变化的分块。
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+public class DocumentChunk {
+
+    /**
+     * 分块类型
+     */
+    public enum Type {
+        /** 正文段落（按句子打包） */
+        TEXT,
+        /** 表格（整体保留，超长时按行切分并重复表头） */
+        TABLE,
+        /** 列表（按列表项打包） */
+        LIST
+    }
+
+    private final String id;
+    private final String sourceUrl;
+    private final List<String> headingPath;
+    private final Type type;
+    private final String text;
+    private final int position;
+
+    public DocumentChunk(String sourceUrl, List<String> headingPath, Type type, String text,
+                         int position, int occurrence) {
+        this.sourceUrl = sourceUrl;
+        this.headingPath = List.copyOf(headingPath);
+        this.type = type;
+        this.text = text;
+        this.position = position;
+        this.id = stableId(sourceUrl, this.headingPath, text, occurrence);
+    }
+
+    /**
+     * 计算分块ID：同一页面中标题路径和文本完全相同的分块以出现序号区分
+     */
+    static String stableId(String sourceUrl, List<String> headingPath, String text, int occurrence) {
+        String key = sourceUrl + '\u0000' + String.join("\u0001", headingPath) + '\u0000' + text + '\u0000' + occurrence;
+        return UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    /**
+     * 用于向量化的文本：标题路径作为上下文前缀，使脱离页面的分块仍可被正确检索
+     */
+    public String getEmbeddingText() {
+        if (headingPath.isEmpty()) {
+            return text;
+        }
+        return String.join(" > ", headingPath) + "\n" + text;
+    }
+
+    /**
+     * 写入向量库的元数据
+     */
+    public Map<String, Object> getMetadata() {
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("source_url", sourceUrl);
+        metadata.put("heading_path", headingPath);
+        metadata.put("chunk_type", type.name());
+        metadata.put("position", position);
+        return metadata;
+    }
+
+    // Getters
+    public String getId() {
+        return id;
+    }
+
+    public String getSourceUrl() {
+        return sourceUrl;
+    }
+
+    public List<String> getHeadingPath() {
+        return headingPath;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    @Override
+    public String toString() {
+        return "DocumentChunk{" +
+                "id='" + id + '\'' +
+                ", headingPath=" + headingPath +
+                ", type=" + type +
+                ", position=" + position +
+                ", length=" + text.length() +
+                '}';
+    }
+}
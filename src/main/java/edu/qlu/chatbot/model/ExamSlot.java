@@ -0,0 +1,128 @@
+package edu.qlu.chatbot.model;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * 考试场次实体类
+ *
+ * 对应 exam_slots 表，一门课程的一场考试
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+public class ExamSlot {
+
+    private Long id;
+
+    /**
+     * 所属学期
+     */
+    private String semester;
+
+    /**
+     * 课程名称
+     */
+    private String courseName;
+
+    /**
+     * 考试日期
+     */
+    private LocalDate examDate;
+
+    /**
+     * 开始时间
+     */
+    private LocalTime startTime;
+
+    /**
+     * 结束时间
+     */
+    private LocalTime endTime;
+
+    /**
+     * 考试地点
+     */
+    private String location;
+
+    public ExamSlot() {
+    }
+
+    public ExamSlot(String semester, String courseName, LocalDate examDate,
+                    LocalTime startTime, LocalTime endTime, String location) {
+        this.semester = semester;
+        this.courseName = courseName;
+        this.examDate = examDate;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.location = location;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getSemester() {
+        return semester;
+    }
+
+    public void setSemester(String semester) {
+        this.semester = semester;
+    }
+
+    public String getCourseName() {
+        return courseName;
+    }
+
+    public void setCourseName(String courseName) {
+        this.courseName = courseName;
+    }
+
+    public LocalDate getExamDate() {
+        return examDate;
+    }
+
+    public void setExamDate(LocalDate examDate) {
+        this.examDate = examDate;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    @Override
+    public String toString() {
+        return "ExamSlot{" +
+                "semester='" + semester + '\'' +
+                ", courseName='" + courseName + '\'' +
+                ", examDate=" + examDate +
+                ", startTime=" + startTime +
+                ", location='" + location + '\'' +
+                '}';
+    }
+}
@@ -60,6 +60,11 @@ public class KnowledgeDocument {
      */
     private ProcessingStatus status = ProcessingStatus.PENDING;
 
+    /**
+     * 正文SimHash指纹（近似重复检测）
+     */
+    private Long simhash;
+
     // 构造函数
     public KnowledgeDocument() {
         this.createdAt = LocalDateTime.now();
@@ -163,6 +168,14 @@ public class KnowledgeDocument {
         this.status = status;
     }
 
+    public Long getSimhash() {
+        return simhash;
+    }
+
+    public void setSimhash(Long simhash) {
+        this.simhash = simhash;
+    }
+
     // equals and hashCode
     @Override
     public boolean equals(Object o) {
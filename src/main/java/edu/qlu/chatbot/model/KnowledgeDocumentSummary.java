@@ -0,0 +1,144 @@
+package edu.qlu.chatbot.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * 知识文档摘要投影
+ *
+ * 列表查询与全表扫描只读取这些列，不读取 content（TEXT，单行可达数十KB）；
+ * 需要正文时按ID单独加载（见 KnowledgeDocumentMapper#findContentById）。
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+public class KnowledgeDocumentSummary {
+
+    private Long id;
+
+    /**
+     * 文档标题
+     */
+    private String title;
+
+    /**
+     * 原始URL
+     */
+    private String sourceUrl;
+
+    /**
+     * 文档类型
+     */
+    private String documentType;
+
+    /**
+     * 文档分类
+     */
+    private String category;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * 最后更新时间
+     */
+    private LocalDateTime updatedAt;
+
+    /**
+     * 是否已处理成向量
+     */
+    private Boolean vectorized;
+
+    /**
+     * 处理状态
+     */
+    private KnowledgeDocument.ProcessingStatus status;
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getSourceUrl() {
+        return sourceUrl;
+    }
+
+    public void setSourceUrl(String sourceUrl) {
+        this.sourceUrl = sourceUrl;
+    }
+
+    public String getDocumentType() {
+        return documentType;
+    }
+
+    public void setDocumentType(String documentType) {
+        this.documentType = documentType;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Boolean getVectorized() {
+        return vectorized;
+    }
+
+    public void setVectorized(Boolean vectorized) {
+        this.vectorized = vectorized;
+    }
+
+    public KnowledgeDocument.ProcessingStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(KnowledgeDocument.ProcessingStatus status) {
+        this.status = status;
+    }
+
+    @Override
+    public String toString() {
+        return "KnowledgeDocumentSummary{" +
+                "id=" + id +
+                ", title='" + title + '\'' +
+                ", sourceUrl='" + sourceUrl + '\'' +
+                ", documentType='" + documentType + '\'' +
+                ", category='" + category + '\'' +
+                ", status=" + status +
+                ", vectorized=" + vectorized +
+                ", updatedAt=" + updatedAt +
+                '}';
+    }
+}
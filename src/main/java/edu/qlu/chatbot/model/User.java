@@ -1,5 +1,7 @@
 package edu.qlu.chatbot.model;
 
+import java.io.Serial;
+import java.io.Serializable;
 import java.time.LocalDateTime;
 
 /**
@@ -9,7 +11,10 @@ import java.time.LocalDateTime;
  * @author QLU AI Team
  * @since 1.0.0
  */
-public class User {
+public class User implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
     
     private Long id;
     private String username;
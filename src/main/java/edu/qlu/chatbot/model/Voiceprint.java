@@ -1,5 +1,7 @@
 package edu.qlu.chatbot.model;
 
+import java.io.Serial;
+import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
@@ -10,7 +12,10 @@ import java.time.LocalDateTime;
  * @author QLU AI Team
  * @since 1.0.0
  */
-public class Voiceprint {
+public class Voiceprint implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
     
     private Long id;
     private Long userId;
@@ -0,0 +1,224 @@
+package edu.qlu.chatbot.model;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 声纹识别日志投影视图
+ * 
+ * 列表类接口只返回调用方通过 fields 参数选择的字段（未选择的字段不输出，选择的字段为空时输出null，
+ * 同一 fields 参数下每条记录的结构一致），默认只包含排查识别结果所需的字段，
+ * 不再输出User-Agent、讯飞sid与嵌套的用户对象。
+ * 
+ * @author QLU AI Team
+ * @since 1.0.0
+ */
+public class VoiceprintIdentificationLogView {
+    
+    /**
+     * 可选择的字段，名称与输出的JSON属性名一致
+     */
+    public enum Field {
+        ID("id"),
+        REQUEST_ID("requestId"),
+        IDENTIFIED_USER_ID("identifiedUserId"),
+        IDENTIFIED_USERNAME("identifiedUsername"),
+        IFLYTEK_FEATURE_ID("iflytekFeatureId"),
+        CONFIDENCE_SCORE("confidenceScore"),
+        AUDIO_FILE_NAME("audioFileName"),
+        IDENTIFICATION_TIME("identificationTime"),
+        API_RESPONSE_SID("apiResponseSid"),
+        API_RESPONSE_CODE("apiResponseCode"),
+        API_RESPONSE_MESSAGE("apiResponseMessage"),
+        PROCESSING_DURATION_MS("processingDurationMs"),
+        CLIENT_IP("clientIp"),
+        USER_AGENT("userAgent");
+        
+        private static final Map<String, Field> BY_NAME = Arrays.stream(values())
+                .collect(Collectors.toUnmodifiableMap(Field::jsonName, Function.identity()));
+        
+        private final String jsonName;
+        
+        Field(String jsonName) {
+            this.jsonName = jsonName;
+        }
+        
+        public String jsonName() {
+            return jsonName;
+        }
+    }
+    
+    /**
+     * 未指定 fields 参数时返回的字段
+     */
+    public static final Set<Field> DEFAULT_FIELDS = Collections.unmodifiableSet(EnumSet.of(
+            Field.ID, Field.REQUEST_ID, Field.IDENTIFIED_USER_ID, Field.CONFIDENCE_SCORE,
+            Field.IDENTIFICATION_TIME, Field.API_RESPONSE_CODE, Field.PROCESSING_DURATION_MS));
+    
+    private Set<Field> fields = DEFAULT_FIELDS;
+    private Long id;
+    private String requestId;
+    private Long identifiedUserId;
+    private String identifiedUsername;
+    private String iflytekFeatureId;
+    private BigDecimal confidenceScore;
+    private String audioFileName;
+    private LocalDateTime identificationTime;
+    private String apiResponseSid;
+    private Integer apiResponseCode;
+    private String apiResponseMessage;
+    private Integer processingDurationMs;
+    private String clientIp;
+    private String userAgent;
+    
+    /**
+     * 解析逗号分隔的字段列表
+     * 
+     * @param fields 字段列表，为空时返回默认字段，"*" 表示全部字段
+     * @return 字段集合
+     * @throws IllegalArgumentException 包含未知字段
+     */
+    public static Set<Field> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return DEFAULT_FIELDS;
+        }
+        if ("*".equals(fields.trim())) {
+            return EnumSet.allOf(Field.class);
+        }
+        Set<Field> selected = EnumSet.noneOf(Field.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            Field field = Field.BY_NAME.get(trimmed);
+            if (field == null) {
+                throw new IllegalArgumentException("未知的字段: " + trimmed);
+            }
+            selected.add(field);
+        }
+        return selected.isEmpty() ? DEFAULT_FIELDS : selected;
+    }
+    
+    /**
+     * 按选择的字段创建投影
+     */
+    public static VoiceprintIdentificationLogView of(VoiceprintIdentificationLog log, Set<Field> fields) {
+        VoiceprintIdentificationLogView view = new VoiceprintIdentificationLogView();
+        view.fields = fields;
+        for (Field field : fields) {
+            switch (field) {
+                case ID -> view.id = log.getId();
+                case REQUEST_ID -> view.requestId = log.getRequestId();
+                case IDENTIFIED_USER_ID -> view.identifiedUserId = log.getIdentifiedUserId();
+                case IDENTIFIED_USERNAME -> view.identifiedUsername =
+                        log.getIdentifiedUser() != null ? log.getIdentifiedUser().getUsername() : null;
+                case IFLYTEK_FEATURE_ID -> view.iflytekFeatureId = log.getIflytekFeatureId();
+                case CONFIDENCE_SCORE -> view.confidenceScore = log.getConfidenceScore();
+                case AUDIO_FILE_NAME -> view.audioFileName = log.getAudioFileName();
+                case IDENTIFICATION_TIME -> view.identificationTime = log.getIdentificationTime();
+                case API_RESPONSE_SID -> view.apiResponseSid = log.getApiResponseSid();
+                case API_RESPONSE_CODE -> view.apiResponseCode = log.getApiResponseCode();
+                case API_RESPONSE_MESSAGE -> view.apiResponseMessage = log.getApiResponseMessage();
+                case PROCESSING_DURATION_MS -> view.processingDurationMs = log.getProcessingDurationMs();
+                case CLIENT_IP -> view.clientIp = log.getClientIp();
+                case USER_AGENT -> view.userAgent = log.getUserAgent();
+            }
+        }
+        return view;
+    }
+    
+    /**
+     * JSON输出：按字段声明顺序输出选择的字段
+     */
+    @JsonValue
+    public Map<String, Object> toJson() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        for (Field field : fields) {
+            json.put(field.jsonName(), switch (field) {
+                case ID -> id;
+                case REQUEST_ID -> requestId;
+                case IDENTIFIED_USER_ID -> identifiedUserId;
+                case IDENTIFIED_USERNAME -> identifiedUsername;
+                case IFLYTEK_FEATURE_ID -> iflytekFeatureId;
+                case CONFIDENCE_SCORE -> confidenceScore;
+                case AUDIO_FILE_NAME -> audioFileName;
+                case IDENTIFICATION_TIME -> identificationTime;
+                case API_RESPONSE_SID -> apiResponseSid;
+                case API_RESPONSE_CODE -> apiResponseCode;
+                case API_RESPONSE_MESSAGE -> apiResponseMessage;
+                case PROCESSING_DURATION_MS -> processingDurationMs;
+                case CLIENT_IP -> clientIp;
+                case USER_AGENT -> userAgent;
+            });
+        }
+        return json;
+    }
+    
+    // Getter方法
+    public Long getId() {
+        return id;
+    }
+    
+    public String getRequestId() {
+        return requestId;
+    }
+    
+    public Long getIdentifiedUserId() {
+        return identifiedUserId;
+    }
+    
+    public String getIdentifiedUsername() {
+        return identifiedUsername;
+    }
+    
+    public String getIflytekFeatureId() {
+        return iflytekFeatureId;
+    }
+    
+    public BigDecimal getConfidenceScore() {
+        return confidenceScore;
+    }
+    
+    public String getAudioFileName() {
+        return audioFileName;
+    }
+    
+    public LocalDateTime getIdentificationTime() {
+        return identificationTime;
+    }
+    
+    public String getApiResponseSid() {
+        return apiResponseSid;
+    }
+    
+    public Integer getApiResponseCode() {
+        return apiResponseCode;
+    }
+    
+    public String getApiResponseMessage() {
+        return apiResponseMessage;
+    }
+    
+    public Integer getProcessingDurationMs() {
+        return processingDurationMs;
+    }
+    
+    public String getClientIp() {
+        return clientIp;
+    }
+    
+    public String getUserAgent() {
+        return userAgent;
+    }
+}
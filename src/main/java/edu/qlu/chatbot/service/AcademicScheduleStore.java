@@ -0,0 +1,177 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.mapper.AcademicScheduleMapper;
+import edu.qlu.chatbot.model.CalendarEvent;
+import edu.qlu.chatbot.model.ExamSlot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * 教务日程缓存
+ *
+ * 定期从 academic_calendar_events、exam_slots 表全量加载校历事件与考试场次，
+ * 在内存中构建只读快照后整体替换（读方始终看到完整的新快照或旧快照）：
+ * - 日期区间查询：校历事件与考试场次各建一个 {@link IntervalIndex}，O(log n + k)
+ * - 按课程查询：课程名（规范化后）有序映射，精确匹配 O(log n)，未命中时按前缀匹配
+ * - 按学期查询：学期到事件/场次列表的哈希映射
+ *
+ * 工具调用只读取内存快照，不访问数据库或网络；加载失败时保留上一份快照。
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@Service
+public class AcademicScheduleStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(AcademicScheduleStore.class);
+
+    private final AcademicScheduleMapper academicScheduleMapper;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    public AcademicScheduleStore(AcademicScheduleMapper academicScheduleMapper) {
+        this.academicScheduleMapper = academicScheduleMapper;
+    }
+
+    /**
+     * 重新加载教务日程并原子替换快照
+     */
+    @Scheduled(fixedDelayString = "${app.academic-schedule.refresh-interval-ms:300000}")
+    public void refresh() {
+        try {
+            List<CalendarEvent> events = academicScheduleMapper.findAllCalendarEvents();
+            List<ExamSlot> exams = academicScheduleMapper.findAllExamSlots();
+            snapshot = Snapshot.build(events, exams);
+            logger.debug("教务日程已加载: events={}, exams={}", events.size(), exams.size());
+        } catch (Exception e) {
+            logger.error("教务日程加载失败，继续使用上一份快照（加载于 {}）: {}", snapshot.loadedAt(), e.getMessage());
+        }
+    }
+
+    /**
+     * 是否已有可用数据（至少成功加载过一次且不为空）
+     */
+    public boolean isLoaded() {
+        Snapshot current = snapshot;
+        return current.loadedAt() != null && (current.events().size() > 0 || current.exams().size() > 0);
+    }
+
+    /**
+     * 查询与日期区间 [from, to] 有交集的校历事件
+     */
+    public List<CalendarEvent> findEvents(LocalDate from, LocalDate to) {
+        return snapshot.events().overlapping(from.toEpochDay(), to.toEpochDay());
+    }
+
+    /**
+     * 查询指定学期的校历事件
+     */
+    public List<CalendarEvent> findEventsBySemester(String semester) {
+        return snapshot.eventsBySemester().getOrDefault(semester, List.of());
+    }
+
+    /**
+     * 查询日期区间 [from, to] 内的考试场次
+     */
+    public List<ExamSlot> findExams(LocalDate from, LocalDate to) {
+        return snapshot.exams().overlapping(from.toEpochDay(), to.toEpochDay());
+    }
+
+    /**
+     * 查询指定学期的考试场次
+     */
+    public List<ExamSlot> findExamsBySemester(String semester) {
+        return snapshot.examsBySemester().getOrDefault(semester, List.of());
+    }
+
+    /**
+     * 按课程名查询考试场次：优先精确匹配，未命中时返回以该名称开头的课程
+     */
+    public List<ExamSlot> findExamsByCourse(String courseName) {
+        if (!StringUtils.hasText(courseName)) {
+            return List.of();
+        }
+        NavigableMap<String, List<ExamSlot>> byCourse = snapshot.examsByCourse();
+        String key = normalize(courseName);
+        List<ExamSlot> exact = byCourse.get(key);
+        if (exact != null) {
+            return exact;
+        }
+        List<ExamSlot> result = new ArrayList<>();
+        byCourse.subMap(key, true, key + Character.MAX_VALUE, false).values().forEach(result::addAll);
+        return result;
+    }
+
+    /**
+     * 推断指定日期所在学期：优先取覆盖该日期的事件，否则取之后最近的事件
+     */
+    public String semesterOf(LocalDate date) {
+        IntervalIndex<CalendarEvent> events = snapshot.events();
+        List<CalendarEvent> covering = events.overlapping(date.toEpochDay(), date.toEpochDay());
+        if (!covering.isEmpty()) {
+            return covering.get(covering.size() - 1).getSemester();
+        }
+        List<CalendarEvent> upcoming = events.overlapping(date.toEpochDay(), Long.MAX_VALUE);
+        return upcoming.isEmpty() ? null : upcoming.get(0).getSemester();
+    }
+
+    private static String normalize(String courseName) {
+        return courseName.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 只读快照
+     */
+    private record Snapshot(IntervalIndex<CalendarEvent> events,
+                            Map<String, List<CalendarEvent>> eventsBySemester,
+                            IntervalIndex<ExamSlot> exams,
+                            Map<String, List<ExamSlot>> examsBySemester,
+                            NavigableMap<String, List<ExamSlot>> examsByCourse,
+                            LocalDateTime loadedAt) {
+
+        static final Snapshot EMPTY = new Snapshot(IntervalIndex.of(List.of(), e -> 0, e -> 0), Map.of(),
+                IntervalIndex.of(List.of(), e -> 0, e -> 0), Map.of(), Collections.emptyNavigableMap(), null);
+
+        static Snapshot build(List<CalendarEvent> events, List<ExamSlot> exams) {
+            IntervalIndex<CalendarEvent> eventIndex = IntervalIndex.of(events,
+                    event -> event.getStartDate().toEpochDay(),
+                    event -> (event.getEndDate() != null ? event.getEndDate() : event.getStartDate()).toEpochDay());
+            IntervalIndex<ExamSlot> examIndex = IntervalIndex.of(exams,
+                    exam -> exam.getExamDate().toEpochDay(),
+                    exam -> exam.getExamDate().toEpochDay());
+
+            Map<String, List<CalendarEvent>> eventsBySemester = new HashMap<>();
+            for (CalendarEvent event : eventIndex.all()) {
+                eventsBySemester.computeIfAbsent(event.getSemester(), key -> new ArrayList<>()).add(event);
+            }
+            Map<String, List<ExamSlot>> examsBySemester = new HashMap<>();
+            NavigableMap<String, List<ExamSlot>> examsByCourse = new TreeMap<>();
+            for (ExamSlot exam : examIndex.all()) {
+                examsBySemester.computeIfAbsent(exam.getSemester(), key -> new ArrayList<>()).add(exam);
+                examsByCourse.computeIfAbsent(normalize(exam.getCourseName()), key -> new ArrayList<>()).add(exam);
+            }
+            examsByCourse.replaceAll((key, value) -> List.copyOf(value));
+            return new Snapshot(eventIndex, freeze(eventsBySemester), examIndex, freeze(examsBySemester),
+                    Collections.unmodifiableNavigableMap(examsByCourse), LocalDateTime.now());
+        }
+
+        private static <T> Map<String, List<T>> freeze(Map<String, List<T>> map) {
+            map.replaceAll((key, value) -> List.copyOf(value));
+            return Collections.unmodifiableMap(map);
+        }
+    }
+}
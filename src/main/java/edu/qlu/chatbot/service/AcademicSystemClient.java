@@ -0,0 +1,252 @@
+package edu.qlu.chatbot.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.qlu.chatbot.cache.SingleFlight;
+import edu.qlu.chatbot.config.AcademicSystemProperties;
+import edu.qlu.chatbot.service.AcademicToolsService.CourseInfo;
+import edu.qlu.chatbot.service.AcademicToolsService.CourseQuery;
+import edu.qlu.chatbot.service.AcademicToolsService.ExamQuery;
+import edu.qlu.chatbot.service.AcademicToolsService.ExamSchedule;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.cookie.BasicCookieStore;
+import org.apache.hc.client5.http.entity.UrlEncodedFormEntity;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.io.support.ClassicRequestBuilder;
+import org.apache.hc.core5.http.message.BasicNameValuePair;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 教务系统接口客户端
+ *
+ * 封装与学校教务系统的HTTP交互：
+ * - 连接池：所有请求共用一个池化的 httpclient5 客户端，复用到教务系统的长连接
+ * - 会话复用：服务账号登录一次后由Cookie保持会话，到期或返回401/403时只由一个线程重新登录
+ * - 请求合并：相同条件的考试/课程查询同时到达时只向教务系统发出一次请求
+ * - 截止时间：调用线程绑定了 {@link RequestDeadline} 时，等待连接与响应的超时收紧到请求剩余时间
+ *
+ * 未启用（app.academic-system.enabled=false）时不发起任何请求，教务工具继续返回模拟数据。
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@Component
+public class AcademicSystemClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(AcademicSystemClient.class);
+
+    private static final String DEADLINE_STAGE = "academic";
+
+    private final AcademicSystemProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final BasicCookieStore cookieStore = new BasicCookieStore();
+    private final CloseableHttpClient httpClient;
+
+    private final SingleFlight<ExamQuery, ExamSchedule> examRequests = new SingleFlight<>();
+    private final SingleFlight<CourseQuery, CourseInfo> courseRequests = new SingleFlight<>();
+
+    /**
+     * 会话代次，每次登录成功后递增；请求遇到会话失效时只有持有当前代次的线程会触发重新登录
+     */
+    private long sessionGeneration;
+    private long sessionExpiresAt;
+
+    public AcademicSystemClient(AcademicSystemProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxConnections())
+                .setMaxConnPerRoute(properties.getMaxConnections())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(properties.getConnectTimeoutMs()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(properties.getResponseTimeoutMs()))
+                        .setTimeToLive(TimeValue.ofMinutes(5))
+                        .build())
+                .build();
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultCookieStore(cookieStore)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(properties.getConnectionRequestTimeoutMs()))
+                        .setResponseTimeout(Timeout.ofMilliseconds(properties.getResponseTimeoutMs()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(30))
+                .build();
+        bindMetrics();
+    }
+
+    /**
+     * 是否已接入真实教务系统
+     */
+    public boolean isEnabled() {
+        return properties.isEnabled() && StringUtils.hasText(properties.getBaseUrl());
+    }
+
+    /**
+     * 查询考试安排，相同条件的并发查询合并为一次请求
+     */
+    public ExamSchedule getExamSchedule(ExamQuery query) {
+        return examRequests.execute(query, () -> {
+            Map<String, String> params = new LinkedHashMap<>();
+            params.put("semester", query.getSemester());
+            params.put("courseName", query.getCourseName());
+            return getJson("exams", properties.getExamPath(), params, ExamSchedule.class);
+        });
+    }
+
+    /**
+     * 查询课程信息，相同条件的并发查询合并为一次请求
+     */
+    public CourseInfo getCourseInfo(CourseQuery query) {
+        return courseRequests.execute(query, () -> {
+            Map<String, String> params = new LinkedHashMap<>();
+            params.put("courseName", query.getCourseName());
+            params.put("semester", query.getSemester());
+            params.put("department", query.getDepartment());
+            return getJson("courses", properties.getCoursePath(), params, CourseInfo.class);
+        });
+    }
+
+    private <T> T getJson(String endpoint, String path, Map<String, String> params, Class<T> type) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            long generation = ensureSession();
+            Response response = execute(buildGet(path, params));
+            if (response.status() == 401 || response.status() == 403) {
+                logger.info("教务系统会话失效，重新登录: endpoint={}", endpoint);
+                login(generation);
+                response = execute(buildGet(path, params));
+            }
+            if (response.status() >= 300) {
+                throw new AcademicSystemException("教务系统返回异常状态码: " + response.status(), response.status());
+            }
+            T value = objectMapper.readValue(response.body(), type);
+            outcome = "success";
+            return value;
+        } catch (IOException e) {
+            throw new AcademicSystemException("教务系统请求失败: " + e.getMessage(), e);
+        } finally {
+            sample.stop(Timer.builder("qlu.academic.requests")
+                    .description("教务系统接口调用耗时")
+                    .tag("endpoint", endpoint)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    private ClassicHttpRequest buildGet(String path, Map<String, String> params) {
+        ClassicRequestBuilder builder = ClassicRequestBuilder.get(properties.getBaseUrl() + path);
+        params.forEach((name, value) -> {
+            if (StringUtils.hasText(value)) {
+                builder.addParameter(name, value);
+            }
+        });
+        return builder.build();
+    }
+
+    private Response execute(ClassicHttpRequest request) throws IOException {
+        HttpClientContext context = HttpClientContext.create();
+        if (RequestDeadline.current() != null) {
+            long responseTimeoutMs = RequestDeadline.capMillis(properties.getResponseTimeoutMs(), DEADLINE_STAGE);
+            context.setRequestConfig(RequestConfig.custom()
+                    .setConnectionRequestTimeout(Timeout.ofMilliseconds(
+                            Math.min(properties.getConnectionRequestTimeoutMs(), responseTimeoutMs)))
+                    .setResponseTimeout(Timeout.ofMilliseconds(responseTimeoutMs))
+                    .build());
+        }
+        return httpClient.execute(request, context, response -> new Response(response.getCode(),
+                response.getEntity() != null ? EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8) : ""));
+    }
+
+    /**
+     * 确保会话有效，返回当前会话代次
+     */
+    private synchronized long ensureSession() throws IOException {
+        if (sessionGeneration == 0 || System.currentTimeMillis() >= sessionExpiresAt) {
+            doLogin();
+        }
+        return sessionGeneration;
+    }
+
+    /**
+     * 重新登录；若其他线程已在此期间完成登录则直接复用新会话
+     */
+    private synchronized void login(long observedGeneration) throws IOException {
+        if (sessionGeneration == observedGeneration) {
+            doLogin();
+        }
+    }
+
+    private void doLogin() throws IOException {
+        cookieStore.clear();
+        ClassicHttpRequest request = ClassicRequestBuilder.post(properties.getBaseUrl() + properties.getLoginPath())
+                .setEntity(new UrlEncodedFormEntity(List.of(
+                        new BasicNameValuePair("username", properties.getUsername()),
+                        new BasicNameValuePair("password", properties.getPassword())), StandardCharsets.UTF_8))
+                .build();
+        Response response = execute(request);
+        if (response.status() >= 300) {
+            throw new AcademicSystemException("教务系统登录失败，状态码: " + response.status(), response.status());
+        }
+        sessionGeneration++;
+        sessionExpiresAt = System.currentTimeMillis() + properties.getSessionTtlMinutes() * 60_000L;
+        logger.info("教务系统登录成功: sessionGeneration={}", sessionGeneration);
+    }
+
+    private void bindMetrics() {
+        poolGauge("leased", PoolStats::getLeased);
+        poolGauge("available", PoolStats::getAvailable);
+        poolGauge("pending", PoolStats::getPending);
+        FunctionCounter.builder("qlu.academic.coalesced", this,
+                        client -> client.examRequests.getCoalescedCount() + client.courseRequests.getCoalescedCount())
+                .description("被合并的教务系统重复查询次数")
+                .register(meterRegistry);
+    }
+
+    private void poolGauge(String state, ToDoubleFunction<PoolStats> value) {
+        Gauge.builder("qlu.academic.pool.connections", connectionManager,
+                        manager -> value.applyAsDouble(manager.getTotalStats()))
+                .description("教务系统连接池连接数")
+                .tag("state", state)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void close() {
+        httpClient.close(CloseMode.GRACEFUL);
+    }
+
+    private record Response(int status, String body) {
+    }
+}
@@ -0,0 +1,34 @@
+package edu.qlu.chatbot.service;
+
+/**
+ * 教务系统调用异常类
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+public class AcademicSystemException extends RuntimeException {
+
+    /**
+     * 教务系统返回的HTTP状态码，网络异常时为null
+     */
+    private final Integer statusCode;
+
+    public AcademicSystemException(String message) {
+        super(message);
+        this.statusCode = null;
+    }
+
+    public AcademicSystemException(String message, Integer statusCode) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public AcademicSystemException(String message, Throwable cause) {
+        super(message, cause);
+        this.statusCode = null;
+    }
+
+    public Integer getStatusCode() {
+        return statusCode;
+    }
+}
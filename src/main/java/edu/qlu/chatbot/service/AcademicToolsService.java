@@ -1,13 +1,19 @@
 package edu.qlu.chatbot.service;
 
+import edu.qlu.chatbot.model.CalendarEvent;
+import edu.qlu.chatbot.model.ExamSlot;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * 教务工具服务类
@@ -23,18 +29,36 @@ public class AcademicToolsService {
 
     private static final Logger logger = LoggerFactory.getLogger(AcademicToolsService.class);
 
+    /**
+     * 校历、考试查询向前查看的默认天数
+     */
+    private static final int UPCOMING_DAYS = 120;
+
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+
+    private final AcademicSystemClient academicSystemClient;
+    private final AcademicScheduleStore academicScheduleStore;
+
+    public AcademicToolsService(AcademicSystemClient academicSystemClient, AcademicScheduleStore academicScheduleStore) {
+        this.academicSystemClient = academicSystemClient;
+        this.academicScheduleStore = academicScheduleStore;
+    }
+
     /**
      * 查询当前学期课程信息
      * 
-     * 这是一个示例工具函数，在实际部署时需要连接真实的教务系统API
+     * 启用教务系统接入时查询真实数据，否则返回示例数据
      * 
      * @param courseQuery 课程查询条件
      * @return 课程信息
      */
     public CourseInfo getCourseInfo(CourseQuery courseQuery) {
         logger.info("查询课程信息: {}", courseQuery);
+        if (academicSystemClient.isEnabled()) {
+            return academicSystemClient.getCourseInfo(courseQuery);
+        }
         
-        // 模拟查询结果（实际应该调用教务系统API）
+        // 模拟查询结果
         CourseInfo courseInfo = new CourseInfo();
         courseInfo.setCourseName("示例课程 - " + courseQuery.getCourseName());
         courseInfo.setTeacher("示例教师");
@@ -73,11 +97,19 @@ public class AcademicToolsService {
     /**
      * 查询考试安排
      * 
+     * 教务日程缓存已加载时只读取内存快照；否则查询教务系统（已启用时）或返回示例数据
+     * 
      * @param examQuery 考试查询条件
      * @return 考试安排信息
      */
     public ExamSchedule getExamSchedule(ExamQuery examQuery) {
         logger.info("查询考试安排: {}", examQuery);
+        if (academicScheduleStore.isLoaded()) {
+            return examScheduleFromStore(examQuery);
+        }
+        if (academicSystemClient.isEnabled()) {
+            return academicSystemClient.getExamSchedule(examQuery);
+        }
         
         // 模拟查询结果
         ExamSchedule schedule = new ExamSchedule();
@@ -129,11 +161,16 @@ public class AcademicToolsService {
     /**
      * 查询校历信息
      * 
+     * 教务日程缓存已加载时按日期区间或学期从内存快照查询，否则返回示例数据
+     * 
      * @param calendarQuery 校历查询条件
      * @return 校历信息
      */
     public AcademicCalendar getAcademicCalendar(CalendarQuery calendarQuery) {
         logger.info("查询校历信息: {}", calendarQuery);
+        if (academicScheduleStore.isLoaded()) {
+            return academicCalendarFromStore(calendarQuery);
+        }
         
         AcademicCalendar calendar = new AcademicCalendar();
         calendar.setCurrentSemester("2023-2024学年第二学期");
@@ -147,6 +184,66 @@ public class AcademicToolsService {
         return calendar;
     }
 
+    private ExamSchedule examScheduleFromStore(ExamQuery examQuery) {
+        List<ExamSlot> slots;
+        if (StringUtils.hasText(examQuery.getCourseName())) {
+            slots = academicScheduleStore.findExamsByCourse(examQuery.getCourseName());
+        } else if (StringUtils.hasText(examQuery.getSemester())) {
+            slots = academicScheduleStore.findExamsBySemester(examQuery.getSemester());
+        } else {
+            LocalDate today = LocalDate.now();
+            slots = academicScheduleStore.findExams(today, today.plusDays(UPCOMING_DAYS));
+        }
+
+        ExamSchedule schedule = new ExamSchedule();
+        schedule.setSemester(examQuery.getSemester());
+        schedule.setExams(slots.stream()
+                .filter(slot -> !StringUtils.hasText(examQuery.getSemester()) || examQuery.getSemester().equals(slot.getSemester()))
+                .map(slot -> Map.of(
+                        "courseName", slot.getCourseName(),
+                        "examDate", slot.getExamDate().toString(),
+                        "examTime", slot.getStartTime().format(TIME_FORMATTER) + "-" + slot.getEndTime().format(TIME_FORMATTER),
+                        "location", Objects.toString(slot.getLocation(), "")))
+                .toList());
+        return schedule;
+    }
+
+    private AcademicCalendar academicCalendarFromStore(CalendarQuery calendarQuery) {
+        LocalDate today = LocalDate.now();
+        List<CalendarEvent> events;
+        if (StringUtils.hasText(calendarQuery.getStartDate()) || StringUtils.hasText(calendarQuery.getEndDate())) {
+            LocalDate from = parseDate(calendarQuery.getStartDate(), today);
+            LocalDate to = parseDate(calendarQuery.getEndDate(), from.plusDays(UPCOMING_DAYS));
+            events = academicScheduleStore.findEvents(from, to);
+        } else if (StringUtils.hasText(calendarQuery.getSemester())) {
+            events = academicScheduleStore.findEventsBySemester(calendarQuery.getSemester());
+        } else {
+            events = academicScheduleStore.findEvents(today, today.plusDays(UPCOMING_DAYS));
+        }
+
+        AcademicCalendar calendar = new AcademicCalendar();
+        calendar.setCurrentSemester(academicScheduleStore.semesterOf(today));
+        calendar.setUpcomingEvents(events.stream()
+                .map(event -> Map.of(
+                        "date", event.getStartDate().toString(),
+                        "endDate", event.getEndDate().toString(),
+                        "event", event.getTitle(),
+                        "category", Objects.toString(event.getCategory(), "")))
+                .toList());
+        return calendar;
+    }
+
+    private static LocalDate parseDate(String value, LocalDate defaultValue) {
+        if (!StringUtils.hasText(value)) {
+            return defaultValue;
+        }
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("日期格式应为yyyy-MM-dd: " + value);
+        }
+    }
+
     // ================== 数据传输对象 ==================
 
     /**
@@ -169,6 +266,18 @@ public class AcademicToolsService {
         public String toString() {
             return "CourseQuery{courseName='" + courseName + "', semester='" + semester + "', department='" + department + "'}";
         }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CourseQuery that)) return false;
+            return Objects.equals(courseName, that.courseName) && Objects.equals(semester, that.semester) && Objects.equals(department, that.department);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(courseName, semester, department);
+        }
     }
 
     /**
@@ -216,6 +325,18 @@ public class AcademicToolsService {
         public String toString() {
             return "GradeQuery{studentId='" + studentId + "', semester='" + semester + "'}";
         }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof GradeQuery that)) return false;
+            return Objects.equals(studentId, that.studentId) && Objects.equals(semester, that.semester);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(studentId, semester);
+        }
     }
 
     /**
@@ -253,6 +374,18 @@ public class AcademicToolsService {
         public String toString() {
             return "ExamQuery{semester='" + semester + "', courseName='" + courseName + "'}";
         }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ExamQuery that)) return false;
+            return Objects.equals(semester, that.semester) && Objects.equals(courseName, that.courseName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(semester, courseName);
+        }
     }
 
     /**
@@ -284,6 +417,18 @@ public class AcademicToolsService {
         public String toString() {
             return "LibraryQuery{bookTitle='" + bookTitle + "', author='" + author + "'}";
         }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof LibraryQuery that)) return false;
+            return Objects.equals(bookTitle, that.bookTitle) && Objects.equals(author, that.author);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(bookTitle, author);
+        }
     }
 
     /**
@@ -320,11 +465,35 @@ public class AcademicToolsService {
     public static class CalendarQuery {
         private String year;
         private String semester;
+        private String startDate;
+        private String endDate;
 
         public String getYear() { return year; }
         public void setYear(String year) { this.year = year; }
         public String getSemester() { return semester; }
         public void setSemester(String semester) { this.semester = semester; }
+        public String getStartDate() { return startDate; }
+        public void setStartDate(String startDate) { this.startDate = startDate; }
+        public String getEndDate() { return endDate; }
+        public void setEndDate(String endDate) { this.endDate = endDate; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CalendarQuery that)) return false;
+            return Objects.equals(year, that.year) && Objects.equals(semester, that.semester)
+                    && Objects.equals(startDate, that.startDate) && Objects.equals(endDate, that.endDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(year, semester, startDate, endDate);
+        }
+
+        @Override
+        public String toString() {
+            return "CalendarQuery{year='" + year + "', semester='" + semester + "', startDate='" + startDate + "', endDate='" + endDate + "'}";
+        }
     }
 
     /**
@@ -0,0 +1,157 @@
+package edu.qlu.chatbot.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick 多关键词匹配自动机
+ *
+ * 构建时把全部关键词插入字典树，再按层序计算失配指针与输出链接；
+ * 匹配时对文本只扫描一遍，复杂度为 O(文本长度 + 命中数)，与关键词数量无关。
+ *
+ * 关键词与文本均按小写匹配，返回全部（含相互重叠的）命中。实例不可变，可在多线程间共享。
+ *
+ * @param <T> 关键词附带的值类型
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+public final class AhoCorasickMatcher<T> {
+
+    private final List<Map<Character, Integer>> transitions;
+    private final int[] fail;
+    /** 节点自身对应的关键词下标，-1 表示非关键词结尾 */
+    private final int[] terminal;
+    /** 沿失配链最近的关键词结尾节点，-1 表示没有 */
+    private final int[] outputLink;
+    private final String[] keywords;
+    private final Object[] values;
+
+    private AhoCorasickMatcher(List<Map<Character, Integer>> transitions, int[] terminal,
+                               String[] keywords, Object[] values) {
+        this.transitions = transitions;
+        this.terminal = terminal;
+        this.keywords = keywords;
+        this.values = values;
+        this.fail = new int[transitions.size()];
+        this.outputLink = new int[transitions.size()];
+        buildLinks();
+    }
+
+    /**
+     * 构建自动机
+     *
+     * @param dictionary 关键词到附带值的映射，空白关键词会被忽略
+     */
+    public static <T> AhoCorasickMatcher<T> of(Map<String, T> dictionary) {
+        List<Map<Character, Integer>> transitions = new ArrayList<>();
+        List<Integer> terminal = new ArrayList<>();
+        transitions.add(new HashMap<>());
+        terminal.add(-1);
+
+        List<String> keywords = new ArrayList<>(dictionary.size());
+        List<Object> values = new ArrayList<>(dictionary.size());
+        for (Map.Entry<String, T> entry : dictionary.entrySet()) {
+            String keyword = normalize(entry.getKey());
+            if (keyword.isBlank()) {
+                continue;
+            }
+            int node = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                Integer next = transitions.get(node).get(keyword.charAt(i));
+                if (next == null) {
+                    next = transitions.size();
+                    transitions.add(new HashMap<>());
+                    terminal.add(-1);
+                    transitions.get(node).put(keyword.charAt(i), next);
+                }
+                node = next;
+            }
+            if (terminal.get(node) < 0) {
+                terminal.set(node, keywords.size());
+                keywords.add(keyword);
+                values.add(entry.getValue());
+            }
+        }
+        return new AhoCorasickMatcher<>(transitions,
+                terminal.stream().mapToInt(Integer::intValue).toArray(),
+                keywords.toArray(new String[0]), values.toArray());
+    }
+
+    /**
+     * 查找文本中的全部关键词命中，按结束位置升序返回
+     */
+    @SuppressWarnings("unchecked")
+    public List<Match<T>> findAll(String text) {
+        List<Match<T>> matches = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return matches;
+        }
+        String normalized = normalize(text);
+        int node = 0;
+        for (int i = 0; i < normalized.length(); i++) {
+            node = step(node, normalized.charAt(i));
+            for (int out = terminal[node] >= 0 ? node : outputLink[node]; out > 0; out = outputLink[out]) {
+                int index = terminal[out];
+                matches.add(new Match<>(i + 1 - keywords[index].length(), i + 1, keywords[index], (T) values[index]));
+            }
+        }
+        return matches;
+    }
+
+    public int size() {
+        return keywords.length;
+    }
+
+    private int step(int node, char c) {
+        while (true) {
+            Integer next = transitions.get(node).get(c);
+            if (next != null) {
+                return next;
+            }
+            if (node == 0) {
+                return 0;
+            }
+            node = fail[node];
+        }
+    }
+
+    private void buildLinks() {
+        outputLink[0] = -1;
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int child : transitions.get(0).values()) {
+            fail[child] = 0;
+            outputLink[child] = -1;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (Map.Entry<Character, Integer> edge : transitions.get(node).entrySet()) {
+                int child = edge.getValue();
+                int target = step(fail[node], edge.getKey());
+                fail[child] = target;
+                outputLink[child] = terminal[target] >= 0 ? target : outputLink[target];
+                queue.add(child);
+            }
+        }
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 一次关键词命中
+     *
+     * @param start 在文本中的起始位置（含）
+     * @param end 在文本中的结束位置（不含）
+     * @param keyword 命中的关键词（小写）
+     * @param value 关键词附带的值
+     */
+    public record Match<T>(int start, int end, String keyword, T value) {
+    }
+}
@@ -0,0 +1,455 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.config.DataCollectionProperties;
+import edu.qlu.chatbot.mapper.KnowledgeDocumentMapper;
+import edu.qlu.chatbot.model.DocumentChunk;
+import edu.qlu.chatbot.model.KnowledgeDocument;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 附件采集服务
+ *
+ * 教务处等站点的权威通知多以PDF/Word/Excel附件发布。页面采集时发现其中的附件链接，
+ * 提交到有界工作线程池异步处理：下载（超过大小上限即放弃）、由对应的 {@link AttachmentTextExtractor}
+ * 流式提取文本、以附件类型作为 documentType 保存为知识文档，并按段落分块同步到向量库。
+ *
+ * 线程池队列满时直接跳过新附件而不是阻塞，单个大附件不会拖慢页面采集。同一附件被多个页面引用时，
+ * 处理中的URL不再重复提交；下载整体（含响应体）受 download-timeout-ms 限制，缓慢传输的服务器不会占住工作线程。
+ * 附件按source_url upsert写入。
+ * 没有注册提取器的类型（如PDF、DOC、XLS）只记录指标，不下载；与已有文档近似重复的附件只记录备用URL
+ * （见 {@link NearDuplicateIndex}）。
+ *
+ * 指标：qlu.crawler.attachment{type,outcome} 记录处理耗时与结果，
+ * qlu.crawler.attachments.skipped{type,reason} 记录跳过次数，qlu.crawler.attachments.queued 为排队数。
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@Service
+public class AttachmentIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttachmentIngestionService.class);
+
+    /** 识别为附件的文档类型 */
+    static final Set<String> ATTACHMENT_TYPES = Set.of("PDF", "DOC", "DOCX", "XLS", "XLSX");
+
+    private static final Pattern EXTENSION = Pattern.compile("\\.([A-Za-z0-9]{2,5})$");
+
+    private final KnowledgeDocumentMapper knowledgeDocumentMapper;
+    private final DocumentChunker documentChunker;
+    private final KnowledgeChunkIndexer chunkIndexer;
+    private final NearDuplicateIndex nearDuplicateIndex;
+    private final KnowledgeDocumentBulkWriter bulkWriter;
+    private final DataCollectionProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AttachmentTextExtractor> extractors = new HashMap<>();
+    private final HttpClient httpClient;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    public AttachmentIngestionService(KnowledgeDocumentMapper knowledgeDocumentMapper,
+                                      DocumentChunker documentChunker,
+                                      KnowledgeChunkIndexer chunkIndexer,
+                                      NearDuplicateIndex nearDuplicateIndex,
+                                      KnowledgeDocumentBulkWriter bulkWriter,
+                                      DataCollectionProperties properties,
+                                      MeterRegistry meterRegistry,
+                                      List<AttachmentTextExtractor> extractors) {
+        this.knowledgeDocumentMapper = knowledgeDocumentMapper;
+        this.documentChunker = documentChunker;
+        this.chunkIndexer = chunkIndexer;
+        this.nearDuplicateIndex = nearDuplicateIndex;
+        this.bulkWriter = bulkWriter;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        for (AttachmentTextExtractor extractor : extractors) {
+            for (String type : extractor.supportedTypes()) {
+                this.extractors.put(type, extractor);
+            }
+        }
+
+        DataCollectionProperties.Attachments config = properties.getAttachments();
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(config.getDownloadTimeoutMs()))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        int threads = Math.max(1, config.getWorkerThreads());
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, config.getQueueCapacity())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "attachment-worker-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        Gauge.builder("qlu.crawler.attachments.queued", executor, e -> e.getQueue().size())
+                .description("等待处理的附件数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 附件链接
+     *
+     * @param url 绝对地址
+     * @param title 链接文字，为空时取文件名
+     * @param type 文档类型（大写扩展名）
+     */
+    public record Attachment(String url, String title, String type) {
+    }
+
+    /**
+     * 发现页面中的附件链接（按URL去重，最多 maxPerPage 个）
+     *
+     * 扩展名优先取自URL路径；CMS下载链接（如 download.jsp?id=...）没有扩展名时取自链接文字。
+     */
+    public List<Attachment> discover(Document doc) {
+        int maxPerPage = properties.getAttachments().getMaxPerPage();
+        Set<String> seen = new LinkedHashSet<>();
+        List<Attachment> attachments = new ArrayList<>();
+        for (Element link : doc.select("a[href]")) {
+            String url = link.absUrl("href");
+            if (!StringUtils.hasText(url) || !url.startsWith("http")) {
+                continue;
+            }
+            String text = link.text().strip();
+            String type = typeOf(url, text);
+            if (type == null || !seen.add(url)) {
+                continue;
+            }
+            attachments.add(new Attachment(url, StringUtils.hasText(text) ? text : fileName(url), type));
+            if (attachments.size() >= maxPerPage) {
+                break;
+            }
+        }
+        return attachments;
+    }
+
+    /**
+     * 发现并提交页面中的附件，不等待处理完成
+     *
+     * @return 提交到工作线程池的附件数
+     */
+    public int submit(Document doc) {
+        if (!properties.getAttachments().isEnabled()) {
+            return 0;
+        }
+        int submitted = 0;
+        for (Attachment attachment : discover(doc)) {
+            if (!extractors.containsKey(attachment.type())) {
+                skip(attachment, "unsupported");
+                continue;
+            }
+            if (!inFlight.add(attachment.url())) {
+                skip(attachment, "in_flight");
+                continue;
+            }
+            if (knowledgeDocumentMapper.existsBySourceUrl(attachment.url())) {
+                inFlight.remove(attachment.url());
+                skip(attachment, "exists");
+                continue;
+            }
+            try {
+                executor.execute(() -> ingest(attachment));
+                submitted++;
+            } catch (RejectedExecutionException e) {
+                inFlight.remove(attachment.url());
+                skip(attachment, "queue_full");
+                logger.warn("附件处理队列已满，跳过: {}", attachment.url());
+            }
+        }
+        return submitted;
+    }
+
+    /**
+     * 下载、提取并保存单个附件，结束后从处理中的URL集合移除
+     */
+    void ingest(Attachment attachment) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        Path file = null;
+        try {
+            file = download(attachment);
+            if (file == null) {
+                outcome = "too_large";
+                logger.warn("附件超过大小上限，跳过: {}", attachment.url());
+                return;
+            }
+            DataCollectionProperties.Attachments config = properties.getAttachments();
+            String text = extractors.get(attachment.type()).extract(file, attachment.type(), config.getMaxChars());
+            if (!StringUtils.hasText(text)) {
+                outcome = "empty";
+                return;
+            }
+
+            KnowledgeDocument document = new KnowledgeDocument();
+            document.setTitle(attachment.title());
+            document.setContent(text);
+            document.setSourceUrl(attachment.url());
+            document.setDocumentType(attachment.type());
+            document.setCategory("附件");
+            document.setCreatedAt(LocalDateTime.now());
+            document.setUpdatedAt(LocalDateTime.now());
+            if (nearDuplicateIndex.resolve(document) != null) {
+                outcome = "duplicate";
+                return;
+            }
+            bulkWriter.upsert(List.of(document));
+            nearDuplicateIndex.register(document);
+            logger.info("成功保存附件: {} ({}，{} 字)", attachment.title(), attachment.type(), text.length());
+
+            indexChunks(document);
+        } catch (Exception e) {
+            outcome = "error";
+            logger.warn("附件采集失败: {} - {}", attachment.url(), e.getMessage());
+        } finally {
+            inFlight.remove(attachment.url());
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    logger.debug("删除附件临时文件失败: {}", file);
+                }
+            }
+            sample.stop(Timer.builder("qlu.crawler.attachment")
+                    .description("附件下载与解析耗时")
+                    .tag("type", attachment.type())
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * 下载到临时文件，Content-Length 或实际读取字节数超过上限时返回null
+     *
+     * 请求超时只限制等待响应头的时间，响应体的读取由整体截止时间限制：超时后取消请求并删除临时文件。
+     */
+    private Path download(Attachment attachment) throws IOException, InterruptedException {
+        DataCollectionProperties.Attachments config = properties.getAttachments();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(attachment.url()))
+                .timeout(Duration.ofMillis(config.getDownloadTimeoutMs()))
+                .header("User-Agent", DataCollectionService.USER_AGENT)
+                .GET()
+                .build();
+        Path file = Files.createTempFile("qlu-attachment-", "." + attachment.type().toLowerCase(Locale.ROOT));
+        CompletableFuture<HttpResponse<Path>> future = httpClient.sendAsync(request, info -> {
+            long declared = info.headers().firstValueAsLong("Content-Length").orElse(-1);
+            if (info.statusCode() != 200 || declared > config.getMaxBytes()) {
+                return HttpResponse.BodySubscribers.replacing(null);
+            }
+            return new LimitedFileSubscriber(file, config.getMaxBytes());
+        });
+        boolean downloaded = false;
+        try {
+            HttpResponse<Path> response = future.get(config.getDownloadTimeoutMs(), TimeUnit.MILLISECONDS);
+            if (response.statusCode() != 200) {
+                throw new IOException("HTTP " + response.statusCode());
+            }
+            downloaded = response.body() != null;
+            return downloaded ? file : null;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new IOException("下载超时（" + config.getDownloadTimeoutMs() + "ms）");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException io ? io : new IOException(cause);
+        } finally {
+            if (!downloaded) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * 把响应体写入文件，累计字节数超过上限时取消下载并返回null
+     */
+    private static final class LimitedFileSubscriber implements HttpResponse.BodySubscriber<Path> {
+
+        private final Path file;
+        private final long maxBytes;
+        private final CompletableFuture<Path> result = new CompletableFuture<>();
+        private Flow.Subscription subscription;
+        private FileChannel channel;
+        private long total;
+
+        LimitedFileSubscriber(Path file, long maxBytes) {
+            this.file = file;
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public CompletionStage<Path> getBody() {
+            return result;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            try {
+                channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            } catch (IOException e) {
+                subscription.cancel();
+                result.completeExceptionally(e);
+                return;
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                for (ByteBuffer buffer : buffers) {
+                    total += buffer.remaining();
+                    if (total > maxBytes) {
+                        subscription.cancel();
+                        close();
+                        result.complete(null);
+                        return;
+                    }
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                }
+            } catch (IOException e) {
+                subscription.cancel();
+                close();
+                result.completeExceptionally(e);
+                return;
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            close();
+            result.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            close();
+            result.complete(file);
+        }
+
+        private void close() {
+            try {
+                if (channel != null) {
+                    channel.close();
+                }
+            } catch (IOException ignored) {
+                // 文件由调用方删除
+            }
+        }
+    }
+
+    /**
+     * 提取的文本每行作为一个段落交给分块器，再增量同步到向量库
+     */
+    private void indexChunks(KnowledgeDocument document) {
+        if (!properties.getChunking().isIndexEnabled()) {
+            return;
+        }
+        Element root = new Element("div");
+        for (String line : document.getContent().split("\n")) {
+            if (!line.isBlank()) {
+                root.appendElement("p").text(line);
+            }
+        }
+        List<DocumentChunk> chunks = documentChunker.chunk(document.getSourceUrl(), root);
+        chunkIndexer.sync(document.getSourceUrl(), document.getTitle(), chunks);
+        if (document.getId() != null) {
+            knowledgeDocumentMapper.updateVectorizedStatus(document.getId(), true);
+        }
+    }
+
+    private void skip(Attachment attachment, String reason) {
+        meterRegistry.counter("qlu.crawler.attachments.skipped", "type", attachment.type(), "reason", reason)
+                .increment();
+    }
+
+    static String typeOf(String url, String linkText) {
+        String type = extensionOf(pathOf(url));
+        if (type == null || !ATTACHMENT_TYPES.contains(type)) {
+            type = extensionOf(linkText);
+        }
+        return type != null && ATTACHMENT_TYPES.contains(type) ? type : null;
+    }
+
+    private static String extensionOf(String value) {
+        if (value == null) {
+            return null;
+        }
+        Matcher matcher = EXTENSION.matcher(value.strip());
+        return matcher.find() ? matcher.group(1).toUpperCase(Locale.ROOT) : null;
+    }
+
+    private static String pathOf(String url) {
+        try {
+            return URI.create(url).getPath();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String fileName(String url) {
+        String path = pathOf(url);
+        if (!StringUtils.hasText(path)) {
+            return url;
+        }
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        return StringUtils.hasText(name) ? URLDecoder.decode(name, StandardCharsets.UTF_8) : url;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,34 @@
+package edu.qlu.chatbot.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Set;
+
+/**
+ * 附件文本提取器
+ *
+ * 每种实现负责若干文档类型（与 KnowledgeDocument.documentType 一致，如 DOCX、XLSX），
+ * 以流式方式读取已下载到本地的附件，输出按段落/表格行换行的纯文本。
+ * 注册为Spring Bean即可被 {@link AttachmentIngestionService} 使用，没有对应提取器的附件类型不会被下载。
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+public interface AttachmentTextExtractor {
+
+    /**
+     * 支持的文档类型（大写扩展名）
+     */
+    Set<String> supportedTypes();
+
+    /**
+     * 提取附件文本
+     *
+     * @param file 已下载的附件
+     * @param type 文档类型
+     * @param maxChars 最多提取的字符数，达到后停止解析
+     * @return 以换行分隔段落的文本
+     * @throws IOException 文件损坏或格式不支持
+     */
+    String extract(Path file, String type, int maxChars) throws IOException;
+}
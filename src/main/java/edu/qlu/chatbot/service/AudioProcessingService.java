@@ -1,6 +1,8 @@
 package edu.qlu.chatbot.service;
 
 import edu.qlu.chatbot.config.VoiceprintConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -10,6 +12,7 @@ import javax.sound.sampled.*;
 import java.io.*;
 import java.util.Arrays;
 import java.util.Base64;
+import java.util.concurrent.Callable;
 
 /**
  * 音频处理服务
@@ -24,9 +27,11 @@ public class AudioProcessingService {
     private static final Logger logger = LoggerFactory.getLogger(AudioProcessingService.class);
     
     private final VoiceprintConfig config;
+    private final MeterRegistry meterRegistry;
     
-    public AudioProcessingService(VoiceprintConfig config) {
+    public AudioProcessingService(VoiceprintConfig config, MeterRegistry meterRegistry) {
         this.config = config;
+        this.meterRegistry = meterRegistry;
     }
     
     /**
@@ -52,13 +57,13 @@ public class AudioProcessingService {
             logger.info("开始处理音频文件: {}, 大小: {} bytes", file.getOriginalFilename(), file.getSize());
             
             // 读取音频文件
-            byte[] audioBytes = file.getBytes();
+            byte[] audioBytes = timeStage("read", file::getBytes);
             
             // 转换音频格式
-            byte[] processedAudio = convertAudioFormat(audioBytes, file.getOriginalFilename());
+            byte[] processedAudio = timeStage("convert", () -> convertAudioFormat(audioBytes, file.getOriginalFilename()));
             
             // Base64编码
-            String base64Audio = Base64.getEncoder().encodeToString(processedAudio);
+            String base64Audio = timeStage("encode", () -> Base64.getEncoder().encodeToString(processedAudio));
             
             logger.info("音频处理完成: 原始大小={} bytes, 处理后大小={} bytes, Base64长度={}", 
                        audioBytes.length, processedAudio.length, base64Audio.length());
@@ -88,10 +93,10 @@ public class AudioProcessingService {
             logger.info("开始处理音频字节数据: {}, 大小: {} bytes", fileName, audioBytes.length);
             
             // 转换音频格式
-            byte[] processedAudio = convertAudioFormat(audioBytes, fileName);
+            byte[] processedAudio = timeStage("convert", () -> convertAudioFormat(audioBytes, fileName));
             
             // Base64编码
-            String base64Audio = Base64.getEncoder().encodeToString(processedAudio);
+            String base64Audio = timeStage("encode", () -> Base64.getEncoder().encodeToString(processedAudio));
             
             logger.info("音频处理完成: 原始大小={} bytes, 处理后大小={} bytes", 
                        audioBytes.length, processedAudio.length);
@@ -104,14 +109,42 @@ public class AudioProcessingService {
         }
     }
     
+    /**
+     * 记录音频处理阶段耗时（qlu.audio.conversion{stage}）
+     */
+    private <T> T timeStage(String stage, Callable<T> task) throws Exception {
+        return Timer.builder("qlu.audio.conversion")
+                .description("音频处理各阶段耗时")
+                .tag("stage", stage)
+                .register(meterRegistry)
+                .recordCallable(task);
+    }
+    
+    /**
+     * 验证音频文件名与大小
+     * 用于非Multipart来源的音频（如批量注册压缩包中的条目）
+     * 
+     * @param fileName 文件名
+     * @param size 文件大小（字节）
+     * @throws AudioProcessingException 验证失败
+     */
+    public void validateAudio(String fileName, long size) throws AudioProcessingException {
+        validateFileSize(size);
+        validateFileFormat(fileName);
+    }
+    
     /**
      * 验证文件大小
      */
     private void validateFileSize(MultipartFile file) throws AudioProcessingException {
+        validateFileSize(file.getSize());
+    }
+    
+    private void validateFileSize(long size) throws AudioProcessingException {
         long maxSize = config.getAudio().getMaxFileSizeInBytes();
-        if (file.getSize() > maxSize) {
+        if (size > maxSize) {
             throw new AudioProcessingException(
-                String.format("文件大小超出限制: %d bytes > %d bytes", file.getSize(), maxSize));
+                String.format("文件大小超出限制: %d bytes > %d bytes", size, maxSize));
         }
     }
     
@@ -119,7 +152,10 @@ public class AudioProcessingService {
      * 验证文件格式
      */
     private void validateFileFormat(MultipartFile file) throws AudioProcessingException {
-        String fileName = file.getOriginalFilename();
+        validateFileFormat(file.getOriginalFilename());
+    }
+    
+    private void validateFileFormat(String fileName) throws AudioProcessingException {
         if (fileName == null || fileName.trim().isEmpty()) {
             throw new AudioProcessingException("文件名不能为空");
         }
@@ -301,6 +337,227 @@ public class AudioProcessingService {
         }
     }
     
+    /**
+     * 创建增量音频规范化器
+     * 用于实时识别：客户端按帧推送PCM数据，逐帧转换为目标格式并统计有效语音时长
+     *
+     * @param sourceSampleRate 输入采样率
+     * @param sourceChannels 输入声道数
+     * @return 增量规范化器（非线程安全，每个会话一个实例）
+     * @throws AudioProcessingException 输入参数不合法
+     */
+    public StreamingAudioNormalizer createStreamingNormalizer(int sourceSampleRate, int sourceChannels)
+            throws AudioProcessingException {
+        if (sourceSampleRate < 8000 || sourceSampleRate > 192000) {
+            throw new AudioProcessingException("不支持的采样率: " + sourceSampleRate);
+        }
+        if (sourceChannels < 1 || sourceChannels > 8) {
+            throw new AudioProcessingException("不支持的声道数: " + sourceChannels);
+        }
+        return new StreamingAudioNormalizer(sourceSampleRate, sourceChannels,
+                                            config.getAudio().getTargetSampleRate(),
+                                            config.getStream().getVadRmsThreshold());
+    }
+
+    /**
+     * 增量音频规范化器
+     *
+     * 输入为16bit小端PCM（可多声道、任意采样率），输出为目标采样率的16bit单声道PCM。
+     * 多声道取平均混为单声道，采样率通过线性插值转换；降采样前先经过8阶巴特沃斯低通滤波
+     * （截止频率为目标采样率的0.45倍），避免高于目标奈奎斯特频率的成分混叠到语音频段。
+     * 同时以20ms为窗口做能量VAD，累计有效语音时长。
+     */
+    public static class StreamingAudioNormalizer {
+        private static final int VAD_WINDOW_MS = 20;
+        private static final double CUTOFF_RATIO = 0.45;
+        private static final int FILTER_ORDER = 8;
+
+        private final int sourceChannels;
+        private final int targetSampleRate;
+        private final double step;
+        private final int vadRmsThreshold;
+        private final int vadWindowSamples;
+        private final Biquad[] antiAlias;
+
+        private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        private final byte[] carry;
+        private int carryLength;
+
+        private boolean hasPrevious;
+        private int previous;
+        private double position;
+
+        private long windowSumSquares;
+        private int windowSamples;
+        private long speechSamples;
+        private long outputSamples;
+
+        StreamingAudioNormalizer(int sourceSampleRate, int sourceChannels, int targetSampleRate, int vadRmsThreshold) {
+            this.sourceChannels = sourceChannels;
+            this.targetSampleRate = targetSampleRate;
+            this.step = (double) sourceSampleRate / targetSampleRate;
+            this.vadRmsThreshold = vadRmsThreshold;
+            this.vadWindowSamples = targetSampleRate * VAD_WINDOW_MS / 1000;
+            this.carry = new byte[sourceChannels * 2];
+            if (sourceSampleRate > targetSampleRate) {
+                // N/2 节二阶低通级联为N阶巴特沃斯，第k节 Q = 1/(2cos((2k-1)π/2N))
+                double cutoff = targetSampleRate * CUTOFF_RATIO;
+                this.antiAlias = new Biquad[FILTER_ORDER / 2];
+                for (int k = 1; k <= antiAlias.length; k++) {
+                    double q = 1 / (2 * Math.cos((2 * k - 1) * Math.PI / (2 * FILTER_ORDER)));
+                    antiAlias[k - 1] = Biquad.lowPass(sourceSampleRate, cutoff, q);
+                }
+            } else {
+                this.antiAlias = new Biquad[0];
+            }
+        }
+
+        /**
+         * 追加一帧PCM数据，帧边界可以不与采样点对齐
+         *
+         * @param data PCM数据
+         * @param offset 起始偏移
+         * @param length 长度
+         */
+        public void append(byte[] data, int offset, int length) {
+            int frameBytes = carry.length;
+            int index = offset;
+            int end = offset + length;
+
+            // 补齐上一帧残留的半个采样点
+            if (carryLength > 0) {
+                int needed = Math.min(frameBytes - carryLength, length);
+                System.arraycopy(data, index, carry, carryLength, needed);
+                carryLength += needed;
+                index += needed;
+                if (carryLength < frameBytes) {
+                    return;
+                }
+                accept(mixdown(carry, 0));
+                carryLength = 0;
+            }
+
+            while (index + frameBytes <= end) {
+                accept(mixdown(data, index));
+                index += frameBytes;
+            }
+
+            if (index < end) {
+                carryLength = end - index;
+                System.arraycopy(data, index, carry, 0, carryLength);
+            }
+        }
+
+        private int mixdown(byte[] data, int index) {
+            int sum = 0;
+            for (int channel = 0; channel < sourceChannels; channel++) {
+                int at = index + channel * 2;
+                sum += (short) ((data[at] & 0xFF) | (data[at + 1] << 8));
+            }
+            return sum / sourceChannels;
+        }
+
+        private void accept(int input) {
+            double filtered = input;
+            for (Biquad stage : antiAlias) {
+                filtered = stage.process(filtered);
+            }
+            int sample = (int) Math.round(filtered);
+            if (!hasPrevious) {
+                previous = sample;
+                hasPrevious = true;
+                return;
+            }
+            // 在previous(0)与sample(1)之间按目标采样间隔插值输出
+            while (position < 1.0) {
+                emit((int) Math.round(previous + (sample - previous) * position));
+                position += step;
+            }
+            position -= 1.0;
+            previous = sample;
+        }
+
+        private void emit(int value) {
+            int sample = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, value));
+            output.write(sample & 0xFF);
+            output.write((sample >> 8) & 0xFF);
+            outputSamples++;
+
+            windowSumSquares += (long) sample * sample;
+            if (++windowSamples == vadWindowSamples) {
+                double rms = Math.sqrt((double) windowSumSquares / windowSamples);
+                if (rms >= vadRmsThreshold) {
+                    speechSamples += windowSamples;
+                }
+                windowSumSquares = 0;
+                windowSamples = 0;
+            }
+        }
+
+        /**
+         * 已累计的有效语音时长（毫秒）
+         */
+        public long getSpeechMillis() {
+            return speechSamples * 1000 / targetSampleRate;
+        }
+
+        /**
+         * 已输出的音频总时长（毫秒）
+         */
+        public long getDurationMillis() {
+            return outputSamples * 1000 / targetSampleRate;
+        }
+
+        /**
+         * 规范化后的PCM数据
+         */
+        public byte[] toPcm() {
+            return output.toByteArray();
+        }
+
+        /**
+         * 规范化后的PCM数据（Base64编码）
+         */
+        public String toBase64() {
+            return Base64.getEncoder().encodeToString(output.toByteArray());
+        }
+    }
+
+    /**
+     * 二阶IIR滤波器（直接II型转置），系数按 RBJ Audio EQ Cookbook 计算
+     */
+    static final class Biquad {
+        private final double b0;
+        private final double b1;
+        private final double b2;
+        private final double a1;
+        private final double a2;
+        private double z1;
+        private double z2;
+
+        private Biquad(double b0, double b1, double b2, double a0, double a1, double a2) {
+            this.b0 = b0 / a0;
+            this.b1 = b1 / a0;
+            this.b2 = b2 / a0;
+            this.a1 = a1 / a0;
+            this.a2 = a2 / a0;
+        }
+
+        static Biquad lowPass(double sampleRate, double cutoff, double q) {
+            double w0 = 2 * Math.PI * cutoff / sampleRate;
+            double cos = Math.cos(w0);
+            double alpha = Math.sin(w0) / (2 * q);
+            return new Biquad((1 - cos) / 2, 1 - cos, (1 - cos) / 2, 1 + alpha, -2 * cos, 1 - alpha);
+        }
+
+        double process(double x) {
+            double y = b0 * x + z1;
+            z1 = b1 * x - a1 * y + z2;
+            z2 = b2 * x - a2 * y;
+            return y;
+        }
+    }
+
     /**
      * 将字节数组转换为Base64字符串
      * 用于测试目的的公共方法
@@ -1,19 +1,38 @@
 package edu.qlu.chatbot.service;
 
+import edu.qlu.chatbot.config.ChatConfig;
+import edu.qlu.chatbot.config.ClientIpResolver;
+import edu.qlu.chatbot.config.ModelRouter;
 import edu.qlu.chatbot.model.ChatRequest;
 import edu.qlu.chatbot.model.ChatResponse;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.metadata.Usage;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
- * 简化的聊天服务类
+ * 聊天服务类
+ * 
+ * 多轮对话上下文由 {@link ChatMemory}（{@link ConversationMemoryService}）维护，
+ * 超出token预算的较早轮次以滚动摘要的形式随系统提示词发送；
+ * FAQ类问题先经 {@link IntentRouter} 判定，置信时不调用大模型直接按模板回复；
+ * 其余请求由 {@link ModelRouter} 按复杂度选择模型并在超时、限流时故障转移，
+ * 调用前经 {@link WeightedFairQueue} 按客户端公平排队
  * 
  * @author AI Assistant
  * @version 1.0.0
@@ -23,10 +42,31 @@ public class ChatService {
 
     private static final Logger logger = LoggerFactory.getLogger(ChatService.class);
 
+    /**
+     * 公平队列中大模型的资源名称
+     */
+    static final String LLM_RESOURCE = "llm";
+
+    /**
+     * 排队成本的计量单位：每多少个提示词字符计为1
+     */
+    private static final int CHARS_PER_COST_UNIT = 500;
+
     private final ChatClient chatClient;
+    private final ChatMemory chatMemory;
+    private final MeterRegistry meterRegistry;
+    private final IntentRouter intentRouter;
+    private final ModelRouter modelRouter;
+    private final WeightedFairQueue fairQueue;
 
-    public ChatService(ChatClient chatClient) {
+    public ChatService(ChatClient chatClient, ChatMemory chatMemory, MeterRegistry meterRegistry,
+                       IntentRouter intentRouter, ModelRouter modelRouter, WeightedFairQueue fairQueue) {
         this.chatClient = chatClient;
+        this.chatMemory = chatMemory;
+        this.meterRegistry = meterRegistry;
+        this.intentRouter = intentRouter;
+        this.modelRouter = modelRouter;
+        this.fairQueue = fairQueue;
     }
 
     /**
@@ -49,17 +89,28 @@ public class ChatService {
 
             logger.info("处理聊天请求 - 会话ID: {}, 消息: {}", conversationId, request.getMessage());
 
-            // 调用ChatClient获取响应
-            String response = chatClient
-                    .prompt()
-                    .user(request.getMessage())
-                    .call()
-                    .content();
+            // FAQ类问题走快速通道，回复同样写入会话记忆，保证后续追问有上下文
+            Optional<IntentRouter.Route> route = intentRouter.route(request.getMessage());
+            String response;
+            if (route.isPresent()) {
+                response = route.get().answer();
+                logger.info("快速通道响应 - 会话ID: {}, 意图: {}", conversationId, route.get().intent());
+            } else {
+                // 带上会话窗口内的历史消息调用ChatClient
+                List<Message> history = chatMemory.get(conversationId);
+                response = callModel(history, request.getMessage());
+                logger.info("ChatClient响应成功 - 会话ID: {}, 历史消息数: {}", conversationId, history.size());
+            }
 
-            logger.info("ChatClient响应成功 - 会话ID: {}", conversationId);
+            if (StringUtils.hasText(response)) {
+                chatMemory.add(conversationId, List.of(
+                        new UserMessage(request.getMessage()), new AssistantMessage(response)));
+            }
             
             return ChatResponse.success(response, conversationId);
 
+        } catch (RateLimitExceededException | DeadlineExceededException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("处理聊天请求时发生错误: {}", e.getMessage(), e);
             // 确保异常情况下也有conversationId
@@ -70,20 +121,110 @@ public class ChatService {
         }
     }
 
+    /**
+     * 调用大模型并记录耗时与token用量
+     */
+    private String callModel(List<Message> history, String message) {
+        // 按客户端公平排队，提示词越长占用的份额越多
+        try (WeightedFairQueue.Permit permit = fairQueue.acquire(
+                LLM_RESOURCE, ClientIpResolver.currentClientKey(), requestCost(history, message))) {
+            return doCallModel(history, message);
+        }
+    }
+
+    private static double requestCost(List<Message> history, String message) {
+        long chars = message.length();
+        for (Message item : history) {
+            chars += item.getText() != null ? item.getText().length() : 0;
+        }
+        return 1.0 + (double) chars / CHARS_PER_COST_UNIT;
+    }
+
+    private String doCallModel(List<Message> history, String message) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            // 会话摘要以系统消息形式位于历史开头，合并进系统提示词，保证只有一条系统消息
+            StringBuilder system = new StringBuilder(ChatConfig.SYSTEM_PROMPT);
+            List<Message> turns = new ArrayList<>(history.size());
+            for (Message item : history) {
+                if (item.getMessageType() == MessageType.SYSTEM) {
+                    system.append('\n').append(item.getText());
+                } else {
+                    turns.add(item);
+                }
+            }
+
+            boolean hasSummary = turns.size() < history.size();
+            // 每次尝试都重新构建请求，故障转移时只替换模型选项
+            org.springframework.ai.chat.model.ChatResponse chatResponse = modelRouter.call(message, history, options -> {
+                ChatClient.ChatClientRequestSpec spec = chatClient.prompt();
+                if (hasSummary) {
+                    spec = spec.system(system.toString());
+                }
+                if (options != null) {
+                    spec = spec.options(options);
+                }
+                return spec.messages(turns)
+                        .user(message)
+                        .call()
+                        .chatResponse();
+            });
+            if (chatResponse == null || chatResponse.getResult() == null) {
+                return null;
+            }
+            recordTokenUsage(chatResponse.getMetadata().getUsage());
+            return chatResponse.getResult().getOutput().getText();
+        } catch (RuntimeException e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("qlu.llm.requests")
+                    .description("大模型调用耗时")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    private void recordTokenUsage(Usage usage) {
+        if (usage == null) {
+            return;
+        }
+        recordTokens("prompt", usage.getPromptTokens());
+        recordTokens("completion", usage.getCompletionTokens());
+    }
+
+    private void recordTokens(String type, Integer tokens) {
+        if (tokens == null || tokens <= 0) {
+            return;
+        }
+        DistributionSummary.builder("qlu.llm.tokens")
+                .description("大模型单次调用token数")
+                .baseUnit("tokens")
+                .tag("type", type)
+                .register(meterRegistry)
+                .record(tokens);
+    }
+
     /**
      * 获取对话历史记录
      */
     public List<String> getConversationHistory(String conversationId) {
-        // 简化版本 - 返回空列表，实际项目中可以从数据库或缓存中获取
         logger.info("获取会话历史 - 会话ID: {}", conversationId);
-        return new ArrayList<>();
+        List<String> history = new ArrayList<>();
+        for (Message message : chatMemory.get(conversationId)) {
+            String role = message.getMessageType() == MessageType.USER ? "用户"
+                    : message.getMessageType() == MessageType.ASSISTANT ? "助手" : "系统";
+            history.add(role + ": " + message.getText());
+        }
+        return history;
     }
 
     /**
      * 清除对话历史记录
      */
     public void clearConversationHistory(String conversationId) {
-        // 简化版本 - 仅记录日志，实际项目中可以清除数据库或缓存中的历史记录
         logger.info("清除会话历史 - 会话ID: {}", conversationId);
+        chatMemory.clear(conversationId);
     }
 }
@@ -0,0 +1,495 @@
+package edu.qlu.chatbot.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.qlu.chatbot.config.ChatMemoryProperties;
+import edu.qlu.chatbot.mapper.ChatMemoryMapper;
+import edu.qlu.chatbot.model.ChatMemoryRecord;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 会话记忆服务
+ *
+ * 分三层维护多轮对话上下文：
+ * - 进程内LRU：按conversationId缓存最近 window-size 条消息，命中时不访问数据库
+ * - 异步写库：新消息先进入待写队列，由定时任务批量写入 ai_chat_memory
+ * - 窗口裁剪：缓存只保留窗口内消息，数据库每个会话最多保留 max-persisted-messages 条
+ *
+ * 窗口内消息的估算token数超过 compaction.token-budget 时，较早的轮次会在后台线程中
+ * 与已有摘要合并为滚动摘要（ai_chat_memory 中 message_type=SUMMARY 的记录，
+ * metadata.summarizedUntil 记录摘要覆盖到的消息时间），之后的请求只携带摘要与最近轮次。
+ * 启用压缩时，超出窗口被裁掉的消息先暂存，在下一次压缩中并入摘要，不会未经摘要直接丢弃。
+ *
+ * 缓存未命中且该会话仍有待写数据时先刷出队列，再从数据库加载，保证被淘汰会话的消息不丢失。
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@Service
+public class ConversationMemoryService implements ChatMemory {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversationMemoryService.class);
+
+    static final String SUMMARY_TYPE = "SUMMARY";
+
+    static final String SUMMARY_PREFIX = "以下是此前对话的摘要：\n";
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final ChatMemoryMapper chatMemoryMapper;
+    private final ChatMemoryProperties properties;
+    private final TokenBudgetEstimator tokenBudgetEstimator;
+    private final ConversationSummarizer summarizer;
+    private final Executor compactionExecutor;
+
+    /**
+     * 访问顺序的LinkedHashMap实现LRU，所有访问需持有其监视器
+     */
+    private final LinkedHashMap<String, ConversationState> conversations;
+
+    private final Queue<ChatMemoryRecord> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 待写库的滚动摘要，同一会话只保留最新一份
+     */
+    private final Map<String, ChatMemoryRecord> pendingSummaries = new ConcurrentHashMap<>();
+
+    /**
+     * 串行化写库与清除操作，避免清除后旧消息被再次写入
+     */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private LocalDateTime lastTimestamp = LocalDateTime.MIN;
+
+    @Autowired
+    public ConversationMemoryService(ChatMemoryMapper chatMemoryMapper, ChatMemoryProperties properties,
+                                     TokenBudgetEstimator tokenBudgetEstimator,
+                                     ConversationSummarizer summarizer) {
+        this(chatMemoryMapper, properties, tokenBudgetEstimator, summarizer, newCompactionExecutor(properties));
+    }
+
+    ConversationMemoryService(ChatMemoryMapper chatMemoryMapper, ChatMemoryProperties properties,
+                              TokenBudgetEstimator tokenBudgetEstimator, ConversationSummarizer summarizer,
+                              Executor compactionExecutor) {
+        this.chatMemoryMapper = chatMemoryMapper;
+        this.properties = properties;
+        this.tokenBudgetEstimator = tokenBudgetEstimator;
+        this.summarizer = summarizer;
+        this.compactionExecutor = compactionExecutor;
+        int maxConversations = Math.max(1, properties.getMaxConversations());
+        this.conversations = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ConversationState> eldest) {
+                return size() > maxConversations;
+            }
+        };
+    }
+
+    @Override
+    public void add(String conversationId, List<Message> messages) {
+        if (!StringUtils.hasText(conversationId) || messages == null || messages.isEmpty()) {
+            return;
+        }
+
+        ConversationState state = loadState(conversationId);
+        List<ChatMemoryRecord> records = new ArrayList<>(messages.size());
+        List<Entry> toSummarize = null;
+        String previousSummary = null;
+        synchronized (conversations) {
+            for (Message message : messages) {
+                if (message.getMessageType() == MessageType.TOOL || !StringUtils.hasText(message.getText())) {
+                    continue;
+                }
+                LocalDateTime createdAt = nextTimestamp();
+                state.entries.addLast(new Entry(message, createdAt));
+                records.add(new ChatMemoryRecord(conversationId, message.getMessageType().name(),
+                                                 message.getText(), createdAt));
+            }
+            trim(state);
+            conversations.put(conversationId, state);
+            toSummarize = compactionCandidates(state);
+            if (toSummarize != null) {
+                state.compacting = true;
+                previousSummary = state.summary;
+            }
+        }
+        pending.addAll(records);
+
+        if (toSummarize != null) {
+            scheduleCompaction(conversationId, state, previousSummary, toSummarize);
+        }
+    }
+
+    @Override
+    public List<Message> get(String conversationId) {
+        if (!StringUtils.hasText(conversationId)) {
+            return List.of();
+        }
+        ConversationState state = loadState(conversationId);
+        synchronized (conversations) {
+            List<Message> messages = new ArrayList<>(state.entries.size() + 1);
+            if (state.summary != null) {
+                messages.add(new SystemMessage(SUMMARY_PREFIX + state.summary));
+            }
+            for (Entry entry : state.entries) {
+                messages.add(entry.message());
+            }
+            return messages;
+        }
+    }
+
+    @Override
+    public void clear(String conversationId) {
+        if (!StringUtils.hasText(conversationId)) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            synchronized (conversations) {
+                conversations.remove(conversationId);
+            }
+            pending.removeIf(record -> conversationId.equals(record.getConversationId()));
+            pendingSummaries.remove(conversationId);
+            int deleted = chatMemoryMapper.deleteByConversationId(conversationId);
+            logger.info("清除会话记忆 - 会话ID: {}, 删除消息数: {}", conversationId, deleted);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 定时将待写队列批量写入数据库，并裁剪超出保留条数的旧消息
+     */
+    @Scheduled(fixedDelayString = "${app.chat.memory.flush-interval-ms:1000}")
+    public void flush() {
+        if (pending.isEmpty() && pendingSummaries.isEmpty()) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            Set<String> touched = new LinkedHashSet<>();
+            int batchSize = Math.max(1, properties.getFlushBatchSize());
+            while (!pending.isEmpty()) {
+                List<ChatMemoryRecord> batch = new ArrayList<>(batchSize);
+                ChatMemoryRecord record;
+                while (batch.size() < batchSize && (record = pending.poll()) != null) {
+                    batch.add(record);
+                }
+                if (batch.isEmpty()) {
+                    break;
+                }
+                try {
+                    chatMemoryMapper.batchInsert(batch);
+                } catch (Exception e) {
+                    // 写库失败时放回队列，等待下次重试
+                    logger.error("会话记忆写库失败，{} 条消息将在下次重试: {}", batch.size(), e.getMessage());
+                    pending.addAll(batch);
+                    return;
+                }
+                batch.forEach(r -> touched.add(r.getConversationId()));
+            }
+
+            for (String conversationId : touched) {
+                try {
+                    chatMemoryMapper.trimConversation(conversationId, properties.getMaxPersistedMessages());
+                } catch (Exception e) {
+                    logger.warn("裁剪会话记忆失败 - 会话ID: {}, 错误: {}", conversationId, e.getMessage());
+                }
+            }
+
+            flushSummaries();
+            logger.debug("会话记忆写库完成，涉及会话数: {}", touched.size());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 应用关闭前写出剩余消息
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (compactionExecutor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+        flush();
+    }
+
+    /**
+     * 获取缓存中的会话数量
+     */
+    public int getCachedConversationCount() {
+        synchronized (conversations) {
+            return conversations.size();
+        }
+    }
+
+    /**
+     * 获取待写库的消息数量
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * 替换摘要记录：先删除旧摘要再写入新摘要
+     */
+    private void flushSummaries() {
+        for (Iterator<Map.Entry<String, ChatMemoryRecord>> it = pendingSummaries.entrySet().iterator();
+             it.hasNext(); ) {
+            Map.Entry<String, ChatMemoryRecord> entry = it.next();
+            it.remove();
+            try {
+                chatMemoryMapper.deleteSummary(entry.getKey());
+                chatMemoryMapper.batchInsert(List.of(entry.getValue()));
+            } catch (Exception e) {
+                logger.error("会话摘要写库失败 - 会话ID: {}, 错误: {}", entry.getKey(), e.getMessage());
+                pendingSummaries.putIfAbsent(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * 需要并入摘要的消息：已裁出窗口的消息，以及窗口超出token预算时除最近轮次外的消息；
+     * 无需压缩时返回null
+     */
+    private List<Entry> compactionCandidates(ConversationState state) {
+        ChatMemoryProperties.Compaction compaction = properties.getCompaction();
+        if (!compaction.isEnabled() || state.compacting) {
+            return null;
+        }
+        List<Entry> candidates = new ArrayList<>(state.trimmed);
+        int keepRecent = compaction.getKeepRecentMessages();
+        if (state.entries.size() > keepRecent) {
+            int tokens = tokenBudgetEstimator.estimate(state.summary);
+            for (Entry entry : state.entries) {
+                tokens += tokenBudgetEstimator.estimate(entry.message());
+            }
+            if (tokens > compaction.getTokenBudget()) {
+                candidates.addAll(new ArrayList<>(state.entries).subList(0, state.entries.size() - keepRecent));
+            }
+        }
+        return candidates.isEmpty() ? null : candidates;
+    }
+
+    /**
+     * 在后台线程中将较早的轮次合并进滚动摘要，不阻塞请求线程
+     */
+    private void scheduleCompaction(String conversationId, ConversationState state, String previousSummary,
+                                    List<Entry> toSummarize) {
+        try {
+            compactionExecutor.execute(() -> compact(conversationId, state, previousSummary, toSummarize));
+        } catch (RejectedExecutionException e) {
+            logger.debug("会话压缩队列已满，跳过本次压缩 - 会话ID: {}", conversationId);
+            synchronized (conversations) {
+                state.compacting = false;
+            }
+        }
+    }
+
+    private void compact(String conversationId, ConversationState state, String previousSummary,
+                         List<Entry> toSummarize) {
+        try {
+            List<Message> messages = new ArrayList<>(toSummarize.size());
+            toSummarize.forEach(entry -> messages.add(entry.message()));
+            String summary = summarizer.summarize(previousSummary, messages,
+                                                  properties.getCompaction().getMaxSummaryChars());
+            if (summary == null) {
+                return;
+            }
+
+            LocalDateTime summarizedUntil = toSummarize.get(toSummarize.size() - 1).createdAt();
+            synchronized (conversations) {
+                // 会话已被清除或淘汰时丢弃本次摘要
+                if (conversations.get(conversationId) != state) {
+                    return;
+                }
+                for (Entry entry : toSummarize) {
+                    if (state.trimmed.peekFirst() == entry) {
+                        state.trimmed.pollFirst();
+                    } else if (state.entries.peekFirst() == entry) {
+                        state.entries.pollFirst();
+                    }
+                }
+                state.summary = summary;
+                state.summarizedUntil = summarizedUntil;
+
+                ChatMemoryRecord record = new ChatMemoryRecord(conversationId, SUMMARY_TYPE, summary, nextTimestamp());
+                record.setMetadata(objectMapper.createObjectNode()
+                        .put("summarizedUntil", summarizedUntil.toString())
+                        .put("summarizedMessages", toSummarize.size())
+                        .toString());
+                pendingSummaries.put(conversationId, record);
+            }
+            logger.info("会话记忆已压缩 - 会话ID: {}, 合并消息数: {}", conversationId, toSummarize.size());
+        } catch (Exception e) {
+            logger.warn("会话压缩失败 - 会话ID: {}, 错误: {}", conversationId, e.getMessage());
+        } finally {
+            synchronized (conversations) {
+                state.compacting = false;
+            }
+        }
+    }
+
+    /**
+     * 获取会话状态，缓存未命中时从数据库加载摘要与摘要之后的最近窗口
+     */
+    private ConversationState loadState(String conversationId) {
+        synchronized (conversations) {
+            ConversationState cached = conversations.get(conversationId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        // 被淘汰会话可能仍有未写库的数据，先刷出再读取
+        if (pendingSummaries.containsKey(conversationId)
+                || pending.stream().anyMatch(record -> conversationId.equals(record.getConversationId()))) {
+            flush();
+        }
+
+        ConversationState loaded = new ConversationState();
+        try {
+            ChatMemoryRecord summary = chatMemoryMapper.findSummary(conversationId);
+            if (summary != null) {
+                loaded.summary = summary.getContent();
+                loaded.summarizedUntil = summarizedUntil(summary.getMetadata());
+            }
+            // 启用压缩时多加载一个窗口，摘要之后、窗口之前的消息经裁剪进入待摘要队列
+            int limit = properties.getCompaction().isEnabled()
+                    ? 2 * properties.getWindowSize() : properties.getWindowSize();
+            for (ChatMemoryRecord record : chatMemoryMapper.findRecentByConversationId(
+                    conversationId, loaded.summarizedUntil, limit)) {
+                Message message = toMessage(record);
+                if (message != null) {
+                    loaded.entries.addLast(new Entry(message, record.getCreatedAt()));
+                }
+            }
+            trim(loaded);
+        } catch (Exception e) {
+            logger.warn("加载会话记忆失败 - 会话ID: {}, 错误: {}", conversationId, e.getMessage());
+        }
+
+        synchronized (conversations) {
+            ConversationState existing = conversations.putIfAbsent(conversationId, loaded);
+            return existing != null ? existing : loaded;
+        }
+    }
+
+    private LocalDateTime summarizedUntil(String metadata) {
+        if (!StringUtils.hasText(metadata)) {
+            return null;
+        }
+        try {
+            JsonNode node = objectMapper.readTree(metadata).get("summarizedUntil");
+            return node != null && node.isTextual() ? LocalDateTime.parse(node.asText()) : null;
+        } catch (Exception e) {
+            logger.warn("解析会话摘要元数据失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 裁剪到窗口大小；启用压缩时裁掉的消息进入待摘要队列（最多保留一个窗口，
+     * 摘要持续失败时更早的消息才会被丢弃）
+     */
+    private void trim(ConversationState state) {
+        int windowSize = Math.max(1, properties.getWindowSize());
+        boolean compaction = properties.getCompaction().isEnabled();
+        while (state.entries.size() > windowSize) {
+            Entry trimmed = state.entries.pollFirst();
+            if (compaction) {
+                state.trimmed.addLast(trimmed);
+            }
+        }
+        while (state.trimmed.size() > windowSize) {
+            state.trimmed.pollFirst();
+        }
+    }
+
+    /**
+     * 生成严格递增的时间戳（微秒精度），保证同批写入的消息顺序可还原
+     */
+    private LocalDateTime nextTimestamp() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        lastTimestamp = now.isAfter(lastTimestamp) ? now : lastTimestamp.plus(1, ChronoUnit.MICROS);
+        return lastTimestamp;
+    }
+
+    private Message toMessage(ChatMemoryRecord record) {
+        if (record.getMessageType() == null) {
+            return null;
+        }
+        String content = record.getContent();
+        switch (record.getMessageType()) {
+            case "USER":
+                return new UserMessage(content);
+            case "ASSISTANT":
+                return new AssistantMessage(content);
+            case "SYSTEM":
+                return new SystemMessage(content);
+            default:
+                return null;
+        }
+    }
+
+    private static ExecutorService newCompactionExecutor(ChatMemoryProperties properties) {
+        return new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getCompaction().getQueueCapacity())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "chat-memory-compaction");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * 单个会话的缓存状态，字段访问需持有 conversations 监视器
+     */
+    private static final class ConversationState {
+        private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+        /**
+         * 已裁出窗口、尚未并入摘要的消息
+         */
+        private final ArrayDeque<Entry> trimmed = new ArrayDeque<>();
+        private String summary;
+        private LocalDateTime summarizedUntil;
+        private boolean compacting;
+    }
+
+    private record Entry(Message message, LocalDateTime createdAt) {
+    }
+}
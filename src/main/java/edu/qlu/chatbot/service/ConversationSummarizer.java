@@ -0,0 +1,62 @@
+package edu.qlu.chatbot.service;
+
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+
+/**
+ * 会话摘要服务
+ *
+ * 将较早的对话轮次与已有摘要合并为新的滚动摘要，供会话记忆压缩使用
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@Service
+public class ConversationSummarizer {
+
+    private static final String SUMMARY_SYSTEM_PROMPT = """
+        你是对话摘要助手。请将“已有摘要”与“新增对话”合并为一段新的摘要，要求：
+        1. 保留用户的身份信息（学院、专业、年级等）、已确认的事实、关键日期与数字；
+        2. 保留尚未解决的问题和用户的明确诉求；
+        3. 省略寒暄和重复内容，使用第三人称陈述；
+        4. 不超过%d字，只输出摘要正文。
+        """;
+
+    private final ChatClient chatClient;
+
+    public ConversationSummarizer(ChatClient chatClient) {
+        this.chatClient = chatClient;
+    }
+
+    /**
+     * 生成滚动摘要
+     *
+     * @param previousSummary 已有摘要（可为空）
+     * @param messages 待合并的较早消息
+     * @param maxChars 摘要最大字数
+     * @return 新摘要，模型无返回时为null
+     */
+    public String summarize(String previousSummary, List<Message> messages, int maxChars) {
+        StringBuilder input = new StringBuilder();
+        input.append("已有摘要：\n")
+             .append(StringUtils.hasText(previousSummary) ? previousSummary : "（无）")
+             .append("\n\n新增对话：\n");
+        for (Message message : messages) {
+            input.append(message.getMessageType() == MessageType.USER ? "用户: " : "助手: ")
+                 .append(message.getText())
+                 .append('\n');
+        }
+
+        String summary = chatClient.prompt()
+                .system(String.format(SUMMARY_SYSTEM_PROMPT, maxChars))
+                .user(input.toString())
+                .call()
+                .content();
+        return StringUtils.hasText(summary) ? summary.trim() : null;
+    }
+}
@@ -1,19 +1,28 @@
 package edu.qlu.chatbot.service;
 
+import edu.qlu.chatbot.config.DataCollectionProperties;
+import edu.qlu.chatbot.model.DocumentChunk;
 import edu.qlu.chatbot.model.KnowledgeDocument;
+import edu.qlu.chatbot.model.KnowledgeDocumentSummary;
 import edu.qlu.chatbot.mapper.KnowledgeDocumentMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.ibatis.cursor.Cursor;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
-import org.jsoup.select.Elements;
+import org.jsoup.nodes.Element;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URL;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * 简化的数据采集服务类
@@ -25,82 +34,291 @@ import java.util.*;
 public class DataCollectionService {
 
     private static final Logger logger = LoggerFactory.getLogger(DataCollectionService.class);
+
+    static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36";
     
     private final KnowledgeDocumentMapper knowledgeDocumentMapper;
+    private final MeterRegistry meterRegistry;
+    private final MainContentExtractor contentExtractor;
+    private final DocumentChunker documentChunker;
+    private final KnowledgeChunkIndexer chunkIndexer;
+    private final AttachmentIngestionService attachmentIngestionService;
+    private final RenderingPageFetcher renderingPageFetcher;
+    private final NearDuplicateIndex nearDuplicateIndex;
+    private final KnowledgeDocumentBulkWriter bulkWriter;
+    private final DataCollectionProperties properties;
 
-    public DataCollectionService(KnowledgeDocumentMapper knowledgeDocumentMapper) {
+    public DataCollectionService(KnowledgeDocumentMapper knowledgeDocumentMapper, MeterRegistry meterRegistry,
+                                 MainContentExtractor contentExtractor, DocumentChunker documentChunker,
+                                 KnowledgeChunkIndexer chunkIndexer,
+                                 AttachmentIngestionService attachmentIngestionService,
+                                 RenderingPageFetcher renderingPageFetcher,
+                                 NearDuplicateIndex nearDuplicateIndex,
+                                 KnowledgeDocumentBulkWriter bulkWriter,
+                                 DataCollectionProperties properties) {
         this.knowledgeDocumentMapper = knowledgeDocumentMapper;
+        this.meterRegistry = meterRegistry;
+        this.contentExtractor = contentExtractor;
+        this.documentChunker = documentChunker;
+        this.chunkIndexer = chunkIndexer;
+        this.attachmentIngestionService = attachmentIngestionService;
+        this.renderingPageFetcher = renderingPageFetcher;
+        this.nearDuplicateIndex = nearDuplicateIndex;
+        this.bulkWriter = bulkWriter;
+        this.properties = properties;
     }
 
     /**
-     * 根据URL采集单个页面的内容
+     * 根据URL采集单个页面的内容，已采集过的URL按最新内容更新
+     *
+     * 不在事务中执行，抓取、渲染与向量化期间不占用数据库连接；文档由单条upsert语句写入，
+     * 与批量采集一样在写入提交后才同步分块。
      */
-    @Transactional
     public void collectFromUrl(String url) {
         try {
-            logger.info("开始采集URL: {}", url);
-            
-            // 使用Jsoup获取页面内容
-            Document doc = Jsoup.connect(url)
-                    .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36")
-                    .timeout(10000)
-                    .get();
+            PreparedDocument prepared = prepareDocument(url);
+            if (prepared != null) {
+                bulkWriter.upsert(List.of(prepared.document()));
+                nearDuplicateIndex.register(prepared.document());
+                indexChunks(List.of(prepared));
+                logger.info("成功保存文档: {}", prepared.document().getTitle());
+            }
+        } catch (Exception e) {
+            logger.error("采集URL失败: {} - {}", url, e.getMessage(), e);
+        }
+    }
 
-            // 提取标题
-            String title = doc.title();
-            if (!StringUtils.hasText(title)) {
-                title = "未知标题";
+    /**
+     * 批量采集页面
+     *
+     * 采集到的文档按 bulk.batch-size 缓冲后批量写入；知识库为空（首次导入）时使用COPY，否则按source_url批量upsert。
+     * 文档与缓冲中尚未写入的文档近似重复时，先写入当前批次再归并，同一批次内的副本不会都被保存。
+     * 分块只在所在批次写入成功后才同步到向量库，写入失败的批次不会在向量库中留下分块。
+     * 单个页面采集失败或单批写入失败只记录日志，不中断整个批量采集。
+     *
+     * @return 写入行数与写入速度
+     */
+    public KnowledgeDocumentBulkWriter.BulkLoadResult collectAll(List<String> urls) {
+        DataCollectionProperties.Bulk config = properties.getBulk();
+        boolean initialLoad = config.isCopyOnInitialLoad() && knowledgeDocumentMapper.count() == 0;
+        int batchSize = Math.max(1, config.getBatchSize());
+        KnowledgeDocumentBulkWriter.BulkLoadResult total =
+                KnowledgeDocumentBulkWriter.BulkLoadResult.empty(initialLoad ? "copy" : "upsert");
+        List<PreparedDocument> buffer = new ArrayList<>(batchSize);
+        for (String url : urls) {
+            try {
+                PreparedDocument prepared = prepareDocument(url);
+                if (prepared != null && nearDuplicateIndex.matchesPending(prepared.document(), documents(buffer))) {
+                    // 规范文档还在缓冲中：先写入使其进入索引，再按已保存的文档归并
+                    total = total.plus(flush(buffer, initialLoad));
+                    if (nearDuplicateIndex.resolve(prepared.document()) != null) {
+                        prepared = null;
+                    }
+                }
+                if (prepared != null) {
+                    buffer.add(prepared);
+                }
+            } catch (Exception e) {
+                logger.warn("采集URL失败: {} - {}", url, e.getMessage());
+            }
+            if (buffer.size() >= batchSize) {
+                total = total.plus(flush(buffer, initialLoad));
             }
+        }
+        total = total.plus(flush(buffer, initialLoad));
+        logger.info("批量采集完成: {} 个URL，写入 {} 条文档，{} 行/秒", urls.size(), total.rows(),
+                String.format("%.1f", total.rowsPerSecond()));
+        return total;
+    }
 
-            // 提取正文内容
-            String content = extractContent(doc);
-            
-            if (StringUtils.hasText(content)) {
-                // 创建知识文档
-                KnowledgeDocument knowledgeDoc = new KnowledgeDocument();
-                knowledgeDoc.setTitle(title);
-                knowledgeDoc.setContent(content);
-                knowledgeDoc.setSourceUrl(url);
-                knowledgeDoc.setDocumentType("网页");
-                knowledgeDoc.setCategory("通用");
-                knowledgeDoc.setCreatedAt(LocalDateTime.now());
-                knowledgeDoc.setUpdatedAt(LocalDateTime.now());
-
-                // 保存到数据库
-                knowledgeDocumentMapper.insert(knowledgeDoc);
-                
-                logger.info("成功保存文档: {}", title);
-            } else {
-                logger.warn("未提取到有效内容: {}", url);
+    private KnowledgeDocumentBulkWriter.BulkLoadResult flush(List<PreparedDocument> buffer, boolean initialLoad) {
+        KnowledgeDocumentBulkWriter.BulkLoadResult result =
+                KnowledgeDocumentBulkWriter.BulkLoadResult.empty(initialLoad ? "copy" : "upsert");
+        if (buffer.isEmpty()) {
+            return result;
+        }
+        List<KnowledgeDocument> documents = documents(buffer);
+        boolean written = false;
+        try {
+            result = initialLoad ? bulkWriter.copy(documents) : bulkWriter.upsert(documents);
+            documents.forEach(nearDuplicateIndex::register);
+            written = true;
+        } catch (Exception e) {
+            logger.error("批量写入失败，{} 条文档未保存: {}", buffer.size(), e.getMessage(), e);
+        }
+        if (written) {
+            indexChunks(buffer);
+        }
+        buffer.clear();
+        return result;
+    }
+
+    private static List<KnowledgeDocument> documents(List<PreparedDocument> prepared) {
+        List<KnowledgeDocument> documents = new ArrayList<>(prepared.size());
+        for (PreparedDocument item : prepared) {
+            documents.add(item.document());
+        }
+        return documents;
+    }
+
+    /**
+     * 待保存的知识文档及其分块（文档写入成功后才同步分块）
+     *
+     * @param chunks 页面分块，未启用向量化时为null
+     */
+    private record PreparedDocument(KnowledgeDocument document, List<DocumentChunk> chunks) {
+    }
+
+    /**
+     * 采集页面并生成待保存的知识文档与分块
+     *
+     * @return 知识文档；没有有效正文或与已有文档近似重复时返回null
+     */
+    private PreparedDocument prepareDocument(String url) throws Exception {
+        logger.info("开始采集URL: {}", url);
+
+        // 使用Jsoup获取页面内容
+        Document doc = fetch(url);
+
+        // 提取正文内容
+        Element contentRoot = selectContentRoot(doc);
+        String content = contentRoot.text();
+
+        // 正文由脚本加载的页面：Jsoup提取的正文过少时改用HtmlUnit渲染后重新提取
+        if (renderingPageFetcher.shouldRender(url, content.length())) {
+            try {
+                doc = renderingPageFetcher.render(url);
+                contentRoot = selectContentRoot(doc);
+                content = contentRoot.text();
+            } catch (Exception e) {
+                logger.warn("页面渲染失败，使用Jsoup结果: {} - {}", url, e.getMessage());
+            }
+        }
+
+        // 页面中的附件交给附件线程池异步处理
+        submitAttachments(url, doc);
+
+        // 提取标题
+        String title = doc.title();
+        if (!StringUtils.hasText(title)) {
+            title = "未知标题";
+        }
+
+        if (!StringUtils.hasText(content)) {
+            logger.warn("未提取到有效内容: {}", url);
+            return null;
+        }
+
+        // 创建知识文档
+        KnowledgeDocument knowledgeDoc = new KnowledgeDocument();
+        knowledgeDoc.setTitle(title);
+        knowledgeDoc.setContent(content);
+        knowledgeDoc.setSourceUrl(url);
+        knowledgeDoc.setDocumentType("网页");
+        knowledgeDoc.setCategory("通用");
+        knowledgeDoc.setCreatedAt(LocalDateTime.now());
+        knowledgeDoc.setUpdatedAt(LocalDateTime.now());
+
+        // 与已有文档近似重复时只记录备用URL，不再保存和向量化
+        if (nearDuplicateIndex.resolve(knowledgeDoc) != null) {
+            return null;
+        }
+
+        List<DocumentChunk> chunks = null;
+        if (properties.getChunking().isIndexEnabled()) {
+            try {
+                chunks = documentChunker.chunk(url, contentRoot);
+            } catch (Exception e) {
+                logger.warn("文档分块失败: {} - {}", url, e.getMessage());
             }
+        }
+        return new PreparedDocument(knowledgeDoc, chunks);
+    }
 
+    /**
+     * 获取页面并记录 qlu.crawler.fetch 计时器
+     */
+    private Document fetch(String url) throws Exception {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return Jsoup.connect(url)
+                    .userAgent(USER_AGENT)
+                    .timeout(10000)
+                    .get();
         } catch (Exception e) {
-            logger.error("采集URL失败: {} - {}", url, e.getMessage(), e);
+            outcome = "error";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("qlu.crawler.fetch")
+                    .description("网页采集耗时")
+                    .tag("host", hostOf(url))
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    private String hostOf(String url) {
+        try {
+            String host = new URL(url).getHost();
+            return StringUtils.hasText(host) ? host : "unknown";
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+
+    private void submitAttachments(String url, Document doc) {
+        try {
+            int submitted = attachmentIngestionService.submit(doc);
+            if (submitted > 0) {
+                logger.info("页面 {} 提交 {} 个附件", url, submitted);
+            }
+        } catch (Exception e) {
+            logger.warn("附件提交失败: {} - {}", url, e.getMessage());
         }
     }
 
     /**
-     * 提取页面正文内容
+     * 文档写入后把分块增量同步到向量库，并标记同步成功的文档已向量化；单个文档失败不影响其他文档
      */
-    private String extractContent(Document doc) {
-        // 尝试多种选择器提取主要内容
-        String[] selectors = {
-            "article", ".content", ".main-content", "#content", 
-            ".post-content", ".entry-content", "main", ".container"
-        };
-        
-        for (String selector : selectors) {
-            Elements elements = doc.select(selector);
-            if (!elements.isEmpty()) {
-                String text = elements.first().text();
-                if (StringUtils.hasText(text) && text.length() > 100) {
-                    return text;
+    private void indexChunks(List<PreparedDocument> written) {
+        List<Long> vectorized = new ArrayList<>();
+        for (PreparedDocument prepared : written) {
+            KnowledgeDocument knowledgeDoc = prepared.document();
+            if (prepared.chunks() == null) {
+                continue;
+            }
+            try {
+                chunkIndexer.sync(knowledgeDoc.getSourceUrl(), knowledgeDoc.getTitle(), prepared.chunks());
+                knowledgeDoc.setVectorized(true);
+                if (knowledgeDoc.getId() != null) {
+                    vectorized.add(knowledgeDoc.getId());
                 }
+            } catch (Exception e) {
+                logger.warn("文档分块向量化失败: {} - {}", knowledgeDoc.getSourceUrl(), e.getMessage());
             }
         }
-        
-        // 如果没有找到合适的选择器，使用body
-        return doc.body().text();
+        if (!vectorized.isEmpty()) {
+            try {
+                knowledgeDocumentMapper.markVectorized(vectorized);
+            } catch (Exception e) {
+                logger.warn("更新向量化标记失败: {} 条文档 - {}", vectorized.size(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 提取页面正文内容
+     */
+    private String extractContent(Document doc) {
+        return selectContentRoot(doc).text();
+    }
+
+    /**
+     * 选择页面正文所在的节点
+     */
+    private Element selectContentRoot(Document doc) {
+        return contentExtractor.extract(doc);
     }
 
     /**
@@ -119,23 +337,16 @@ public class DataCollectionService {
             
             // 这里可以添加实际的数据采集逻辑
             // 例如：采集学校官网的一些固定页面
-            String[] urls = {
+            List<String> urls = List.of(
                 "https://www.qlu.edu.cn/",
                 "https://www.qlu.edu.cn/jwc/",
                 "https://www.qlu.edu.cn/xsc/"
-            };
+            );
             
-            int collected = 0;
-            for (String url : urls) {
-                try {
-                    collectFromUrl(url);
-                    collected++;
-                } catch (Exception e) {
-                    logger.warn("采集URL失败: {} - {}", url, e.getMessage());
-                }
-            }
+            KnowledgeDocumentBulkWriter.BulkLoadResult written = collectAll(urls);
             
-            String result = String.format("数据采集完成，成功采集 %d 个页面", collected);
+            String result = String.format("数据采集完成，成功采集 %d 个页面（写入 %.1f 行/秒）",
+                    written.rows(), written.rowsPerSecond());
             logger.info(result);
             return result;
             
@@ -145,13 +356,43 @@ public class DataCollectionService {
             return error;
         }
     }
-    public List<KnowledgeDocument> searchDocuments(String keyword, int limit) {
+    public List<KnowledgeDocumentSummary> searchDocuments(String keyword, int limit) {
         if (!StringUtils.hasText(keyword)) {
             // 如果没有关键词，返回最新的文档（通过分页实现）
             return knowledgeDocumentMapper.findPendingDocuments(limit);
         }
         // 搜索关键词，然后手动限制结果数量
-        List<KnowledgeDocument> results = knowledgeDocumentMapper.searchByKeyword(keyword);
+        List<KnowledgeDocumentSummary> results = knowledgeDocumentMapper.searchByKeyword(keyword);
         return results.stream().limit(limit).collect(java.util.stream.Collectors.toList());
     }
+
+    /**
+     * 按需加载文档正文（列表查询只返回摘要）
+     *
+     * @return 文档正文，文档不存在时返回null
+     */
+    public String loadContent(Long documentId) {
+        return knowledgeDocumentMapper.findContentById(documentId);
+    }
+
+    /**
+     * 流式扫描所有文档摘要
+     * 以数据库游标逐条交给consumer处理，不在内存中缓存整个列表
+     *
+     * @param consumer 逐条处理文档摘要
+     * @return 扫描的文档数
+     */
+    @Transactional(readOnly = true)
+    public int streamDocuments(Consumer<KnowledgeDocumentSummary> consumer) {
+        int count = 0;
+        try (Cursor<KnowledgeDocumentSummary> cursor = knowledgeDocumentMapper.streamAll()) {
+            for (KnowledgeDocumentSummary summary : cursor) {
+                consumer.accept(summary);
+                count++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count;
+    }
 }
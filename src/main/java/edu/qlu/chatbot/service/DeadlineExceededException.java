@@ -0,0 +1,27 @@
+package edu.qlu.chatbot.service;
+
+/**
+ * 请求截止时间已过异常类
+ *
+ * 请求处理超过 {@link RequestDeadline} 设定的截止时间（或客户端已断开）时抛出，
+ * 下游调用不再继续执行
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    private final String stage;
+
+    public DeadlineExceededException(String stage) {
+        super("请求处理超时: " + stage);
+        this.stage = stage;
+    }
+
+    /**
+     * 发现超时的处理阶段（如 llm、tools、iflytek、mapper）
+     */
+    public String getStage() {
+        return stage;
+    }
+}
@@ -0,0 +1,308 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.config.DataCollectionProperties;
+import edu.qlu.chatbot.model.DocumentChunk;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 结构感知的文档分块器
+ *
+ * 直接遍历Jsoup DOM而不是扁平化后的文本：
+ * - h1~h6 标题切分章节，维护标题路径（如 "教务通知 > 考试安排"），分块不跨章节
+ * - 正文按中文句末标点（。！？；）及英文对应标点切句，再按句子打包到最大字符数，句子不会被截断
+ * - 表格作为整体输出，每行为 "单元格 | 单元格"；超长表格按行切分并在每个分块重复表头
+ * - 列表按列表项打包
+ *
+ * 分块ID见 {@link DocumentChunk}，只依赖来源URL、标题路径和文本，与分块在页面中的位置无关。
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@Component
+public class DocumentChunker {
+
+    private static final Set<String> SKIPPED_TAGS = Set.of(
+            "script", "style", "noscript", "template", "iframe", "svg", "head", "select", "button");
+
+    private static final Set<String> BLOCK_TAGS = Set.of(
+            "html", "body", "p", "div", "section", "article", "main", "header", "footer", "aside", "nav",
+            "blockquote", "pre", "form", "figure", "figcaption", "dl", "dt", "dd", "address", "center",
+            "fieldset", "details", "summary", "li", "hr", "caption");
+
+    private static final String SENTENCE_ENDS = "。！？；!?;";
+    private static final String CLOSING_MARKS = "”’」』）)】》\"'";
+    private static final String SOFT_BREAKS = "，、,：: ";
+
+    /** 标题文本的最大长度，防止把误用为标题的大段文本写进路径 */
+    private static final int MAX_HEADING_CHARS = 100;
+
+    private final DataCollectionProperties properties;
+
+    public DocumentChunker(DataCollectionProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * 对页面正文节点分块
+     *
+     * @param sourceUrl 来源URL（参与分块ID计算）
+     * @param root 正文根节点
+     * @return 按页面顺序排列的分块
+     */
+    public List<DocumentChunk> chunk(String sourceUrl, Element root) {
+        Walker walker = new Walker(Math.max(50, properties.getChunking().getMaxChars()));
+        walker.walk(root);
+        walker.flushParagraph();
+        walker.flushText();
+
+        List<DocumentChunk> chunks = new ArrayList<>(walker.pending.size());
+        Map<String, Integer> occurrences = new HashMap<>();
+        for (Pending piece : walker.pending) {
+            int occurrence = occurrences.merge(piece.path() + "\u0000" + piece.text(), 1, Integer::sum) - 1;
+            chunks.add(new DocumentChunk(sourceUrl, piece.path(), piece.type(), piece.text(), chunks.size(), occurrence));
+        }
+        return chunks;
+    }
+
+    /**
+     * 按句末标点切句，句末的右引号/右括号归属当前句；超长句子在逗号等软断点处拆开
+     */
+    static List<String> splitSentences(String text, int maxChars) {
+        List<String> sentences = new ArrayList<>();
+        int start = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                addSentence(sentences, text.substring(start, i), maxChars);
+                start = i + 1;
+            } else if (SENTENCE_ENDS.indexOf(c) >= 0) {
+                int end = i + 1;
+                while (end < length && (CLOSING_MARKS.indexOf(text.charAt(end)) >= 0
+                        || SENTENCE_ENDS.indexOf(text.charAt(end)) >= 0)) {
+                    end++;
+                }
+                addSentence(sentences, text.substring(start, end), maxChars);
+                start = end;
+                i = end - 1;
+            }
+        }
+        addSentence(sentences, text.substring(start), maxChars);
+        return sentences;
+    }
+
+    private static void addSentence(List<String> sentences, String sentence, int maxChars) {
+        String trimmed = sentence.strip();
+        while (trimmed.length() > maxChars) {
+            int cut = maxChars;
+            for (int i = maxChars - 1; i > maxChars / 2; i--) {
+                if (SOFT_BREAKS.indexOf(trimmed.charAt(i)) >= 0) {
+                    cut = i + 1;
+                    break;
+                }
+            }
+            sentences.add(trimmed.substring(0, cut).strip());
+            trimmed = trimmed.substring(cut).strip();
+        }
+        if (!trimmed.isEmpty()) {
+            sentences.add(trimmed);
+        }
+    }
+
+    private static String normalize(String text) {
+        return text.replaceAll("[\\s\\u00a0\\u3000]+", " ").strip();
+    }
+
+    private static int headingLevel(String tag) {
+        if (tag.length() == 2 && tag.charAt(0) == 'h' && tag.charAt(1) >= '1' && tag.charAt(1) <= '6') {
+            return tag.charAt(1) - '0';
+        }
+        return 0;
+    }
+
+    private record Heading(int level, String text) {
+    }
+
+    private record Pending(List<String> path, DocumentChunk.Type type, String text) {
+    }
+
+    /**
+     * 单次分块的遍历状态
+     */
+    private static final class Walker {
+
+        private final int maxChars;
+        private final Deque<Heading> headings = new ArrayDeque<>();
+        private final List<Pending> pending = new ArrayList<>();
+        private final StringBuilder inline = new StringBuilder();
+        private final StringBuilder textChunk = new StringBuilder();
+        private List<String> path = List.of();
+
+        Walker(int maxChars) {
+            this.maxChars = maxChars;
+        }
+
+        void walk(Element element) {
+            for (Node child : element.childNodes()) {
+                if (child instanceof TextNode textNode) {
+                    inline.append(textNode.getWholeText());
+                    continue;
+                }
+                if (!(child instanceof Element el)) {
+                    continue;
+                }
+                String tag = el.normalName();
+                int level = headingLevel(tag);
+                if (SKIPPED_TAGS.contains(tag)) {
+                    continue;
+                }
+                if (level > 0) {
+                    flushParagraph();
+                    flushText();
+                    enterHeading(level, normalize(el.text()));
+                } else if ("table".equals(tag)) {
+                    flushParagraph();
+                    flushText();
+                    emitTable(el);
+                } else if ("ul".equals(tag) || "ol".equals(tag)) {
+                    flushParagraph();
+                    flushText();
+                    emitList(el);
+                } else if ("br".equals(tag)) {
+                    flushParagraph();
+                } else if (BLOCK_TAGS.contains(tag)) {
+                    flushParagraph();
+                    walk(el);
+                    flushParagraph();
+                } else {
+                    // 行内元素：文本并入当前段落，内部若嵌套块级元素仍按块处理
+                    walk(el);
+                }
+            }
+        }
+
+        private void enterHeading(int level, String text) {
+            while (!headings.isEmpty() && headings.peekLast().level() >= level) {
+                headings.removeLast();
+            }
+            if (!text.isEmpty()) {
+                headings.addLast(new Heading(level, text.length() > MAX_HEADING_CHARS
+                        ? text.substring(0, MAX_HEADING_CHARS) : text));
+            }
+            List<String> newPath = new ArrayList<>(headings.size());
+            for (Heading heading : headings) {
+                newPath.add(heading.text());
+            }
+            path = List.copyOf(newPath);
+        }
+
+        /**
+         * 结束当前段落：切句后追加到正文分块，段落之间以换行分隔
+         */
+        void flushParagraph() {
+            String paragraph = normalize(inline.toString());
+            inline.setLength(0);
+            if (paragraph.isEmpty()) {
+                return;
+            }
+            boolean paragraphStart = true;
+            for (String sentence : splitSentences(paragraph, maxChars)) {
+                int separator = paragraphStart && textChunk.length() > 0 ? 1 : 0;
+                if (textChunk.length() > 0 && textChunk.length() + separator + sentence.length() > maxChars) {
+                    flushText();
+                    separator = 0;
+                }
+                if (separator > 0) {
+                    textChunk.append('\n');
+                }
+                textChunk.append(sentence);
+                paragraphStart = false;
+            }
+        }
+
+        void flushText() {
+            if (textChunk.length() == 0) {
+                return;
+            }
+            pending.add(new Pending(path, DocumentChunk.Type.TEXT, textChunk.toString()));
+            textChunk.setLength(0);
+        }
+
+        private void emitTable(Element table) {
+            List<String> rows = new ArrayList<>();
+            Element caption = table.selectFirst("> caption");
+            for (Element row : table.select("> tr, > thead > tr, > tbody > tr, > tfoot > tr")) {
+                List<String> cells = new ArrayList<>();
+                for (Element cell : row.children()) {
+                    if ("td".equals(cell.normalName()) || "th".equals(cell.normalName())) {
+                        cells.add(normalize(cell.text()));
+                    }
+                }
+                if (cells.stream().anyMatch(cell -> !cell.isEmpty())) {
+                    rows.add(String.join(" | ", cells));
+                }
+            }
+            if (rows.isEmpty()) {
+                return;
+            }
+            String header = rows.get(0);
+            if (caption != null && !normalize(caption.text()).isEmpty()) {
+                header = normalize(caption.text()) + "\n" + header;
+            }
+            pack(rows.subList(1, rows.size()), header, DocumentChunk.Type.TABLE);
+        }
+
+        private void emitList(Element list) {
+            List<String> items = new ArrayList<>();
+            for (Element item : list.children()) {
+                String text = normalize(item.text());
+                if (text.isEmpty()) {
+                    continue;
+                }
+                if (text.length() + 2 > maxChars) {
+                    for (String sentence : splitSentences(text, maxChars - 2)) {
+                        items.add("- " + sentence);
+                    }
+                } else {
+                    items.add("- " + text);
+                }
+            }
+            pack(items, null, DocumentChunk.Type.LIST);
+        }
+
+        /**
+         * 将行/列表项打包为不超过最大字符数的分块，header不为空时在每个分块开头重复
+         */
+        private void pack(List<String> units, String header, DocumentChunk.Type type) {
+            StringBuilder current = new StringBuilder();
+            if (header != null) {
+                current.append(header);
+            }
+            int headerLength = current.length();
+            for (String unit : units) {
+                if (current.length() > headerLength && current.length() + 1 + unit.length() > maxChars) {
+                    pending.add(new Pending(path, type, current.toString()));
+                    current.setLength(headerLength);
+                }
+                if (current.length() > 0) {
+                    current.append('\n');
+                }
+                current.append(unit);
+            }
+            if (current.length() > 0 && (current.length() > headerLength || units.isEmpty())) {
+                pending.add(new Pending(path, type, current.toString()));
+            }
+        }
+    }
+}
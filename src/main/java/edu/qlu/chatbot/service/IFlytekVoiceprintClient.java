@@ -3,8 +3,11 @@ package edu.qlu.chatbot.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.qlu.chatbot.config.VoiceprintConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.Mac;
@@ -20,11 +23,13 @@ import java.util.concurrent.TimeUnit;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
 import java.net.URI;
 
 /**
  * 讯飞声纹识别API客户端
  * 封装与讯飞声纹识别WebAPI的所有交互细节
+ * 调用线程绑定了 {@link RequestDeadline} 时，请求超时收紧到请求剩余时间，已超时则不再发送
  * 
  * @author QLU AI Team
  * @since 1.0.0
@@ -34,20 +39,35 @@ public class IFlytekVoiceprintClient {
     
     private static final Logger logger = LoggerFactory.getLogger(IFlytekVoiceprintClient.class);
     
+    private static final String DEADLINE_STAGE = "iflytek";
+    
     private final VoiceprintConfig config;
     private final ObjectMapper objectMapper;
     private final HttpClient httpClient;
+    private final MeterRegistry meterRegistry;
     
     // 日期格式化器（RFC1123格式）
     private static final DateTimeFormatter RFC1123_FORMATTER = 
         DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.ENGLISH);
     
-    public IFlytekVoiceprintClient(VoiceprintConfig config) {
+    @Autowired
+    public IFlytekVoiceprintClient(VoiceprintConfig config, MeterRegistry meterRegistry) {
+        this(config, meterRegistry, HttpClient.newBuilder()
+            .connectTimeout(java.time.Duration.ofMillis(config.getApi().getConnectTimeout()))
+            .build());
+    }
+    
+    /**
+     * 使用指定的HttpClient创建客户端
+     * 
+     * 供测试与基准测试注入返回固定响应的HttpClient，在不访问讯飞服务的情况下
+     * 覆盖请求构建、签名与响应解析的完整路径
+     */
+    IFlytekVoiceprintClient(VoiceprintConfig config, MeterRegistry meterRegistry, HttpClient httpClient) {
         this.config = config;
+        this.meterRegistry = meterRegistry;
         this.objectMapper = new ObjectMapper();
-        this.httpClient = HttpClient.newBuilder()
-            .connectTimeout(java.time.Duration.ofMillis(config.getApi().getConnectTimeout()))
-            .build();
+        this.httpClient = httpClient;
     }
     
     /**
@@ -103,6 +123,8 @@ public class IFlytekVoiceprintClient {
             // 解析响应
             return parseSearchFeatureResponse(response);
             
+        } catch (DeadlineExceededException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("声纹检索失败: groupId={}", groupId, e);
             throw new IFlytekApiException("声纹检索失败: " + e.getMessage(), e);
@@ -166,10 +188,27 @@ public class IFlytekVoiceprintClient {
     }
     
     /**
-     * 发送HTTP请求到讯飞API
+     * 发送HTTP请求到讯飞API，并按func记录 qlu.iflytek.requests 计时器
      */
     private Map<String, Object> sendRequest(String func, Map<String, Object> requestBody) throws Exception {
-        String requestJson = objectMapper.writeValueAsString(requestBody);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return executeRequest(func, requestBody);
+        } catch (Exception e) {
+            outcome = e instanceof IFlytekApiException ? "api_error" : "error";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("qlu.iflytek.requests")
+                    .description("讯飞声纹API调用耗时")
+                    .tag("func", func)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+    
+    private Map<String, Object> executeRequest(String func, Map<String, Object> requestBody) throws Exception {
+        String requestJson = writeRequest(requestBody);
         logger.debug("发送请求: func={}, body={}", func, requestJson);
         
         // 生成认证头
@@ -178,7 +217,7 @@ public class IFlytekVoiceprintClient {
         // 构建HTTP请求
         HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
             .uri(URI.create(config.getApi().getFullUrl()))
-            .timeout(java.time.Duration.ofMillis(config.getApi().getReadTimeout()))
+            .timeout(java.time.Duration.ofMillis(RequestDeadline.capMillis(config.getApi().getReadTimeout(), DEADLINE_STAGE)))
             .header("Content-Type", "application/json; charset=utf-8")
             .POST(HttpRequest.BodyPublishers.ofString(requestJson, StandardCharsets.UTF_8));
         
@@ -191,7 +230,14 @@ public class IFlytekVoiceprintClient {
         
         // 发送请求
         long startTime = System.currentTimeMillis();
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        } catch (HttpTimeoutException e) {
+            // 超时由截止时间引起时按请求超时处理
+            RequestDeadline.check(DEADLINE_STAGE);
+            throw e;
+        }
         long duration = System.currentTimeMillis() - startTime;
         
         logger.debug("收到响应: status={}, duration={}ms", response.statusCode(), duration);
@@ -200,8 +246,14 @@ public class IFlytekVoiceprintClient {
             throw new IFlytekApiException("HTTP请求失败: " + response.statusCode() + " " + response.body());
         }
         
-        // 解析响应JSON
-        Map<String, Object> responseMap = objectMapper.readValue(response.body(), Map.class);
+        return readResponse(response.body());
+    }
+    
+    /**
+     * 解析响应JSON并检查API响应码
+     */
+    private Map<String, Object> readResponse(String responseBody) throws Exception {
+        Map<String, Object> responseMap = objectMapper.readValue(responseBody, Map.class);
         
         // 检查API响应码
         Map<String, Object> header = (Map<String, Object>) responseMap.get("header");
@@ -221,6 +273,13 @@ public class IFlytekVoiceprintClient {
         return responseMap;
     }
     
+    /**
+     * 序列化请求体
+     */
+    private String writeRequest(Map<String, Object> requestBody) throws Exception {
+        return objectMapper.writeValueAsString(requestBody);
+    }
+    
     /**
      * 生成HMAC-SHA256认证头
      */
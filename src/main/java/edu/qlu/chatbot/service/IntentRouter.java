@@ -0,0 +1,460 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.config.IntentRouterProperties;
+import edu.qlu.chatbot.service.AcademicToolsService.AcademicCalendar;
+import edu.qlu.chatbot.service.AcademicToolsService.CalendarQuery;
+import edu.qlu.chatbot.service.AcademicToolsService.ExamQuery;
+import edu.qlu.chatbot.service.AcademicToolsService.ExamSchedule;
+import edu.qlu.chatbot.service.AcademicToolsService.LibraryInfo;
+import edu.qlu.chatbot.service.AcademicToolsService.LibraryQuery;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 意图快速通道
+ *
+ * 图书馆开放时间、考试安排、校历等FAQ类问题不需要大模型推理，
+ * 在 {@link ChatService} 调用模型前先做确定性的意图识别，置信时直接调用对应的
+ * {@link AcademicToolsService} 方法并按模板生成回复，否则交回大模型处理：
+ * - 关键词：Aho-Corasick 自动机一次扫描找出意图词、虚词与否决词（如“为什么”“补考”），
+ *   出现否决词、多个意图同时命中或消息过长时直接回退大模型
+ * - 覆盖率：意图词与虚词覆盖消息的字符比例达到阈值即判定为置信匹配；
+ *   考试意图下未覆盖的剩余文本若恰好是教务日程中的课程名，则作为课程条件一并覆盖，
+ *   未识别出课程名的考试问题不走快速通道；“哪里”“在哪”等地点词不是虚词，问地点的消息不会被完全覆盖
+ * - 向量复核：覆盖率不足时计算消息向量与各意图示例问句质心的余弦相似度，
+ *   最近质心与关键词意图一致且相似度达到阈值才走快速通道
+ *
+ * 工具结果复用 {@link ToolExecutionService} 的结果缓存。
+ * 指标：qlu.intent.routes{path,intent} 记录分流次数，qlu.intent.fast.path.ratio 为快速通道占比。
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@Service
+public class IntentRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(IntentRouter.class);
+
+    /** 意图词累计权重达到该值才视为命中意图 */
+    private static final double MIN_INTENT_SCORE = 1.0;
+
+    private static final AhoCorasickMatcher<Term> MATCHER = AhoCorasickMatcher.of(dictionary());
+
+    private final AcademicToolsService academicToolsService;
+    private final AcademicScheduleStore academicScheduleStore;
+    private final ToolExecutionService toolExecutionService;
+    private final ObjectProvider<EmbeddingModel> embeddingModelProvider;
+    private final IntentRouterProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final LongAdder fastPathCount = new LongAdder();
+    private final LongAdder llmPathCount = new LongAdder();
+
+    private volatile Map<Intent, float[]> centroids;
+    private volatile long centroidRetryAt;
+
+    public IntentRouter(AcademicToolsService academicToolsService,
+                        AcademicScheduleStore academicScheduleStore,
+                        ToolExecutionService toolExecutionService,
+                        ObjectProvider<EmbeddingModel> embeddingModelProvider,
+                        IntentRouterProperties properties,
+                        MeterRegistry meterRegistry) {
+        this.academicToolsService = academicToolsService;
+        this.academicScheduleStore = academicScheduleStore;
+        this.toolExecutionService = toolExecutionService;
+        this.embeddingModelProvider = embeddingModelProvider;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("qlu.intent.fast.path.ratio", this, IntentRouter::getFastPathRatio)
+                .description("快速通道回复占全部聊天请求的比例")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 尝试在快速通道回答消息
+     *
+     * @param message 用户消息
+     * @return 置信匹配时返回模板回复，否则为空（由大模型处理）
+     */
+    public Optional<Route> route(String message) {
+        Optional<Route> route = Optional.empty();
+        Classification classification = null;
+        if (properties.isEnabled()) {
+            try {
+                classification = classify(message);
+                if (classification.confident()) {
+                    route = Optional.of(new Route(classification.intent(), answer(classification)));
+                }
+            } catch (RuntimeException e) {
+                logger.warn("快速通道处理失败，回退大模型: {}", e.getMessage());
+            }
+        }
+
+        String intentTag = classification != null && classification.intent() != null
+                ? classification.intent().tag() : "none";
+        if (route.isPresent()) {
+            fastPathCount.increment();
+            meterRegistry.counter("qlu.intent.routes", "path", "fast", "intent", intentTag).increment();
+            logger.debug("快速通道命中: intent={}", intentTag);
+        } else {
+            llmPathCount.increment();
+            meterRegistry.counter("qlu.intent.routes", "path", "llm", "intent", intentTag).increment();
+        }
+        return route;
+    }
+
+    /**
+     * 快速通道回复占全部请求的比例
+     */
+    public double getFastPathRatio() {
+        long fast = fastPathCount.sum();
+        long total = fast + llmPathCount.sum();
+        return total == 0 ? 0.0 : (double) fast / total;
+    }
+
+    /**
+     * 意图判定（不调用工具、不记录指标）
+     */
+    Classification classify(String message) {
+        if (!StringUtils.hasText(message)) {
+            return Classification.NONE;
+        }
+        String text = message.strip().toLowerCase(Locale.ROOT);
+        if (text.length() > properties.getMaxMessageLength()) {
+            return Classification.NONE;
+        }
+
+        boolean[] covered = new boolean[text.length()];
+        Map<Intent, Double> scores = new EnumMap<>(Intent.class);
+        for (AhoCorasickMatcher.Match<Term> match : MATCHER.findAll(text)) {
+            Term term = match.value();
+            if (term.kind() == Kind.VETO) {
+                return Classification.NONE;
+            }
+            if (term.kind() == Kind.INTENT) {
+                scores.merge(term.intent(), term.weight(), Double::sum);
+            }
+            for (int i = match.start(); i < match.end(); i++) {
+                covered[i] = true;
+            }
+        }
+
+        List<Intent> matched = scores.entrySet().stream()
+                .filter(entry -> entry.getValue() >= MIN_INTENT_SCORE)
+                .map(Map.Entry::getKey)
+                .toList();
+        if (matched.size() != 1) {
+            return Classification.NONE;
+        }
+        Intent intent = matched.get(0);
+
+        String courseName = null;
+        if (intent == Intent.EXAM_SCHEDULE) {
+            courseName = residualCourseName(text, covered);
+            if (courseName == null) {
+                // 未指明课程时模板只能罗列全部考试，交给大模型结合上下文回答
+                return new Classification(intent, null, false);
+            }
+        }
+        if (coverage(text, covered) >= properties.getMinCoverage()) {
+            return new Classification(intent, courseName, true);
+        }
+        return new Classification(intent, courseName, confirmedByEmbedding(message, intent));
+    }
+
+    /**
+     * 考试意图下唯一一段未覆盖文本若为已知课程名，则作为查询条件并标记为已覆盖
+     */
+    private String residualCourseName(String text, boolean[] covered) {
+        int start = -1;
+        int end = -1;
+        for (int i = 0; i < text.length(); i++) {
+            if (covered[i] || Character.isWhitespace(text.charAt(i))) {
+                continue;
+            }
+            if (start >= 0 && i > end) {
+                return null;
+            }
+            if (start < 0) {
+                start = i;
+            }
+            end = i + 1;
+        }
+        if (start < 0 || end - start < 2 || !academicScheduleStore.isLoaded()) {
+            return null;
+        }
+        String candidate = text.substring(start, end);
+        if (academicScheduleStore.findExamsByCourse(candidate).isEmpty()) {
+            return null;
+        }
+        for (int i = start; i < end; i++) {
+            covered[i] = true;
+        }
+        return candidate;
+    }
+
+    private static double coverage(String text, boolean[] covered) {
+        int total = 0;
+        int hit = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.isWhitespace(text.charAt(i))) {
+                continue;
+            }
+            total++;
+            if (covered[i]) {
+                hit++;
+            }
+        }
+        return total == 0 ? 0.0 : (double) hit / total;
+    }
+
+    /**
+     * 最近质心与关键词意图一致且相似度达到阈值时确认匹配；向量服务不可用时不确认
+     */
+    private boolean confirmedByEmbedding(String message, Intent intent) {
+        IntentRouterProperties.Embedding config = properties.getEmbedding();
+        if (!config.isEnabled()) {
+            return false;
+        }
+        EmbeddingModel embeddingModel = embeddingModelProvider.getIfAvailable();
+        Map<Intent, float[]> intentCentroids = embeddingModel != null ? centroids(embeddingModel) : null;
+        if (intentCentroids == null) {
+            return false;
+        }
+        try {
+            float[] vector = embeddingModel.embed(message);
+            Intent nearest = null;
+            double best = -1;
+            for (Map.Entry<Intent, float[]> entry : intentCentroids.entrySet()) {
+                double similarity = cosine(vector, entry.getValue());
+                if (similarity > best) {
+                    best = similarity;
+                    nearest = entry.getKey();
+                }
+            }
+            return nearest == intent && best >= config.getSimilarityThreshold();
+        } catch (RuntimeException e) {
+            logger.warn("意图向量计算失败: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 惰性计算各意图示例问句的向量质心，失败后在重试间隔内不再尝试
+     */
+    private Map<Intent, float[]> centroids(EmbeddingModel embeddingModel) {
+        Map<Intent, float[]> current = centroids;
+        if (current != null || System.currentTimeMillis() < centroidRetryAt) {
+            return current;
+        }
+        synchronized (this) {
+            if (centroids != null || System.currentTimeMillis() < centroidRetryAt) {
+                return centroids;
+            }
+            try {
+                // 全部示例问句合并为一次向量请求，再按意图切分求均值
+                List<String> examples = Arrays.stream(Intent.values())
+                        .flatMap(intent -> intent.examples.stream())
+                        .toList();
+                List<float[]> vectors = embeddingModel.embed(examples);
+                Map<Intent, float[]> computed = new EnumMap<>(Intent.class);
+                int offset = 0;
+                for (Intent intent : Intent.values()) {
+                    computed.put(intent, mean(vectors.subList(offset, offset + intent.examples.size())));
+                    offset += intent.examples.size();
+                }
+                centroids = computed;
+                logger.info("意图质心计算完成: intents={}", computed.size());
+            } catch (RuntimeException e) {
+                centroidRetryAt = System.currentTimeMillis() + properties.getEmbedding().getRetryIntervalMs();
+                logger.warn("意图质心计算失败，{}ms内仅使用关键词判定: {}",
+                        properties.getEmbedding().getRetryIntervalMs(), e.getMessage());
+            }
+            return centroids;
+        }
+    }
+
+    private static float[] mean(List<float[]> vectors) {
+        float[] mean = new float[vectors.get(0).length];
+        for (float[] vector : vectors) {
+            for (int i = 0; i < mean.length; i++) {
+                mean[i] += vector[i] / vectors.size();
+            }
+        }
+        return mean;
+    }
+
+    private static double cosine(float[] a, float[] b) {
+        double dot = 0;
+        double normA = 0;
+        double normB = 0;
+        for (int i = 0; i < Math.min(a.length, b.length); i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return normA == 0 || normB == 0 ? 0 : dot / Math.sqrt(normA * normB);
+    }
+
+    private String answer(Classification classification) {
+        return switch (classification.intent()) {
+            case LIBRARY_HOURS -> formatLibrary(toolExecutionService.cached(Intent.LIBRARY_HOURS.toolName,
+                    new LibraryQuery(), academicToolsService::getLibraryInfo));
+            case EXAM_SCHEDULE -> {
+                ExamQuery query = new ExamQuery();
+                query.setCourseName(classification.courseName());
+                yield formatExams(toolExecutionService.cached(Intent.EXAM_SCHEDULE.toolName,
+                        query, academicToolsService::getExamSchedule));
+            }
+            case ACADEMIC_CALENDAR -> formatCalendar(toolExecutionService.cached(Intent.ACADEMIC_CALENDAR.toolName,
+                    new CalendarQuery(), academicToolsService::getAcademicCalendar));
+        };
+    }
+
+    private static String formatLibrary(LibraryInfo info) {
+        return "图书馆开放时间为 " + info.getOpeningHours() + "，目前" + (info.isOpen() ? "开放中" : "已闭馆")
+                + "，空余座位 " + info.getAvailableSeats() + "/" + info.getTotalSeats() + "。";
+    }
+
+    private static String formatExams(ExamSchedule schedule) {
+        List<Map<String, String>> exams = schedule.getExams();
+        if (exams == null || exams.isEmpty()) {
+            return "近期暂无考试安排，请以教务处通知为准。";
+        }
+        StringBuilder reply = new StringBuilder("考试安排");
+        if (StringUtils.hasText(schedule.getSemester())) {
+            reply.append("（").append(schedule.getSemester()).append("）");
+        }
+        reply.append("：");
+        for (Map<String, String> exam : exams) {
+            reply.append("\n- ").append(exam.get("courseName")).append("：").append(exam.get("examDate"));
+            if (StringUtils.hasText(exam.get("examTime"))) {
+                reply.append(' ').append(exam.get("examTime"));
+            }
+            if (StringUtils.hasText(exam.get("location"))) {
+                reply.append("，").append(exam.get("location"));
+            }
+        }
+        return reply.toString();
+    }
+
+    private static String formatCalendar(AcademicCalendar calendar) {
+        StringBuilder reply = new StringBuilder();
+        if (StringUtils.hasText(calendar.getCurrentSemester())) {
+            reply.append("当前学期：").append(calendar.getCurrentSemester()).append('\n');
+        }
+        List<Map<String, String>> events = calendar.getUpcomingEvents();
+        if (events == null || events.isEmpty()) {
+            return reply.append("近期暂无校历安排。").toString();
+        }
+        reply.append("近期安排：");
+        for (Map<String, String> event : events) {
+            reply.append("\n- ").append(event.get("date"));
+            String endDate = event.get("endDate");
+            if (StringUtils.hasText(endDate) && !endDate.equals(event.get("date"))) {
+                reply.append(" 至 ").append(endDate);
+            }
+            reply.append(' ').append(event.get("event"));
+        }
+        return reply.toString();
+    }
+
+    private static Map<String, Term> dictionary() {
+        Map<String, Term> dictionary = new LinkedHashMap<>();
+        intent(dictionary, Intent.LIBRARY_HOURS, 1.0, "图书馆");
+        intent(dictionary, Intent.LIBRARY_HOURS, 0.5, "开门", "关门", "开馆", "闭馆", "开放时间", "座位", "空位");
+        intent(dictionary, Intent.EXAM_SCHEDULE, 1.0, "考试", "期末考", "期中考", "考场", "什么时候考");
+        intent(dictionary, Intent.EXAM_SCHEDULE, 0.5, "考试时间", "考试安排", "考试地点", "在哪考");
+        intent(dictionary, Intent.ACADEMIC_CALENDAR, 1.0, "校历", "开学", "放假", "寒假", "暑假", "假期", "第几周");
+        intent(dictionary, Intent.ACADEMIC_CALENDAR, 0.5, "学期", "国庆", "元旦", "教学周", "注册");
+
+        for (String filler : List.of("请问", "你好", "您好", "我想", "想知道", "知道", "一下", "查询", "查", "告诉我",
+                "的", "是", "吗", "呢", "啊", "呀", "了", "吧", "在", "有", "还", "几", "多少", "几点", "什么时候",
+                "时间", "哪天", "几号", "日期", "安排", "今天", "明天", "现在", "最近", "近期",
+                "本学期", "这学期", "我们", "学校", "咱们", "?", "？", "。", "，", ",", "!", "！")) {
+            dictionary.putIfAbsent(filler, new Term(Kind.FILLER, null, 0));
+        }
+        for (String veto : List.of("为什么", "怎么办", "如何", "怎么样", "能不能", "可以吗", "可不可以", "规定",
+                "政策", "申请", "补考", "缓考", "重修", "挂科", "作弊", "成绩", "报名", "复习", "推荐")) {
+            dictionary.put(veto, new Term(Kind.VETO, null, 0));
+        }
+        return dictionary;
+    }
+
+    private static void intent(Map<String, Term> dictionary, Intent intent, double weight, String... keywords) {
+        for (String keyword : keywords) {
+            dictionary.put(keyword, new Term(Kind.INTENT, intent, weight));
+        }
+    }
+
+    /**
+     * 快速通道支持的意图
+     */
+    public enum Intent {
+        LIBRARY_HOURS("getLibraryInfo", List.of(
+                "图书馆几点开门", "图书馆开放时间", "图书馆什么时候关门", "图书馆还有空座位吗")),
+        EXAM_SCHEDULE("getExamSchedule", List.of(
+                "考试时间", "期末考试什么时候", "考试安排", "考场在哪里")),
+        ACADEMIC_CALENDAR("getAcademicCalendar", List.of(
+                "校历", "什么时候开学", "寒假什么时候放", "这学期第几周"));
+
+        private final String toolName;
+        private final List<String> examples;
+
+        Intent(String toolName, List<String> examples) {
+            this.toolName = toolName;
+            this.examples = examples;
+        }
+
+        public String getToolName() {
+            return toolName;
+        }
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * 快速通道回复
+     *
+     * @param intent 命中的意图
+     * @param answer 模板生成的回复文本
+     */
+    public record Route(Intent intent, String answer) {
+    }
+
+    /**
+     * 意图判定结果
+     *
+     * @param intent 关键词命中的唯一意图，未命中时为null
+     * @param courseName 考试意图下识别出的课程名
+     * @param confident 是否可以直接走快速通道
+     */
+    record Classification(Intent intent, String courseName, boolean confident) {
+
+        static final Classification NONE = new Classification(null, null, false);
+    }
+
+    private enum Kind {
+        INTENT, FILLER, VETO
+    }
+
+    private record Term(Kind kind, Intent intent, double weight) {
+    }
+}
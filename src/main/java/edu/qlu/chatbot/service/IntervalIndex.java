@@ -0,0 +1,112 @@
+package edu.qlu.chatbot.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * 静态区间索引
+ *
+ * 构建后只读的增强区间树：元素按区间起点排序后存入数组，以数组中点作为隐式平衡二叉树的节点，
+ * 每个节点记录其子树内的最大区间终点。查询与 [from, to] 相交的全部区间时，
+ * 终点上界小于 from 的子树、起点大于 to 的右侧子树都会被整体跳过，复杂度为 O(log n + k)。
+ *
+ * 区间为闭区间，结果按起点升序返回。实例不可变，可在多线程间共享。
+ *
+ * @param <T> 元素类型
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+public final class IntervalIndex<T> {
+
+    private final Object[] items;
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] maxEnds;
+
+    private IntervalIndex(Object[] items, long[] starts, long[] ends) {
+        this.items = items;
+        this.starts = starts;
+        this.ends = ends;
+        this.maxEnds = new long[items.length];
+        buildMaxEnds(0, items.length);
+    }
+
+    /**
+     * 构建区间索引
+     *
+     * @param elements 元素列表
+     * @param start 区间起点
+     * @param end 区间终点（含），小于起点时按起点处理
+     */
+    public static <T> IntervalIndex<T> of(List<T> elements, ToLongFunction<T> start, ToLongFunction<T> end) {
+        List<T> sorted = new ArrayList<>(elements);
+        sorted.sort(Comparator.comparingLong(start));
+        Object[] items = sorted.toArray();
+        long[] starts = new long[items.length];
+        long[] ends = new long[items.length];
+        for (int i = 0; i < items.length; i++) {
+            T element = sorted.get(i);
+            starts[i] = start.applyAsLong(element);
+            ends[i] = Math.max(starts[i], end.applyAsLong(element));
+        }
+        return new IntervalIndex<>(items, starts, ends);
+    }
+
+    /**
+     * 查询与闭区间 [from, to] 相交的全部元素，按起点升序返回
+     */
+    public List<T> overlapping(long from, long to) {
+        List<T> result = new ArrayList<>();
+        if (from <= to) {
+            collect(0, items.length, from, to, result);
+        }
+        return result;
+    }
+
+    /**
+     * 全部元素，按起点升序
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> all() {
+        List<T> result = new ArrayList<>(items.length);
+        for (Object item : items) {
+            result.add((T) item);
+        }
+        return result;
+    }
+
+    public int size() {
+        return items.length;
+    }
+
+    private long buildMaxEnds(int low, int high) {
+        if (low >= high) {
+            return Long.MIN_VALUE;
+        }
+        int mid = (low + high) >>> 1;
+        long max = Math.max(ends[mid], Math.max(buildMaxEnds(low, mid), buildMaxEnds(mid + 1, high)));
+        maxEnds[mid] = max;
+        return max;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void collect(int low, int high, long from, long to, List<T> result) {
+        if (low >= high) {
+            return;
+        }
+        int mid = (low + high) >>> 1;
+        if (maxEnds[mid] < from) {
+            return;
+        }
+        collect(low, mid, from, to, result);
+        if (starts[mid] > to) {
+            return;
+        }
+        if (ends[mid] >= from) {
+            result.add((T) items[mid]);
+        }
+        collect(mid + 1, high, from, to, result);
+    }
+}
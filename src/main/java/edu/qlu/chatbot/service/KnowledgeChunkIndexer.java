@@ -0,0 +1,91 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.model.DocumentChunk;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 知识分块增量向量化服务
+ *
+ * 分块ID由内容决定，向量库中已存在相同ID的分块内容必然未变，无需重新调用嵌入模型：
+ * - 新出现的分块ID：向量化后写入
+ * - 已存在的分块ID：跳过
+ * - 本次不再出现的分块ID：删除
+ * 先写入后删除，同步过程中检索不会出现页面内容整体缺失的窗口。
+ *
+ * 指标：qlu.knowledge.chunks{result=embedded|unchanged|deleted}
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@Service
+public class KnowledgeChunkIndexer {
+
+    private static final Logger logger = LoggerFactory.getLogger(KnowledgeChunkIndexer.class);
+
+    private static final String EXISTING_IDS_SQL =
+            "SELECT id::text FROM vector_store WHERE metadata->>'source_url' = ?";
+
+    private final VectorStore vectorStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    public KnowledgeChunkIndexer(VectorStore vectorStore, JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.vectorStore = vectorStore;
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 同步单个页面的全部分块
+     *
+     * @param sourceUrl 来源URL
+     * @param title 页面标题（写入元数据）
+     * @param chunks 页面当前的分块
+     * @return 本次重新向量化的分块数
+     */
+    public int sync(String sourceUrl, String title, List<DocumentChunk> chunks) {
+        Set<String> existing = new HashSet<>(jdbcTemplate.queryForList(EXISTING_IDS_SQL, String.class, sourceUrl));
+
+        Set<String> current = new HashSet<>();
+        List<Document> added = new ArrayList<>();
+        for (DocumentChunk chunk : chunks) {
+            if (current.add(chunk.getId()) && !existing.contains(chunk.getId())) {
+                Map<String, Object> metadata = chunk.getMetadata();
+                metadata.put("title", title);
+                added.add(new Document(chunk.getId(), chunk.getEmbeddingText(), metadata));
+            }
+        }
+        List<String> stale = new ArrayList<>();
+        for (String id : existing) {
+            if (!current.contains(id)) {
+                stale.add(id);
+            }
+        }
+
+        if (!added.isEmpty()) {
+            vectorStore.add(added);
+        }
+        if (!stale.isEmpty()) {
+            vectorStore.delete(stale);
+        }
+
+        int unchanged = current.size() - added.size();
+        meterRegistry.counter("qlu.knowledge.chunks", "result", "embedded").increment(added.size());
+        meterRegistry.counter("qlu.knowledge.chunks", "result", "unchanged").increment(unchanged);
+        meterRegistry.counter("qlu.knowledge.chunks", "result", "deleted").increment(stale.size());
+        logger.info("分块同步完成: {} - 新增 {}，未变 {}，删除 {}", sourceUrl, added.size(), unchanged, stale.size());
+        return added.size();
+    }
+}
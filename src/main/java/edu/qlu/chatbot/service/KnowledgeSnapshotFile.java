@@ -0,0 +1,414 @@
+package edu.qlu.chatbot.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 知识库快照文件格式（按列存储）
+ *
+ * 文件由文件头和若干行组（block）组成，所有数值均为小端序：
+ * <pre>
+ * 文件头   magic "QLUKBSN1" | int 版本 | int 向量维度 | byte 向量编码 | 7字节填充
+ * 行组     byte 表 | byte 填充 | short 列数 | int 行数 | 按表结构顺序的各列
+ * 列       byte 编码 | 3字节填充 | int 原始长度 | int 存储长度 | int 填充 | 数据（8字节对齐）
+ * 结束     byte 0 | 7字节填充
+ * </pre>
+ * 文本列以Deflate压缩；向量列不压缩并按8字节对齐，读取时直接映射文件区域，float32向量可零拷贝视为 FloatBuffer。
+ * 行组大小由写入方决定，读取时逐个行组映射，内存占用只与单个行组有关。
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+public final class KnowledgeSnapshotFile {
+
+    static final byte[] MAGIC = "QLUKBSN1".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 1;
+
+    /** 表标识 */
+    public static final byte TABLE_END = 0;
+    public static final byte TABLE_DOCUMENTS = 1;
+    public static final byte TABLE_ALIASES = 2;
+    public static final byte TABLE_VECTORS = 3;
+
+    /** 列编码 */
+    static final byte CODEC_RAW = 0;
+    static final byte CODEC_DEFLATE = 1;
+
+    private static final int HEADER_SIZE = 24;
+    private static final int ALIGNMENT = 8;
+
+    private KnowledgeSnapshotFile() {
+    }
+
+    /**
+     * 向量编码方式
+     */
+    public enum EmbeddingEncoding {
+        /** 每个分量4字节 */
+        FLOAT32,
+        /** 每行一个float32缩放系数 + 每个分量1字节（对称量化，体积约为float32的1/4） */
+        INT8
+    }
+
+    /**
+     * 快照文件头信息
+     */
+    public record Header(int dimensions, EmbeddingEncoding encoding) {
+    }
+
+    /**
+     * 快照写入器，每次写入一个行组
+     */
+    public static final class Writer implements Closeable {
+
+        private final FileChannel channel;
+        private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        private long position;
+
+        public Writer(Path file, Header header) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            ByteBuffer buffer = order(ByteBuffer.allocate(HEADER_SIZE));
+            buffer.put(MAGIC).putInt(VERSION).putInt(header.dimensions()).put((byte) header.encoding().ordinal());
+            buffer.position(HEADER_SIZE).flip();
+            write(buffer);
+        }
+
+        /**
+         * 写入一个行组
+         *
+         * @param table 表标识
+         * @param rows 行数
+         * @param columns 各列数据（按表结构顺序）
+         */
+        public void writeBlock(byte table, int rows, List<Column> columns) throws IOException {
+            write(order(ByteBuffer.allocate(8)).put(table).put((byte) 0).putShort((short) columns.size())
+                    .putInt(rows).flip());
+            for (Column column : columns) {
+                byte[] raw = column.toByteArray();
+                byte codec = column.compressed ? CODEC_DEFLATE : CODEC_RAW;
+                byte[] stored = column.compressed ? deflate(raw) : raw;
+                long dataStart = position + 16;
+                int padding = (int) ((ALIGNMENT - dataStart % ALIGNMENT) % ALIGNMENT);
+                ByteBuffer header = order(ByteBuffer.allocate(16 + padding));
+                header.put(codec).position(4);
+                header.putInt(raw.length).putInt(stored.length).putInt(padding);
+                header.position(16 + padding).flip();
+                write(header);
+                write(ByteBuffer.wrap(stored));
+            }
+        }
+
+        private byte[] deflate(byte[] raw) {
+            deflater.reset();
+            deflater.setInput(raw);
+            deflater.finish();
+            byte[] out = new byte[Math.max(64, raw.length / 2)];
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == out.length) {
+                    out = Arrays.copyOf(out, out.length * 2);
+                }
+                length += deflater.deflate(out, length, out.length - length);
+            }
+            return Arrays.copyOf(out, length);
+        }
+
+        private void write(ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer);
+            }
+        }
+
+        /**
+         * 已写入的字节数
+         */
+        public long size() {
+            return position;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                write(order(ByteBuffer.allocate(8)).put(TABLE_END).position(8).flip());
+                channel.force(false);
+            } finally {
+                deflater.end();
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * 快照读取器，逐个行组映射文件区域
+     */
+    public static final class Reader implements Closeable {
+
+        private final FileChannel channel;
+        private final Header header;
+        private final Inflater inflater = new Inflater();
+        private long position;
+
+        public Reader(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            ByteBuffer buffer = read(0, HEADER_SIZE);
+            byte[] magic = new byte[MAGIC.length];
+            buffer.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                channel.close();
+                throw new IOException("不是知识库快照文件: " + file);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                channel.close();
+                throw new IOException("不支持的快照版本: " + version);
+            }
+            int dimensions = buffer.getInt();
+            int encoding = buffer.get();
+            if (encoding < 0 || encoding >= EmbeddingEncoding.values().length) {
+                channel.close();
+                throw new IOException("未知的向量编码: " + encoding);
+            }
+            this.header = new Header(dimensions, EmbeddingEncoding.values()[encoding]);
+            this.position = HEADER_SIZE;
+        }
+
+        public Header header() {
+            return header;
+        }
+
+        /**
+         * 读取下一个行组
+         *
+         * @return 行组，文件结束时返回null
+         */
+        public Block next() throws IOException {
+            ByteBuffer blockHeader = read(position, 8);
+            byte table = blockHeader.get(0);
+            if (table == TABLE_END) {
+                return null;
+            }
+            int columns = blockHeader.getShort(2);
+            int rows = blockHeader.getInt(4);
+            position += 8;
+            List<ByteBuffer> data = new ArrayList<>(columns);
+            for (int i = 0; i < columns; i++) {
+                ByteBuffer columnHeader = read(position, 16);
+                byte codec = columnHeader.get(0);
+                int rawLength = columnHeader.getInt(4);
+                int storedLength = columnHeader.getInt(8);
+                int padding = columnHeader.getInt(12);
+                long dataStart = position + 16 + padding;
+                ByteBuffer stored = order(channel.map(FileChannel.MapMode.READ_ONLY, dataStart, storedLength));
+                data.add(codec == CODEC_DEFLATE ? inflate(stored, rawLength) : stored);
+                position = dataStart + storedLength;
+            }
+            return new Block(table, rows, data);
+        }
+
+        private ByteBuffer inflate(ByteBuffer stored, int rawLength) throws IOException {
+            inflater.reset();
+            inflater.setInput(stored);
+            byte[] raw = new byte[rawLength];
+            try {
+                int length = 0;
+                while (length < rawLength && !inflater.finished()) {
+                    int inflated = inflater.inflate(raw, length, rawLength - length);
+                    if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    length += inflated;
+                }
+                if (length != rawLength) {
+                    throw new IOException("快照列数据损坏：解压后长度 " + length + "，应为 " + rawLength);
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("快照列数据损坏", e);
+            }
+            return order(ByteBuffer.wrap(raw));
+        }
+
+        private ByteBuffer read(long at, int length) throws IOException {
+            ByteBuffer buffer = order(ByteBuffer.allocate(length));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, at + buffer.position()) < 0) {
+                    throw new IOException("快照文件被截断");
+                }
+            }
+            return buffer.flip();
+        }
+
+        @Override
+        public void close() throws IOException {
+            inflater.end();
+            channel.close();
+        }
+    }
+
+    /**
+     * 一个行组：各列数据的只读视图（小端序）
+     */
+    public record Block(byte table, int rows, List<ByteBuffer> columns) {
+
+        public ColumnReader column(int index) {
+            return new ColumnReader(columns.get(index).duplicate().order(ByteOrder.LITTLE_ENDIAN));
+        }
+
+        /**
+         * float32向量列的零拷贝视图
+         */
+        public FloatBuffer floatColumn(int index) {
+            return columns.get(index).duplicate().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+        }
+    }
+
+    /**
+     * 列数据构建器
+     */
+    public static final class Column {
+
+        private final boolean compressed;
+        private ByteBuffer buffer = order(ByteBuffer.allocate(1024));
+
+        private Column(boolean compressed) {
+            this.compressed = compressed;
+        }
+
+        /** 压缩列（文本、元数据等） */
+        public static Column compressed() {
+            return new Column(true);
+        }
+
+        /** 不压缩的列（向量），读取时可直接映射 */
+        public static Column raw() {
+            return new Column(false);
+        }
+
+        public Column putLong(long value) {
+            ensure(8).putLong(value);
+            return this;
+        }
+
+        public Column putNullableLong(Long value) {
+            ensure(9).put((byte) (value == null ? 0 : 1)).putLong(value == null ? 0 : value);
+            return this;
+        }
+
+        public Column putInt(int value) {
+            ensure(4).putInt(value);
+            return this;
+        }
+
+        public Column putFloat(float value) {
+            ensure(4).putFloat(value);
+            return this;
+        }
+
+        public Column putByte(byte value) {
+            ensure(1).put(value);
+            return this;
+        }
+
+        /** null写作长度-1 */
+        public Column putString(String value) {
+            if (value == null) {
+                return putInt(-1);
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ensure(4 + bytes.length).putInt(bytes.length).put(bytes);
+            return this;
+        }
+
+        private ByteBuffer ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                int capacity = Math.max(buffer.capacity() * 2, buffer.position() + bytes);
+                ByteBuffer grown = order(ByteBuffer.allocate(capacity));
+                grown.put(buffer.flip());
+                buffer = grown;
+            }
+            return buffer;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer.array(), buffer.position());
+        }
+    }
+
+    /**
+     * 列数据读取器，与 {@link Column} 的写入方法一一对应
+     */
+    public static final class ColumnReader {
+
+        private final ByteBuffer buffer;
+
+        ColumnReader(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        public long getLong() {
+            return buffer.getLong();
+        }
+
+        public Long getNullableLong() {
+            boolean present = buffer.get() != 0;
+            long value = buffer.getLong();
+            return present ? value : null;
+        }
+
+        public int getInt() {
+            return buffer.getInt();
+        }
+
+        public float getFloat() {
+            return buffer.getFloat();
+        }
+
+        public byte getByte() {
+            return buffer.get();
+        }
+
+        public String getString() {
+            int length = buffer.getInt();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * 对称int8量化：scale = max|v| / 127，分量 = round(v / scale)
+     *
+     * @return 缩放系数（全零向量为0）
+     */
+    public static float quantize(float[] vector, byte[] out) {
+        float maxAbs = 0f;
+        for (float v : vector) {
+            maxAbs = Math.max(maxAbs, Math.abs(v));
+        }
+        float scale = maxAbs / 127f;
+        for (int i = 0; i < vector.length; i++) {
+            out[i] = scale == 0f ? 0 : (byte) Math.round(vector[i] / scale);
+        }
+        return scale;
+    }
+
+    private static ByteBuffer order(ByteBuffer buffer) {
+        return buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -0,0 +1,591 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.config.DataCollectionProperties;
+import edu.qlu.chatbot.config.PostgresJdbc;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.FloatBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * 知识库快照导出/导入服务
+ *
+ * 新环境无需重新采集与向量化：导出 knowledge_documents、knowledge_document_aliases 与 vector_store
+ * （分块文本、元数据与向量）为 {@link KnowledgeSnapshotFile} 格式的按列压缩文件，导入时逐个行组
+ * 通过PostgreSQL COPY流式写入，整个导入在一个事务内完成。
+ *
+ * 导入默认要求目标库为空；replace=true 时先清空三张表，该操作需显式开启
+ * {@code app.data-collection.snapshot.allow-replace}。导入后重建近似重复索引。
+ * 快照文件只能位于 {@code app.data-collection.snapshot.directory} 下。
+ *
+ * 指标：qlu.knowledge.snapshot{operation=export|import, outcome}
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@Service
+public class KnowledgeSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(KnowledgeSnapshotService.class);
+
+    private static final Pattern FILE_NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]*\\.qkb");
+    private static final int FETCH_SIZE = 500;
+
+    static final String DOCUMENTS_SQL = """
+        SELECT id, title, content, source_url, document_type, category, created_at, updated_at,
+               vectorized, status, simhash
+        FROM knowledge_documents ORDER BY id
+        """;
+    static final String ALIASES_SQL =
+            "SELECT source_url, canonical_id, hamming_distance, created_at FROM knowledge_document_aliases";
+    static final String VECTORS_SQL =
+            "SELECT id::text, content, metadata::text, embedding::text FROM vector_store WHERE embedding IS NOT NULL";
+    static final String DIMENSIONS_SQL =
+            "SELECT vector_dims(embedding) FROM vector_store WHERE embedding IS NOT NULL LIMIT 1";
+
+    static final String COPY_DOCUMENTS = "COPY knowledge_documents (id, title, content, source_url, document_type, "
+            + "category, created_at, updated_at, vectorized, status, simhash) FROM STDIN";
+    static final String COPY_ALIASES =
+            "COPY knowledge_document_aliases (source_url, canonical_id, hamming_distance, created_at) FROM STDIN";
+    static final String COPY_VECTORS = "COPY vector_store (id, content, metadata, embedding) FROM STDIN";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NearDuplicateIndex nearDuplicateIndex;
+    private final DataCollectionProperties.Snapshot config;
+    private final MeterRegistry meterRegistry;
+
+    public KnowledgeSnapshotService(JdbcTemplate jdbcTemplate, NearDuplicateIndex nearDuplicateIndex,
+                                    DataCollectionProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nearDuplicateIndex = nearDuplicateIndex;
+        this.config = properties.getSnapshot();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 导出/导入结果
+     */
+    public record SnapshotResult(String file, long documents, long aliases, long vectors, long bytes,
+                                 long elapsedMillis) {
+    }
+
+    /**
+     * 导出知识库快照
+     *
+     * @param fileName 快照目录下的文件名（*.qkb），已存在时覆盖
+     */
+    public SnapshotResult export(String fileName) throws IOException {
+        Path file = resolve(fileName);
+        Files.createDirectories(file.getParent());
+        KnowledgeSnapshotFile.EmbeddingEncoding encoding =
+                KnowledgeSnapshotFile.EmbeddingEncoding.valueOf(config.getEmbeddingEncoding().toUpperCase(Locale.ROOT));
+        return timed("export", () -> jdbcTemplate.execute((ConnectionCallback<SnapshotResult>) connection ->
+                inTransaction(connection, () -> exportTo(connection, file, encoding))));
+    }
+
+    /**
+     * 导入知识库快照
+     *
+     * @param fileName 快照目录下的文件名（*.qkb）
+     * @param replace 目标库非空时是否先清空
+     * @throws IllegalStateException 目标库非空且 replace=false
+     * @throws SecurityException replace=true 但未开启 allow-replace
+     */
+    public SnapshotResult importSnapshot(String fileName, boolean replace) throws IOException {
+        if (replace && !config.isAllowReplace()) {
+            throw new SecurityException("覆盖导入未启用，需设置 app.data-collection.snapshot.allow-replace=true");
+        }
+        Path file = resolve(fileName);
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("快照文件不存在: " + fileName);
+        }
+        SnapshotResult result = timed("import", () -> jdbcTemplate.execute((ConnectionCallback<SnapshotResult>)
+                connection -> inTransaction(connection, () -> importFrom(connection, file, replace))));
+        nearDuplicateIndex.reload();
+        return result;
+    }
+
+    /**
+     * 解析快照目录下的文件名，拒绝路径穿越
+     */
+    Path resolve(String fileName) {
+        if (fileName == null || !FILE_NAME.matcher(fileName).matches()) {
+            throw new IllegalArgumentException("快照文件名只能包含字母、数字、点、下划线和连字符，并以.qkb结尾");
+        }
+        return Paths.get(config.getDirectory()).toAbsolutePath().normalize().resolve(fileName);
+    }
+
+    private SnapshotResult exportTo(Connection connection, Path file,
+                                    KnowledgeSnapshotFile.EmbeddingEncoding encoding) throws SQLException, IOException {
+        long start = System.nanoTime();
+        int dimensions = 0;
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(DIMENSIONS_SQL)) {
+            if (rs.next()) {
+                dimensions = rs.getInt(1);
+            }
+        }
+        int rowsPerBlock = Math.max(1, config.getRowsPerBlock());
+        long documents;
+        long aliases;
+        long vectors;
+        try (KnowledgeSnapshotFile.Writer writer = new KnowledgeSnapshotFile.Writer(file,
+                new KnowledgeSnapshotFile.Header(dimensions, encoding))) {
+            documents = exportTable(connection, DOCUMENTS_SQL, rowsPerBlock, new DocumentColumns(writer));
+            aliases = exportTable(connection, ALIASES_SQL, rowsPerBlock, new AliasColumns(writer));
+            vectors = exportTable(connection, VECTORS_SQL, rowsPerBlock, new VectorColumns(writer, dimensions, encoding));
+        }
+        SnapshotResult result = new SnapshotResult(file.getFileName().toString(), documents, aliases, vectors,
+                Files.size(file),
+                (System.nanoTime() - start) / 1_000_000);
+        logger.info("知识库快照导出完成: {}", result);
+        return result;
+    }
+
+    private long exportTable(Connection connection, String sql, int rowsPerBlock, BlockBuilder builder)
+            throws SQLException, IOException {
+        long rows = 0;
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setFetchSize(FETCH_SIZE);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    builder.add(rs);
+                    rows++;
+                    if (builder.rows() >= rowsPerBlock) {
+                        builder.flush();
+                    }
+                }
+            }
+        }
+        builder.flush();
+        return rows;
+    }
+
+    private SnapshotResult importFrom(Connection connection, Path file, boolean replace)
+            throws SQLException, IOException {
+        long start = System.nanoTime();
+        try (Statement statement = connection.createStatement()) {
+            if (replace) {
+                statement.execute("TRUNCATE knowledge_document_aliases, knowledge_documents, vector_store");
+            } else {
+                try (ResultSet rs = statement.executeQuery(
+                        "SELECT EXISTS (SELECT 1 FROM knowledge_documents) OR EXISTS (SELECT 1 FROM vector_store)")) {
+                    if (rs.next() && rs.getBoolean(1)) {
+                        throw new IllegalStateException("目标知识库非空，请使用replace=true覆盖导入");
+                    }
+                }
+            }
+        }
+
+        long[] counts = new long[4];
+        try (KnowledgeSnapshotFile.Reader reader = new KnowledgeSnapshotFile.Reader(file)) {
+            KnowledgeSnapshotFile.Header header = reader.header();
+            PostgresJdbc.CopyIn copyIn = null;
+            byte currentTable = KnowledgeSnapshotFile.TABLE_END;
+            StringBuilder row = new StringBuilder();
+            try {
+                KnowledgeSnapshotFile.Block block;
+                while ((block = reader.next()) != null) {
+                    if (block.table() != currentTable) {
+                        endCopy(connection, copyIn, currentTable);
+                        currentTable = block.table();
+                        copyIn = PostgresJdbc.copyIn(connection, copySql(currentTable));
+                    }
+                    for (String line : copyRows(block, header, row)) {
+                        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+                        copyIn.writeToCopy(bytes, 0, bytes.length);
+                    }
+                    counts[currentTable] += block.rows();
+                }
+                endCopy(connection, copyIn, currentTable);
+                copyIn = null;
+            } finally {
+                if (copyIn != null && copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        }
+        SnapshotResult result = new SnapshotResult(file.getFileName().toString(),
+                counts[KnowledgeSnapshotFile.TABLE_DOCUMENTS], counts[KnowledgeSnapshotFile.TABLE_ALIASES],
+                counts[KnowledgeSnapshotFile.TABLE_VECTORS], Files.size(file), (System.nanoTime() - start) / 1_000_000);
+        logger.info("知识库快照导入完成: {}", result);
+        return result;
+    }
+
+    private static void endCopy(Connection connection, PostgresJdbc.CopyIn copyIn, byte table) throws SQLException {
+        if (copyIn == null) {
+            return;
+        }
+        copyIn.endCopy();
+        if (table == KnowledgeSnapshotFile.TABLE_DOCUMENTS) {
+            // 保留了原文档ID，序列需要跳到最大ID之后
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SELECT setval(pg_get_serial_sequence('knowledge_documents', 'id'), "
+                        + "COALESCE((SELECT MAX(id) FROM knowledge_documents), 1))");
+            }
+        }
+    }
+
+    private static String copySql(byte table) throws IOException {
+        return switch (table) {
+            case KnowledgeSnapshotFile.TABLE_DOCUMENTS -> COPY_DOCUMENTS;
+            case KnowledgeSnapshotFile.TABLE_ALIASES -> COPY_ALIASES;
+            case KnowledgeSnapshotFile.TABLE_VECTORS -> COPY_VECTORS;
+            default -> throw new IOException("快照中存在未知的表: " + table);
+        };
+    }
+
+    /**
+     * 把一个行组转换为COPY文本格式的行
+     */
+    static List<String> copyRows(KnowledgeSnapshotFile.Block block, KnowledgeSnapshotFile.Header header,
+                                 StringBuilder row) throws IOException {
+        List<String> lines = new ArrayList<>(block.rows());
+        switch (block.table()) {
+            case KnowledgeSnapshotFile.TABLE_DOCUMENTS -> {
+                KnowledgeSnapshotFile.ColumnReader[] columns = readers(block, 11);
+                for (int i = 0; i < block.rows(); i++) {
+                    row.setLength(0);
+                    appendFields(row, columns[0].getLong(), columns[1].getString(), columns[2].getString(),
+                            columns[3].getString(), columns[4].getString(), columns[5].getString(),
+                            timestamp(columns[6].getNullableLong()), timestamp(columns[7].getNullableLong()),
+                            bool(columns[8].getByte()), columns[9].getString(), columns[10].getNullableLong());
+                    row.append('\n');
+                    lines.add(row.toString());
+                }
+            }
+            case KnowledgeSnapshotFile.TABLE_ALIASES -> {
+                KnowledgeSnapshotFile.ColumnReader[] columns = readers(block, 4);
+                for (int i = 0; i < block.rows(); i++) {
+                    row.setLength(0);
+                    appendFields(row, columns[0].getString(), columns[1].getLong(), columns[2].getInt(),
+                            timestamp(columns[3].getNullableLong()));
+                    row.append('\n');
+                    lines.add(row.toString());
+                }
+            }
+            case KnowledgeSnapshotFile.TABLE_VECTORS -> {
+                KnowledgeSnapshotFile.ColumnReader[] columns = readers(block, 3);
+                int dimensions = header.dimensions();
+                boolean int8 = header.encoding() == KnowledgeSnapshotFile.EmbeddingEncoding.INT8;
+                FloatBuffer floats = int8 ? null : block.floatColumn(3);
+                KnowledgeSnapshotFile.ColumnReader scales = int8 ? block.column(3) : null;
+                KnowledgeSnapshotFile.ColumnReader quantized = int8 ? block.column(4) : null;
+                float[] vector = new float[dimensions];
+                for (int i = 0; i < block.rows(); i++) {
+                    if (int8) {
+                        float scale = scales.getFloat();
+                        for (int d = 0; d < dimensions; d++) {
+                            vector[d] = quantized.getByte() * scale;
+                        }
+                    } else {
+                        floats.get(vector);
+                    }
+                    row.setLength(0);
+                    appendFields(row, columns[0].getString(), columns[1].getString(), columns[2].getString());
+                    row.append('\t');
+                    appendVector(row, vector);
+                    row.append('\n');
+                    lines.add(row.toString());
+                }
+            }
+            default -> throw new IOException("快照中存在未知的表: " + block.table());
+        }
+        return lines;
+    }
+
+    private static KnowledgeSnapshotFile.ColumnReader[] readers(KnowledgeSnapshotFile.Block block, int count)
+            throws IOException {
+        if (block.columns().size() < count) {
+            throw new IOException("快照行组列数不足: " + block.columns().size());
+        }
+        KnowledgeSnapshotFile.ColumnReader[] readers = new KnowledgeSnapshotFile.ColumnReader[count];
+        for (int i = 0; i < count; i++) {
+            readers[i] = block.column(i);
+        }
+        return readers;
+    }
+
+    private static void appendFields(StringBuilder row, Object... values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                row.append('\t');
+            }
+            KnowledgeDocumentBulkWriter.appendCopyValue(row, values[i]);
+        }
+    }
+
+    /**
+     * pgvector文本格式：[1.0,2.0,3.0]
+     */
+    static void appendVector(StringBuilder row, float[] vector) {
+        row.append('[');
+        for (int i = 0; i < vector.length; i++) {
+            if (i > 0) {
+                row.append(',');
+            }
+            row.append(vector[i]);
+        }
+        row.append(']');
+    }
+
+    /**
+     * 解析pgvector文本格式
+     */
+    static float[] parseVector(String text, int dimensions) throws IOException {
+        float[] vector = new float[dimensions];
+        int index = 0;
+        int start = text.indexOf('[') + 1;
+        int end = text.lastIndexOf(']');
+        while (start < end) {
+            int comma = text.indexOf(',', start);
+            int stop = comma < 0 || comma > end ? end : comma;
+            if (index == dimensions) {
+                throw new IOException("向量维度超过 " + dimensions);
+            }
+            vector[index++] = Float.parseFloat(text.substring(start, stop).trim());
+            start = stop + 1;
+        }
+        if (index != dimensions) {
+            throw new IOException("向量维度为 " + index + "，应为 " + dimensions);
+        }
+        return vector;
+    }
+
+    private static Long micros(Timestamp timestamp) {
+        if (timestamp == null) {
+            return null;
+        }
+        Instant instant = timestamp.toInstant();
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1_000);
+    }
+
+    private static Instant timestamp(Long micros) {
+        return micros == null ? null
+                : Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000L);
+    }
+
+    private static Boolean bool(byte value) {
+        return value < 0 ? null : value != 0;
+    }
+
+    /**
+     * 按表结构把结果集逐行写入列，达到行组大小时写出
+     */
+    private abstract static class BlockBuilder {
+
+        private final KnowledgeSnapshotFile.Writer writer;
+        private final byte table;
+        private List<KnowledgeSnapshotFile.Column> columns;
+        private int rows;
+
+        BlockBuilder(KnowledgeSnapshotFile.Writer writer, byte table) {
+            this.writer = writer;
+            this.table = table;
+            this.columns = newColumns();
+        }
+
+        abstract List<KnowledgeSnapshotFile.Column> newColumns();
+
+        abstract void append(ResultSet rs, List<KnowledgeSnapshotFile.Column> columns) throws SQLException, IOException;
+
+        void add(ResultSet rs) throws SQLException, IOException {
+            append(rs, columns);
+            rows++;
+        }
+
+        int rows() {
+            return rows;
+        }
+
+        void flush() throws IOException {
+            if (rows > 0) {
+                writer.writeBlock(table, rows, columns);
+                columns = newColumns();
+                rows = 0;
+            }
+        }
+
+        static List<KnowledgeSnapshotFile.Column> compressed(int count) {
+            List<KnowledgeSnapshotFile.Column> columns = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                columns.add(KnowledgeSnapshotFile.Column.compressed());
+            }
+            return columns;
+        }
+    }
+
+    private static final class DocumentColumns extends BlockBuilder {
+
+        DocumentColumns(KnowledgeSnapshotFile.Writer writer) {
+            super(writer, KnowledgeSnapshotFile.TABLE_DOCUMENTS);
+        }
+
+        @Override
+        List<KnowledgeSnapshotFile.Column> newColumns() {
+            return compressed(11);
+        }
+
+        @Override
+        void append(ResultSet rs, List<KnowledgeSnapshotFile.Column> columns) throws SQLException {
+            columns.get(0).putLong(rs.getLong("id"));
+            columns.get(1).putString(rs.getString("title"));
+            columns.get(2).putString(rs.getString("content"));
+            columns.get(3).putString(rs.getString("source_url"));
+            columns.get(4).putString(rs.getString("document_type"));
+            columns.get(5).putString(rs.getString("category"));
+            columns.get(6).putNullableLong(micros(rs.getTimestamp("created_at")));
+            columns.get(7).putNullableLong(micros(rs.getTimestamp("updated_at")));
+            boolean vectorized = rs.getBoolean("vectorized");
+            columns.get(8).putByte((byte) (rs.wasNull() ? -1 : vectorized ? 1 : 0));
+            columns.get(9).putString(rs.getString("status"));
+            long simhash = rs.getLong("simhash");
+            columns.get(10).putNullableLong(rs.wasNull() ? null : simhash);
+        }
+    }
+
+    private static final class AliasColumns extends BlockBuilder {
+
+        AliasColumns(KnowledgeSnapshotFile.Writer writer) {
+            super(writer, KnowledgeSnapshotFile.TABLE_ALIASES);
+        }
+
+        @Override
+        List<KnowledgeSnapshotFile.Column> newColumns() {
+            return compressed(4);
+        }
+
+        @Override
+        void append(ResultSet rs, List<KnowledgeSnapshotFile.Column> columns) throws SQLException {
+            columns.get(0).putString(rs.getString("source_url"));
+            columns.get(1).putLong(rs.getLong("canonical_id"));
+            columns.get(2).putInt(rs.getInt("hamming_distance"));
+            columns.get(3).putNullableLong(micros(rs.getTimestamp("created_at")));
+        }
+    }
+
+    private static final class VectorColumns extends BlockBuilder {
+
+        private final int dimensions;
+        private final KnowledgeSnapshotFile.EmbeddingEncoding encoding;
+        private final byte[] quantized;
+
+        VectorColumns(KnowledgeSnapshotFile.Writer writer, int dimensions,
+                      KnowledgeSnapshotFile.EmbeddingEncoding encoding) {
+            super(writer, KnowledgeSnapshotFile.TABLE_VECTORS);
+            this.dimensions = dimensions;
+            this.encoding = encoding;
+            this.quantized = new byte[dimensions];
+        }
+
+        @Override
+        List<KnowledgeSnapshotFile.Column> newColumns() {
+            List<KnowledgeSnapshotFile.Column> columns = compressed(3);
+            columns.add(KnowledgeSnapshotFile.Column.raw());
+            if (encoding == KnowledgeSnapshotFile.EmbeddingEncoding.INT8) {
+                columns.add(KnowledgeSnapshotFile.Column.raw());
+            }
+            return columns;
+        }
+
+        @Override
+        void append(ResultSet rs, List<KnowledgeSnapshotFile.Column> columns) throws SQLException, IOException {
+            columns.get(0).putString(rs.getString(1));
+            columns.get(1).putString(rs.getString(2));
+            columns.get(2).putString(rs.getString(3));
+            float[] vector = parseVector(rs.getString(4), dimensions);
+            if (encoding == KnowledgeSnapshotFile.EmbeddingEncoding.INT8) {
+                columns.get(3).putFloat(KnowledgeSnapshotFile.quantize(vector, quantized));
+                KnowledgeSnapshotFile.Column bytes = columns.get(4);
+                for (byte b : quantized) {
+                    bytes.putByte(b);
+                }
+            } else {
+                KnowledgeSnapshotFile.Column floats = columns.get(3);
+                for (float v : vector) {
+                    floats.putFloat(v);
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface SqlWork<T> {
+        T run() throws SQLException, IOException;
+    }
+
+    /**
+     * 在同一事务内执行（游标分批读取与COPY都需要关闭自动提交）
+     */
+    private static <T> T inTransaction(Connection connection, SqlWork<T> work) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        if (autoCommit) {
+            connection.setAutoCommit(false);
+        }
+        try {
+            T result = work.run();
+            if (autoCommit) {
+                connection.commit();
+            }
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            if (autoCommit) {
+                connection.rollback();
+            }
+            throw e;
+        } catch (IOException e) {
+            if (autoCommit) {
+                connection.rollback();
+            }
+            throw new UncheckedIOException(e);
+        } finally {
+            if (autoCommit) {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    private SnapshotResult timed(String operation, Supplier<SnapshotResult> work)
+            throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return work.get();
+        } catch (UncheckedIOException e) {
+            outcome = "error";
+            throw e.getCause();
+        } catch (RuntimeException e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("qlu.knowledge.snapshot")
+                    .description("知识库快照导出/导入耗时")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.config.DataCollectionProperties;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 网页正文提取器（Readability 风格）
+ *
+ * 高校CMS页面的导航、栏目列表、友情链接、页脚往往比正文还长，按选择器取第一个命中节点或整个body
+ * 会把这些内容一起存入知识库。提取按以下顺序进行：
+ * 1. 站点规则：{@code app.data-collection.sites} 为该域名配置了正文选择器且命中时直接使用
+ * 2. 评分：跳过导航/页脚等标签以及 class/id 明显是非正文的节点，对每个段落按文本密度
+ *    （字符数、中文标点数）计分，分数全额计入父节点、一半计入祖父节点；
+ *    候选节点的最终得分再乘以 (1 - 链接密度)，链接文字占比越高得分越低
+ * 3. 取得分最高的节点，并带上其前面的标题兄弟节点和得分足够高的兄弟节点
+ *
+ * 返回的是正文节点的副本，已移除脚本、表单以及链接密度过高的区块，不修改原页面。
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@Component
+public class MainContentExtractor {
+
+    private static final String REMOVED_SELECTOR =
+            "script, style, noscript, template, iframe, form, nav, aside, button, select, input, textarea";
+
+    private static final Set<String> SKIPPED_TAGS = Set.of(
+            "script", "style", "noscript", "template", "iframe", "form", "nav", "aside", "footer",
+            "button", "select", "input", "textarea", "head");
+
+    private static final Set<String> PARAGRAPH_TAGS = Set.of("p", "pre", "td", "blockquote", "dd");
+
+    private static final Set<String> TEXT_CONTAINER_TAGS = Set.of("div", "section", "article", "span", "font");
+
+    private static final Set<String> LINK_BLOCK_TAGS = Set.of("div", "section", "ul", "ol", "dl", "table");
+
+    private static final Pattern UNLIKELY = Pattern.compile(
+            "comment|foot|nav|menu|sidebar|side|breadcrumb|crumb|banner|copyright|share|related|friend"
+                    + "|link|login|search|header|top|advert|popup|qrcode|daohang|bottom",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern POSITIVE = Pattern.compile(
+            "article|content|main|body|text|detail|news|post|entry|zw|wz",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final String PUNCTUATION = "，。、；：！？,.;";
+
+    /** 参与评分的段落最少字符数 */
+    private static final int MIN_PARAGRAPH_CHARS = 25;
+
+    /** 链接密度超过该值的区块视为导航/栏目列表 */
+    private static final double MAX_BLOCK_LINK_DENSITY = 0.5;
+
+    private final DataCollectionProperties properties;
+
+    public MainContentExtractor(DataCollectionProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * 提取页面正文节点
+     *
+     * @param doc 页面
+     * @return 正文节点副本（可能是包含多个兄弟节点的div）
+     */
+    public Element extract(Document doc) {
+        Element body = doc.body();
+        if (body == null) {
+            return new Element("div");
+        }
+        DataCollectionProperties.SiteRule rule = properties.siteRuleFor(hostOf(doc.location()));
+        if (rule != null && StringUtils.hasText(rule.getContentSelector())) {
+            Element matched = bySelector(body, rule);
+            if (matched != null) {
+                return matched;
+            }
+        }
+
+        Map<Element, Double> scores = new IdentityHashMap<>();
+        score(body, scores);
+
+        Element best = null;
+        double bestScore = 0;
+        for (Map.Entry<Element, Double> entry : scores.entrySet()) {
+            double finalScore = entry.getValue() * (1 - linkDensity(entry.getKey()));
+            entry.setValue(finalScore);
+            if (finalScore > bestScore) {
+                best = entry.getKey();
+                bestScore = finalScore;
+            }
+        }
+        if (best == null) {
+            return clean(body.clone(), rule);
+        }
+        return withSiblings(best, bestScore, scores, rule);
+    }
+
+    /**
+     * 按站点规则选取正文，多个命中节点按页面顺序合并（已被包含在前一个命中节点中的跳过）
+     */
+    private Element bySelector(Element body, DataCollectionProperties.SiteRule rule) {
+        Elements matched = body.select(rule.getContentSelector());
+        List<Element> roots = new ArrayList<>();
+        for (Element element : matched) {
+            if (roots.stream().noneMatch(root -> element.parents().contains(root))) {
+                roots.add(element);
+            }
+        }
+        if (roots.stream().noneMatch(Element::hasText)) {
+            return null;
+        }
+        if (roots.size() == 1) {
+            return clean(roots.get(0).clone(), rule);
+        }
+        Element wrapper = new Element("div");
+        for (Element root : roots) {
+            wrapper.appendChild(clean(root.clone(), rule));
+        }
+        return wrapper;
+    }
+
+    /**
+     * 递归计分：段落分数全额计入父节点、一半计入祖父节点；直接包含长文本的容器节点自身也计分
+     */
+    private void score(Element element, Map<Element, Double> scores) {
+        for (Element child : element.children()) {
+            String tag = child.normalName();
+            if (SKIPPED_TAGS.contains(tag) || isUnlikely(child)) {
+                continue;
+            }
+            if (PARAGRAPH_TAGS.contains(tag)) {
+                String text = child.text();
+                if (text.length() >= MIN_PARAGRAPH_CHARS && linkDensity(child, text.length()) < MAX_BLOCK_LINK_DENSITY) {
+                    double score = paragraphScore(text);
+                    addScore(scores, child.parent(), score);
+                    if (child.parent() != null) {
+                        addScore(scores, child.parent().parent(), score / 2);
+                    }
+                }
+            } else if (TEXT_CONTAINER_TAGS.contains(tag)) {
+                String ownText = child.ownText();
+                if (ownText.length() >= MIN_PARAGRAPH_CHARS) {
+                    double score = paragraphScore(ownText);
+                    addScore(scores, child, score);
+                    addScore(scores, child.parent(), score / 2);
+                }
+            }
+            if (!PARAGRAPH_TAGS.contains(tag) || "td".equals(tag)) {
+                score(child, scores);
+            }
+        }
+    }
+
+    private static double paragraphScore(String text) {
+        int punctuation = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (PUNCTUATION.indexOf(text.charAt(i)) >= 0) {
+                punctuation++;
+            }
+        }
+        return 1 + punctuation + Math.min(text.length() / 100.0, 3);
+    }
+
+    private static void addScore(Map<Element, Double> scores, Element element, double score) {
+        if (element == null || "html".equals(element.normalName())) {
+            return;
+        }
+        Double current = scores.get(element);
+        scores.put(element, (current != null ? current : classWeight(element)) + score);
+    }
+
+    /**
+     * class/id 权重：像正文的 +25，像导航/页脚的 -25
+     */
+    private static double classWeight(Element element) {
+        String classAndId = element.className() + ' ' + element.id();
+        if (classAndId.isBlank()) {
+            return 0;
+        }
+        double weight = 0;
+        if (POSITIVE.matcher(classAndId).find()) {
+            weight += 25;
+        }
+        if (UNLIKELY.matcher(classAndId).find()) {
+            weight -= 25;
+        }
+        return weight;
+    }
+
+    private static boolean isUnlikely(Element element) {
+        if ("body".equals(element.normalName())) {
+            return false;
+        }
+        String classAndId = element.className() + ' ' + element.id();
+        return !classAndId.isBlank()
+                && UNLIKELY.matcher(classAndId).find()
+                && !POSITIVE.matcher(classAndId).find();
+    }
+
+    /**
+     * 合并得分最高的节点及其兄弟节点：位于其前面的标题、得分超过阈值的兄弟节点、无链接的长段落
+     */
+    private Element withSiblings(Element best, double bestScore, Map<Element, Double> scores,
+                                 DataCollectionProperties.SiteRule rule) {
+        Element parent = best.parent();
+        if (parent == null || "html".equals(parent.normalName())) {
+            return clean(best.clone(), rule);
+        }
+        double threshold = Math.max(10, bestScore * 0.2);
+        List<Element> included = new ArrayList<>();
+        boolean beforeBest = true;
+        for (Element sibling : parent.children()) {
+            if (sibling == best) {
+                included.add(sibling);
+                beforeBest = false;
+                continue;
+            }
+            Double score = scores.get(sibling);
+            if (score != null && score >= threshold) {
+                included.add(sibling);
+            } else if (beforeBest && sibling.normalName().matches("h[1-3]") && sibling.hasText()) {
+                included.add(sibling);
+            } else if ("p".equals(sibling.normalName())) {
+                String text = sibling.text();
+                if (text.length() > 80 && linkDensity(sibling, text.length()) < 0.25) {
+                    included.add(sibling);
+                }
+            }
+        }
+        if (included.size() == 1) {
+            return clean(best.clone(), rule);
+        }
+        Element wrapper = new Element("div");
+        for (Element element : included) {
+            wrapper.appendChild(clean(element.clone(), rule));
+        }
+        return wrapper;
+    }
+
+    /**
+     * 清理正文副本：移除脚本/表单、站点规则指定的节点、非正文class的节点以及链接密度过高的区块
+     */
+    private Element clean(Element root, DataCollectionProperties.SiteRule rule) {
+        root.select(REMOVED_SELECTOR).remove();
+        if (rule != null) {
+            for (String selector : rule.getRemoveSelectors()) {
+                root.select(selector).remove();
+            }
+        }
+        for (Element element : root.getAllElements()) {
+            if (element == root || element.parent() == null) {
+                continue;
+            }
+            if (isUnlikely(element)) {
+                element.remove();
+                continue;
+            }
+            if (LINK_BLOCK_TAGS.contains(element.normalName())) {
+                String text = element.text();
+                if (text.length() < 300 && linkDensity(element, text.length()) > MAX_BLOCK_LINK_DENSITY) {
+                    element.remove();
+                }
+            }
+        }
+        return root;
+    }
+
+    private static double linkDensity(Element element) {
+        return linkDensity(element, element.text().length());
+    }
+
+    private static double linkDensity(Element element, int textLength) {
+        if (textLength == 0) {
+            return 0;
+        }
+        int linkLength = 0;
+        for (Element link : element.select("a")) {
+            linkLength += link.text().length();
+        }
+        return Math.min(1.0, (double) linkLength / textLength);
+    }
+
+    private static String hostOf(String location) {
+        try {
+            return StringUtils.hasText(location) ? URI.create(location).getHost() : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
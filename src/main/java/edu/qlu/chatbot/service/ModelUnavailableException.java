@@ -0,0 +1,16 @@
+package edu.qlu.chatbot.service;
+
+/**
+ * 大模型不可用异常类
+ *
+ * 所有候选模型的并发许可均已耗尽时抛出
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+public class ModelUnavailableException extends RuntimeException {
+
+    public ModelUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,305 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.config.DataCollectionProperties;
+import edu.qlu.chatbot.mapper.KnowledgeDocumentMapper;
+import edu.qlu.chatbot.model.KnowledgeDocument;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 近似重复文档索引（SimHash）
+ *
+ * 学校网站常把同一则通知发布在多个URL下（新闻栏目、院系镜像、打印页），每份副本单独保存并向量化会
+ * 浪费向量空间并挤占检索top-k。采集时计算正文的64位SimHash指纹，与已有文档的汉明距离不超过
+ * {@code app.data-collection.dedup.max-hamming-distance} 时视为近似重复：只在
+ * knowledge_document_aliases 表中记录备用URL并指向规范文档，不再保存和向量化。
+ *
+ * 索引全部使用基本类型数组：指纹与文档ID各一个long[]，64位指纹切成4段16位，每段一张
+ * 65536个桶的链表头（int[]）加一条next链（int[]）。汉明距离不超过3时至少有一段完全相同（抽屉原理），
+ * 查找只需比较4个桶内的指纹。指纹持久化在 knowledge_documents.simhash 列，启动时逐行扫描重建索引。
+ *
+ * 指标：qlu.crawler.duplicates 为归并的近似重复文档数，qlu.crawler.fingerprints 为索引中的指纹数。
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@Service
+public class NearDuplicateIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(NearDuplicateIndex.class);
+
+    private static final int BANDS = 4;
+    private static final int BAND_BITS = 16;
+    private static final int SHINGLE_SIZE = 3;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final KnowledgeDocumentMapper knowledgeDocumentMapper;
+    private final DataCollectionProperties.Dedup config;
+    private final Counter duplicateCounter;
+
+    private long[] fingerprints = new long[1024];
+    private long[] documentIds = new long[1024];
+    private final int[][] next = new int[BANDS][1024];
+    private final int[][] heads = new int[BANDS][1 << BAND_BITS];
+    private int size;
+    private int liveCount;
+
+    public NearDuplicateIndex(KnowledgeDocumentMapper knowledgeDocumentMapper,
+                              DataCollectionProperties properties, MeterRegistry meterRegistry) {
+        this.knowledgeDocumentMapper = knowledgeDocumentMapper;
+        this.config = properties.getDedup();
+        // 汉明距离超过 BANDS-1 时不再保证有一段完全相同，分段索引会漏掉匹配
+        if (config.getMaxHammingDistance() < 0 || config.getMaxHammingDistance() > BANDS - 1) {
+            throw new IllegalArgumentException("max-hamming-distance取值0-" + (BANDS - 1) + ": "
+                    + config.getMaxHammingDistance());
+        }
+        for (int[] bandHeads : heads) {
+            Arrays.fill(bandHeads, -1);
+        }
+        this.duplicateCounter = Counter.builder("qlu.crawler.duplicates")
+                .description("归并到已有文档的近似重复文档数")
+                .register(meterRegistry);
+        Gauge.builder("qlu.crawler.fingerprints", this, NearDuplicateIndex::size)
+                .description("近似重复索引中的指纹数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 近似重复匹配结果
+     *
+     * @param canonicalId 规范文档ID
+     * @param distance 指纹汉明距离
+     */
+    public record Match(long canonicalId, int distance) {
+    }
+
+    /**
+     * 启动时从数据库加载已有指纹，失败时以空索引运行
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        try {
+            knowledgeDocumentMapper.scanFingerprints(context -> {
+                KnowledgeDocumentMapper.Fingerprint row = context.getResultObject();
+                add(row.getId(), row.getSimhash());
+            });
+            logger.info("近似重复索引加载完成，共 {} 个指纹", size());
+        } catch (Exception e) {
+            logger.warn("近似重复索引加载失败，以空索引运行: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 清空索引后重新加载（知识库被整体替换后调用）
+     */
+    public void reload() {
+        synchronized (this) {
+            for (int[] bandHeads : heads) {
+                Arrays.fill(bandHeads, -1);
+            }
+            size = 0;
+            liveCount = 0;
+        }
+        load();
+    }
+
+    /**
+     * 计算文档指纹并查找近似重复的规范文档
+     *
+     * 文档正文足够长时总会写入 simhash 字段；命中时记录备用URL，调用方应跳过保存与向量化。
+     * 规范文档已被删除的索引项会被顺带移除；重新采集规范文档本身的URL不视为重复。
+     *
+     * @return 匹配的规范文档，不是近似重复时返回null
+     */
+    public Match resolve(KnowledgeDocument document) {
+        String content = document.getContent();
+        if (!config.isEnabled() || content == null || content.length() < config.getMinTextLength()) {
+            return null;
+        }
+        long fingerprint = fingerprint(content);
+        document.setSimhash(fingerprint);
+        for (Match candidate : find(fingerprint)) {
+            String canonicalUrl = knowledgeDocumentMapper.findSourceUrlById(candidate.canonicalId());
+            if (canonicalUrl == null) {
+                remove(candidate.canonicalId());
+                continue;
+            }
+            if (canonicalUrl.equals(document.getSourceUrl())) {
+                return null;
+            }
+            knowledgeDocumentMapper.insertAlias(document.getSourceUrl(), candidate.canonicalId(), candidate.distance());
+            duplicateCounter.increment();
+            logger.info("近似重复文档 {} 归并到 {}（汉明距离 {}）",
+                    document.getSourceUrl(), canonicalUrl, candidate.distance());
+            return candidate;
+        }
+        return null;
+    }
+
+    /**
+     * 文档保存后加入索引
+     */
+    public void register(KnowledgeDocument document) {
+        if (config.isEnabled() && document.getId() != null && document.getSimhash() != null) {
+            add(document.getId(), document.getSimhash());
+        }
+    }
+
+    /**
+     * 判断文档是否与同一批次中尚未保存的文档近似重复
+     *
+     * 批量采集时文档写入数据库后才有ID并加入索引，同批文档之间无法通过 {@link #resolve} 发现重复；
+     * 命中时调用方应先写入该批次，再用 {@link #resolve} 归并。
+     *
+     * @param document 已经过 {@link #resolve} 计算指纹的文档
+     * @param pending 同批次待写入的文档
+     */
+    public boolean matchesPending(KnowledgeDocument document, List<KnowledgeDocument> pending) {
+        Long fingerprint = document.getSimhash();
+        if (!config.isEnabled() || fingerprint == null) {
+            return false;
+        }
+        int maxDistance = config.getMaxHammingDistance();
+        for (KnowledgeDocument other : pending) {
+            if (other.getSimhash() != null && !other.getSourceUrl().equals(document.getSourceUrl())
+                    && Long.bitCount(fingerprint ^ other.getSimhash()) <= maxDistance) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 查找汉明距离不超过阈值的文档，按距离升序
+     */
+    synchronized List<Match> find(long fingerprint) {
+        int maxDistance = config.getMaxHammingDistance();
+        List<Match> matches = new ArrayList<>();
+        for (int band = 0; band < BANDS; band++) {
+            for (int i = heads[band][bandKey(fingerprint, band)]; i >= 0; i = next[band][i]) {
+                if (documentIds[i] < 0 || firstMatchingBand(fingerprint, fingerprints[i]) != band) {
+                    // 已删除，或已在更靠前的分段中比较过
+                    continue;
+                }
+                int distance = Long.bitCount(fingerprint ^ fingerprints[i]);
+                if (distance <= maxDistance) {
+                    matches.add(new Match(documentIds[i], distance));
+                }
+            }
+        }
+        matches.sort(Comparator.comparingInt(Match::distance));
+        return matches;
+    }
+
+    synchronized void add(long documentId, long fingerprint) {
+        if (size == fingerprints.length) {
+            int capacity = size * 2;
+            fingerprints = Arrays.copyOf(fingerprints, capacity);
+            documentIds = Arrays.copyOf(documentIds, capacity);
+            for (int band = 0; band < BANDS; band++) {
+                next[band] = Arrays.copyOf(next[band], capacity);
+            }
+        }
+        int slot = size++;
+        fingerprints[slot] = fingerprint;
+        documentIds[slot] = documentId;
+        for (int band = 0; band < BANDS; band++) {
+            int key = bandKey(fingerprint, band);
+            next[band][slot] = heads[band][key];
+            heads[band][key] = slot;
+        }
+        liveCount++;
+    }
+
+    private synchronized void remove(long documentId) {
+        for (int i = 0; i < size; i++) {
+            if (documentIds[i] == documentId) {
+                documentIds[i] = -1;
+                liveCount--;
+            }
+        }
+    }
+
+    /**
+     * 索引中的有效指纹数
+     */
+    public synchronized int size() {
+        return liveCount;
+    }
+
+    private static int bandKey(long fingerprint, int band) {
+        return (int) (fingerprint >>> (band * BAND_BITS)) & ((1 << BAND_BITS) - 1);
+    }
+
+    private static int firstMatchingBand(long a, long b) {
+        for (int band = 0; band < BANDS; band++) {
+            if (bandKey(a, band) == bandKey(b, band)) {
+                return band;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 计算正文的64位SimHash指纹
+     *
+     * 只保留字母和数字并转小写（忽略空白、标点与排版差异），以连续3个字符为特征，
+     * 每个特征的64位哈希按位投票，票数为正的位置1。
+     */
+    public static long fingerprint(String text) {
+        int[] chars = text.codePoints()
+                .filter(Character::isLetterOrDigit)
+                .map(Character::toLowerCase)
+                .toArray();
+        if (chars.length == 0) {
+            return 0L;
+        }
+        int[] votes = new int[64];
+        int shingles = Math.max(1, chars.length - SHINGLE_SIZE + 1);
+        for (int start = 0; start < shingles; start++) {
+            long hash = FNV_OFFSET;
+            int end = Math.min(chars.length, start + SHINGLE_SIZE);
+            for (int i = start; i < end; i++) {
+                hash = (hash ^ chars[i]) * FNV_PRIME;
+            }
+            hash = mix(hash);
+            for (int bit = 0; bit < 64; bit++) {
+                votes[bit] += ((hash >>> bit) & 1L) != 0 ? 1 : -1;
+            }
+        }
+        long fingerprint = 0L;
+        for (int bit = 0; bit < 64; bit++) {
+            if (votes[bit] > 0) {
+                fingerprint |= 1L << bit;
+            }
+        }
+        return fingerprint;
+    }
+
+    /**
+     * 64位哈希终混（MurmurHash3 fmix64），使相近的特征哈希各位充分扩散
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb93e53a50b31L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
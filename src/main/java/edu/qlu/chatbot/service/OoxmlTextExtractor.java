@@ -0,0 +1,310 @@
+package edu.qlu.chatbot.service;
+
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Office Open XML（DOCX/XLSX）附件文本提取器
+ *
+ * DOCX/XLSX 本质是ZIP包内的XML部件，直接用 {@link ZipFile} 随机读取所需部件，
+ * 再用StAX逐个事件解析，不构建DOM，内存占用与文件大小无关：
+ * - DOCX：读取 word/document.xml，段落换行，表格每行输出为 "单元格 | 单元格"
+ * - XLSX：先读取 xl/sharedStrings.xml 共享字符串，再按编号顺序读取各工作表，每行输出为 "单元格 | 单元格"
+ *
+ * 达到最大字符数后立即停止解析；单个XML部件解压后超过 {@link #MAX_PART_BYTES} 视为压缩炸弹并放弃。
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@Component
+public class OoxmlTextExtractor implements AttachmentTextExtractor {
+
+    /** 单个XML部件解压后的大小上限 */
+    static final long MAX_PART_BYTES = 100L * 1024 * 1024;
+
+    private static final Pattern SHEET_PART = Pattern.compile("xl/worksheets/sheet(\\d+)\\.xml");
+
+    private final XMLInputFactory xmlInputFactory;
+
+    public OoxmlTextExtractor() {
+        xmlInputFactory = XMLInputFactory.newFactory();
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    @Override
+    public Set<String> supportedTypes() {
+        return Set.of("DOCX", "XLSX");
+    }
+
+    @Override
+    public String extract(Path file, String type, int maxChars) throws IOException {
+        TextBuffer out = new TextBuffer(maxChars);
+        try (ZipFile zip = new ZipFile(file.toFile())) {
+            if ("DOCX".equals(type)) {
+                ZipEntry document = zip.getEntry("word/document.xml");
+                if (document == null) {
+                    throw new IOException("不是有效的DOCX文件: 缺少word/document.xml");
+                }
+                readPart(zip, document, reader -> readDocx(reader, out));
+            } else if ("XLSX".equals(type)) {
+                List<String> sharedStrings = new ArrayList<>();
+                ZipEntry strings = zip.getEntry("xl/sharedStrings.xml");
+                if (strings != null) {
+                    readPart(zip, strings, reader -> readSharedStrings(reader, sharedStrings));
+                }
+                for (ZipEntry sheet : sheets(zip)) {
+                    if (out.isFull()) {
+                        break;
+                    }
+                    readPart(zip, sheet, reader -> readSheet(reader, sharedStrings, out));
+                }
+            } else {
+                throw new IOException("不支持的附件类型: " + type);
+            }
+        }
+        return out.toString();
+    }
+
+    private List<ZipEntry> sheets(ZipFile zip) {
+        List<ZipEntry> sheets = new ArrayList<>();
+        zip.stream().filter(entry -> SHEET_PART.matcher(entry.getName()).matches()).forEach(sheets::add);
+        sheets.sort(Comparator.comparingInt(entry -> {
+            Matcher matcher = SHEET_PART.matcher(entry.getName());
+            return matcher.matches() ? Integer.parseInt(matcher.group(1)) : Integer.MAX_VALUE;
+        }));
+        return sheets;
+    }
+
+    private void readPart(ZipFile zip, ZipEntry entry, PartReader partReader) throws IOException {
+        try (InputStream in = new BoundedInputStream(zip.getInputStream(entry), MAX_PART_BYTES)) {
+            XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(in);
+            try {
+                partReader.read(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("附件XML解析失败: " + entry.getName() + " - " + e.getMessage(), e);
+        }
+    }
+
+    private void readDocx(XMLStreamReader reader, TextBuffer out) throws XMLStreamException {
+        int cellDepth = 0;
+        while (reader.hasNext() && !out.isFull()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                switch (reader.getLocalName()) {
+                    case "t" -> out.append(reader.getElementText());
+                    case "tab" -> out.append(" ");
+                    case "br", "cr" -> out.newLine();
+                    case "tc" -> cellDepth++;
+                    default -> {
+                    }
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                switch (reader.getLocalName()) {
+                    case "p" -> {
+                        if (cellDepth > 0) {
+                            out.append(" ");
+                        } else {
+                            out.newLine();
+                        }
+                    }
+                    case "tc" -> {
+                        cellDepth--;
+                        out.endCell();
+                    }
+                    case "tr" -> out.endRow();
+                    default -> {
+                    }
+                }
+            }
+        }
+    }
+
+    private void readSharedStrings(XMLStreamReader reader, List<String> sharedStrings) throws XMLStreamException {
+        StringBuilder current = new StringBuilder();
+        int phoneticDepth = 0;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String name = reader.getLocalName();
+                if ("si".equals(name)) {
+                    current.setLength(0);
+                } else if ("rPh".equals(name)) {
+                    phoneticDepth++;
+                } else if ("t".equals(name) && phoneticDepth == 0) {
+                    current.append(reader.getElementText());
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                String name = reader.getLocalName();
+                if ("si".equals(name)) {
+                    sharedStrings.add(current.toString());
+                } else if ("rPh".equals(name)) {
+                    phoneticDepth--;
+                }
+            }
+        }
+    }
+
+    private void readSheet(XMLStreamReader reader, List<String> sharedStrings, TextBuffer out)
+            throws XMLStreamException {
+        String cellType = null;
+        while (reader.hasNext() && !out.isFull()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                switch (reader.getLocalName()) {
+                    case "c" -> cellType = reader.getAttributeValue(null, "t");
+                    case "v" -> out.append(cellValue(reader.getElementText(), cellType, sharedStrings));
+                    case "t" -> {
+                        // 行内字符串 <is><t>
+                        if ("inlineStr".equals(cellType)) {
+                            out.append(reader.getElementText());
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                switch (reader.getLocalName()) {
+                    case "c" -> out.endCell();
+                    case "row" -> out.endRow();
+                    default -> {
+                    }
+                }
+            }
+        }
+        out.newLine();
+    }
+
+    private static String cellValue(String value, String cellType, List<String> sharedStrings) {
+        if ("s".equals(cellType)) {
+            try {
+                int index = Integer.parseInt(value.trim());
+                return index >= 0 && index < sharedStrings.size() ? sharedStrings.get(index) : "";
+            } catch (NumberFormatException e) {
+                return "";
+            }
+        }
+        if ("b".equals(cellType)) {
+            return "1".equals(value.trim()) ? "TRUE" : "FALSE";
+        }
+        return value;
+    }
+
+    @FunctionalInterface
+    private interface PartReader {
+        void read(XMLStreamReader reader) throws XMLStreamException;
+    }
+
+    /**
+     * 带上限的文本缓冲：表格单元格以 " | " 连接为一行，空行不输出
+     */
+    private static final class TextBuffer {
+
+        private final int maxChars;
+        private final StringBuilder text = new StringBuilder();
+        private final StringBuilder current = new StringBuilder();
+        private final List<String> cells = new ArrayList<>();
+
+        TextBuffer(int maxChars) {
+            this.maxChars = maxChars;
+        }
+
+        boolean isFull() {
+            return text.length() >= maxChars;
+        }
+
+        void append(String value) {
+            current.append(value);
+        }
+
+        void endCell() {
+            cells.add(current.toString().strip());
+            current.setLength(0);
+        }
+
+        void endRow() {
+            if (cells.stream().anyMatch(cell -> !cell.isEmpty())) {
+                emit(String.join(" | ", cells));
+            }
+            cells.clear();
+            current.setLength(0);
+        }
+
+        void newLine() {
+            emit(current.toString().strip());
+            current.setLength(0);
+        }
+
+        private void emit(String value) {
+            if (value.isEmpty() || isFull()) {
+                return;
+            }
+            int room = maxChars - text.length();
+            text.append(value.length() > room ? value.substring(0, room) : value).append('\n');
+        }
+
+        @Override
+        public String toString() {
+            newLine();
+            return text.toString().strip();
+        }
+    }
+
+    /**
+     * 读取字节数超过上限时抛出异常的输入流
+     */
+    private static final class BoundedInputStream extends FilterInputStream {
+
+        private final long limit;
+        private long count;
+
+        BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count(read);
+            }
+            return read;
+        }
+
+        private void count(int read) throws IOException {
+            count += read;
+            if (count > limit) {
+                throw new IOException("附件解压后超过大小上限: " + limit + " 字节");
+            }
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.cache.MybatisTinyLfuCache;
+import edu.qlu.chatbot.config.MetricsConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Measurement;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 性能指标服务
+ *
+ * 主要功能：
+ * - 汇总 qlu.* 计时器的调用次数、平均/最大耗时及 p50/p95/p99
+ * - 以Prometheus文本格式（0.0.4）导出注册表中的全部指标
+ *
+ * 计时器按summary类型导出分位数：SimpleMeterRegistry的直方图按时间窗口滚动，
+ * 桶计数并非单调递增，不适合作为Prometheus histogram导出。
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@Service
+public class PerformanceMetricsService {
+
+    private final MeterRegistry meterRegistry;
+
+    public PerformanceMetricsService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 获取热点路径性能摘要
+     *
+     * @return 按指标名分组的计时器摘要及二级缓存统计
+     */
+    public Map<String, Object> getPerformanceSummary() {
+        Map<String, List<Map<String, Object>>> timers = new TreeMap<>();
+        for (Meter meter : meterRegistry.getMeters()) {
+            if (!(meter instanceof Timer timer)
+                    || !meter.getId().getName().startsWith(MetricsConfig.METRIC_PREFIX)) {
+                continue;
+            }
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("tags", tagMap(meter.getId().getTags()));
+            entry.put("count", snapshot.count());
+            entry.put("meanMs", round(snapshot.mean(TimeUnit.MILLISECONDS)));
+            entry.put("maxMs", round(snapshot.max(TimeUnit.MILLISECONDS)));
+            for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                entry.put(percentileKey(percentile.percentile()), round(percentile.value(TimeUnit.MILLISECONDS)));
+            }
+            timers.computeIfAbsent(meter.getId().getName(), name -> new ArrayList<>()).add(entry);
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("timers", timers);
+        summary.put("lookupCache", MybatisTinyLfuCache.statistics());
+        summary.put("intentRouting", intentRouting());
+        summary.put("timestamp", System.currentTimeMillis());
+        return summary;
+    }
+
+    /**
+     * 按 qlu.intent.routes 计数汇总快速通道与大模型的分流情况
+     */
+    private Map<String, Object> intentRouting() {
+        Map<String, Double> byPath = new TreeMap<>();
+        for (Counter counter : meterRegistry.find("qlu.intent.routes").counters()) {
+            byPath.merge(counter.getId().getTag("path"), counter.count(), Double::sum);
+        }
+        long fast = byPath.getOrDefault("fast", 0.0).longValue();
+        long llm = byPath.getOrDefault("llm", 0.0).longValue();
+        Map<String, Object> routing = new LinkedHashMap<>();
+        routing.put("fastPath", fast);
+        routing.put("llm", llm);
+        routing.put("fastPathRatio", fast + llm == 0 ? 0.0 : round((double) fast / (fast + llm)));
+        return routing;
+    }
+
+    /**
+     * 以Prometheus文本格式导出全部指标
+     *
+     * @return text/plain; version=0.0.4 格式的指标文本
+     */
+    public String scrapePrometheus() {
+        Map<String, List<Meter>> families = new TreeMap<>();
+        for (Meter meter : meterRegistry.getMeters()) {
+            families.computeIfAbsent(meter.getId().getName(), name -> new ArrayList<>()).add(meter);
+        }
+
+        StringBuilder out = new StringBuilder(8192);
+        for (Map.Entry<String, List<Meter>> family : families.entrySet()) {
+            writeFamily(out, sanitize(family.getKey()), family.getValue());
+        }
+        return out.toString();
+    }
+
+    private void writeFamily(StringBuilder out, String name, List<Meter> meters) {
+        Meter first = meters.get(0);
+        String help = first.getId().getDescription();
+
+        if (first instanceof Timer || first instanceof FunctionTimer) {
+            String base = name + "_seconds";
+            header(out, base, help, "summary");
+            for (Meter meter : meters) {
+                List<Tag> tags = meter.getId().getTags();
+                if (meter instanceof Timer timer) {
+                    HistogramSnapshot snapshot = timer.takeSnapshot();
+                    for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                        sample(out, base, tags, "quantile", Double.toString(percentile.percentile()),
+                               percentile.value(TimeUnit.SECONDS));
+                    }
+                    sample(out, base + "_count", tags, null, null, snapshot.count());
+                    sample(out, base + "_sum", tags, null, null, snapshot.total(TimeUnit.SECONDS));
+                } else {
+                    FunctionTimer timer = (FunctionTimer) meter;
+                    sample(out, base + "_count", tags, null, null, timer.count());
+                    sample(out, base + "_sum", tags, null, null, timer.totalTime(TimeUnit.SECONDS));
+                }
+            }
+            header(out, base + "_max", help, "gauge");
+            for (Meter meter : meters) {
+                if (meter instanceof Timer timer) {
+                    sample(out, base + "_max", meter.getId().getTags(), null, null, timer.max(TimeUnit.SECONDS));
+                }
+            }
+        } else if (first instanceof DistributionSummary) {
+            header(out, name, help, "summary");
+            for (Meter meter : meters) {
+                List<Tag> tags = meter.getId().getTags();
+                HistogramSnapshot snapshot = ((DistributionSummary) meter).takeSnapshot();
+                for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                    sample(out, name, tags, "quantile", Double.toString(percentile.percentile()), percentile.value());
+                }
+                sample(out, name + "_count", tags, null, null, snapshot.count());
+                sample(out, name + "_sum", tags, null, null, snapshot.total());
+            }
+            header(out, name + "_max", help, "gauge");
+            for (Meter meter : meters) {
+                sample(out, name + "_max", meter.getId().getTags(), null, null, ((DistributionSummary) meter).max());
+            }
+        } else if (first instanceof Counter || first instanceof FunctionCounter) {
+            String base = name + "_total";
+            header(out, base, help, "counter");
+            for (Meter meter : meters) {
+                double count = meter instanceof Counter counter ? counter.count() : ((FunctionCounter) meter).count();
+                sample(out, base, meter.getId().getTags(), null, null, count);
+            }
+        } else if (first instanceof Gauge || first instanceof TimeGauge) {
+            header(out, name, help, "gauge");
+            for (Meter meter : meters) {
+                double value = meter instanceof TimeGauge timeGauge
+                        ? timeGauge.value(TimeUnit.SECONDS) : ((Gauge) meter).value();
+                sample(out, name, meter.getId().getTags(), null, null, value);
+            }
+        } else {
+            // 其他类型按统计项展开为无类型指标
+            for (Meter meter : meters) {
+                for (Measurement measurement : meter.measure()) {
+                    String statistic = sanitize(measurement.getStatistic().getTagValueRepresentation());
+                    sample(out, name + "_" + statistic, meter.getId().getTags(), null, null, measurement.getValue());
+                }
+            }
+        }
+    }
+
+    private void header(StringBuilder out, String name, String help, String type) {
+        if (help != null && !help.isEmpty()) {
+            out.append("# HELP ").append(name).append(' ')
+               .append(help.replace("\\", "\\\\").replace("\n", "\\n")).append('\n');
+        }
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private void sample(StringBuilder out, String name, List<Tag> tags,
+                        String extraKey, String extraValue, double value) {
+        out.append(name);
+        if (!tags.isEmpty() || extraKey != null) {
+            out.append('{');
+            boolean firstLabel = true;
+            for (Tag tag : tags) {
+                if (!firstLabel) {
+                    out.append(',');
+                }
+                appendLabel(out, sanitize(tag.getKey()), tag.getValue());
+                firstLabel = false;
+            }
+            if (extraKey != null) {
+                if (!firstLabel) {
+                    out.append(',');
+                }
+                appendLabel(out, extraKey, extraValue);
+            }
+            out.append('}');
+        }
+        out.append(' ').append(formatValue(value)).append('\n');
+    }
+
+    private void appendLabel(StringBuilder out, String key, String value) {
+        out.append(key).append("=\"")
+           .append(value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+           .append('"');
+    }
+
+    private String formatValue(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    /**
+     * qlu.llm.requests -> qlu_llm_requests
+     */
+    private String sanitize(String name) {
+        return name.replaceAll("[^a-zA-Z0-9_:]", "_");
+    }
+
+    private Map<String, String> tagMap(List<Tag> tags) {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (Tag tag : tags) {
+            map.put(tag.getKey(), tag.getValue());
+        }
+        return map;
+    }
+
+    private String percentileKey(double percentile) {
+        return "p" + String.format(Locale.ROOT, "%.0f", percentile * 100) + "Ms";
+    }
+
+    private double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,33 @@
+package edu.qlu.chatbot.service;
+
+/**
+ * 限流异常类
+ *
+ * 客户端超出请求速率或排队等待超时时抛出，由接口层转换为 429 Too Many Requests
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    /**
+     * 建议的重试等待时间（毫秒）
+     */
+    private final long retryAfterMs;
+
+    public RateLimitExceededException(String message, long retryAfterMs) {
+        super(message);
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+
+    /**
+     * Retry-After响应头取值（秒，向上取整，至少1秒）
+     */
+    public long getRetryAfterSeconds() {
+        return Math.max(1, (retryAfterMs + 999) / 1000);
+    }
+}
@@ -0,0 +1,102 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.config.RateLimitProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 令牌桶限流器
+ *
+ * 按“规则 + 客户端”维护令牌桶，以GCRA（通用信元速率算法）实现：每个桶只保存一个理论到达时间（TAT），
+ * 放行时 TAT 前移一个发放间隔，TAT 超前当前时间超过 (桶容量 - 1) 个间隔即拒绝，效果与令牌桶等价。
+ *
+ * 每个桶是一个独立的 {@link AtomicLong}，判定只需一次CAS，不加锁；桶之间互不共享状态，
+ * 热点客户端只会在自己的桶上自旋。已完全回满的桶定期清除（与新建桶等价）。
+ *
+ * 指标：qlu.ratelimit.requests{rule,result} 记录放行/拒绝次数，qlu.ratelimit.buckets 为当前桶数量。
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@Service
+public class RateLimiter {
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoClock;
+
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+        Gauge.builder("qlu.ratelimit.buckets", buckets, Map::size)
+                .description("限流令牌桶数量")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 尝试获取一个令牌
+     *
+     * @param ruleName 限流规则名称，未配置的规则直接放行
+     * @param clientKey 客户端标识（用户或IP）
+     * @return 0表示放行，否则为建议的重试等待时间（毫秒）
+     */
+    public long tryAcquire(String ruleName, String clientKey) {
+        RateLimitProperties.Rule rule = properties.getRules().get(ruleName);
+        if (rule == null || rule.getPermitsPerMinute() <= 0) {
+            return 0;
+        }
+        long interval = TimeUnit.MINUTES.toNanos(1) / rule.getPermitsPerMinute();
+        long tolerance = interval * (Math.max(1, rule.getBurst()) - 1);
+
+        String key = ruleName + '|' + clientKey;
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(Long.MIN_VALUE));
+        }
+
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long current = bucket.get();
+            long tat = Math.max(current, now);
+            long ahead = tat - now;
+            if (ahead > tolerance) {
+                meterRegistry.counter("qlu.ratelimit.requests", "rule", ruleName, "result", "rejected").increment();
+                return Math.max(1, TimeUnit.NANOSECONDS.toMillis(ahead - tolerance));
+            }
+            if (bucket.compareAndSet(current, tat + interval)) {
+                meterRegistry.counter("qlu.ratelimit.requests", "rule", ruleName, "result", "allowed").increment();
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * 清除已完全回满的令牌桶
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = nanoClock.getAsLong();
+        buckets.values().removeIf(bucket -> bucket.get() <= now);
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,239 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.config.DataCollectionProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.htmlunit.BrowserVersion;
+import org.htmlunit.NicelyResynchronizingAjaxController;
+import org.htmlunit.Page;
+import org.htmlunit.SgmlPage;
+import org.htmlunit.SilentCssErrorHandler;
+import org.htmlunit.StringWebResponse;
+import org.htmlunit.WebClient;
+import org.htmlunit.WebRequest;
+import org.htmlunit.WebResponse;
+import org.htmlunit.util.WebConnectionWrapper;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * JavaScript渲染采集器（HtmlUnit）
+ *
+ * 部分栏目页的正文由脚本异步加载，Jsoup取回的HTML几乎为空。对 {@code app.data-collection.rendering.url-patterns}
+ * 匹配、且Jsoup提取的正文少于阈值的页面，改用HtmlUnit执行脚本后再解析，其余页面不承担渲染开销。
+ *
+ * WebClient创建成本高（浏览器环境、JS引擎初始化），因此按 pool-size 复用：
+ * - 每个WebClient禁用CSS与图片下载，屏蔽图片/样式/字体/统计脚本请求，脚本执行与页面加载均有超时
+ * - 每次渲染后清除Cookie与后台任务，渲染失败的WebClient直接关闭不再归还
+ * - 池中没有空闲WebClient时最多等待 borrow-timeout-ms
+ *
+ * 指标：qlu.crawler.render{outcome} 记录渲染耗时，qlu.crawler.render.clients 为已创建的WebClient数。
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@Service
+public class RenderingPageFetcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(RenderingPageFetcher.class);
+
+    private final DataCollectionProperties.Rendering config;
+    private final MeterRegistry meterRegistry;
+    private final List<Pattern> urlPatterns;
+    private final List<Pattern> blockedPatterns;
+    private final BlockingQueue<WebClient> idleClients;
+    private final Semaphore permits;
+    private final AtomicInteger createdClients = new AtomicInteger();
+    private final AtomicInteger blockedRequests = new AtomicInteger();
+
+    public RenderingPageFetcher(DataCollectionProperties properties, MeterRegistry meterRegistry) {
+        this.config = properties.getRendering();
+        this.meterRegistry = meterRegistry;
+        this.urlPatterns = config.getUrlPatterns().stream().map(Pattern::compile).toList();
+        this.blockedPatterns = config.getBlockedUrlPatterns().stream().map(Pattern::compile).toList();
+        int poolSize = Math.max(1, config.getPoolSize());
+        this.idleClients = new ArrayBlockingQueue<>(poolSize);
+        this.permits = new Semaphore(poolSize);
+        Gauge.builder("qlu.crawler.render.clients", createdClients, AtomicInteger::get)
+                .description("已创建的HtmlUnit WebClient数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 判断页面是否需要改用渲染采集
+     *
+     * @param url 页面URL
+     * @param extractedLength Jsoup提取的正文字符数
+     */
+    public boolean shouldRender(String url, int extractedLength) {
+        if (!config.isEnabled() || extractedLength >= config.getMinTextLength()) {
+            return false;
+        }
+        for (Pattern pattern : urlPatterns) {
+            if (pattern.matcher(url).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 渲染页面并解析为Jsoup文档
+     *
+     * @throws IOException 页面加载失败、不是HTML页面或等待WebClient超时
+     */
+    public Document render(String url) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        WebClient client = borrow();
+        boolean healthy = false;
+        try {
+            Page page = client.getPage(url);
+            if (!(page instanceof SgmlPage sgmlPage)) {
+                outcome = "not_html";
+                throw new IOException("不是HTML页面: " + url);
+            }
+            client.waitForBackgroundJavaScript(config.getBackgroundJavascriptWaitMs());
+            String html = sgmlPage.asXml();
+            page.cleanUp();
+            healthy = true;
+            return Jsoup.parse(html, url);
+        } catch (IOException e) {
+            if ("success".equals(outcome)) {
+                outcome = "error";
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            outcome = "error";
+            throw new IOException("页面渲染失败: " + url + " - " + e.getMessage(), e);
+        } finally {
+            release(client, healthy);
+            sample.stop(Timer.builder("qlu.crawler.render")
+                    .description("页面渲染耗时")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    private WebClient borrow() throws IOException {
+        try {
+            if (!permits.tryAcquire(config.getBorrowTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                throw new IOException("渲染池繁忙，等待WebClient超时");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("等待WebClient被中断", e);
+        }
+        WebClient client = idleClients.poll();
+        if (client != null) {
+            return client;
+        }
+        try {
+            return newClient();
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void release(WebClient client, boolean healthy) {
+        try {
+            if (healthy) {
+                try {
+                    client.getCurrentWindow().getJobManager().removeAllJobs();
+                    client.getCookieManager().clearCookies();
+                    if (idleClients.offer(client)) {
+                        return;
+                    }
+                } catch (RuntimeException e) {
+                    // 无法重置的实例不再复用，下面直接关闭
+                    logger.debug("重置WebClient失败，关闭实例: {}", e.getMessage());
+                }
+            }
+            close(client);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * 关闭实例并更新实例数；close 抛出异常时实例同样视为已销毁
+     */
+    private void close(WebClient client) {
+        try {
+            client.close();
+        } catch (RuntimeException e) {
+            logger.debug("关闭WebClient失败: {}", e.getMessage());
+        } finally {
+            createdClients.decrementAndGet();
+        }
+    }
+
+    private WebClient newClient() {
+        WebClient client = new WebClient(BrowserVersion.CHROME);
+        client.getOptions().setJavaScriptEnabled(true);
+        client.getOptions().setCssEnabled(false);
+        client.getOptions().setDownloadImages(false);
+        client.getOptions().setThrowExceptionOnScriptError(false);
+        client.getOptions().setThrowExceptionOnFailingStatusCode(false);
+        client.getOptions().setPrintContentOnFailingStatusCode(false);
+        client.getOptions().setTimeout(config.getPageTimeoutMs());
+        client.setJavaScriptTimeout(config.getJavascriptTimeoutMs());
+        client.setAjaxController(new NicelyResynchronizingAjaxController());
+        client.setCssErrorHandler(new SilentCssErrorHandler());
+        client.setIncorrectnessListener((message, origin) -> { });
+        new WebConnectionWrapper(client) {
+            @Override
+            public WebResponse getResponse(WebRequest request) throws IOException {
+                URL url = request.getUrl();
+                if (isBlocked(url.toString())) {
+                    blockedRequests.incrementAndGet();
+                    return new StringWebResponse("", url);
+                }
+                return super.getResponse(request);
+            }
+        };
+        createdClients.incrementAndGet();
+        return client;
+    }
+
+    private boolean isBlocked(String url) {
+        for (Pattern pattern : blockedPatterns) {
+            if (pattern.matcher(url).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int createdClientCount() {
+        return createdClients.get();
+    }
+
+    int blockedRequestCount() {
+        return blockedRequests.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        WebClient client;
+        while ((client = idleClients.poll()) != null) {
+            close(client);
+        }
+    }
+}
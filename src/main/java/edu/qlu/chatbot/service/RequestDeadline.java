@@ -0,0 +1,162 @@
+package edu.qlu.chatbot.service;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求级截止时间
+ *
+ * 控制器收到请求时创建并绑定到当前线程，下游调用据此收紧各自的超时时间：
+ * - 大模型调用、模型故障转移、工具调用前检查是否已超时
+ * - 工具线程池、讯飞接口、教务系统接口、Mapper语句的超时时间取 min(自身配置, 剩余时间)
+ *
+ * 截止时间在线程之间需显式传递（{@link #wrap(Callable)}）；
+ * 调用 {@link #cancel()} 可提前结束（如客户端已断开），之后的下游调用立即失败。
+ * 未绑定截止时间的线程（定时任务、批量注册等）不受影响。
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+public final class RequestDeadline {
+
+    private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+    private volatile boolean cancelled;
+
+    private RequestDeadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * 创建截止时间并绑定到当前线程；已有更早的截止时间时沿用原截止时间
+     *
+     * @param budgetMs 请求处理时间预算（毫秒），不大于0时不设截止时间
+     * @return 绑定作用域，关闭时恢复原状态
+     */
+    public static Scope start(long budgetMs) {
+        RequestDeadline previous = CURRENT.get();
+        RequestDeadline deadline = of(budgetMs);
+        if (deadline == null || previous != null && previous.deadlineNanos - deadline.deadlineNanos <= 0) {
+            return new Scope(previous);
+        }
+        return deadline.bind();
+    }
+
+    /**
+     * 创建截止时间但不绑定，用于在其他线程中执行的请求（如WebSocket识别任务）
+     *
+     * @param budgetMs 请求处理时间预算（毫秒）
+     * @return 截止时间，预算不大于0时为null
+     */
+    public static RequestDeadline of(long budgetMs) {
+        return budgetMs > 0 ? new RequestDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMs)) : null;
+    }
+
+    /**
+     * 把截止时间绑定到当前线程，deadline为null时不做任何改变
+     */
+    public static Scope bind(RequestDeadline deadline) {
+        return deadline != null ? deadline.bind() : new Scope(CURRENT.get());
+    }
+
+    /**
+     * 当前线程的截止时间，未绑定时为null
+     */
+    public static RequestDeadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 已超时时抛出 {@link DeadlineExceededException}，未绑定截止时间时不做检查
+     *
+     * @param stage 当前处理阶段，用于日志与异常信息
+     */
+    public static void check(String stage) {
+        RequestDeadline deadline = CURRENT.get();
+        if (deadline != null && deadline.isExpired()) {
+            throw new DeadlineExceededException(stage);
+        }
+    }
+
+    /**
+     * 按剩余时间收紧超时时间
+     *
+     * @param timeoutMs 下游自身配置的超时时间（毫秒）
+     * @param stage 当前处理阶段
+     * @return min(timeoutMs, 剩余时间)，未绑定截止时间时原样返回
+     * @throws DeadlineExceededException 已超时
+     */
+    public static long capMillis(long timeoutMs, String stage) {
+        RequestDeadline deadline = CURRENT.get();
+        if (deadline == null) {
+            return timeoutMs;
+        }
+        long remaining = deadline.remainingMillis();
+        if (remaining <= 0) {
+            throw new DeadlineExceededException(stage);
+        }
+        return Math.min(timeoutMs, remaining);
+    }
+
+    /**
+     * 把当前线程的截止时间传递给在其他线程执行的任务
+     */
+    public static <V> Callable<V> wrap(Callable<V> task) {
+        RequestDeadline deadline = CURRENT.get();
+        if (deadline == null) {
+            return task;
+        }
+        return () -> {
+            try (Scope scope = bind(deadline)) {
+                return task.call();
+            }
+        };
+    }
+
+    private Scope bind() {
+        RequestDeadline previous = CURRENT.get();
+        CURRENT.set(this);
+        return new Scope(previous);
+    }
+
+    /**
+     * 提前结束（如客户端已断开）
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isExpired() {
+        return cancelled || remainingNanos() <= 0;
+    }
+
+    public long remainingMillis() {
+        return cancelled ? 0 : Math.max(0, TimeUnit.NANOSECONDS.toMillis(remainingNanos()));
+    }
+
+    public long remainingNanos() {
+        return cancelled ? 0 : deadlineNanos - System.nanoTime();
+    }
+
+    /**
+     * 截止时间绑定作用域
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final RequestDeadline previous;
+
+        private Scope(RequestDeadline previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package edu.qlu.chatbot.service;
+
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.tokenizer.JTokkitTokenCountEstimator;
+import org.springframework.ai.tokenizer.TokenCountEstimator;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * 提示词token预算估算器
+ *
+ * 基于JTokkit（cl100k_base编码）估算消息token数，并为每条消息计入角色标记等固定开销。
+ * 通义千问的分词器对中文更紧凑，该估算值通常偏大，作为预算上限使用是安全的。
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@Component
+public class TokenBudgetEstimator {
+
+    /**
+     * 每条消息的固定开销（角色标记、分隔符）
+     */
+    static final int MESSAGE_OVERHEAD_TOKENS = 4;
+
+    private final TokenCountEstimator tokenCountEstimator = new JTokkitTokenCountEstimator();
+
+    /**
+     * 估算文本的token数
+     */
+    public int estimate(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        return tokenCountEstimator.estimate(text);
+    }
+
+    /**
+     * 估算单条消息的token数（含固定开销）
+     */
+    public int estimate(Message message) {
+        return estimate(message.getText()) + MESSAGE_OVERHEAD_TOKENS;
+    }
+
+    /**
+     * 估算一组消息的token总数
+     */
+    public int estimate(Collection<? extends Message> messages) {
+        int total = 0;
+        for (Message message : messages) {
+            total += estimate(message);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,273 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.cache.SingleFlight;
+import edu.qlu.chatbot.cache.TinyLfuCache;
+import edu.qlu.chatbot.config.ToolExecutionProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * 工具调用执行服务
+ *
+ * 为AI模型调用的教务工具提供统一的执行层：
+ * - 并行调度：同一轮中模型请求的多个工具提交到线程池并发执行，每个工具按各自的超时时间等待，
+ *   并受请求截止时间（{@link RequestDeadline}）约束；截止时间随任务传递到工具线程。
+ *   线程池队列已满时拒绝提交，被拒绝的调用与超时一样以 {@link TimeoutException} 返回，不会在请求线程上执行
+ * - 结果缓存：按工具名分别维护W-TinyLFU缓存，以查询对象为键，按工具配置的有效期过期
+ *   （校历等低频变化的数据有效期较长，图书馆座位等实时数据有效期较短）；
+ *   同一查询并发未命中时只有一个调用方执行加载，其余调用方共享其结果
+ * - 指标：qlu.tools.invocations{tool,outcome} 记录调用耗时，qlu.tools.cache{tool,result} 记录缓存命中
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@Service
+public class ToolExecutionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ToolExecutionService.class);
+
+    private final ToolExecutionProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService executor;
+    private final LongSupplier clock;
+
+    private final Map<String, TinyLfuCache<Object, CachedResult>> caches = new ConcurrentHashMap<>();
+    private final Map<String, SingleFlight<Object, Object>> loads = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ToolExecutionService(ToolExecutionProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, newToolExecutor(properties), System::currentTimeMillis);
+    }
+
+    ToolExecutionService(ToolExecutionProperties properties, MeterRegistry meterRegistry,
+                         ExecutorService executor, LongSupplier clock) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.executor = executor;
+        this.clock = clock;
+    }
+
+    /**
+     * 带缓存地执行工具查询
+     *
+     * 工具未配置缓存有效期时直接执行；结果为null时不缓存。
+     *
+     * @param toolName 工具名称
+     * @param query 查询条件（作为缓存键，需实现equals/hashCode）
+     * @param loader 实际查询逻辑
+     * @return 查询结果
+     */
+    @SuppressWarnings("unchecked")
+    public <Q, R> R cached(String toolName, Q query, Function<Q, R> loader) {
+        long ttlSeconds = properties.cacheTtlSecondsOf(toolName);
+        if (ttlSeconds <= 0 || query == null) {
+            return loader.apply(query);
+        }
+
+        TinyLfuCache<Object, CachedResult> cache = caches.computeIfAbsent(toolName,
+                name -> new TinyLfuCache<>(Math.max(1, properties.getCacheMaximumSize())));
+        CachedResult cachedResult = fresh(cache, query);
+        if (cachedResult != null) {
+            meterRegistry.counter("qlu.tools.cache", "tool", toolName, "result", "hit").increment();
+            return (R) cachedResult.value();
+        }
+        meterRegistry.counter("qlu.tools.cache", "tool", toolName, "result", "miss").increment();
+
+        return (R) loads.computeIfAbsent(toolName, name -> new SingleFlight<>()).execute(query, () -> {
+            // 前一个加载方可能在本次未命中之后刚写入缓存
+            CachedResult loaded = fresh(cache, query);
+            if (loaded != null) {
+                return loaded.value();
+            }
+            R result = loader.apply(query);
+            if (result != null) {
+                cache.put(query, new CachedResult(result,
+                        clock.getAsLong() + TimeUnit.SECONDS.toMillis(ttlSeconds)));
+            }
+            return result;
+        });
+    }
+
+    /**
+     * 读取未过期的缓存结果，已过期的条目顺带移除
+     */
+    private CachedResult fresh(TinyLfuCache<Object, CachedResult> cache, Object query) {
+        CachedResult cachedResult = cache.get(query);
+        if (cachedResult == null) {
+            return null;
+        }
+        if (cachedResult.expiresAt() > clock.getAsLong()) {
+            return cachedResult;
+        }
+        cache.remove(query);
+        return null;
+    }
+
+    /**
+     * 并行执行一组工具调用
+     *
+     * 所有调用同时提交，每个调用从提交时刻起按所属工具的超时时间等待，且不超过请求截止时间；
+     * 超时的调用会被取消，并以 {@link TimeoutException} 作为失败原因返回。
+     *
+     * @param invocations 工具调用列表
+     * @return 与入参顺序一致的执行结果
+     */
+    public List<ToolResult> invokeAll(List<ToolInvocation> invocations) {
+        long start = System.nanoTime();
+        List<AtomicBoolean> settled = new ArrayList<>(invocations.size());
+        List<Future<String>> futures = new ArrayList<>(invocations.size());
+        for (ToolInvocation invocation : invocations) {
+            AtomicBoolean done = new AtomicBoolean();
+            settled.add(done);
+            Future<String> future;
+            try {
+                future = executor.submit(RequestDeadline.wrap(() -> timed(invocation, done)));
+            } catch (RejectedExecutionException e) {
+                // 线程池已满：不在请求线程上执行，按超时处理
+                future = null;
+            }
+            futures.add(future);
+        }
+
+        RequestDeadline deadline = RequestDeadline.current();
+        List<ToolResult> results = new ArrayList<>(invocations.size());
+        for (int i = 0; i < invocations.size(); i++) {
+            ToolInvocation invocation = invocations.get(i);
+            Future<String> future = futures.get(i);
+            long timeoutMs = properties.timeoutMsOf(invocation.toolName());
+            if (future == null) {
+                requestTimer(invocation.toolName(), "rejected").record(0, TimeUnit.NANOSECONDS);
+                logger.warn("工具线程池已满，放弃调用: tool={}", invocation.toolName());
+                results.add(ToolResult.failure(invocation.toolName(),
+                        new TimeoutException("工具线程池已满，调用被拒绝: " + invocation.toolName())));
+                continue;
+            }
+            long remainingNanos = start + TimeUnit.MILLISECONDS.toNanos(timeoutMs) - System.nanoTime();
+            if (deadline != null) {
+                remainingNanos = Math.min(remainingNanos, deadline.remainingNanos());
+            }
+            try {
+                results.add(ToolResult.success(invocation.toolName(), future.get(Math.max(0, remainingNanos), TimeUnit.NANOSECONDS)));
+            } catch (TimeoutException e) {
+                // 先占用记录权再取消，避免被中断的任务把本次调用记为error
+                boolean recordTimeout = settled.get(i).compareAndSet(false, true);
+                future.cancel(true);
+                if (recordTimeout) {
+                    requestTimer(invocation.toolName(), "timeout").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+                logger.warn("工具调用超时: tool={}, timeout={}ms", invocation.toolName(), timeoutMs);
+                results.add(ToolResult.failure(invocation.toolName(),
+                        new TimeoutException("工具调用超时（" + timeoutMs + "ms）: " + invocation.toolName())));
+            } catch (ExecutionException e) {
+                results.add(ToolResult.failure(invocation.toolName(), e.getCause()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.subList(i, futures.size()).forEach(f -> {
+                    if (f != null) {
+                        f.cancel(true);
+                    }
+                });
+                for (int j = i; j < invocations.size(); j++) {
+                    results.add(ToolResult.failure(invocations.get(j).toolName(), e));
+                }
+                break;
+            }
+        }
+        return results;
+    }
+
+    private String timed(ToolInvocation invocation, AtomicBoolean settled) throws Exception {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            String result = invocation.call().call();
+            outcome = "success";
+            return result;
+        } finally {
+            if (settled.compareAndSet(false, true)) {
+                requestTimer(invocation.toolName(), outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private Timer requestTimer(String toolName, String outcome) {
+        return Timer.builder("qlu.tools.invocations")
+                .description("AI工具调用耗时")
+                .tag("tool", toolName)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static ExecutorService newToolExecutor(ToolExecutionProperties properties) {
+        int threads = Math.max(1, properties.getMaxConcurrency());
+        AtomicInteger sequence = new AtomicInteger();
+        ThreadPoolExecutor threadPool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "tool-exec-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        threadPool.allowCoreThreadTimeOut(true);
+        return threadPool;
+    }
+
+    /**
+     * 一次工具调用
+     *
+     * @param toolName 工具名称，用于选择超时时间与指标标签
+     * @param call 实际调用逻辑，返回交给模型的结果文本
+     */
+    public record ToolInvocation(String toolName, Callable<String> call) {
+    }
+
+    /**
+     * 工具调用结果，成功时 error 为null
+     */
+    public record ToolResult(String toolName, String result, Throwable error) {
+
+        static ToolResult success(String toolName, String result) {
+            return new ToolResult(toolName, result, null);
+        }
+
+        static ToolResult failure(String toolName, Throwable error) {
+            return new ToolResult(toolName, null, error);
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+
+    private record CachedResult(Object value, long expiresAt) {
+    }
+}
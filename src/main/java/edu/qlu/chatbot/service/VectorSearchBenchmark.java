@@ -0,0 +1,202 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.config.VectorSearchProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 向量检索召回率/延迟基准
+ *
+ * 从 vector_store 随机抽取分块向量作为查询，以顺序扫描的精确top-k为基准，逐个检索方案
+ * （FLOAT32/HALFVEC/BINARY × 全维/配置的降维维度）及各 ef_search 取值测量 recall@k 与延迟分位数，
+ * 并给出索引大小与构建参数（m/ef_construction），用于选择索引体积、延迟与召回率的折中。
+ * 查询分块本身从基准与结果中剔除。
+ *
+ * 索引不存在的方案只按配置的 ef_search 执行一次（退化为顺序扫描），此时只有召回率有参考意义。
+ * 比较不同构建参数时，先通过 VectorSearchService#rebuildIndex 重建索引再运行基准。
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@Service
+public class VectorSearchBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(VectorSearchBenchmark.class);
+
+    private static final int WARMUP_QUERIES = 5;
+
+    private final VectorSearchService vectorSearchService;
+    private final JdbcTemplate jdbcTemplate;
+    private final VectorSearchProperties properties;
+
+    public VectorSearchBenchmark(VectorSearchService vectorSearchService, JdbcTemplate jdbcTemplate,
+                                 VectorSearchProperties properties) {
+        this.vectorSearchService = vectorSearchService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    /**
+     * 单个检索方案的基准结果
+     *
+     * @param plan 检索方案（存储方式/索引维度）
+     * @param indexOptions 索引构建参数，索引不存在时为null
+     * @param indexBytes 索引大小，索引不存在时为-1
+     * @param efSearch 检索时的 hnsw.ef_search
+     * @param recall 平均 recall@k
+     */
+    public record BenchmarkResult(String plan, String indexOptions, long indexBytes, int efSearch, double recall,
+                                  double meanMillis, double p50Millis, double p95Millis) {
+    }
+
+    /**
+     * 查询样本
+     */
+    record Query(String id, float[] embedding) {
+    }
+
+    /**
+     * 执行基准（配置的 ef_search 取值）
+     *
+     * @param queryCount 抽样查询数
+     * @param topK 评估的k
+     */
+    public List<BenchmarkResult> run(int queryCount, int topK) {
+        return run(queryCount, topK, properties.getHnsw().getBenchmarkEfSearch());
+    }
+
+    /**
+     * 执行基准
+     *
+     * @param queryCount 抽样查询数
+     * @param topK 评估的k
+     * @param efSearchValues 比较的 ef_search 取值，为空时使用配置的 ef_search
+     */
+    public List<BenchmarkResult> run(int queryCount, int topK, List<Integer> efSearchValues) {
+        List<Integer> efSearch = efSearchValues == null || efSearchValues.isEmpty()
+                ? List.of(properties.getHnsw().getEfSearch()) : efSearchValues;
+        List<Query> queries = sampleQueries(queryCount);
+        if (queries.isEmpty()) {
+            return List.of();
+        }
+        List<Set<String>> truths = new ArrayList<>(queries.size());
+        for (Query query : queries) {
+            truths.add(new HashSet<>(withoutSelf(vectorSearchService.exactSearch(query.embedding(), topK + 1),
+                    query.id(), topK)));
+        }
+
+        List<BenchmarkResult> results = new ArrayList<>();
+        for (VectorSearchService.SearchPlan plan : plans()) {
+            long indexBytes = vectorSearchService.indexSize(plan);
+            String indexOptions = indexBytes < 0 ? null : vectorSearchService.indexOptions(plan);
+            List<Integer> planEfSearch = indexBytes < 0 ? List.of(properties.getHnsw().getEfSearch()) : efSearch;
+            for (int ef : planEfSearch) {
+                results.add(measure(plan, indexOptions, indexBytes, ef, queries, truths, topK));
+            }
+        }
+        logger.info("向量检索基准完成: {} 个查询, k={}, 结果 {}", queries.size(), topK, results);
+        return results;
+    }
+
+    /**
+     * 参与比较的检索方案：各存储方式 × {全部维度, 配置的索引维度}
+     */
+    List<VectorSearchService.SearchPlan> plans() {
+        Set<Integer> dimensions = new LinkedHashSet<>();
+        dimensions.add(properties.getDimensions());
+        if (properties.getIndexDimensions() > 0) {
+            dimensions.add(Math.min(properties.getIndexDimensions(), properties.getDimensions()));
+        }
+        List<VectorSearchService.SearchPlan> plans = new ArrayList<>();
+        for (VectorSearchService.StorageMode mode : VectorSearchService.StorageMode.values()) {
+            for (int indexDimensions : dimensions) {
+                plans.add(new VectorSearchService.SearchPlan(mode, properties.getDimensions(), indexDimensions));
+            }
+        }
+        return plans;
+    }
+
+    private BenchmarkResult measure(VectorSearchService.SearchPlan plan, String indexOptions, long indexBytes,
+                                    int efSearch, List<Query> queries, List<Set<String>> truths, int topK) {
+        for (int i = 0; i < Math.min(WARMUP_QUERIES, queries.size()); i++) {
+            vectorSearchService.search(queries.get(i).embedding(), topK + 1, plan, efSearch);
+        }
+        double[] millis = new double[queries.size()];
+        double recallSum = 0;
+        for (int i = 0; i < queries.size(); i++) {
+            Query query = queries.get(i);
+            long start = System.nanoTime();
+            List<VectorSearchService.VectorHit> hits =
+                    vectorSearchService.search(query.embedding(), topK + 1, plan, efSearch);
+            millis[i] = (System.nanoTime() - start) / 1_000_000.0;
+            List<String> ids = new ArrayList<>(hits.size());
+            for (VectorSearchService.VectorHit hit : hits) {
+                ids.add(hit.id());
+            }
+            recallSum += recall(truths.get(i), withoutSelf(ids, query.id(), topK));
+        }
+        Arrays.sort(millis);
+        return new BenchmarkResult(plan.toString(), indexOptions, indexBytes, efSearch, recallSum / queries.size(),
+                Arrays.stream(millis).average().orElse(0), percentile(millis, 0.5), percentile(millis, 0.95));
+    }
+
+    private List<Query> sampleQueries(int queryCount) {
+        int dimensions = properties.getDimensions();
+        return jdbcTemplate.query(
+                "SELECT id::text, embedding::text FROM vector_store WHERE embedding IS NOT NULL "
+                        + "ORDER BY random() LIMIT ?",
+                (rs, rowNum) -> {
+                    try {
+                        return new Query(rs.getString(1), KnowledgeSnapshotService.parseVector(rs.getString(2), dimensions));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                },
+                queryCount);
+    }
+
+    static List<String> withoutSelf(List<String> ids, String self, int topK) {
+        List<String> result = new ArrayList<>(topK);
+        for (String id : ids) {
+            if (!id.equals(self) && result.size() < topK) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    static double recall(Set<String> truth, List<String> found) {
+        if (truth.isEmpty()) {
+            return 1.0;
+        }
+        int hits = 0;
+        for (String id : found) {
+            if (truth.contains(id)) {
+                hits++;
+            }
+        }
+        return (double) hits / truth.size();
+    }
+
+    /**
+     * 最近秩分位数（sorted 已升序）
+     */
+    static double percentile(double[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+}
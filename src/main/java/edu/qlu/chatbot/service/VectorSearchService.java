@@ -0,0 +1,387 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.config.VectorSearchProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 知识库向量检索服务
+ *
+ * vector_store.embedding 列始终保存全精度float向量（Spring AI写入），索引则按存储方式建在表达式上：
+ * - FLOAT32：embedding 本身（vector_cosine_ops），精确向量上的HNSW
+ * - HALFVEC：embedding::halfvec（halfvec_cosine_ops），索引体积减半
+ * - BINARY：binary_quantize(embedding)::bit（bit_hamming_ops），索引体积约为1/32
+ * 配置 index-dimensions 时索引只取前N维（subvector），适用于Matryoshka式嵌入的降维。
+ *
+ * 除全维FLOAT32外，检索先按索引表达式取 topK * rerank-factor 个候选，再用全精度向量的余弦距离重排，
+ * 量化与降维带来的排序误差只影响候选集合，不影响最终距离。
+ *
+ * pgvector没有int8向量类型与对应的索引算子，int8标量量化仅用于快照文件（见 KnowledgeSnapshotFile）。
+ *
+ * 每次检索在独立的只读事务内执行，先 SET LOCAL hnsw.ef_search（不小于候选数）再查询，设置随事务结束失效，
+ * 不会残留在连接池的连接上。修改 m/ef_construction 后通过 {@link #rebuildIndex} 并发重建索引：
+ * 先 CREATE INDEX CONCURRENTLY 建立新索引，再在一个短事务内交换名称，最后 DROP INDEX CONCURRENTLY 旧索引，
+ * 重建期间读写不受阻塞，检索始终有可用索引。
+ *
+ * 指标：qlu.vector.search{mode, dimensions}
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@Service
+public class VectorSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VectorSearchService.class);
+
+    private static final String BASE_INDEX_NAME = "idx_vector_store_embedding";
+    private static final int MAX_EF_SEARCH = 1000;
+
+    private static final RowMapper<VectorHit> HIT_MAPPER = (rs, rowNum) ->
+            new VectorHit(rs.getString("id"), rs.getString("content"), rs.getDouble("distance"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EmbeddingModel embeddingModel;
+    private final VectorSearchProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public VectorSearchService(JdbcTemplate jdbcTemplate, EmbeddingModel embeddingModel,
+                               VectorSearchProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.embeddingModel = embeddingModel;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 索引存储方式
+     */
+    public enum StorageMode {
+        FLOAT32("vector_cosine_ops", "<=>"),
+        HALFVEC("halfvec_cosine_ops", "<=>"),
+        BINARY("bit_hamming_ops", "<~>");
+
+        private final String operatorClass;
+        private final String operator;
+
+        StorageMode(String operatorClass, String operator) {
+            this.operatorClass = operatorClass;
+            this.operator = operator;
+        }
+    }
+
+    /**
+     * 检索结果
+     *
+     * @param id 分块ID
+     * @param content 分块文本
+     * @param distance 与查询向量的全精度余弦距离
+     */
+    public record VectorHit(String id, String content, double distance) {
+    }
+
+    /**
+     * 索引重建结果
+     */
+    public record IndexBuild(String index, int m, int efConstruction, long indexBytes, long elapsedMillis) {
+    }
+
+    /**
+     * 检索方案：索引存储方式与索引维度
+     *
+     * @param mode 存储方式
+     * @param dimensions 嵌入向量维度
+     * @param indexDimensions 索引使用的维度（不超过 dimensions）
+     */
+    public record SearchPlan(StorageMode mode, int dimensions, int indexDimensions) {
+
+        public SearchPlan {
+            if (indexDimensions <= 0 || indexDimensions > dimensions) {
+                indexDimensions = dimensions;
+            }
+        }
+
+        /**
+         * 全维FLOAT32索引直接给出最终排序，无需重排
+         */
+        public boolean exact() {
+            return mode == StorageMode.FLOAT32 && indexDimensions == dimensions;
+        }
+
+        public String indexName() {
+            return exact() ? BASE_INDEX_NAME
+                    : BASE_INDEX_NAME + "_" + mode.name().toLowerCase(Locale.ROOT) + "_" + indexDimensions;
+        }
+
+        /**
+         * 索引表达式（column 可以是列名或查询参数）
+         */
+        String expression(String column) {
+            String base = indexDimensions < dimensions
+                    ? "subvector(" + column + ", 1, " + indexDimensions + ")" : column;
+            return switch (mode) {
+                case FLOAT32 -> indexDimensions < dimensions ? base + "::vector(" + indexDimensions + ")" : column;
+                case HALFVEC -> base + "::halfvec(" + indexDimensions + ")";
+                case BINARY -> "binary_quantize(" + base + ")::bit(" + indexDimensions + ")";
+            };
+        }
+
+        String indexDdl(String prefix, String name, int m, int efConstruction) {
+            return prefix + " " + name + " ON vector_store USING hnsw ((" + expression("embedding") + ") "
+                    + mode.operatorClass + ") WITH (m = " + m + ", ef_construction = " + efConstruction + ")";
+        }
+
+        /**
+         * 检索SQL；非精确方案参数依次为：查询向量、查询向量、候选数、topK
+         */
+        String searchSql() {
+            if (exact()) {
+                return "SELECT id::text AS id, content, embedding <=> ?::vector AS distance FROM vector_store "
+                        + "WHERE embedding IS NOT NULL ORDER BY distance LIMIT ?";
+            }
+            return "SELECT id, content, embedding <=> ?::vector AS distance FROM ("
+                    + "SELECT id::text AS id, content, embedding FROM vector_store WHERE embedding IS NOT NULL "
+                    + "ORDER BY " + expression("embedding") + " " + mode.operator + " "
+                    + expression("?::vector") + " LIMIT ?) candidates ORDER BY distance LIMIT ?";
+        }
+
+        @Override
+        public String toString() {
+            return mode + "/" + indexDimensions;
+        }
+    }
+
+    /**
+     * 当前配置的检索方案
+     */
+    public SearchPlan currentPlan() {
+        return new SearchPlan(StorageMode.valueOf(properties.getStorageMode().toUpperCase(Locale.ROOT)),
+                properties.getDimensions(), properties.getIndexDimensions());
+    }
+
+    /**
+     * 按文本检索知识分块
+     */
+    public List<VectorHit> search(String query, int topK) {
+        return search(embeddingModel.embed(query), topK);
+    }
+
+    /**
+     * 按查询向量检索知识分块（当前检索方案）
+     */
+    public List<VectorHit> search(float[] embedding, int topK) {
+        return search(embedding, topK, currentPlan());
+    }
+
+    /**
+     * 按指定检索方案检索知识分块（配置的 ef_search）
+     */
+    public List<VectorHit> search(float[] embedding, int topK, SearchPlan plan) {
+        return search(embedding, topK, plan, properties.getHnsw().getEfSearch());
+    }
+
+    /**
+     * 按指定检索方案与 ef_search 检索知识分块
+     *
+     * @param efSearch HNSW检索候选列表大小，实际取值不小于本次需要的候选数
+     */
+    public List<VectorHit> search(float[] embedding, int topK, SearchPlan plan, int efSearch) {
+        String vector = vectorLiteral(embedding);
+        int candidates = plan.exact() ? topK : topK * Math.max(1, properties.getRerankFactor());
+        int effectiveEfSearch = effectiveEfSearch(efSearch, candidates);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return jdbcTemplate.execute((ConnectionCallback<List<VectorHit>>) connection ->
+                    inTransaction(connection, () -> {
+                        try (Statement statement = connection.createStatement()) {
+                            statement.execute("SET LOCAL hnsw.ef_search = " + effectiveEfSearch);
+                        }
+                        try (PreparedStatement statement = connection.prepareStatement(plan.searchSql())) {
+                            int index = 1;
+                            statement.setString(index++, vector);
+                            if (!plan.exact()) {
+                                statement.setString(index++, vector);
+                                statement.setInt(index++, candidates);
+                            }
+                            statement.setInt(index, topK);
+                            List<VectorHit> hits = new ArrayList<>(topK);
+                            try (ResultSet rs = statement.executeQuery()) {
+                                while (rs.next()) {
+                                    hits.add(HIT_MAPPER.mapRow(rs, hits.size()));
+                                }
+                            }
+                            return hits;
+                        }
+                    }));
+        } finally {
+            sample.stop(Timer.builder("qlu.vector.search")
+                    .description("知识库向量检索耗时")
+                    .tag("mode", plan.mode().name())
+                    .tag("dimensions", String.valueOf(plan.indexDimensions()))
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * 不使用索引的精确检索（顺序扫描），作为召回率评估的基准
+     */
+    public List<String> exactSearch(float[] embedding, int topK) {
+        String vector = vectorLiteral(embedding);
+        return jdbcTemplate.execute((ConnectionCallback<List<String>>) connection ->
+                inTransaction(connection, () -> {
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute("SET LOCAL enable_indexscan = off");
+                    }
+                    List<String> ids = new ArrayList<>(topK);
+                    try (PreparedStatement statement = connection.prepareStatement(
+                            "SELECT id::text FROM vector_store WHERE embedding IS NOT NULL "
+                                    + "ORDER BY embedding <=> ?::vector LIMIT ?")) {
+                        statement.setString(1, vector);
+                        statement.setInt(2, topK);
+                        try (ResultSet rs = statement.executeQuery()) {
+                            while (rs.next()) {
+                                ids.add(rs.getString(1));
+                            }
+                        }
+                    }
+                    return ids;
+                }));
+    }
+
+    /**
+     * 为检索方案创建HNSW索引（已存在时跳过），使用配置的构建参数
+     */
+    public void createIndex(SearchPlan plan) {
+        long start = System.nanoTime();
+        jdbcTemplate.execute(plan.indexDdl("CREATE INDEX IF NOT EXISTS", plan.indexName(),
+                properties.getHnsw().getM(), properties.getHnsw().getEfConstruction()));
+        logger.info("向量索引 {} 就绪，耗时 {} ms", plan.indexName(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * 以新的构建参数并发重建检索方案的索引
+     *
+     * CONCURRENTLY 语句不能在事务内执行，依赖连接的自动提交；上次失败残留的临时索引会先被删除。
+     *
+     * @throws IllegalArgumentException 参数超出pgvector允许范围
+     */
+    public IndexBuild rebuildIndex(SearchPlan plan, int m, int efConstruction) {
+        if (m < 2 || m > 100) {
+            throw new IllegalArgumentException("m取值2-100");
+        }
+        if (efConstruction < 2 * m || efConstruction > 1000) {
+            throw new IllegalArgumentException("ef_construction取值为2*m至1000");
+        }
+        String name = plan.indexName();
+        String building = name + "_rebuild";
+        String retired = name + "_old";
+        long start = System.nanoTime();
+        jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + building);
+        jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + retired);
+        jdbcTemplate.execute(plan.indexDdl("CREATE INDEX CONCURRENTLY", building, m, efConstruction));
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ALTER INDEX IF EXISTS " + name + " RENAME TO " + retired);
+                statement.execute("ALTER INDEX " + building + " RENAME TO " + name);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            return null;
+        });
+        jdbcTemplate.execute("DROP INDEX CONCURRENTLY IF EXISTS " + retired);
+        IndexBuild build = new IndexBuild(name, m, efConstruction, indexSize(plan),
+                (System.nanoTime() - start) / 1_000_000);
+        logger.info("向量索引并发重建完成: {}", build);
+        return build;
+    }
+
+    /**
+     * 检索方案对应索引的构建参数（如 {m=16,ef_construction=64}），索引不存在时返回null
+     */
+    public String indexOptions(SearchPlan plan) {
+        List<String> options = jdbcTemplate.queryForList(
+                "SELECT COALESCE(array_to_string(reloptions, ','), '') FROM pg_class WHERE relname = ?",
+                String.class, plan.indexName());
+        return options.isEmpty() ? null : "{" + options.get(0) + "}";
+    }
+
+    /**
+     * 检索方案对应索引的大小（字节），索引不存在时返回-1
+     */
+    public long indexSize(SearchPlan plan) {
+        Long size = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(pg_relation_size(to_regclass(?)), -1)", Long.class, plan.indexName());
+        return size != null ? size : -1;
+    }
+
+    /**
+     * 启动时为当前存储方式创建索引，失败时仅记录警告（检索退化为顺序扫描）
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndex() {
+        if (!properties.isCreateIndexOnStartup()) {
+            return;
+        }
+        try {
+            createIndex(currentPlan());
+        } catch (Exception e) {
+            logger.warn("向量索引创建失败: {}", e.getMessage());
+        }
+    }
+
+    static int effectiveEfSearch(int efSearch, int candidates) {
+        return Math.min(MAX_EF_SEARCH, Math.max(Math.max(1, efSearch), candidates));
+    }
+
+    static String vectorLiteral(float[] embedding) {
+        StringBuilder text = new StringBuilder(embedding.length * 12);
+        KnowledgeSnapshotService.appendVector(text, embedding);
+        return text.toString();
+    }
+
+    @FunctionalInterface
+    private interface SqlWork<T> {
+        T run() throws SQLException;
+    }
+
+    /**
+     * 在只读事务内执行（SET LOCAL 只在事务内生效），结束后回滚
+     */
+    private static <T> T inTransaction(Connection connection, SqlWork<T> work) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        if (autoCommit) {
+            connection.setAutoCommit(false);
+        }
+        try {
+            return work.run();
+        } finally {
+            if (autoCommit) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,534 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.config.VoiceprintConfig;
+import edu.qlu.chatbot.mapper.UserMapper;
+import edu.qlu.chatbot.mapper.VoiceprintMapper;
+import edu.qlu.chatbot.model.User;
+import edu.qlu.chatbot.model.Voiceprint;
+import edu.qlu.chatbot.model.VoiceprintEnrollResponse;
+import edu.qlu.chatbot.service.AudioProcessingService.AudioProcessingException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * 声纹批量注册服务
+ *
+ * 与逐条调用 /enroll 相比：
+ * - 用户与已注册声纹各用一条查询预加载
+ * - 音频解码在专用ForkJoin线程池中并行执行
+ * - 讯飞API调用使用固定大小线程池限制并发
+ * - 成功条目按块（insert-chunk-size）以多行INSERT写入数据库，某块失败时逐条重试，只影响出错的条目
+ *
+ * 压缩包条目逐个落到临时文件，音频在解码时才读入内存，同时处理中的条目数不超过
+ * 解码并行度与讯飞并发数之和，内存占用与批次大小无关。
+ *
+ * @author QLU AI Team
+ * @since 1.0.0
+ */
+@Service
+public class VoiceprintBatchEnrollmentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VoiceprintBatchEnrollmentService.class);
+
+    private final VoiceprintConfig config;
+    private final IFlytekVoiceprintClient iflytekClient;
+    private final AudioProcessingService audioProcessingService;
+    private final UserMapper userMapper;
+    private final VoiceprintMapper voiceprintMapper;
+
+    private final ForkJoinPool decodePool;
+    private final ExecutorService apiExecutor;
+
+    public VoiceprintBatchEnrollmentService(VoiceprintConfig config,
+                                          IFlytekVoiceprintClient iflytekClient,
+                                          AudioProcessingService audioProcessingService,
+                                          UserMapper userMapper,
+                                          VoiceprintMapper voiceprintMapper) {
+        this.config = config;
+        this.iflytekClient = iflytekClient;
+        this.audioProcessingService = audioProcessingService;
+        this.userMapper = userMapper;
+        this.voiceprintMapper = voiceprintMapper;
+
+        VoiceprintConfig.Batch batch = config.getBatch();
+        this.decodePool = new ForkJoinPool(Math.max(1, batch.getDecodeParallelism()));
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.apiExecutor = Executors.newFixedThreadPool(Math.max(1, batch.getApiConcurrency()), runnable -> {
+            Thread thread = new Thread(runnable, "voiceprint-batch-api-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 批量注册声纹
+     *
+     * 每个条目的结果（VoiceprintEnrollResponse）通过sink逐条输出：
+     * 失败条目在失败时立即输出，成功条目在批量写库完成后输出，最后输出一条汇总信息。
+     * sink可能被多个线程并发调用，调用方负责同步。条目的临时文件在处理结束后删除。
+     * sink抛出异常（如客户端断开）时停止处理：尚未调用讯飞API的条目不再处理，
+     * 已在讯飞注册的条目仍写入数据库，避免留下没有记录的特征。
+     *
+     * @param items 批量条目
+     * @param featureInfo 特征信息（可选，所有条目共用）
+     * @param sink 结果输出
+     */
+    public void enrollBatch(List<BatchEnrollItem> items, String featureInfo, Consumer<Object> sink) {
+        long startTime = System.currentTimeMillis();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicBoolean aborted = new AtomicBoolean();
+        Consumer<Object> output = result -> {
+            if (aborted.get()) {
+                return;
+            }
+            try {
+                sink.accept(result);
+            } catch (RuntimeException e) {
+                if (aborted.compareAndSet(false, true)) {
+                    logger.warn("批量注册结果输出失败，停止处理剩余条目: {}", e.getMessage());
+                }
+            }
+        };
+        Consumer<VoiceprintEnrollResponse> failure = response -> {
+            failed.incrementAndGet();
+            output.accept(response);
+        };
+
+        logger.info("开始声纹批量注册: 条目数={}", items.size());
+
+        // 预加载用户与已注册声纹（两条查询）
+        Set<Long> userIds = items.stream()
+            .map(BatchEnrollItem::getUserId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<Long, User> users = userIds.isEmpty() ? Map.of() : userMapper.findByIds(userIds).stream()
+            .collect(Collectors.toMap(User::getId, Function.identity()));
+        Set<Long> enrolledUserIds = userIds.isEmpty() ? Set.of() : new HashSet<>(voiceprintMapper.findEnrolledUserIds(userIds));
+
+        // 基础校验，不通过的条目立即输出
+        List<BatchEnrollItem> accepted = new ArrayList<>();
+        Set<Long> seenUserIds = new HashSet<>();
+        for (BatchEnrollItem item : items) {
+            String error = precheck(item, users, enrolledUserIds, seenUserIds);
+            if (error != null) {
+                item.discard();
+                failure.accept(itemError(item, error));
+            } else {
+                accepted.add(item);
+            }
+        }
+
+        // 并行解码 + 受限并发调用讯飞API；限制处理中的条目数，避免解码结果在API线程池前堆积
+        VoiceprintConfig.Batch batch = config.getBatch();
+        Semaphore inFlight = new Semaphore(Math.max(1, batch.getDecodeParallelism()) + Math.max(1, batch.getApiConcurrency()));
+        Queue<EnrolledItem> enrolled = new ConcurrentLinkedQueue<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(accepted.size());
+        for (BatchEnrollItem item : accepted) {
+            User user = users.get(item.getUserId());
+            inFlight.acquireUninterruptibly();
+            if (aborted.get()) {
+                inFlight.release();
+                item.discard();
+                continue;
+            }
+            CompletableFuture<Void> future = CompletableFuture
+                .supplyAsync(() -> decode(item), decodePool)
+                .thenApplyAsync(audioBase64 -> {
+                    if (aborted.get()) {
+                        throw new CancellationException("批量注册已中止");
+                    }
+                    return register(item, audioBase64, featureInfo);
+                }, apiExecutor)
+                .thenAccept(voiceprint -> enrolled.add(new EnrolledItem(item, user, voiceprint)))
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    logger.warn("批量注册条目失败: userId={}, fileName={}, error={}",
+                               item.getUserId(), item.getFileName(), cause.getMessage());
+                    failure.accept(itemError(item, cause.getMessage()));
+                    return null;
+                })
+                .whenComplete((ignored, e) -> {
+                    item.discard();
+                    inFlight.release();
+                });
+            futures.add(future);
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        // 成功条目按块写入数据库
+        int succeeded = 0;
+        List<EnrolledItem> enrolledItems = new ArrayList<>(enrolled);
+        int chunkSize = Math.max(1, batch.getInsertChunkSize());
+        for (int from = 0; from < enrolledItems.size(); from += chunkSize) {
+            List<EnrolledItem> chunk = enrolledItems.subList(from, Math.min(from + chunkSize, enrolledItems.size()));
+            succeeded += saveChunk(chunk, output, failure);
+        }
+
+        long duration = System.currentTimeMillis() - startTime;
+        logger.info("声纹批量注册{}: 总数={}, 成功={}, 失败={}, 耗时={}ms", aborted.get() ? "中止" : "完成",
+                   items.size(), succeeded, failed.get(), duration);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("status", aborted.get() ? "aborted" : "completed");
+        summary.put("total", items.size());
+        summary.put("succeeded", succeeded);
+        summary.put("failed", failed.get());
+        summary.put("durationMs", duration);
+        output.accept(summary);
+    }
+
+    /**
+     * 写入一块成功条目：先以一条多行INSERT写入，失败时逐条重试，
+     * 只有仍然写入失败的条目回滚讯飞特征并报告失败
+     *
+     * @return 写入成功的条目数
+     */
+    private int saveChunk(List<EnrolledItem> chunk, Consumer<Object> sink,
+                          Consumer<VoiceprintEnrollResponse> failure) {
+        List<Voiceprint> voiceprints = chunk.stream().map(EnrolledItem::voiceprint).toList();
+        try {
+            voiceprintMapper.batchInsert(voiceprints);
+            chunk.forEach(enrolledItem -> sink.accept(success(enrolledItem)));
+            return chunk.size();
+        } catch (Exception e) {
+            logger.warn("批量保存声纹失败，改为逐条保存: 条目数={}, error={}", voiceprints.size(), e.getMessage());
+        }
+
+        int saved = 0;
+        for (EnrolledItem enrolledItem : chunk) {
+            boolean inserted;
+            try {
+                inserted = voiceprintMapper.insert(enrolledItem.voiceprint()) == 1;
+            } catch (Exception e) {
+                logger.error("保存声纹失败: userId={}, fileName={}",
+                            enrolledItem.item().getUserId(), enrolledItem.item().getFileName(), e);
+                inserted = false;
+            }
+            if (inserted) {
+                saved++;
+                sink.accept(success(enrolledItem));
+            } else {
+                rollbackFeature(enrolledItem.voiceprint().getIflytekFeatureId());
+                failure.accept(itemError(enrolledItem.item(), "数据库保存失败"));
+            }
+        }
+        return saved;
+    }
+
+    private VoiceprintEnrollResponse success(EnrolledItem enrolledItem) {
+        return VoiceprintEnrollResponse.success(
+            enrolledItem.voiceprint().getIflytekFeatureId(),
+            enrolledItem.item().getUserId(),
+            enrolledItem.user().getUsername(),
+            enrolledItem.item().getFileName()
+        );
+    }
+
+    /**
+     * 从ZIP压缩包读取批量条目
+     *
+     * 条目的用户ID取自文件名或所在目录名的前导数字，例如：
+     * 1001.wav、1001_张三.mp3、1001/sample.wav
+     *
+     * 每个条目的音频写入临时文件，不在内存中保留；读取失败时删除已写入的临时文件。
+     *
+     * @param archive ZIP输入流
+     * @return 批量条目列表
+     * @throws IOException 读取失败或条目超出大小限制
+     */
+    public List<BatchEnrollItem> readZipArchive(InputStream archive) throws IOException {
+        long maxEntrySize = config.getAudio().getMaxFileSizeInBytes();
+        List<BatchEnrollItem> items = new ArrayList<>();
+
+        try (ZipInputStream zip = new ZipInputStream(archive)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                String name = entry.getName().replace('\\', '/');
+                String fileName = name.substring(name.lastIndexOf('/') + 1);
+                if (entry.isDirectory() || fileName.isEmpty() || fileName.startsWith(".") || name.startsWith("__MACOSX/")) {
+                    continue;
+                }
+                if (items.size() >= config.getBatch().getMaxItems()) {
+                    throw new IOException("压缩包条目数超出限制: " + config.getBatch().getMaxItems());
+                }
+
+                Path audioFile = spoolLimited(zip, maxEntrySize, name);
+                items.add(BatchEnrollItem.ofFile(parseUserId(name), fileName, audioFile));
+            }
+        } catch (IOException | RuntimeException e) {
+            items.forEach(BatchEnrollItem::discard);
+            throw e;
+        }
+
+        return items;
+    }
+
+    /**
+     * 将一一对应的用户ID列表与音频文件列表转换为批量条目
+     *
+     * @param userIds 用户ID列表
+     * @param files 音频文件列表
+     * @return 批量条目列表
+     * @throws IllegalArgumentException 参数不完整或条目数超出限制
+     */
+    public List<BatchEnrollItem> readMultipartItems(List<Long> userIds, List<MultipartFile> files) {
+        if (files == null || files.isEmpty()) {
+            throw new IllegalArgumentException("请上传ZIP压缩包或音频文件列表");
+        }
+        if (userIds == null || userIds.size() != files.size()) {
+            throw new IllegalArgumentException("用户ID数量与音频文件数量不一致");
+        }
+        if (files.size() > config.getBatch().getMaxItems()) {
+            throw new IllegalArgumentException("批量注册条目数超出限制: " + config.getBatch().getMaxItems());
+        }
+
+        // 上传文件由容器暂存，音频在解码时才读取
+        List<BatchEnrollItem> items = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            MultipartFile file = files.get(i);
+            items.add(new BatchEnrollItem(userIds.get(i), file.getOriginalFilename(), file.getSize(), file::getBytes));
+        }
+        return items;
+    }
+
+    /**
+     * 条目基础校验，返回错误信息；通过校验返回null
+     */
+    private String precheck(BatchEnrollItem item, Map<Long, User> users,
+                            Set<Long> enrolledUserIds, Set<Long> seenUserIds) {
+        if (item.getUserId() == null || item.getUserId() <= 0) {
+            return "用户ID无效";
+        }
+        if (item.getSize() <= 0) {
+            return "音频文件不能为空";
+        }
+        User user = users.get(item.getUserId());
+        if (user == null) {
+            return "用户不存在";
+        }
+        if (!Boolean.TRUE.equals(user.getIsActive())) {
+            return "用户已被禁用";
+        }
+        if (enrolledUserIds.contains(item.getUserId())) {
+            return "该用户已注册声纹，请先删除现有声纹";
+        }
+        if (!seenUserIds.add(item.getUserId())) {
+            return "同一批次中用户ID重复";
+        }
+        return null;
+    }
+
+    /**
+     * 校验、读取并解码音频（在ForkJoin线程池中执行），解码后即删除临时文件
+     */
+    private String decode(BatchEnrollItem item) {
+        try {
+            audioProcessingService.validateAudio(item.getFileName(), item.getSize());
+            return audioProcessingService.processAudioBytes(item.readAudio(), item.getFileName());
+        } catch (AudioProcessingException e) {
+            throw new CompletionException(new AudioProcessingException("音频处理失败: " + e.getMessage(), e));
+        } catch (IOException e) {
+            throw new CompletionException(new AudioProcessingException("读取音频失败: " + e.getMessage(), e));
+        } finally {
+            item.discard();
+        }
+    }
+
+    /**
+     * 调用讯飞API注册声纹特征（在受限并发线程池中执行）
+     */
+    private Voiceprint register(BatchEnrollItem item, String audioBase64, String featureInfo) {
+        String featureId = String.format("user_%d_%s", item.getUserId(), UUID.randomUUID().toString().replace("-", ""));
+
+        Map<String, Object> apiResult;
+        try {
+            apiResult = iflytekClient.addAudioFeature(config.getGroupId(), featureId, audioBase64, featureInfo);
+        } catch (IFlytekApiException e) {
+            throw new CompletionException(new IFlytekApiException("声纹注册失败: " + e.getMessage(), e));
+        }
+
+        String returnedFeatureId = (String) apiResult.get("featureId");
+        if (!featureId.equals(returnedFeatureId)) {
+            rollbackFeature(featureId);
+            throw new CompletionException(new IllegalStateException("声纹注册失败: 特征ID不匹配"));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Voiceprint voiceprint = new Voiceprint();
+        voiceprint.setUserId(item.getUserId());
+        voiceprint.setIflytekGroupId(config.getGroupId());
+        voiceprint.setIflytekFeatureId(featureId);
+        voiceprint.setFeatureInfo(featureInfo);
+        voiceprint.setAudioFileName(item.getFileName());
+        voiceprint.setRegistrationDate(now);
+        voiceprint.setIdentificationCount(0);
+        voiceprint.setIsActive(true);
+        voiceprint.setCreatedAt(now);
+        voiceprint.setUpdatedAt(now);
+        return voiceprint;
+    }
+
+    /**
+     * 删除已在讯飞注册但未能落库的特征
+     */
+    private void rollbackFeature(String featureId) {
+        try {
+            iflytekClient.deleteAudioFeature(config.getGroupId(), featureId);
+        } catch (IFlytekApiException e) {
+            logger.error("回滚删除讯飞特征失败: featureId={}", featureId, e);
+        }
+    }
+
+    private VoiceprintEnrollResponse itemError(BatchEnrollItem item, String message) {
+        VoiceprintEnrollResponse response = VoiceprintEnrollResponse.error(message);
+        response.setUserId(item.getUserId());
+        response.setAudioFileName(item.getFileName());
+        return response;
+    }
+
+    /**
+     * 从压缩包条目路径解析用户ID
+     */
+    private Long parseUserId(String entryName) {
+        String[] segments = entryName.split("/");
+        // 优先使用顶层目录名（1001/sample.wav），否则使用文件名（1001_张三.wav）
+        String candidate = segments.length > 1 ? segments[segments.length - 2] : segments[0];
+        int end = 0;
+        while (end < candidate.length() && Character.isDigit(candidate.charAt(end))) {
+            end++;
+        }
+        if (end == 0 || end > 18) {
+            return null;
+        }
+        return Long.parseLong(candidate.substring(0, end));
+    }
+
+    /**
+     * 将当前压缩包条目写入临时文件，超出大小限制时删除文件并抛出异常
+     */
+    private Path spoolLimited(InputStream in, long limit, String name) throws IOException {
+        Path file = Files.createTempFile("voiceprint-batch-", ".audio");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            byte[] buffer = new byte[8192];
+            long total = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                total += read;
+                if (total > limit) {
+                    throw new IOException(String.format("压缩包条目大小超出限制: %s > %d bytes", name, limit));
+                }
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return file;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        decodePool.shutdown();
+        apiExecutor.shutdown();
+    }
+
+    private record EnrolledItem(BatchEnrollItem item, User user, Voiceprint voiceprint) {}
+
+    /**
+     * 条目音频的读取方式（内存字节、临时文件或容器暂存的上传文件）
+     */
+    @FunctionalInterface
+    public interface AudioSource {
+        byte[] read() throws IOException;
+    }
+
+    /**
+     * 批量注册条目
+     *
+     * 只保存音频的大小与读取方式，音频内容在解码时才读入内存
+     */
+    public static class BatchEnrollItem {
+        private final Long userId;
+        private final String fileName;
+        private final long size;
+        private final AudioSource audioSource;
+        private final Path tempFile;
+
+        public BatchEnrollItem(Long userId, String fileName, byte[] audioBytes) {
+            this(userId, fileName, audioBytes != null ? audioBytes.length : 0, () -> audioBytes, null);
+        }
+
+        public BatchEnrollItem(Long userId, String fileName, long size, AudioSource audioSource) {
+            this(userId, fileName, size, audioSource, null);
+        }
+
+        private BatchEnrollItem(Long userId, String fileName, long size, AudioSource audioSource, Path tempFile) {
+            this.userId = userId;
+            this.fileName = fileName;
+            this.size = size;
+            this.audioSource = audioSource;
+            this.tempFile = tempFile;
+        }
+
+        /**
+         * 以临时文件保存音频的条目，{@link #discard()} 时删除文件
+         */
+        static BatchEnrollItem ofFile(Long userId, String fileName, Path tempFile) throws IOException {
+            return new BatchEnrollItem(userId, fileName, Files.size(tempFile),
+                () -> Files.readAllBytes(tempFile), tempFile);
+        }
+
+        public Long getUserId() { return userId; }
+        public String getFileName() { return fileName; }
+        public long getSize() { return size; }
+
+        /**
+         * 读取音频内容
+         */
+        public byte[] readAudio() throws IOException {
+            return audioSource.read();
+        }
+
+        /**
+         * 释放条目占用的临时文件（可重复调用）
+         */
+        public void discard() {
+            if (tempFile == null) {
+                return;
+            }
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException e) {
+                logger.warn("删除批量注册临时文件失败: {}", tempFile, e);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "BatchEnrollItem{" +
+                    "userId=" + userId +
+                    ", fileName='" + fileName + '\'' +
+                    ", size=" + size +
+                    '}';
+        }
+    }
+}
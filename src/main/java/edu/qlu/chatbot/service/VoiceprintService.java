@@ -1,21 +1,31 @@
 package edu.qlu.chatbot.service;
 
+import edu.qlu.chatbot.cache.MybatisTinyLfuCache;
+import edu.qlu.chatbot.config.ClientIpResolver;
 import edu.qlu.chatbot.config.VoiceprintConfig;
 import edu.qlu.chatbot.mapper.UserMapper;
 import edu.qlu.chatbot.mapper.VoiceprintMapper;
 import edu.qlu.chatbot.mapper.VoiceprintIdentificationLogMapper;
 import edu.qlu.chatbot.model.*;
 import edu.qlu.chatbot.service.AudioProcessingService.AudioProcessingException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.ibatis.cursor.Cursor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -30,25 +40,39 @@ public class VoiceprintService {
     
     private static final Logger logger = LoggerFactory.getLogger(VoiceprintService.class);
     
+    /**
+     * 公平队列中讯飞声纹API的资源名称
+     */
+    static final String IFLYTEK_RESOURCE = "iflytek";
+    
     private final VoiceprintConfig config;
     private final IFlytekVoiceprintClient iflytekClient;
     private final AudioProcessingService audioProcessingService;
     private final UserMapper userMapper;
     private final VoiceprintMapper voiceprintMapper;
     private final VoiceprintIdentificationLogMapper logMapper;
+    private final MeterRegistry meterRegistry;
+    private final WeightedFairQueue fairQueue;
+    private final TransactionTemplate transactionTemplate;
     
     public VoiceprintService(VoiceprintConfig config,
                            IFlytekVoiceprintClient iflytekClient,
                            AudioProcessingService audioProcessingService,
                            UserMapper userMapper,
                            VoiceprintMapper voiceprintMapper,
-                           VoiceprintIdentificationLogMapper logMapper) {
+                           VoiceprintIdentificationLogMapper logMapper,
+                           MeterRegistry meterRegistry,
+                           WeightedFairQueue fairQueue,
+                           PlatformTransactionManager transactionManager) {
         this.config = config;
         this.iflytekClient = iflytekClient;
         this.audioProcessingService = audioProcessingService;
         this.userMapper = userMapper;
         this.voiceprintMapper = voiceprintMapper;
         this.logMapper = logMapper;
+        this.meterRegistry = meterRegistry;
+        this.fairQueue = fairQueue;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
     
     /**
@@ -61,6 +85,13 @@ public class VoiceprintService {
      */
     @Transactional
     public VoiceprintEnrollResponse enrollVoiceprint(Long userId, MultipartFile audioFile, String featureInfo) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        VoiceprintEnrollResponse response = doEnrollVoiceprint(userId, audioFile, featureInfo);
+        sample.stop(requestTimer("enroll", response.isSuccess()));
+        return response;
+    }
+    
+    private VoiceprintEnrollResponse doEnrollVoiceprint(Long userId, MultipartFile audioFile, String featureInfo) {
         try {
             logger.info("开始声纹注册: userId={}, fileName={}", userId, audioFile.getOriginalFilename());
             
@@ -158,32 +189,66 @@ public class VoiceprintService {
     
     /**
      * 声纹识别
+     * 排队等待讯飞调用许可与调用讯飞API期间不持有数据库连接，只有识别日志与统计写入在短事务中完成
      * 
      * @param audioFile 音频文件
      * @param request HTTP请求（用于获取客户端信息）
      * @return 识别响应
      */
-    @Transactional
     public VoiceprintIdentificationResponse identifyVoiceprint(MultipartFile audioFile, 
                                                              HttpServletRequest request) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        logger.info("开始声纹识别: fileName={}", audioFile.getOriginalFilename());
+        
+        // 处理音频文件
+        VoiceprintIdentificationResponse response;
+        String audioBase64;
+        try {
+            audioBase64 = audioProcessingService.processAudioFile(audioFile);
+            response = doIdentifyAudio(audioBase64, audioFile.getOriginalFilename(), 
+                                       ClientIpResolver.currentClientKey(), getClientIp(request),
+                                       request.getHeader("User-Agent"));
+        } catch (AudioProcessingException e) {
+            logger.error("音频处理失败: fileName={}", audioFile.getOriginalFilename(), e);
+            response = VoiceprintIdentificationResponse.error("音频处理失败: " + e.getMessage());
+        }
+        
+        sample.stop(requestTimer("identify", response.isSuccess()));
+        return response;
+    }
+    
+    /**
+     * 使用已处理（16kHz/16bit/单声道）的音频进行声纹识别
+     * 供上传识别与WebSocket实时识别共用
+     * 
+     * @param audioBase64 Base64编码的音频
+     * @param audioFileName 音频文件名（用于日志）
+     * @param clientKey 客户端标识（与限流使用的标识一致，用于讯飞调用公平排队）
+     * @param clientIp 客户端IP
+     * @param userAgent 客户端User-Agent
+     * @return 识别响应
+     */
+    public VoiceprintIdentificationResponse identifyAudio(String audioBase64, String audioFileName,
+                                                        String clientKey, String clientIp, String userAgent) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        VoiceprintIdentificationResponse response =
+            doIdentifyAudio(audioBase64, audioFileName, clientKey, clientIp, userAgent);
+        sample.stop(requestTimer("identify_stream", response.isSuccess()));
+        return response;
+    }
+    
+    private VoiceprintIdentificationResponse doIdentifyAudio(String audioBase64, String audioFileName,
+                                                           String clientKey, String clientIp, String userAgent) {
         String requestId = generateRequestId();
         long startTime = System.currentTimeMillis();
         
         try {
-            logger.info("开始声纹识别: requestId={}, fileName={}", requestId, audioFile.getOriginalFilename());
-            
-            // 处理音频文件
-            String audioBase64;
-            try {
-                audioBase64 = audioProcessingService.processAudioFile(audioFile);
-            } catch (AudioProcessingException e) {
-                logger.error("音频处理失败: requestId={}", requestId, e);
-                return VoiceprintIdentificationResponse.error("音频处理失败: " + e.getMessage());
-            }
+            logger.info("开始声纹匹配: requestId={}, fileName={}", requestId, audioFileName);
             
             // 调用讯飞API进行声纹识别
+            // 讯飞识别配额按客户端公平排队，单个客户端无法占满调用并发
             Map<String, Object> apiResult;
-            try {
+            try (WeightedFairQueue.Permit permit = fairQueue.acquire(IFLYTEK_RESOURCE, clientKey, 1)) {
                 apiResult = iflytekClient.searchByAudioFeature(
                     config.getGroupId(), 
                     audioBase64, 
@@ -194,10 +259,10 @@ public class VoiceprintService {
                 
                 // 记录识别日志（失败）
                 logIdentificationAttempt(requestId, null, null, BigDecimal.ZERO, 
-                                       audioFile.getOriginalFilename(), e.getSid(), 
+                                       audioFileName, e.getSid(), 
                                        e.getCode(), e.getMessage(), 
                                        (int)(System.currentTimeMillis() - startTime),
-                                       request);
+                                       clientIp, userAgent);
                 
                 return VoiceprintIdentificationResponse.error("声纹识别失败: " + e.getMessage());
             }
@@ -205,6 +270,7 @@ public class VoiceprintService {
             // 解析识别结果
             List<Map<String, Object>> scoreList = (List<Map<String, Object>>) apiResult.get("scoreList");
             List<VoiceprintIdentificationResponse.IdentificationResult> results = new ArrayList<>();
+            List<Runnable> writes = new ArrayList<>();
             
             if (scoreList != null && !scoreList.isEmpty()) {
                 for (Map<String, Object> scoreItem : scoreList) {
@@ -231,18 +297,22 @@ public class VoiceprintService {
                                 );
                             results.add(result);
                             
-                            // 记录识别日志（成功）
-                            logIdentificationAttempt(requestId, user.getId(), featureId, score,
-                                                   audioFile.getOriginalFilename(), null, 0, null,
-                                                   (int)(System.currentTimeMillis() - startTime),
-                                                   request);
-                            
-                            // 更新声纹识别统计
-                            voiceprintMapper.updateIdentificationStats(featureId, LocalDateTime.now());
+                            // 记录识别日志（成功）并更新声纹识别统计
+                            int duration = (int)(System.currentTimeMillis() - startTime);
+                            writes.add(() -> {
+                                logIdentificationAttempt(requestId, user.getId(), featureId, score,
+                                                       audioFileName, null, 0, null, duration,
+                                                       clientIp, userAgent);
+                                voiceprintMapper.updateIdentificationStats(featureId, LocalDateTime.now());
+                            });
                         }
                     }
                 }
                 
+                if (!writes.isEmpty()) {
+                    transactionTemplate.executeWithoutResult(status -> writes.forEach(Runnable::run));
+                }
+                
                 // 按置信度得分降序排序
                 results.sort((a, b) -> b.getConfidenceScore().compareTo(a.getConfidenceScore()));
             }
@@ -254,14 +324,16 @@ public class VoiceprintService {
             
             return VoiceprintIdentificationResponse.success(requestId, results, processingDuration);
             
+        } catch (RateLimitExceededException | DeadlineExceededException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("声纹识别异常: requestId={}", requestId, e);
             
             // 记录识别日志（异常）
             logIdentificationAttempt(requestId, null, null, BigDecimal.ZERO,
-                                   audioFile.getOriginalFilename(), null, -1, e.getMessage(),
+                                   audioFileName, null, -1, e.getMessage(),
                                    (int)(System.currentTimeMillis() - startTime),
-                                   request);
+                                   clientIp, userAgent);
             
             return VoiceprintIdentificationResponse.error("系统异常: " + e.getMessage());
         }
@@ -321,18 +393,37 @@ public class VoiceprintService {
     }
     
     /**
-     * 获取识别日志
+     * 流式读取识别日志
+     * 以数据库游标逐条交给consumer处理，不在内存中缓存整个列表
      * 
      * @param userId 用户ID（可选）
      * @param limit 限制数量
-     * @return 识别日志列表
+     * @param consumer 逐条处理日志（如直接写出到响应）
+     * @return 读取的日志条数
      */
-    public List<VoiceprintIdentificationLog> getIdentificationLogs(Long userId, int limit) {
-        if (userId != null) {
-            return logMapper.findByUserId(userId);
-        } else {
-            return logMapper.findRecent(limit);
+    @Transactional(readOnly = true)
+    public int streamIdentificationLogs(Long userId, int limit, Consumer<VoiceprintIdentificationLog> consumer) {
+        int count = 0;
+        try (Cursor<VoiceprintIdentificationLog> cursor = logMapper.streamRecent(userId, limit)) {
+            for (VoiceprintIdentificationLog log : cursor) {
+                consumer.accept(log);
+                count++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+        return count;
+    }
+    
+    /**
+     * 声纹注册/识别端到端计时器
+     */
+    private Timer requestTimer(String operation, boolean success) {
+        return Timer.builder("qlu.voiceprint.requests")
+                .description("声纹注册/识别端到端耗时")
+                .tag("operation", operation)
+                .tag("outcome", success ? "success" : "error")
+                .register(meterRegistry);
     }
     
     /**
@@ -355,7 +446,7 @@ public class VoiceprintService {
     private void logIdentificationAttempt(String requestId, Long userId, String featureId, 
                                         BigDecimal score, String audioFileName, String sid, 
                                         Integer responseCode, String responseMessage, 
-                                        int duration, HttpServletRequest request) {
+                                        int duration, String clientIp, String userAgent) {
         try {
             VoiceprintIdentificationLog log = new VoiceprintIdentificationLog();
             log.setRequestId(requestId);
@@ -368,8 +459,8 @@ public class VoiceprintService {
             log.setApiResponseCode(responseCode);
             log.setApiResponseMessage(responseMessage);
             log.setProcessingDurationMs(duration);
-            log.setClientIp(getClientIp(request));
-            log.setUserAgent(request.getHeader("User-Agent"));
+            log.setClientIp(clientIp);
+            log.setUserAgent(userAgent);
             log.setCreatedAt(LocalDateTime.now());
             
             logMapper.insert(log);
@@ -379,20 +470,10 @@ public class VoiceprintService {
     }
     
     /**
-     * 获取客户端IP地址
+     * 获取客户端IP地址（限流拦截器已按可信代理解析）
      */
     private String getClientIp(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty() && !"unknown".equalsIgnoreCase(xForwardedFor)) {
-            return xForwardedFor.split(",")[0].trim();
-        }
-        
-        String xRealIp = request.getHeader("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty() && !"unknown".equalsIgnoreCase(xRealIp)) {
-            return xRealIp;
-        }
-        
-        return request.getRemoteAddr();
+        return ClientIpResolver.clientIp(request);
     }
     
     /**
@@ -416,10 +497,15 @@ public class VoiceprintService {
             long totalIdentifications = logMapper.count();
             stats.put("totalIdentifications", totalIdentifications);
             
-            // 最近7天识别统计
-            List<VoiceprintIdentificationLog> recentLogs = logMapper.getStatistics(7);
+            // 最近7天识别统计（只输出默认投影字段）
+            List<VoiceprintIdentificationLogView> recentLogs = logMapper.getStatistics(7).stream()
+                    .map(log -> VoiceprintIdentificationLogView.of(log, VoiceprintIdentificationLogView.DEFAULT_FIELDS))
+                    .collect(Collectors.toList());
             stats.put("recentLogs", recentLogs);
             
+            // 用户/声纹查找缓存命中统计
+            stats.put("lookupCache", MybatisTinyLfuCache.statistics());
+            
         } catch (Exception e) {
             logger.error("获取声纹统计信息失败", e);
         }
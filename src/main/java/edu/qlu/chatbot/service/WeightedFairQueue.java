@@ -0,0 +1,243 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.config.RateLimitProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 外部服务加权公平队列
+ *
+ * 大模型、讯飞声纹等配额受限的外部服务，每种资源限制同时在途的调用数；
+ * 并发已满时请求按客户端排队，以起始时间公平排队（SFQ）决定出队顺序：
+ * - 每个请求的起始标签 S = max(虚拟时间, 该客户端上一请求的结束标签)，结束标签 F = S + 成本 / 权重
+ * - 出队时选择起始标签最小的请求，并把虚拟时间推进到该标签
+ *
+ * 因此高频客户端的标签不断后移，只能分到与其权重成比例的份额，不会饿死其他客户端；
+ * 请求成本（如估算的提示词token数）越高，占用的份额越多。
+ * 单个客户端排队数超限或等待超时时抛出 {@link RateLimitExceededException}；
+ * 排队时间不超过请求截止时间，因截止时间放弃排队时抛出 {@link DeadlineExceededException}。
+ *
+ * 空闲时（有空位且无人排队）直接放行，只需一次加锁，不经过排队。
+ *
+ * 指标：qlu.fairqueue.wait{resource} 记录排队耗时，qlu.fairqueue.rejected{resource,reason} 记录拒绝次数，
+ * qlu.fairqueue.queued{resource} 为当前排队数。
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@Service
+public class WeightedFairQueue {
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+
+    public WeightedFairQueue(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 获取调用许可，调用结束后必须关闭返回的许可（建议使用try-with-resources）
+     *
+     * @param resource 外部资源名称
+     * @param clientKey 客户端标识
+     * @param cost 本次调用的相对成本（至少为1）
+     * @return 调用许可
+     * @throws RateLimitExceededException 排队数超限或等待超时
+     * @throws DeadlineExceededException 请求截止时间先于排队超时到达
+     */
+    public Permit acquire(String resource, String clientKey, double cost) {
+        Lane lane = lanes.computeIfAbsent(resource, this::newLane);
+        RateLimitProperties.Queue config = properties.queueOf(resource);
+        double weight = properties.weightOf(clientKey);
+        long start = System.nanoTime();
+        long maxWaitMs = RequestDeadline.capMillis(config.getMaxWaitMs(), resource);
+        boolean deadlineBound = maxWaitMs < config.getMaxWaitMs();
+
+        Waiter waiter;
+        lane.lock.lock();
+        try {
+            double normalizedCost = Math.max(1.0, cost) / weight;
+            if (lane.running < Math.max(1, config.getMaxConcurrency()) && lane.waiting.isEmpty()) {
+                lane.running++;
+                lane.virtualTime = Math.max(lane.virtualTime, lane.tag(clientKey, normalizedCost));
+                return new Permit(lane);
+            }
+            int queued = lane.queuedByClient.getOrDefault(clientKey, 0);
+            if (queued >= config.getMaxQueuedPerClient()) {
+                reject(resource, "client_queue_full");
+                throw new RateLimitExceededException("请求排队过多，请稍后再试", config.getMaxWaitMs());
+            }
+            waiter = new Waiter(clientKey, lane.tag(clientKey, normalizedCost), normalizedCost, lane.sequence++);
+            lane.waiting.add(waiter);
+            lane.queuedByClient.merge(clientKey, 1, Integer::sum);
+        } finally {
+            lane.lock.unlock();
+        }
+
+        try {
+            waiter.granted.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            if (!lane.cancel(waiter)) {
+                // 超时的同时已被放行，许可归本请求所有
+                recordWait(resource, start);
+                return new Permit(lane);
+            }
+            if (deadlineBound) {
+                reject(resource, "deadline");
+                throw new DeadlineExceededException(resource);
+            }
+            reject(resource, "timeout");
+            throw new RateLimitExceededException("服务繁忙，排队超时，请稍后再试", config.getMaxWaitMs());
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        recordWait(resource, start);
+        return new Permit(lane);
+    }
+
+    private Lane newLane(String resource) {
+        Lane lane = new Lane();
+        Gauge.builder("qlu.fairqueue.queued", lane, l -> l.waiting.size())
+                .description("外部服务排队请求数")
+                .tag("resource", resource)
+                .register(meterRegistry);
+        return lane;
+    }
+
+    private void reject(String resource, String reason) {
+        meterRegistry.counter("qlu.fairqueue.rejected", "resource", resource, "reason", reason).increment();
+    }
+
+    private void recordWait(String resource, long start) {
+        Timer.builder("qlu.fairqueue.wait")
+                .description("外部服务排队耗时")
+                .tag("resource", resource)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 调用许可，关闭时归还并唤醒下一个排队请求
+     */
+    public static final class Permit implements AutoCloseable {
+
+        private final Lane lane;
+        private boolean closed;
+
+        private Permit(Lane lane) {
+            this.lane = lane;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                lane.release();
+            }
+        }
+    }
+
+    /**
+     * 单个资源的排队状态，全部字段由 lock 保护
+     */
+    private static final class Lane {
+
+        /** 结束标签表超过该大小时清理已落后于虚拟时间的客户端 */
+        private static final int MAX_TRACKED_CLIENTS = 10000;
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final PriorityQueue<Waiter> waiting = new PriorityQueue<>();
+        private final Map<String, Integer> queuedByClient = new HashMap<>();
+        private final Map<String, Double> finishTags = new HashMap<>();
+        private double virtualTime;
+        private long sequence;
+        private int running;
+
+        /**
+         * 计算请求的起始标签并更新客户端的结束标签
+         */
+        double tag(String clientKey, double normalizedCost) {
+            double startTag = Math.max(virtualTime, finishTags.getOrDefault(clientKey, 0.0));
+            if (finishTags.size() >= MAX_TRACKED_CLIENTS) {
+                finishTags.values().removeIf(finish -> finish <= virtualTime);
+            }
+            finishTags.put(clientKey, startTag + normalizedCost);
+            return startTag;
+        }
+
+        void release() {
+            lock.lock();
+            try {
+                Waiter next = waiting.poll();
+                if (next == null) {
+                    running--;
+                    return;
+                }
+                queuedByClient.computeIfPresent(next.clientKey, (key, count) -> count > 1 ? count - 1 : null);
+                virtualTime = Math.max(virtualTime, next.startTag);
+                // 许可直接移交给下一个排队请求，running 不变
+                next.granted.complete(null);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * 放弃排队并退回已计入客户端结束标签的成本，返回false表示已经被放行
+         */
+        boolean cancel(Waiter waiter) {
+            lock.lock();
+            try {
+                if (!waiting.remove(waiter)) {
+                    return false;
+                }
+                queuedByClient.computeIfPresent(waiter.clientKey, (key, count) -> count > 1 ? count - 1 : null);
+                finishTags.computeIfPresent(waiter.clientKey,
+                        (key, finish) -> Math.max(waiter.startTag, finish - waiter.cost));
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static final class Waiter implements Comparable<Waiter> {
+
+        private final String clientKey;
+        private final double startTag;
+        private final double cost;
+        private final long sequence;
+        private final CompletableFuture<Void> granted = new CompletableFuture<>();
+
+        Waiter(String clientKey, double startTag, double cost, long sequence) {
+            this.clientKey = clientKey;
+            this.startTag = startTag;
+            this.cost = cost;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Waiter other) {
+            int byTag = Double.compare(startTag, other.startTag);
+            return byTag != 0 ? byTag : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -17,7 +17,45 @@ CREATE TABLE knowledge_documents (
     created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
     vectorized BOOLEAN DEFAULT FALSE,
-    status VARCHAR(20) DEFAULT 'PENDING'
+    status VARCHAR(20) DEFAULT 'PENDING',
+    simhash BIGINT  -- 正文SimHash指纹（近似重复检测）
+);
+
+-- 近似重复文档的备用URL（归并到规范文档）
+DROP TABLE IF EXISTS knowledge_document_aliases CASCADE;
+
+CREATE TABLE knowledge_document_aliases (
+    source_url VARCHAR(1000) PRIMARY KEY,
+    canonical_id BIGINT NOT NULL REFERENCES knowledge_documents(id) ON DELETE CASCADE,
+    hamming_distance SMALLINT NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP
+);
+
+-- 教务日程表（由教务日程缓存定期全量加载到内存区间索引，工具调用不直接查询）
+DROP TABLE IF EXISTS academic_calendar_events CASCADE;
+
+CREATE TABLE academic_calendar_events (
+    id BIGSERIAL PRIMARY KEY,
+    semester VARCHAR(50) NOT NULL,
+    title VARCHAR(200) NOT NULL,
+    category VARCHAR(50),
+    start_date DATE NOT NULL,
+    end_date DATE NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    CHECK (end_date >= start_date)
+);
+
+DROP TABLE IF EXISTS exam_slots CASCADE;
+
+CREATE TABLE exam_slots (
+    id BIGSERIAL PRIMARY KEY,
+    semester VARCHAR(50) NOT NULL,
+    course_name VARCHAR(200) NOT NULL,
+    exam_date DATE NOT NULL,
+    start_time TIME NOT NULL,
+    end_time TIME NOT NULL,
+    location VARCHAR(100),
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP
 );
 
 -- 创建向量存储表（Spring AI使用）
@@ -38,10 +76,17 @@ CREATE INDEX idx_knowledge_documents_status ON knowledge_documents(status);
 CREATE INDEX idx_knowledge_documents_vectorized ON knowledge_documents(vectorized);
 CREATE INDEX idx_knowledge_documents_updated_at ON knowledge_documents(updated_at);
 CREATE INDEX idx_knowledge_documents_created_at ON knowledge_documents(created_at);
+CREATE INDEX idx_knowledge_document_aliases_canonical_id ON knowledge_document_aliases(canonical_id);
 
 -- 为向量相似性搜索创建索引
 CREATE INDEX idx_vector_store_embedding ON vector_store 
 USING ivfflat (embedding vector_cosine_ops) WITH (lists = 100);
+-- 量化索引由 VectorSearchService 按 app.vector-search.storage-mode 创建，例如：
+-- CREATE INDEX idx_vector_store_embedding_halfvec_1536 ON vector_store USING hnsw ((embedding::halfvec(1536)) halfvec_cosine_ops);
+-- CREATE INDEX idx_vector_store_embedding_binary_1536 ON vector_store USING hnsw ((binary_quantize(embedding)::bit(1536)) bit_hamming_ops);
+
+-- 按来源URL查找已有分块（增量向量化时比对分块ID）
+CREATE INDEX idx_vector_store_source_url ON vector_store ((metadata->>'source_url'));
 
 -- 创建全文搜索索引
 CREATE INDEX idx_knowledge_documents_content_fts ON knowledge_documents 
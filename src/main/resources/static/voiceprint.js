@@ -75,6 +75,94 @@ function identifyVoiceprint() {
     });
 }
 
+// 实时声纹识别（WebSocket逐帧上传PCM）
+let liveSocket;
+let liveContext;
+let liveStream;
+let liveProcessor;
+
+function startLiveIdentify() {
+    navigator.mediaDevices.getUserMedia({ audio: true })
+        .then(stream => {
+            liveStream = stream;
+            liveContext = new AudioContext();
+            const source = liveContext.createMediaStreamSource(stream);
+            liveProcessor = liveContext.createScriptProcessor(4096, 1, 1);
+
+            const protocol = location.protocol === 'https:' ? 'wss://' : 'ws://';
+            liveSocket = new WebSocket(protocol + location.host + '/ws/voiceprint/identify');
+            liveSocket.binaryType = 'arraybuffer';
+            liveSocket.onopen = () => {
+                liveSocket.send(JSON.stringify({ type: 'start', sampleRate: liveContext.sampleRate, channels: 1 }));
+            };
+            liveSocket.onmessage = e => handleLiveMessage(JSON.parse(e.data));
+            liveSocket.onclose = () => stopLiveCapture();
+
+            liveProcessor.onaudioprocess = e => {
+                if (!liveSocket || liveSocket.readyState !== WebSocket.OPEN) return;
+                const input = e.inputBuffer.getChannelData(0);
+                const pcm = new Int16Array(input.length);
+                for (let i = 0; i < input.length; i++) {
+                    const s = Math.max(-1, Math.min(1, input[i]));
+                    pcm[i] = s < 0 ? s * 0x8000 : s * 0x7FFF;
+                }
+                liveSocket.send(pcm.buffer);
+            };
+            source.connect(liveProcessor);
+            liveProcessor.connect(liveContext.destination);
+
+            $("#btnLiveIdentify").prop('disabled', true);
+            $("#btnStopLiveIdentify").prop('disabled', false);
+            $("#liveIdentifyResult").empty();
+            $("#liveIdentifyStatus").text('正在连接...');
+        })
+        .catch(err => alert('无法访问麦克风: ' + err));
+}
+
+function stopLiveIdentify() {
+    if (liveSocket && liveSocket.readyState === WebSocket.OPEN) {
+        liveSocket.send(JSON.stringify({ type: 'stop' }));
+    }
+    stopLiveCapture();
+}
+
+function stopLiveCapture() {
+    if (liveProcessor) liveProcessor.disconnect();
+    if (liveContext) liveContext.close();
+    if (liveStream) liveStream.getTracks().forEach(track => track.stop());
+    liveProcessor = liveContext = liveStream = null;
+    $("#btnLiveIdentify").prop('disabled', false);
+    $("#btnStopLiveIdentify").prop('disabled', true);
+}
+
+function handleLiveMessage(msg) {
+    switch (msg.type) {
+        case 'ready':
+            $("#liveIdentifyStatus").text('请开始说话（需要约 ' + (msg.minSpeechMs / 1000) + ' 秒有效语音）');
+            break;
+        case 'progress':
+            $("#liveIdentifyStatus").text('已采集有效语音 ' + (msg.speechMs / 1000).toFixed(1) + ' 秒');
+            break;
+        case 'identifying':
+            stopLiveCapture();
+            $("#liveIdentifyStatus").text('正在识别...');
+            break;
+        case 'result': {
+            const data = msg.data || {};
+            const best = (data.results || [])[0];
+            $("#liveIdentifyStatus").text('识别完成，耗时 ' + (data.processingDurationMs || 0) + 'ms');
+            $("#liveIdentifyResult").text(best
+                ? '识别结果: ' + (best.fullName || best.username) + ' (分数: ' + best.confidenceScore + ')'
+                : (data.message || '未匹配到已注册用户'));
+            loadIdentificationLogs();
+            break;
+        }
+        case 'error':
+            $("#liveIdentifyStatus").text('错误: ' + msg.message);
+            break;
+    }
+}
+
 // 查询用户声纹
 function loadUserVoiceprints() {
     const userId = $("#enrollUserId").val();
@@ -128,6 +216,8 @@ $(function() {
     $("#btnStopRecord").click(stopRecording);
     $("#btnEnroll").click(enrollVoiceprint);
     $("#btnIdentify").click(identifyVoiceprint);
+    $("#btnLiveIdentify").click(startLiveIdentify);
+    $("#btnStopLiveIdentify").click(stopLiveIdentify);
     $("#enrollUserId").change(loadUserVoiceprints);
     loadVoiceprintStats();
     loadIdentificationLogs();
@@ -2,6 +2,7 @@ package edu.qlu.chatbot;
 
 import edu.qlu.chatbot.controller.ChatController;
 import edu.qlu.chatbot.mapper.KnowledgeDocumentMapper;
+import edu.qlu.chatbot.model.KnowledgeDocumentSummary;
 import edu.qlu.chatbot.service.ChatService;
 import edu.qlu.chatbot.service.DataCollectionService;
 import edu.qlu.chatbot.service.AcademicToolsService;
@@ -14,6 +15,8 @@ import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.ai.chat.memory.ChatMemory;
 import org.springframework.test.context.TestPropertySource;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -123,10 +126,15 @@ class AcademicAffairsChatbotApplicationIntegrationTest {
         // 验证MyBatis配置正确
         assertNotNull(knowledgeDocumentMapper);
         
-        // 测试基本查询操作
+        // 测试基本查询操作：摘要投影不读取正文，正文按需加载
         assertDoesNotThrow(() -> {
-            knowledgeDocumentMapper.findAll();
+            List<KnowledgeDocumentSummary> pending = knowledgeDocumentMapper.findPendingDocuments(10);
+            assertFalse(pending.isEmpty());
+            assertNotNull(pending.get(0).getSourceUrl());
+            assertNotNull(pending.get(0).getStatus());
+            assertNotNull(knowledgeDocumentMapper.findContentById(pending.get(0).getId()));
         });
+        assertEquals(knowledgeDocumentMapper.count(), dataCollectionService.streamDocuments(summary -> { }));
     }
 
     @Test
@@ -0,0 +1,79 @@
+package edu.qlu.chatbot.cache;
+
+import edu.qlu.chatbot.model.User;
+import edu.qlu.chatbot.model.Voiceprint;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MybatisTinyLfuCache 测试类
+ */
+class MybatisTinyLfuCacheTest {
+
+    @Test
+    void testGetObject_ReturnsIndependentCopies() {
+        MybatisTinyLfuCache cache = new MybatisTinyLfuCache("edu.qlu.chatbot.mapper.TestCopyMapper");
+        cache.initialize();
+        Voiceprint voiceprint = new Voiceprint();
+        voiceprint.setIflytekFeatureId("feature_1");
+        voiceprint.setIdentificationCount(3);
+        User user = new User();
+        user.setUsername("zhangsan");
+        voiceprint.setUser(user);
+        cache.putObject("findByFeatureIdWithUser:feature_1", new ArrayList<>(List.of(voiceprint)));
+
+        // 写入后修改原对象、读取后修改副本，都不影响缓存内容
+        voiceprint.setIdentificationCount(100);
+        @SuppressWarnings("unchecked")
+        List<Voiceprint> first = (List<Voiceprint>) cache.getObject("findByFeatureIdWithUser:feature_1");
+        first.get(0).setIdentificationCount(4);
+        first.get(0).getUser().setUsername("lisi");
+
+        @SuppressWarnings("unchecked")
+        List<Voiceprint> second = (List<Voiceprint>) cache.getObject("findByFeatureIdWithUser:feature_1");
+        assertNotSame(first.get(0), second.get(0));
+        assertEquals(3, second.get(0).getIdentificationCount());
+        assertEquals("zhangsan", second.get(0).getUser().getUsername());
+        assertNull(cache.getObject("missing"));
+    }
+
+    @Test
+    void testPutObject_RejectsNonSerializableValues() {
+        MybatisTinyLfuCache cache = new MybatisTinyLfuCache("edu.qlu.chatbot.mapper.TestRejectMapper");
+        cache.initialize();
+
+        assertThrows(CacheException.class, () -> cache.putObject("key", new Object()));
+    }
+
+    @Test
+    void testIdentificationStatsUpdate_KeepsSharedLookupCache() throws Exception {
+        Configuration configuration = new Configuration();
+        for (String resource : List.of("mapper/UserMapper.xml", "mapper/VoiceprintMapper.xml")) {
+            try (InputStream in = Resources.getResourceAsStream(resource)) {
+                new XMLMapperBuilder(in, configuration, resource, configuration.getSqlFragments()).parse();
+            }
+        }
+        String namespace = "edu.qlu.chatbot.mapper.VoiceprintMapper.";
+
+        MappedStatement stats = configuration.getMappedStatement(namespace + "updateIdentificationStats");
+        assertFalse(stats.isFlushCacheRequired());
+        // 缓存的识别查找不读取识别统计字段，统计更新后不会返回过期值
+        MappedStatement lookup = configuration.getMappedStatement(namespace + "findByFeatureIdWithUser");
+        assertTrue(lookup.isUseCache());
+        String sql = lookup.getBoundSql("feature_1").getSql();
+        assertFalse(sql.contains("identification_count"));
+        assertFalse(sql.contains("last_identified_at"));
+        assertFalse(configuration.getMappedStatement(namespace + "findByFeatureId").isUseCache());
+        assertTrue(configuration.getMappedStatement(namespace + "softDelete").isFlushCacheRequired());
+    }
+}
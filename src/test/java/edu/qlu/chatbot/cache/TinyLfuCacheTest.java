@@ -0,0 +1,67 @@
+package edu.qlu.chatbot.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TinyLfuCache 测试类
+ */
+class TinyLfuCacheTest {
+
+    @Test
+    void testGetAndPut_TracksHitsAndMisses() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(100);
+
+        assertNull(cache.get("user:1"));
+        cache.put("user:1", "张三");
+
+        assertEquals("张三", cache.get("user:1"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0.5, cache.getHitRatio(), 1e-9);
+    }
+
+    @Test
+    void testEviction_FrequentKeysSurviveScan() {
+        TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<>(100);
+
+        // 热点数据：反复访问
+        for (int round = 0; round < 10; round++) {
+            for (int key = 0; key < 50; key++) {
+                if (cache.get(key) == null) {
+                    cache.put(key, key);
+                }
+            }
+        }
+
+        // 一次性扫描大量冷数据
+        for (int key = 1000; key < 3000; key++) {
+            cache.put(key, key);
+        }
+
+        int hotRetained = 0;
+        for (int key = 0; key < 50; key++) {
+            if (cache.get(key) != null) {
+                hotRetained++;
+            }
+        }
+        assertTrue(hotRetained >= 45, "热点数据应在扫描后保留，实际保留: " + hotRetained);
+        assertTrue(cache.size() <= 100);
+        assertTrue(cache.getEvictionCount() > 0);
+    }
+
+    @Test
+    void testRemoveAndClear() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(10);
+        cache.put("a", "1");
+        cache.put("b", "2");
+
+        assertEquals("1", cache.remove("a"));
+        assertNull(cache.get("a"));
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNull(cache.get("b"));
+    }
+}
@@ -0,0 +1,83 @@
+package edu.qlu.chatbot.config;
+
+import edu.qlu.chatbot.service.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ClientIpResolver与限流拦截器客户端标识单元测试
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+class ClientIpResolverTest {
+
+    private static final List<String> PROXIES = List.of("10.0.0.0/8", "::1");
+
+    @Test
+    void testResolve_IgnoresForwardedHeadersFromUntrustedPeer() {
+        assertEquals("203.0.113.7", ClientIpResolver.resolve("203.0.113.7", "1.2.3.4", "5.6.7.8", PROXIES));
+        assertEquals("203.0.113.7", ClientIpResolver.resolve("203.0.113.7", "1.2.3.4", null, List.of()));
+    }
+
+    @Test
+    void testResolve_UsesRightmostUntrustedHop() {
+        // 客户端伪造的 1.2.3.4 位于左侧，代理追加的真实地址 198.51.100.9 位于右侧
+        assertEquals("198.51.100.9",
+                ClientIpResolver.resolve("10.0.0.2", "1.2.3.4, 198.51.100.9, 10.1.2.3", null, PROXIES));
+        assertEquals("10.0.0.5", ClientIpResolver.resolve("::1", "10.0.0.5, 10.0.0.6", null, PROXIES));
+        assertEquals("198.51.100.9", ClientIpResolver.resolve("10.0.0.2", null, "198.51.100.9", PROXIES));
+        assertEquals("10.0.0.2", ClientIpResolver.resolve("10.0.0.2", "unknown", null, PROXIES));
+    }
+
+    @Test
+    void testIsTrusted_MatchesCidrAndRejectsHostnames() {
+        assertTrue(ClientIpResolver.isTrusted("10.255.0.1", List.of("10.0.0.0/8")));
+        assertTrue(ClientIpResolver.isTrusted("172.16.5.1", List.of("172.16.0.0/12")));
+        assertFalse(ClientIpResolver.isTrusted("172.32.0.1", List.of("172.16.0.0/12")));
+        assertTrue(ClientIpResolver.isTrusted("[::1]", List.of("::1")));
+        assertFalse(ClientIpResolver.isTrusted("localhost", List.of("127.0.0.1")));
+    }
+
+    @Test
+    void testHandshake_RateLimitedWithSameClientKey() throws Exception {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setTrustedProxies(PROXIES);
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setPath("/ws/voiceprint/identify");
+        rule.setPermitsPerMinute(1);
+        rule.setBurst(1);
+        properties.getRules().put("identify-stream", rule);
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(properties,
+                new RateLimiter(properties, new SimpleMeterRegistry()));
+
+        Map<String, Object> attributes = new HashMap<>();
+        assertTrue(interceptor.beforeHandshake(handshake("1.2.3.4"), new ServletServerHttpResponse(
+                new MockHttpServletResponse()), null, attributes));
+        assertEquals("ip:198.51.100.9", attributes.get(ClientIpResolver.CLIENT_KEY_ATTRIBUTE));
+        assertEquals("198.51.100.9", attributes.get(ClientIpResolver.CLIENT_IP_ATTRIBUTE));
+
+        // 更换伪造的首个地址不能绕过限流
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        assertFalse(interceptor.beforeHandshake(handshake("9.9.9.9"), new ServletServerHttpResponse(rejected),
+                null, new HashMap<>()));
+        assertEquals(429, rejected.getStatus());
+    }
+
+    private static ServletServerHttpRequest handshake(String spoofed) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/ws/voiceprint/identify");
+        request.setRemoteAddr("10.0.0.2");
+        request.addHeader("X-Forwarded-For", spoofed + ", 198.51.100.9");
+        return new ServletServerHttpRequest(request);
+    }
+}
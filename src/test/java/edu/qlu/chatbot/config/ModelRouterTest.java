@@ -0,0 +1,241 @@
+package edu.qlu.chatbot.config;
+
+import edu.qlu.chatbot.service.DeadlineExceededException;
+import edu.qlu.chatbot.service.RequestDeadline;
+import edu.qlu.chatbot.service.TokenBudgetEstimator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.retry.TransientAiException;
+
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ModelRouter 测试类
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+class ModelRouterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ModelRoutingProperties properties;
+    private ModelRouter modelRouter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ModelRoutingProperties();
+        properties.getModels().put("qwen-turbo", model(1, "qwen-plus", 0.0003, 0.0006));
+        properties.getModels().put("qwen-plus", model(20, "qwen-turbo", 0.0008, 0.002));
+        properties.getModels().put("qwen-max", model(10, "qwen-plus", 0.0024, 0.0096));
+        meterRegistry = new SimpleMeterRegistry();
+        modelRouter = new ModelRouter(properties, new TokenBudgetEstimator(), meterRegistry);
+    }
+
+    @Test
+    void testClassify_ByLengthAndComplexityCues() {
+        assertEquals(ModelRouter.Tier.SIMPLE, modelRouter.classify("选课系统什么时候开放？", List.of()));
+        assertEquals(ModelRouter.Tier.STANDARD, modelRouter.classify("请解释一下转专业的流程", List.of()));
+        assertEquals(ModelRouter.Tier.COMPLEX, modelRouter.classify("请详细分析并比较辅修和双学位的优缺点", List.of()));
+        assertEquals(List.of("qwen-max", "qwen-plus", "qwen-turbo"), modelRouter.candidates(ModelRouter.Tier.COMPLEX));
+    }
+
+    @Test
+    void testCall_FailsOverOnRateLimitAndTimeout() {
+        List<String> attempted = new ArrayList<>();
+
+        ChatResponse response = modelRouter.call("请详细分析并比较辅修和双学位的优缺点", List.of(), options -> {
+            attempted.add(options.getModel());
+            return switch (options.getModel()) {
+                case "qwen-max" -> throw new TransientAiException("429 - {\"code\":\"Throttling.RateQuota\"}");
+                case "qwen-plus" -> throw new RuntimeException("I/O error", new SocketTimeoutException("Read timed out"));
+                default -> response(100, 50);
+            };
+        });
+
+        assertNotNull(response);
+        assertEquals(List.of("qwen-max", "qwen-plus", "qwen-turbo"), attempted);
+        assertEquals(1.0, meterRegistry.get("qlu.llm.model.failover")
+                .tags("from", "qwen-max", "to", "qwen-plus", "reason", "rate_limit").counter().count());
+        assertEquals(1.0, meterRegistry.get("qlu.llm.model.failover")
+                .tags("from", "qwen-plus", "to", "qwen-turbo", "reason", "timeout").counter().count());
+        assertEquals(100 / 1000.0 * 0.0003 + 50 / 1000.0 * 0.0006,
+                meterRegistry.get("qlu.llm.model.cost").tag("model", "qwen-turbo").counter().count(), 1e-12);
+    }
+
+    @Test
+    void testCall_OtherErrorsAreNotRetried() {
+        List<String> attempted = new ArrayList<>();
+
+        assertThrows(IllegalStateException.class, () -> modelRouter.call("请解释一下转专业的流程", List.of(), options -> {
+            attempted.add(options.getModel());
+            throw new IllegalStateException("invalid api key");
+        }));
+        assertEquals(List.of("qwen-plus"), attempted);
+    }
+
+    @Test
+    void testCall_SaturatedModelFailsOverToFallback() throws Exception {
+        properties.setAcquireTimeoutMs(10);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ChatResponse> first = CompletableFuture.supplyAsync(() ->
+                modelRouter.call("你好", List.of(), options -> {
+                    holding.countDown();
+                    await(release);
+                    return response(10, 10);
+                }));
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+        List<String> attempted = new ArrayList<>();
+        modelRouter.call("你好", List.of(), options -> {
+            attempted.add(options.getModel());
+            return response(10, 10);
+        });
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("qwen-plus"), attempted, "qwen-turbo并发已满时应直接转移到备用模型");
+        assertEquals(1.0, meterRegistry.get("qlu.llm.model.failover").tags("reason", "saturated").counter().count());
+    }
+
+    @Test
+    void testCall_BoundedByRemainingDeadline() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        long start = System.nanoTime();
+        try (RequestDeadline.Scope scope = RequestDeadline.start(100)) {
+            assertThrows(DeadlineExceededException.class, () -> modelRouter.call("你好", List.of(), options -> {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return response(10, 10);
+            }));
+        }
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5_000, "应在剩余时间内返回");
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS), "超时后应中断模型调用");
+        assertEquals(1, meterRegistry.get("qlu.llm.model.requests")
+                .tags("model", "qwen-turbo", "outcome", "error").timer().count());
+
+        // 路由关闭时同样受截止时间约束
+        properties.setEnabled(false);
+        try (RequestDeadline.Scope scope = RequestDeadline.start(100)) {
+            assertThrows(DeadlineExceededException.class, () -> modelRouter.call("你好", List.of(), options -> {
+                await(new CountDownLatch(1));
+                return response(10, 10);
+            }));
+        }
+    }
+
+    @Test
+    void testCall_AbandonedCallKeepsPermitUntilItFinishes() throws Exception {
+        properties.setAcquireTimeoutMs(10);
+        CountDownLatch finish = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        try (RequestDeadline.Scope scope = RequestDeadline.start(100)) {
+            assertThrows(DeadlineExceededException.class, () -> modelRouter.call("你好", List.of(), options -> {
+                // 模拟不响应中断的HTTP调用
+                while (true) {
+                    try {
+                        finish.await();
+                        break;
+                    } catch (InterruptedException ignored) {
+                        // 继续等待
+                    }
+                }
+                finished.countDown();
+                return response(10, 10);
+            }));
+        }
+
+        // 被放弃的调用仍占用qwen-turbo唯一的许可
+        List<String> attempted = new ArrayList<>();
+        modelRouter.call("你好", List.of(), options -> {
+            attempted.add(options.getModel());
+            return response(10, 10);
+        });
+        assertEquals(List.of("qwen-plus"), attempted);
+
+        finish.countDown();
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        long deadline = System.currentTimeMillis() + 5000;
+        attempted.clear();
+        while (attempted.isEmpty() || !attempted.get(attempted.size() - 1).equals("qwen-turbo")) {
+            assertTrue(System.currentTimeMillis() < deadline, "调用结束后应归还许可");
+            modelRouter.call("你好", List.of(), options -> {
+                attempted.add(options.getModel());
+                return response(10, 10);
+            });
+        }
+    }
+
+    @Test
+    void testCall_RoutingDisabledUsesStandardModel() {
+        properties.setEnabled(false);
+        properties.getModels().get("qwen-plus").setMaxTokens(2000);
+        List<String> attempted = new ArrayList<>();
+
+        modelRouter.call("请详细分析并比较辅修和双学位的优缺点", List.of(), options -> {
+            attempted.add(options.getModel());
+            assertEquals(2000, options.getMaxTokens());
+            return response(10, 10);
+        });
+
+        assertEquals(List.of("qwen-plus"), attempted);
+    }
+
+    @Test
+    void testModelStatistics_RecommendsCheapestModelMeetingTarget() {
+        for (int i = 0; i < 20; i++) {
+            modelRouter.call("你好", List.of(), options -> response(100, 100));
+            modelRouter.call("请解释一下转专业的流程", List.of(), options -> response(100, 100));
+        }
+
+        Map<String, Object> statistics = modelRouter.getModelStatistics();
+
+        assertEquals("qwen-turbo", statistics.get("recommendedModel"));
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> models = (Map<String, Map<String, Object>>) statistics.get("models");
+        assertEquals(20L, models.get("qwen-plus").get("requests"));
+        assertEquals(0L, models.get("qwen-max").get("requests"));
+    }
+
+    private static ChatResponse response(int promptTokens, int completionTokens) {
+        return new ChatResponse(List.of(new Generation(new AssistantMessage("ok"))),
+                ChatResponseMetadata.builder().usage(new DefaultUsage(promptTokens, completionTokens)).build());
+    }
+
+    private static ModelRoutingProperties.Model model(int maxConcurrency, String fallback,
+                                                      double inputPrice, double outputPrice) {
+        ModelRoutingProperties.Model model = new ModelRoutingProperties.Model();
+        model.setMaxConcurrency(maxConcurrency);
+        model.setFallback(fallback);
+        model.setInputPricePer1k(inputPrice);
+        model.setOutputPricePer1k(outputPrice);
+        return model;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,21 +1,31 @@
 package edu.qlu.chatbot.controller;
 
+import edu.qlu.chatbot.config.DeadlineProperties;
+import edu.qlu.chatbot.config.VoiceprintConfig;
 import edu.qlu.chatbot.model.*;
+import edu.qlu.chatbot.service.VoiceprintBatchEnrollmentService;
 import edu.qlu.chatbot.service.VoiceprintService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -29,6 +39,15 @@ class VoiceprintControllerTest {
     @Mock
     private VoiceprintService voiceprintService;
 
+    @Mock
+    private VoiceprintBatchEnrollmentService batchEnrollmentService;
+
+    @Spy
+    private DeadlineProperties deadlineProperties = new DeadlineProperties();
+
+    @Spy
+    private VoiceprintConfig voiceprintConfig = new VoiceprintConfig();
+
     @InjectMocks
     private VoiceprintController voiceprintController;
 
@@ -95,4 +114,73 @@ class VoiceprintControllerTest {
         mockMvc.perform(delete("/api/v1/voiceprint/user/1"))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    void testGetIdentificationLogs_StreamsSelectedFields() throws Exception {
+        // Arrange
+        VoiceprintIdentificationLog log = new VoiceprintIdentificationLog();
+        log.setId(7L);
+        log.setRequestId("req-7");
+        log.setIdentifiedUserId(1L);
+        log.setConfidenceScore(new BigDecimal("0.92"));
+        log.setIdentificationTime(LocalDateTime.of(2024, 5, 1, 8, 30));
+        log.setUserAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64)");
+
+        when(voiceprintService.streamIdentificationLogs(eq(null), eq(20), any())).thenAnswer(invocation -> {
+            Consumer<VoiceprintIdentificationLog> consumer = invocation.getArgument(2);
+            consumer.accept(log);
+            return 1;
+        });
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/v1/voiceprint/logs")
+                .param("limit", "20")
+                .param("fields", "requestId,confidenceScore,identificationTime,apiResponseCode"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1))
+                .andExpect(jsonPath("$.logs[0].requestId").value("req-7"))
+                .andExpect(jsonPath("$.logs[0].confidenceScore").value(0.92))
+                .andExpect(jsonPath("$.logs[0].identificationTime").value("2024-05-01T08:30:00"))
+                .andExpect(content().string(containsString("\"apiResponseCode\":null")))
+                .andExpect(jsonPath("$.logs[0].id").doesNotExist())
+                .andExpect(jsonPath("$.logs[0].userAgent").doesNotExist());
+    }
+
+    @Test
+    void testEnrollBatch_StreamsResultsWithConfiguredTimeout() throws Exception {
+        voiceprintConfig.getBatch().setStreamTimeoutMs(600000);
+        when(batchEnrollmentService.readMultipartItems(any(), any())).thenReturn(List.of());
+        doAnswer(invocation -> {
+            Consumer<Object> sink = invocation.getArgument(2);
+            sink.accept(Map.of("status", "completed", "total", 0));
+            return null;
+        }).when(batchEnrollmentService).enrollBatch(any(), any(), any());
+
+        MvcResult result = mockMvc.perform(multipart("/api/v1/voiceprint/enroll/batch")
+                .file(new MockMultipartFile("files", "1.wav", "audio/wav", new byte[]{1}))
+                .param("userIds", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertEquals(600000, result.getRequest().getAsyncContext().getTimeout());
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"status\":\"completed\"")));
+    }
+
+    @Test
+    void testGetIdentificationLogs_RejectsUnknownField() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/voiceprint/logs").param("fields", "requestId,password"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("未知的字段: password"));
+    }
 }
@@ -0,0 +1,108 @@
+package edu.qlu.chatbot.mapper;
+
+import edu.qlu.chatbot.model.KnowledgeDocument;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * KnowledgeDocumentMapper 批量upsert语句在真实PostgreSQL上的测试
+ *
+ * H2 的PostgreSQL兼容模式不支持 ON CONFLICT ... DO UPDATE，因此该测试只在设置了
+ * QLU_TEST_POSTGRES_URL（以及可选的 QLU_TEST_POSTGRES_USER / QLU_TEST_POSTGRES_PASSWORD）时运行，
+ * 在临时表上执行，不影响库中已有数据。
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@EnabledIfEnvironmentVariable(named = "QLU_TEST_POSTGRES_URL", matches = ".+")
+class KnowledgeDocumentMapperPostgresTest {
+
+    @Test
+    void testBatchUpsert_InsertsThenUpdatesBySourceUrlAndReturnsIds() throws Exception {
+        String url = System.getenv("QLU_TEST_POSTGRES_URL");
+        String user = System.getenv("QLU_TEST_POSTGRES_USER");
+        String password = System.getenv("QLU_TEST_POSTGRES_PASSWORD");
+        Configuration configuration = new Configuration(new Environment("postgres", new JdbcTransactionFactory(),
+                new UnpooledDataSource("org.postgresql.Driver", url, user, password)));
+        configuration.setMapUnderscoreToCamelCase(true);
+        configuration.addMapper(KnowledgeDocumentMapper.class);
+        SqlSessionFactory factory = new SqlSessionFactoryBuilder().build(configuration);
+
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            try (Statement statement = connection.createStatement()) {
+                // 临时表优先于同名的正式表，连接关闭时自动删除
+                statement.execute("""
+                        CREATE TEMP TABLE knowledge_documents (
+                            id BIGSERIAL PRIMARY KEY,
+                            title VARCHAR(500) NOT NULL,
+                            content TEXT NOT NULL,
+                            source_url VARCHAR(1000) UNIQUE NOT NULL,
+                            document_type VARCHAR(50) NOT NULL,
+                            category VARCHAR(100),
+                            created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                            updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                            vectorized BOOLEAN DEFAULT FALSE,
+                            status VARCHAR(20) DEFAULT 'PENDING',
+                            simhash BIGINT
+                        )""");
+            }
+            try (SqlSession session = factory.openSession(connection)) {
+                KnowledgeDocumentMapper mapper = session.getMapper(KnowledgeDocumentMapper.class);
+                LocalDateTime firstCrawl = LocalDateTime.of(2024, 3, 1, 8, 0);
+                KnowledgeDocument notice = document("https://jwc.qlu.edu.cn/a.htm", "考试安排", firstCrawl);
+                KnowledgeDocument calendar = document("https://jwc.qlu.edu.cn/b.htm", "校历", firstCrawl);
+
+                assertEquals(2, mapper.batchUpsert(List.of(notice, calendar)));
+                assertNotNull(notice.getId());
+                assertNotNull(calendar.getId());
+                assertEquals(1, mapper.markVectorized(List.of(notice.getId())));
+
+                LocalDateTime recrawl = LocalDateTime.of(2024, 6, 1, 8, 0);
+                KnowledgeDocument updated = document("https://jwc.qlu.edu.cn/a.htm", "考试安排（更新）", recrawl);
+                updated.setSimhash(42L);
+                KnowledgeDocument added = document("https://jwc.qlu.edu.cn/c.htm", "选课通知", recrawl);
+
+                assertEquals(2, mapper.batchUpsert(List.of(updated, added)));
+
+                // 冲突行更新并回填原ID，保留创建时间，向量化标记以本次写入为准
+                assertEquals(notice.getId(), updated.getId());
+                assertNotNull(added.getId());
+                assertEquals(3L, mapper.count());
+                KnowledgeDocument stored = mapper.findBySourceUrl("https://jwc.qlu.edu.cn/a.htm");
+                assertEquals("考试安排（更新）", stored.getTitle());
+                assertEquals(firstCrawl, stored.getCreatedAt());
+                assertEquals(recrawl, stored.getUpdatedAt());
+                assertEquals(42L, stored.getSimhash());
+                assertFalse(stored.getVectorized());
+                session.rollback();
+            }
+        }
+    }
+
+    private static KnowledgeDocument document(String sourceUrl, String title, LocalDateTime crawledAt) {
+        KnowledgeDocument document = new KnowledgeDocument();
+        document.setTitle(title);
+        document.setContent(title + "的正文");
+        document.setSourceUrl(sourceUrl);
+        document.setDocumentType("网页");
+        document.setCategory("通用");
+        document.setCreatedAt(crawledAt);
+        document.setUpdatedAt(crawledAt);
+        return document;
+    }
+}
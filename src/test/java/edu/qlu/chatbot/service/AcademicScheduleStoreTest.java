@@ -0,0 +1,115 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.mapper.AcademicScheduleMapper;
+import edu.qlu.chatbot.model.CalendarEvent;
+import edu.qlu.chatbot.model.ExamSlot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * AcademicScheduleStore 测试类
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class AcademicScheduleStoreTest {
+
+    private static final String FALL = "2024-2025学年第一学期";
+    private static final String SPRING = "2024-2025学年第二学期";
+
+    @Mock
+    private AcademicScheduleMapper academicScheduleMapper;
+
+    private AcademicScheduleStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new AcademicScheduleStore(academicScheduleMapper);
+    }
+
+    @Test
+    void testRefresh_AnswersRangeCourseAndSemesterQueries() {
+        when(academicScheduleMapper.findAllCalendarEvents()).thenReturn(List.of(
+                new CalendarEvent(FALL, "秋季学期教学周", "教学", date("2024-09-02"), date("2025-01-12")),
+                new CalendarEvent(FALL, "国庆节假期", "假期", date("2024-10-01"), date("2024-10-07")),
+                new CalendarEvent(SPRING, "春季开学注册", "注册", date("2025-02-24"), date("2025-02-24"))));
+        when(academicScheduleMapper.findAllExamSlots()).thenReturn(List.of(
+                exam(FALL, "高等数学A", "2025-01-06"),
+                exam(FALL, "大学英语", "2025-01-08"),
+                exam(SPRING, "高等数学B", "2025-06-20")));
+
+        assertFalse(store.isLoaded());
+        store.refresh();
+        assertTrue(store.isLoaded());
+
+        List<CalendarEvent> october = store.findEvents(date("2024-10-05"), date("2024-10-20"));
+        assertEquals(List.of("秋季学期教学周", "国庆节假期"), october.stream().map(CalendarEvent::getTitle).toList());
+        assertEquals(1, store.findEvents(date("2025-02-01"), date("2025-03-01")).size());
+
+        assertEquals(1, store.findExamsByCourse(" 高等数学A ").size());
+        assertEquals(2, store.findExamsByCourse("高等数学").size(), "未精确命中时按前缀匹配");
+        assertEquals(2, store.findExamsBySemester(FALL).size());
+        assertEquals(2, store.findExams(date("2025-01-01"), date("2025-01-31")).size());
+
+        assertEquals(FALL, store.semesterOf(date("2024-11-11")));
+        assertEquals(SPRING, store.semesterOf(date("2025-02-01")));
+    }
+
+    @Test
+    void testRefresh_KeepsPreviousSnapshotOnFailure() {
+        when(academicScheduleMapper.findAllCalendarEvents())
+                .thenReturn(List.of(new CalendarEvent(FALL, "国庆节假期", "假期", date("2024-10-01"), date("2024-10-07"))))
+                .thenThrow(new RuntimeException("db down"));
+        when(academicScheduleMapper.findAllExamSlots()).thenReturn(List.of());
+
+        store.refresh();
+        store.refresh();
+
+        assertTrue(store.isLoaded());
+        assertEquals(1, store.findEvents(date("2024-10-03"), date("2024-10-03")).size());
+    }
+
+    @Test
+    void testIntervalIndex_MatchesBruteForce() {
+        Random random = new Random(42);
+        List<long[]> intervals = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            long start = random.nextInt(1000);
+            intervals.add(new long[] {start, start + random.nextInt(60)});
+        }
+        IntervalIndex<long[]> index = IntervalIndex.of(intervals, interval -> interval[0], interval -> interval[1]);
+
+        for (int q = 0; q < 200; q++) {
+            long from = random.nextInt(1100) - 50;
+            long to = from + random.nextInt(80);
+            long expected = intervals.stream().filter(interval -> interval[0] <= to && interval[1] >= from).count();
+            List<long[]> actual = index.overlapping(from, to);
+            assertEquals(expected, actual.size());
+            for (int i = 1; i < actual.size(); i++) {
+                assertTrue(actual.get(i - 1)[0] <= actual.get(i)[0], "结果应按起点升序");
+            }
+        }
+        assertTrue(index.overlapping(10, 5).isEmpty());
+    }
+
+    private static ExamSlot exam(String semester, String courseName, String examDate) {
+        return new ExamSlot(semester, courseName, date(examDate), LocalTime.of(9, 0), LocalTime.of(11, 0), "教学楼B201");
+    }
+
+    private static LocalDate date(String value) {
+        return LocalDate.parse(value);
+    }
+}
@@ -0,0 +1,192 @@
+package edu.qlu.chatbot.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import edu.qlu.chatbot.config.AcademicSystemProperties;
+import edu.qlu.chatbot.service.AcademicToolsService.CourseInfo;
+import edu.qlu.chatbot.service.AcademicToolsService.CourseQuery;
+import edu.qlu.chatbot.service.AcademicToolsService.ExamQuery;
+import edu.qlu.chatbot.service.AcademicToolsService.ExamSchedule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AcademicSystemClient 测试类
+ *
+ * 使用JDK内置HttpServer启动本地教务系统桩服务
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+class AcademicSystemClientTest {
+
+    private static final String EXAM_JSON = """
+            {"semester":"2024-2025-1","exams":[{"courseName":"高等数学","examDate":"2025-01-10","location":"教学楼B201"}],"extra":"ignored"}
+            """;
+
+    private final AtomicInteger logins = new AtomicInteger();
+    private final AtomicInteger examRequests = new AtomicInteger();
+    private volatile String validSession;
+    private volatile CountDownLatch examGate = new CountDownLatch(0);
+
+    private HttpServer server;
+    private AcademicSystemClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/api/login", exchange -> {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            if (!body.contains("username=svc") || !body.contains("password=secret")) {
+                respond(exchange, 401, "{}");
+                return;
+            }
+            validSession = "s" + logins.incrementAndGet();
+            exchange.getResponseHeaders().add("Set-Cookie", "SESSION=" + validSession + "; Path=/");
+            respond(exchange, 200, "{\"success\":true}");
+        });
+        server.createContext("/api/exams", exchange -> {
+            if (!hasValidSession(exchange)) {
+                respond(exchange, 401, "{}");
+                return;
+            }
+            examRequests.incrementAndGet();
+            try {
+                examGate.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, EXAM_JSON);
+        });
+        server.createContext("/api/courses", exchange -> {
+            if (!hasValidSession(exchange)) {
+                respond(exchange, 401, "{}");
+                return;
+            }
+            assertTrue(exchange.getRequestURI().getQuery().contains("courseName="));
+            respond(exchange, 200, "{\"courseName\":\"数据结构\",\"teacher\":\"王老师\",\"availableSeats\":12}");
+        });
+        server.start();
+
+        AcademicSystemProperties properties = new AcademicSystemProperties();
+        properties.setEnabled(true);
+        properties.setBaseUrl("http://127.0.0.1:" + server.getAddress().getPort());
+        properties.setUsername("svc");
+        properties.setPassword("secret");
+        client = new AcademicSystemClient(properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    void testQueries_ReuseLoginSession() {
+        ExamSchedule schedule = client.getExamSchedule(examQuery("2024-2025-1"));
+        CourseInfo course = client.getCourseInfo(courseQuery("数据结构"));
+
+        assertEquals("2024-2025-1", schedule.getSemester());
+        assertEquals("高等数学", schedule.getExams().get(0).get("courseName"));
+        assertEquals("王老师", course.getTeacher());
+        assertEquals(12, course.getAvailableSeats());
+        assertEquals(1, logins.get(), "同一会话内不应重复登录");
+    }
+
+    @Test
+    void testExpiredSession_LogsInAgainAndRetries() {
+        client.getExamSchedule(examQuery("2024-2025-1"));
+        validSession = "expired-on-server";
+
+        ExamSchedule schedule = client.getExamSchedule(examQuery("2024-2025-1"));
+
+        assertNotNull(schedule);
+        assertEquals(2, logins.get());
+        assertEquals(2, examRequests.get());
+    }
+
+    @Test
+    void testConcurrentIdenticalQueries_AreCoalesced() throws Exception {
+        client.getCourseInfo(courseQuery("预热登录"));
+        examGate = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ExamSchedule>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(callers.submit(() -> client.getExamSchedule(examQuery("2024-2025-1"))));
+            }
+            // 等待首个请求到达桩服务后再放行，其余调用方此时应在等待同一结果
+            while (examRequests.get() == 0) {
+                Thread.sleep(5);
+            }
+            Thread.sleep(100);
+            examGate.countDown();
+
+            for (Future<ExamSchedule> future : futures) {
+                assertEquals("2024-2025-1", future.get(5, TimeUnit.SECONDS).getSemester());
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertEquals(1, examRequests.get(), "相同条件的并发查询只应请求一次教务系统");
+    }
+
+    @Test
+    void testLoginFailure_Throws() {
+        client.close();
+        AcademicSystemProperties properties = new AcademicSystemProperties();
+        properties.setEnabled(true);
+        properties.setBaseUrl("http://127.0.0.1:" + server.getAddress().getPort());
+        properties.setUsername("svc");
+        properties.setPassword("wrong");
+        client = new AcademicSystemClient(properties, new SimpleMeterRegistry());
+
+        AcademicSystemException exception = assertThrows(AcademicSystemException.class,
+                () -> client.getExamSchedule(examQuery("2024-2025-1")));
+        assertEquals(401, exception.getStatusCode());
+    }
+
+    private boolean hasValidSession(HttpExchange exchange) {
+        List<String> cookies = exchange.getRequestHeaders().get("Cookie");
+        return cookies != null && cookies.stream().anyMatch(cookie -> cookie.contains("SESSION=" + validSession));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+
+    private static ExamQuery examQuery(String semester) {
+        ExamQuery query = new ExamQuery();
+        query.setSemester(semester);
+        return query;
+    }
+
+    private static CourseQuery courseQuery(String courseName) {
+        CourseQuery query = new CourseQuery();
+        query.setCourseName(courseName);
+        return query;
+    }
+}
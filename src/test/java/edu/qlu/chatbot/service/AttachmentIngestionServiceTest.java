@@ -0,0 +1,185 @@
+package edu.qlu.chatbot.service;
+
+import com.sun.net.httpserver.HttpServer;
+import edu.qlu.chatbot.config.DataCollectionProperties;
+import edu.qlu.chatbot.mapper.KnowledgeDocumentMapper;
+import edu.qlu.chatbot.model.KnowledgeDocument;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * AttachmentIngestionService单元测试
+ *
+ * 使用JDK内置HttpServer提供附件下载
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+class AttachmentIngestionServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer server;
+    private String baseUrl;
+    private KnowledgeDocumentMapper mapper;
+    private KnowledgeChunkIndexer chunkIndexer;
+    private DataCollectionProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private AttachmentIngestionService service;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        byte[] docx = Files.readAllBytes(OoxmlTextExtractorTest.docx(tempDir.resolve("notice.docx"),
+                "<w:p><w:r><w:t>关于期末考试安排的通知</w:t></w:r></w:p>"
+                + "<w:p><w:r><w:t>考试于第十九周进行。</w:t></w:r></w:p>"));
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/files/notice.docx", exchange -> {
+            exchange.sendResponseHeaders(200, docx.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(docx);
+            }
+        });
+        server.createContext("/files/huge.docx", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(new byte[64 * 1024]);
+            } catch (IOException ignored) {
+                // 客户端超过上限后断开
+            }
+        });
+        server.createContext("/files/slow.docx", exchange -> {
+            // 响应头立即返回，响应体迟迟不发完
+            exchange.sendResponseHeaders(200, docx.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(docx, 0, 16);
+                body.flush();
+                release.await(10, TimeUnit.SECONDS);
+                body.write(docx, 16, docx.length - 16);
+            } catch (IOException | InterruptedException ignored) {
+                // 客户端超时后断开
+            }
+        });
+        server.setExecutor(java.util.concurrent.Executors.newCachedThreadPool());
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        mapper = mock(KnowledgeDocumentMapper.class);
+        chunkIndexer = mock(KnowledgeChunkIndexer.class);
+        properties = new DataCollectionProperties();
+        properties.getAttachments().setMaxBytes(32 * 1024);
+        meterRegistry = new SimpleMeterRegistry();
+        service = new AttachmentIngestionService(mapper, new DocumentChunker(properties), chunkIndexer,
+                new NearDuplicateIndex(mapper, properties, meterRegistry),
+                new KnowledgeDocumentBulkWriter(mapper, mock(JdbcTemplate.class), properties, meterRegistry),
+                properties, meterRegistry, List.of(new OoxmlTextExtractor()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        service.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void testDiscover_FindsAttachmentLinksByPathOrLinkText() {
+        Document doc = Jsoup.parse("<body>"
+                + "<a href=\"/files/notice.docx\">考试安排</a>"
+                + "<a href=\"/files/notice.docx\">重复链接</a>"
+                + "<a href=\"/system/download.jsp?id=12\">2025年校历.PDF</a>"
+                + "<a href=\"/files/plan.xlsx\"></a>"
+                + "<a href=\"/info/1001.htm\">普通页面</a>"
+                + "<a href=\"mailto:jwc@qlu.edu.cn\">邮件.doc</a>"
+                + "</body>", "https://jwc.qlu.edu.cn/info/1000.htm");
+
+        List<AttachmentIngestionService.Attachment> attachments = service.discover(doc);
+
+        assertEquals(List.of(
+                new AttachmentIngestionService.Attachment("https://jwc.qlu.edu.cn/files/notice.docx", "考试安排", "DOCX"),
+                new AttachmentIngestionService.Attachment("https://jwc.qlu.edu.cn/system/download.jsp?id=12", "2025年校历.PDF", "PDF"),
+                new AttachmentIngestionService.Attachment("https://jwc.qlu.edu.cn/files/plan.xlsx", "plan.xlsx", "XLSX")),
+                attachments);
+    }
+
+    @Test
+    void testSubmit_DownloadsExtractsAndSavesDocx() {
+        Document doc = Jsoup.parse("<body><a href=\"/files/notice.docx\">期末考试安排</a>"
+                + "<a href=\"/files/calendar.pdf\">校历</a></body>", baseUrl + "/info/1000.htm");
+
+        assertEquals(1, service.submit(doc));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<KnowledgeDocument>> saved = ArgumentCaptor.forClass(List.class);
+        verify(mapper, timeout(5000)).batchUpsert(saved.capture());
+        KnowledgeDocument document = saved.getValue().get(0);
+        assertEquals("DOCX", document.getDocumentType());
+        assertEquals("期末考试安排", document.getTitle());
+        assertEquals("关于期末考试安排的通知\n考试于第十九周进行。", document.getContent());
+        verify(chunkIndexer, timeout(5000)).sync(eq(baseUrl + "/files/notice.docx"), eq("期末考试安排"), anyList());
+        assertEquals(1.0, meterRegistry.counter("qlu.crawler.attachments.skipped",
+                "type", "PDF", "reason", "unsupported").count());
+    }
+
+    @Test
+    void testSubmit_SkipsExistingAndOversizedAttachments() {
+        when(mapper.existsBySourceUrl(baseUrl + "/files/notice.docx")).thenReturn(true);
+        Document doc = Jsoup.parse("<body><a href=\"/files/notice.docx\">已采集</a>"
+                + "<a href=\"/files/huge.docx\">超大附件</a></body>", baseUrl + "/info/1000.htm");
+
+        assertEquals(1, service.submit(doc));
+
+        verify(mapper, after(1000).never()).batchUpsert(anyList());
+        assertEquals(1L, meterRegistry.timer("qlu.crawler.attachment", "type", "DOCX", "outcome", "too_large").count());
+        assertEquals(1.0, meterRegistry.counter("qlu.crawler.attachments.skipped",
+                "type", "DOCX", "reason", "exists").count());
+    }
+
+    @Test
+    void testSubmit_SkipsAttachmentAlreadyInFlight() {
+        Document page = Jsoup.parse("<body><a href=\"/files/slow.docx\">考试安排</a></body>", baseUrl + "/info/1000.htm");
+        Document other = Jsoup.parse("<body><a href=\"/files/slow.docx\">考试安排</a></body>", baseUrl + "/info/1001.htm");
+
+        assertEquals(1, service.submit(page));
+        assertEquals(0, service.submit(other));
+        assertEquals(1.0, meterRegistry.counter("qlu.crawler.attachments.skipped",
+                "type", "DOCX", "reason", "in_flight").count());
+
+        release.countDown();
+        verify(mapper, timeout(5000).times(1)).batchUpsert(anyList());
+        verify(mapper, times(1)).existsBySourceUrl(baseUrl + "/files/slow.docx");
+    }
+
+    @Test
+    void testIngest_SlowBodyAbortedAtDownloadDeadline() {
+        properties.getAttachments().setDownloadTimeoutMs(300);
+
+        long start = System.nanoTime();
+        service.ingest(new AttachmentIngestionService.Attachment(baseUrl + "/files/slow.docx", "考试安排", "DOCX"));
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertEquals(1L, meterRegistry.timer("qlu.crawler.attachment", "type", "DOCX", "outcome", "error").count());
+        verify(mapper, never()).batchUpsert(anyList());
+    }
+}
@@ -0,0 +1,117 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.config.VoiceprintConfig;
+import edu.qlu.chatbot.service.AudioProcessingService.AudioProcessingException;
+import edu.qlu.chatbot.service.AudioProcessingService.StreamingAudioNormalizer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * AudioProcessingService 测试类
+ */
+class AudioProcessingServiceTest {
+
+    private AudioProcessingService audioProcessingService;
+
+    @BeforeEach
+    void setUp() {
+        VoiceprintConfig config = new VoiceprintConfig();
+        config.getStream().setVadRmsThreshold(500);
+        audioProcessingService = new AudioProcessingService(config, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testStreamingNormalizer_ResamplesStereoToMono16k() throws Exception {
+        // Arrange: 48kHz双声道，1秒，分成不对齐采样点的小帧推送
+        StreamingAudioNormalizer normalizer = audioProcessingService.createStreamingNormalizer(48000, 2);
+        byte[] pcm = tone(48000, 2, 1000, 8000);
+
+        // Act
+        for (int offset = 0; offset < pcm.length; offset += 1001) {
+            normalizer.append(pcm, offset, Math.min(1001, pcm.length - offset));
+        }
+
+        // Assert
+        int samples = normalizer.toPcm().length / 2;
+        assertTrue(Math.abs(samples - 16000) <= 2, "输出采样点数应约为16000，实际: " + samples);
+        assertTrue(Math.abs(normalizer.getDurationMillis() - 1000) <= 1);
+        assertTrue(normalizer.getSpeechMillis() >= 980, "持续音频应被判定为有效语音");
+    }
+
+    @Test
+    void testStreamingNormalizer_SilenceIsNotSpeech() throws Exception {
+        // Arrange
+        StreamingAudioNormalizer normalizer = audioProcessingService.createStreamingNormalizer(16000, 1);
+        byte[] silence = tone(16000, 1, 500, 20);
+
+        // Act
+        normalizer.append(silence, 0, silence.length);
+
+        // Assert
+        assertEquals(0, normalizer.getSpeechMillis());
+        assertTrue(normalizer.getDurationMillis() >= 490);
+    }
+
+    @Test
+    void testStreamingNormalizer_FiltersAliasingBeforeDownsampling() throws Exception {
+        // 12kHz 高于16kHz输出的奈奎斯特频率，不经低通滤波会混叠为4kHz
+        StreamingAudioNormalizer aliased = audioProcessingService.createStreamingNormalizer(48000, 1);
+        byte[] high = tone(48000, 1, 500, 8000, 12000);
+        aliased.append(high, 0, high.length);
+
+        StreamingAudioNormalizer voice = audioProcessingService.createStreamingNormalizer(48000, 1);
+        byte[] low = tone(48000, 1, 500, 8000, 1000);
+        voice.append(low, 0, low.length);
+
+        double inputRms = 8000 / Math.sqrt(2);
+        assertTrue(rms(aliased.toPcm()) < inputRms * 0.05, "带外成分应被滤除: " + rms(aliased.toPcm()));
+        assertTrue(rms(voice.toPcm()) > inputRms * 0.9, "语音频段应保留: " + rms(voice.toPcm()));
+    }
+
+    @Test
+    void testCreateStreamingNormalizer_InvalidSampleRate() {
+        assertThrows(AudioProcessingException.class,
+                     () -> audioProcessingService.createStreamingNormalizer(1000, 1));
+    }
+
+    /**
+     * 生成440Hz正弦波的16bit小端PCM
+     */
+    private byte[] tone(int sampleRate, int channels, int durationMs, int amplitude) {
+        return tone(sampleRate, channels, durationMs, amplitude, 440);
+    }
+
+    /**
+     * 生成指定频率正弦波的16bit小端PCM
+     */
+    private byte[] tone(int sampleRate, int channels, int durationMs, int amplitude, int frequency) {
+        int frames = sampleRate * durationMs / 1000;
+        byte[] pcm = new byte[frames * channels * 2];
+        int index = 0;
+        for (int i = 0; i < frames; i++) {
+            short sample = (short) (amplitude * Math.sin(2 * Math.PI * frequency * i / sampleRate));
+            for (int channel = 0; channel < channels; channel++) {
+                pcm[index++] = (byte) (sample & 0xFF);
+                pcm[index++] = (byte) ((sample >> 8) & 0xFF);
+            }
+        }
+        return pcm;
+    }
+
+    /**
+     * 16bit小端PCM的均方根（跳过开头50ms的滤波器建立过程）
+     */
+    private static double rms(byte[] pcm) {
+        double sum = 0;
+        int count = 0;
+        for (int i = 800 * 2; i + 1 < pcm.length; i += 2) {
+            short sample = (short) ((pcm[i] & 0xFF) | (pcm[i + 1] << 8));
+            sum += (double) sample * sample;
+            count++;
+        }
+        return Math.sqrt(sum / count);
+    }
+}
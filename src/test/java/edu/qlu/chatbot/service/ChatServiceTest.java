@@ -1,17 +1,27 @@
 package edu.qlu.chatbot.service;
 
+import edu.qlu.chatbot.config.RateLimitProperties;
+import edu.qlu.chatbot.config.ModelRouter;
 import edu.qlu.chatbot.model.ChatRequest;
 import edu.qlu.chatbot.model.ChatResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.UserMessage;
 
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
 
 /**
  * ChatService的简化单元测试
@@ -25,6 +35,21 @@ class ChatServiceTest {
     @Mock
     private ChatClient chatClient;
 
+    @Mock
+    private ChatMemory chatMemory;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private WeightedFairQueue fairQueue = new WeightedFairQueue(new RateLimitProperties(), new SimpleMeterRegistry());
+
+    @Mock
+    private IntentRouter intentRouter;
+
+    @Mock
+    private ModelRouter modelRouter;
+
     @InjectMocks
     private ChatService chatService;
 
@@ -77,6 +102,25 @@ class ChatServiceTest {
         assertFalse(response.getConversationId().isEmpty());
     }
 
+    @Test
+    void testChatAnsweredByFastPathSkipsModel() {
+        // 准备
+        ChatRequest request = new ChatRequest();
+        request.setMessage("图书馆几点开门");
+        request.setConversationId("test-conversation-id");
+        when(intentRouter.route("图书馆几点开门")).thenReturn(Optional.of(
+                new IntentRouter.Route(IntentRouter.Intent.LIBRARY_HOURS, "图书馆开放时间为 08:00-22:00")));
+
+        // 执行
+        ChatResponse response = chatService.chat(request);
+
+        // 验证：不调用大模型，回复仍写入会话记忆
+        assertEquals(ChatResponse.ResponseStatus.SUCCESS, response.getStatus());
+        assertEquals("图书馆开放时间为 08:00-22:00", response.getMessage());
+        verifyNoInteractions(chatClient);
+        verify(chatMemory).add(eq("test-conversation-id"), anyList());
+    }
+
     @Test
     void testGetConversationHistory() {
         // 执行
@@ -84,7 +128,20 @@ class ChatServiceTest {
 
         // 验证
         assertNotNull(history);
-        assertTrue(history.isEmpty()); // 简化版本返回空列表
+        assertTrue(history.isEmpty()); // 无历史记录时返回空列表
+    }
+
+    @Test
+    void testGetConversationHistoryFromMemory() {
+        // 准备
+        when(chatMemory.get("test-conversation-id")).thenReturn(List.of(
+                new UserMessage("什么时候选课？"), new AssistantMessage("第16周开始选课。")));
+
+        // 执行
+        List<String> history = chatService.getConversationHistory("test-conversation-id");
+
+        // 验证
+        assertEquals(List.of("用户: 什么时候选课？", "助手: 第16周开始选课。"), history);
     }
 
     @Test
@@ -93,5 +150,6 @@ class ChatServiceTest {
         assertDoesNotThrow(() -> {
             chatService.clearConversationHistory("test-conversation-id");
         });
+        verify(chatMemory).clear("test-conversation-id");
     }
 }
@@ -0,0 +1,208 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.config.ChatMemoryProperties;
+import edu.qlu.chatbot.mapper.ChatMemoryMapper;
+import edu.qlu.chatbot.model.ChatMemoryRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * ConversationMemoryService 测试类
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class ConversationMemoryServiceTest {
+
+    @Mock
+    private ChatMemoryMapper chatMemoryMapper;
+
+    @Mock
+    private ConversationSummarizer summarizer;
+
+    private ChatMemoryProperties properties;
+    private ConversationMemoryService memoryService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ChatMemoryProperties();
+        properties.setWindowSize(4);
+        properties.setMaxConversations(2);
+        properties.setMaxPersistedMessages(50);
+        properties.setFlushBatchSize(3);
+        properties.getCompaction().setEnabled(false);
+        memoryService = new ConversationMemoryService(chatMemoryMapper, properties,
+                new TokenBudgetEstimator(), summarizer, Runnable::run);
+    }
+
+    @Test
+    void testAdd_TrimsWindowAndServesFromCache() {
+        when(chatMemoryMapper.findRecentByConversationId("c1", null, 4)).thenReturn(List.of());
+
+        for (int i = 1; i <= 3; i++) {
+            memoryService.add("c1", List.of(new UserMessage("问题" + i), new AssistantMessage("回答" + i)));
+        }
+        List<Message> window = memoryService.get("c1");
+
+        assertEquals(4, window.size());
+        assertEquals("问题2", window.get(0).getText());
+        assertEquals("回答3", window.get(3).getText());
+        // 首次访问加载一次，之后命中缓存
+        verify(chatMemoryMapper, times(1)).findRecentByConversationId("c1", null, 4);
+        assertEquals(6, memoryService.getPendingCount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_WritesInBatchesAndTrims() {
+        when(chatMemoryMapper.findRecentByConversationId(anyString(), any(), anyInt())).thenReturn(List.of());
+        memoryService.add("c1", List.of(new UserMessage("a"), new AssistantMessage("b")));
+        memoryService.add("c2", List.of(new UserMessage("c"), new AssistantMessage("d")));
+
+        memoryService.flush();
+
+        ArgumentCaptor<List<ChatMemoryRecord>> captor = ArgumentCaptor.forClass(List.class);
+        verify(chatMemoryMapper, times(2)).batchInsert(captor.capture());
+        assertEquals(3, captor.getAllValues().get(0).size());
+        assertEquals(1, captor.getAllValues().get(1).size());
+        List<ChatMemoryRecord> first = captor.getAllValues().get(0);
+        assertTrue(first.get(1).getCreatedAt().isAfter(first.get(0).getCreatedAt()), "同一批消息时间戳应严格递增");
+        verify(chatMemoryMapper).trimConversation("c1", 50);
+        verify(chatMemoryMapper).trimConversation("c2", 50);
+        assertEquals(0, memoryService.getPendingCount());
+    }
+
+    @Test
+    void testFlush_RequeuesOnFailure() {
+        when(chatMemoryMapper.findRecentByConversationId(anyString(), any(), anyInt())).thenReturn(List.of());
+        when(chatMemoryMapper.batchInsert(anyList())).thenThrow(new RuntimeException("db down"));
+        memoryService.add("c1", List.of(new UserMessage("a")));
+
+        memoryService.flush();
+
+        assertEquals(1, memoryService.getPendingCount());
+        verify(chatMemoryMapper, never()).trimConversation(anyString(), anyInt());
+    }
+
+    @Test
+    void testEvictedConversation_ReloadsFromDatabase() {
+        when(chatMemoryMapper.findRecentByConversationId(anyString(), any(), anyInt())).thenReturn(List.of());
+        memoryService.add("c1", List.of(new UserMessage("a")));
+        memoryService.add("c2", List.of(new UserMessage("b")));
+        memoryService.add("c3", List.of(new UserMessage("c")));
+        assertEquals(2, memoryService.getCachedConversationCount());
+
+        when(chatMemoryMapper.findRecentByConversationId("c1", null, 4)).thenReturn(List.of(
+                new ChatMemoryRecord("c1", "USER", "a", LocalDateTime.now())));
+        List<Message> window = memoryService.get("c1");
+
+        // 重新加载前先写出待写队列
+        verify(chatMemoryMapper, atLeastOnce()).batchInsert(anyList());
+        assertEquals(1, window.size());
+        assertEquals("a", window.get(0).getText());
+    }
+
+    @Test
+    void testClear_DropsPendingAndDeletes() {
+        when(chatMemoryMapper.findRecentByConversationId(anyString(), any(), anyInt())).thenReturn(List.of());
+        memoryService.add("c1", List.of(new UserMessage("a")));
+        memoryService.add("c2", List.of(new UserMessage("b")));
+
+        memoryService.clear("c1");
+
+        verify(chatMemoryMapper).deleteByConversationId("c1");
+        assertEquals(1, memoryService.getPendingCount());
+        assertEquals(1, memoryService.getCachedConversationCount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCompaction_SummarizesOlderTurnsWhenOverBudget() {
+        properties.setWindowSize(20);
+        properties.getCompaction().setEnabled(true);
+        properties.getCompaction().setTokenBudget(60);
+        properties.getCompaction().setKeepRecentMessages(2);
+        when(chatMemoryMapper.findRecentByConversationId(anyString(), any(), anyInt())).thenReturn(List.of());
+        when(summarizer.summarize(isNull(), anyList(), eq(300))).thenReturn("用户是计算机学院大三学生，询问补考安排。");
+
+        String longQuestion = "我是计算机学院大三的学生，上学期高等数学没有通过，想了解一下补考的时间和报名流程。";
+        memoryService.add("c1", List.of(new UserMessage(longQuestion), new AssistantMessage("补考一般在开学第二周进行。")));
+        memoryService.add("c1", List.of(new UserMessage("需要交费吗？"), new AssistantMessage("补考不收费。")));
+
+        // 较早的两条消息被合并为摘要，只保留最近两条
+        ArgumentCaptor<List<Message>> captor = ArgumentCaptor.forClass(List.class);
+        verify(summarizer).summarize(isNull(), captor.capture(), eq(300));
+        assertEquals(longQuestion, captor.getValue().get(0).getText());
+        assertEquals(2, captor.getValue().size());
+
+        List<Message> window = memoryService.get("c1");
+        assertEquals(3, window.size());
+        assertTrue(window.get(0).getText().startsWith(ConversationMemoryService.SUMMARY_PREFIX));
+        assertEquals("需要交费吗？", window.get(1).getText());
+
+        memoryService.flush();
+        verify(chatMemoryMapper).deleteSummary("c1");
+        ArgumentCaptor<List<ChatMemoryRecord>> records = ArgumentCaptor.forClass(List.class);
+        verify(chatMemoryMapper, atLeastOnce()).batchInsert(records.capture());
+        ChatMemoryRecord summary = records.getAllValues().get(records.getAllValues().size() - 1).get(0);
+        assertEquals(ConversationMemoryService.SUMMARY_TYPE, summary.getMessageType());
+        assertTrue(summary.getMetadata().contains("summarizedUntil"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCompaction_SummarizesMessagesTrimmedFromWindow() {
+        properties.getCompaction().setEnabled(true);
+        properties.getCompaction().setTokenBudget(10_000);
+        properties.getCompaction().setKeepRecentMessages(2);
+        when(chatMemoryMapper.findRecentByConversationId(anyString(), any(), anyInt())).thenReturn(List.of());
+        when(summarizer.summarize(isNull(), anyList(), eq(300))).thenReturn("用户询问了补考时间。");
+
+        memoryService.add("c1", List.of(new UserMessage("补考什么时候？"), new AssistantMessage("开学第二周。")));
+        memoryService.add("c1", List.of(new UserMessage("在哪里考？"), new AssistantMessage("见教务通知。")));
+        verify(summarizer, never()).summarize(any(), anyList(), anyInt());
+        memoryService.add("c1", List.of(new UserMessage("需要交费吗？"), new AssistantMessage("补考不收费。")));
+
+        // 未超出token预算，但裁出窗口的两条消息仍并入摘要
+        ArgumentCaptor<List<Message>> captor = ArgumentCaptor.forClass(List.class);
+        verify(summarizer).summarize(isNull(), captor.capture(), eq(300));
+        assertEquals(List.of("补考什么时候？", "开学第二周。"),
+                captor.getValue().stream().map(Message::getText).toList());
+
+        List<Message> window = memoryService.get("c1");
+        assertEquals(5, window.size());
+        assertEquals(ConversationMemoryService.SUMMARY_PREFIX + "用户询问了补考时间。", window.get(0).getText());
+        assertEquals("在哪里考？", window.get(1).getText());
+    }
+
+    @Test
+    void testLoad_RestoresSummaryAndMessagesAfterIt() {
+        LocalDateTime summarizedUntil = LocalDateTime.of(2025, 3, 1, 10, 0);
+        ChatMemoryRecord summary = new ChatMemoryRecord("c1", "SUMMARY", "此前讨论了选课问题。", summarizedUntil);
+        summary.setMetadata("{\"summarizedUntil\":\"" + summarizedUntil + "\"}");
+        when(chatMemoryMapper.findSummary("c1")).thenReturn(summary);
+        when(chatMemoryMapper.findRecentByConversationId("c1", summarizedUntil, 4)).thenReturn(List.of(
+                new ChatMemoryRecord("c1", "USER", "选课什么时候截止？", summarizedUntil.plusMinutes(1))));
+
+        List<Message> window = memoryService.get("c1");
+
+        assertEquals(2, window.size());
+        assertEquals(ConversationMemoryService.SUMMARY_PREFIX + "此前讨论了选课问题。", window.get(0).getText());
+        assertEquals("选课什么时候截止？", window.get(1).getText());
+    }
+}
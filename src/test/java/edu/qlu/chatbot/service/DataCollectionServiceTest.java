@@ -1,16 +1,28 @@
 package edu.qlu.chatbot.service;
 
+import com.sun.net.httpserver.HttpServer;
+import edu.qlu.chatbot.config.DataCollectionProperties;
 import edu.qlu.chatbot.mapper.KnowledgeDocumentMapper;
 import edu.qlu.chatbot.model.KnowledgeDocument;
+import edu.qlu.chatbot.model.KnowledgeDocumentSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ibatis.cursor.Cursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -28,6 +40,33 @@ class DataCollectionServiceTest {
     @Mock
     private KnowledgeDocumentMapper knowledgeDocumentMapper;
 
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private DataCollectionProperties properties = new DataCollectionProperties();
+
+    @Spy
+    private MainContentExtractor contentExtractor = new MainContentExtractor(properties);
+
+    @Spy
+    private DocumentChunker documentChunker = new DocumentChunker(properties);
+
+    @Mock
+    private KnowledgeChunkIndexer chunkIndexer;
+
+    @Mock
+    private AttachmentIngestionService attachmentIngestionService;
+
+    @Mock
+    private RenderingPageFetcher renderingPageFetcher;
+
+    @Mock
+    private NearDuplicateIndex nearDuplicateIndex;
+
+    @Mock
+    private KnowledgeDocumentBulkWriter bulkWriter;
+
     @InjectMocks
     private DataCollectionService dataCollectionService;
 
@@ -54,14 +93,14 @@ class DataCollectionServiceTest {
         // 准备
         String keyword = "测试";
         int limit = 10;
-        List<KnowledgeDocument> mockResults = Arrays.asList(
-            createMockDocument("文档1", "内容1"),
-            createMockDocument("文档2", "内容2")
+        List<KnowledgeDocumentSummary> mockResults = Arrays.asList(
+            createMockSummary("文档1"),
+            createMockSummary("文档2")
         );
         when(knowledgeDocumentMapper.searchByKeyword(keyword)).thenReturn(mockResults);
 
         // 执行
-        List<KnowledgeDocument> results = dataCollectionService.searchDocuments(keyword, limit);
+        List<KnowledgeDocumentSummary> results = dataCollectionService.searchDocuments(keyword, limit);
 
         // 验证
         assertNotNull(results);
@@ -73,13 +112,13 @@ class DataCollectionServiceTest {
     void testSearchDocumentsWithoutKeyword() {
         // 准备
         int limit = 5;
-        List<KnowledgeDocument> mockResults = Arrays.asList(
-            createMockDocument("文档1", "内容1")
+        List<KnowledgeDocumentSummary> mockResults = Arrays.asList(
+            createMockSummary("文档1")
         );
         when(knowledgeDocumentMapper.findPendingDocuments(limit)).thenReturn(mockResults);
 
         // 执行
-        List<KnowledgeDocument> results = dataCollectionService.searchDocuments("", limit);
+        List<KnowledgeDocumentSummary> results = dataCollectionService.searchDocuments("", limit);
 
         // 验证
         assertNotNull(results);
@@ -97,11 +136,128 @@ class DataCollectionServiceTest {
         assertTrue(result.contains("数据采集"));
     }
 
-    private KnowledgeDocument createMockDocument(String title, String content) {
-        KnowledgeDocument doc = new KnowledgeDocument();
-        doc.setTitle(title);
-        doc.setContent(content);
-        doc.setSourceUrl("http://test.com");
-        return doc;
+    @Test
+    void testCollectAll_BuffersPagesAndCopiesOnInitialLoad() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            byte[] body = ("<html><head><title>通知" + exchange.getRequestURI().getPath() + "</title></head>"
+                    + "<body><p>关于期末考试安排的通知，考试于第十九周进行。</p></body></html>")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        try {
+            String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+            properties.getBulk().setBatchSize(2);
+            when(knowledgeDocumentMapper.count()).thenReturn(0L);
+            List<List<String>> batches = new ArrayList<>();
+            when(bulkWriter.copy(anyList())).thenAnswer(invocation -> {
+                List<KnowledgeDocument> batch = invocation.getArgument(0);
+                batches.add(batch.stream().map(KnowledgeDocument::getSourceUrl).toList());
+                return new KnowledgeDocumentBulkWriter.BulkLoadResult("copy", batch.size(), 1_000_000L);
+            });
+
+            KnowledgeDocumentBulkWriter.BulkLoadResult result = dataCollectionService.collectAll(List.of(
+                    baseUrl + "/a.htm", baseUrl + "/b.htm", "http://127.0.0.1:1/unreachable.htm", baseUrl + "/c.htm"));
+
+            assertEquals(List.of(List.of(baseUrl + "/a.htm", baseUrl + "/b.htm"), List.of(baseUrl + "/c.htm")), batches);
+            assertEquals(3, result.rows());
+            assertEquals(1500.0, result.rowsPerSecond(), 0.001);
+            verify(bulkWriter, never()).upsert(anyList());
+            verify(nearDuplicateIndex, times(3)).register(any(KnowledgeDocument.class));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testCollectAll_MergesNearDuplicatesWithinBatchAndIndexesChunksAfterWrite() throws Exception {
+        String notice = "关于二零二四至二零二五学年第一学期期末考试安排的通知：各学院、各位同学，本学期期末考试定于第十九周至"
+                + "第二十周进行，请各学院按照教务处统一安排组织学生复习，考生须携带学生证和身份证按时参加考试，"
+                + "缺考、违纪按学校相关规定处理，具体考场安排请登录教务系统查询。";
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            String text = switch (path) {
+                case "/copy.htm" -> notice + "（转载）";
+                case "/other.htm" -> "图书馆开放时间调整公告：自下周一起，图书馆各阅览室开放时间调整为早七点至晚十点，"
+                        + "周末及法定节假日开放时间另行通知，自习室实行预约制，请同学们通过图书馆公众号预约座位，"
+                        + "预约后十五分钟内未签到的座位将自动释放，给大家带来的不便敬请谅解。";
+                default -> notice;
+            };
+            byte[] body = ("<html><head><title>" + path + "</title></head><body><p>" + text + "</p></body></html>")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        try {
+            String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+            NearDuplicateIndex realIndex = new NearDuplicateIndex(knowledgeDocumentMapper, properties, meterRegistry);
+            DataCollectionService service = new DataCollectionService(knowledgeDocumentMapper, meterRegistry,
+                    contentExtractor, documentChunker, chunkIndexer, attachmentIngestionService,
+                    renderingPageFetcher, realIndex, bulkWriter, properties);
+            when(knowledgeDocumentMapper.count()).thenReturn(10L);
+            when(knowledgeDocumentMapper.findSourceUrlById(1L)).thenReturn(baseUrl + "/notice.htm");
+            AtomicLong ids = new AtomicLong();
+            List<List<String>> batches = new ArrayList<>();
+            when(bulkWriter.upsert(anyList())).thenAnswer(invocation -> {
+                List<KnowledgeDocument> batch = invocation.getArgument(0);
+                batch.forEach(document -> document.setId(ids.incrementAndGet()));
+                batches.add(batch.stream().map(KnowledgeDocument::getSourceUrl).toList());
+                return new KnowledgeDocumentBulkWriter.BulkLoadResult("upsert", batch.size(), 1_000_000L);
+            });
+
+            service.collectAll(List.of(baseUrl + "/notice.htm", baseUrl + "/copy.htm", baseUrl + "/other.htm"));
+
+            // 副本与缓冲中的规范文档近似重复：先写入规范文档，再把副本记为备用URL
+            assertEquals(List.of(List.of(baseUrl + "/notice.htm"), List.of(baseUrl + "/other.htm")), batches);
+            verify(knowledgeDocumentMapper).insertAlias(eq(baseUrl + "/copy.htm"), eq(1L), anyInt());
+            verify(chunkIndexer).sync(eq(baseUrl + "/notice.htm"), anyString(), anyList());
+            verify(chunkIndexer).sync(eq(baseUrl + "/other.htm"), anyString(), anyList());
+            verify(chunkIndexer, never()).sync(eq(baseUrl + "/copy.htm"), anyString(), anyList());
+            verify(knowledgeDocumentMapper).markVectorized(List.of(1L));
+            verify(knowledgeDocumentMapper).markVectorized(List.of(2L));
+
+            // 批次写入失败时不向量化
+            reset(chunkIndexer);
+            when(bulkWriter.upsert(anyList())).thenThrow(new IllegalStateException("connection reset"));
+            service.collectAll(List.of(baseUrl + "/other.htm"));
+            verifyNoInteractions(chunkIndexer);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testStreamDocumentsAndLoadContentOnDemand() throws Exception {
+        @SuppressWarnings("unchecked")
+        Cursor<KnowledgeDocumentSummary> cursor = mock(Cursor.class);
+        when(cursor.iterator()).thenReturn(List.of(createMockSummary("文档1"), createMockSummary("文档2")).iterator());
+        when(knowledgeDocumentMapper.streamAll()).thenReturn(cursor);
+        when(knowledgeDocumentMapper.findContentById(1L)).thenReturn("内容1");
+
+        List<String> titles = new ArrayList<>();
+        int count = dataCollectionService.streamDocuments(summary -> titles.add(summary.getTitle()));
+
+        assertEquals(2, count);
+        assertEquals(List.of("文档1", "文档2"), titles);
+        verify(cursor).close();
+        assertEquals("内容1", dataCollectionService.loadContent(1L));
+    }
+
+    private KnowledgeDocumentSummary createMockSummary(String title) {
+        KnowledgeDocumentSummary summary = new KnowledgeDocumentSummary();
+        summary.setId(1L);
+        summary.setTitle(title);
+        summary.setSourceUrl("http://test.com");
+        return summary;
     }
 }
@@ -0,0 +1,142 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.config.DataCollectionProperties;
+import edu.qlu.chatbot.model.DocumentChunk;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DocumentChunker单元测试
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+class DocumentChunkerTest {
+
+    private static final String URL = "https://jwc.qlu.edu.cn/info/1001.htm";
+
+    private DataCollectionProperties properties;
+    private DocumentChunker chunker;
+
+    @BeforeEach
+    void setUp() {
+        properties = new DataCollectionProperties();
+        properties.getChunking().setMaxChars(60);
+        chunker = new DocumentChunker(properties);
+    }
+
+    @Test
+    void testChunk_SplitsByHeadingsAndKeepsHeadingPath() {
+        List<DocumentChunk> chunks = chunker.chunk(URL, body(
+                "<h1>期末考试通知</h1><p>本学期期末考试安排如下，请各学院认真组织。</p>"
+                + "<h2>考试时间</h2><p>考试于第十九周进行。</p>"
+                + "<h2>注意事项</h2><p>考生须携带学生证和身份证。<span>迟到三十分钟不得入场！</span></p>"
+                + "<script>var x = 1;</script>"));
+
+        assertEquals(3, chunks.size());
+        assertEquals(List.of("期末考试通知"), chunks.get(0).getHeadingPath());
+        assertEquals(List.of("期末考试通知", "考试时间"), chunks.get(1).getHeadingPath());
+        assertEquals(List.of("期末考试通知", "注意事项"), chunks.get(2).getHeadingPath());
+        assertEquals("考生须携带学生证和身份证。迟到三十分钟不得入场！", chunks.get(2).getText());
+        assertEquals("期末考试通知 > 考试时间\n考试于第十九周进行。", chunks.get(1).getEmbeddingText());
+        assertTrue(chunks.stream().noneMatch(chunk -> chunk.getText().contains("var x")));
+    }
+
+    @Test
+    void testChunk_PacksWholeSentencesUpToMaxChars() {
+        String sentence = "学生应在规定时间内登录教务系统完成选课。";
+        List<DocumentChunk> chunks = chunker.chunk(URL, body("<p>" + sentence.repeat(7) + "</p>"));
+
+        assertTrue(chunks.size() > 1);
+        for (DocumentChunk chunk : chunks) {
+            assertTrue(chunk.getText().length() <= 60, chunk.getText());
+            assertTrue(chunk.getText().endsWith("。"), chunk.getText());
+        }
+        assertEquals(sentence.repeat(7), chunks.stream().map(DocumentChunk::getText).collect(Collectors.joining()));
+    }
+
+    @Test
+    void testSplitSentences_ChinesePunctuationAndClosingQuotes() {
+        List<String> sentences = DocumentChunker.splitSentences("他说：“请按时到场。”考试开始了！你准备好了吗？注意；结束", 100);
+
+        assertEquals(List.of("他说：“请按时到场。”", "考试开始了！", "你准备好了吗？", "注意；", "结束"), sentences);
+    }
+
+    @Test
+    void testChunk_KeepsTableAsUnitAndRepeatsHeaderWhenSplit() {
+        properties.getChunking().setMaxChars(400);
+        List<DocumentChunk> chunks = chunker.chunk(URL, body(
+                "<h2>考场安排</h2><table><tr><th>课程</th><th>地点</th></tr>"
+                + "<tr><td>高等数学</td><td>1号楼101</td></tr>"
+                + "<tr><td>大学英语</td><td>2号楼202</td></tr></table>"));
+
+        assertEquals(1, chunks.size());
+        assertEquals(DocumentChunk.Type.TABLE, chunks.get(0).getType());
+        assertEquals("课程 | 地点\n高等数学 | 1号楼101\n大学英语 | 2号楼202", chunks.get(0).getText());
+
+        properties.getChunking().setMaxChars(50);
+        StringBuilder rows = new StringBuilder("<table><tr><th>课程</th><th>地点</th></tr>");
+        for (int i = 0; i < 10; i++) {
+            rows.append("<tr><td>课程").append(i).append("</td><td>教学楼").append(i).append("</td></tr>");
+        }
+        List<DocumentChunk> split = chunker.chunk(URL, body(rows + "</table>"));
+
+        assertTrue(split.size() > 1);
+        for (DocumentChunk chunk : split) {
+            assertEquals(DocumentChunk.Type.TABLE, chunk.getType());
+            assertTrue(chunk.getText().startsWith("课程 | 地点\n"), chunk.getText());
+        }
+    }
+
+    @Test
+    void testChunk_ListItemsAndParagraphs() {
+        List<DocumentChunk> chunks = chunker.chunk(URL, body(
+                "<h2>报名材料</h2><ul><li>身份证复印件</li><li>学生证</li></ul>"
+                + "<p>以上材料须在截止日期前提交至学院教务办公室。</p><p>逾期不候。</p>"));
+
+        assertEquals(2, chunks.size());
+        assertEquals(DocumentChunk.Type.LIST, chunks.get(0).getType());
+        assertEquals("- 身份证复印件\n- 学生证", chunks.get(0).getText());
+        assertEquals("以上材料须在截止日期前提交至学院教务办公室。\n逾期不候。", chunks.get(1).getText());
+    }
+
+    @Test
+    void testChunk_IdsStableWhenOtherSectionsChange() {
+        String unchanged = "<h2>考试时间</h2><p>考试于第十九周进行。</p>";
+        List<DocumentChunk> before = chunker.chunk(URL, body(
+                "<h2>通知</h2><p>原通知内容。</p>" + unchanged));
+        List<DocumentChunk> after = chunker.chunk(URL, body(
+                "<h2>补充说明</h2><p>新增章节。</p><h2>通知</h2><p>更新后的通知内容。</p>" + unchanged));
+
+        assertEquals(2, before.size());
+        assertEquals(3, after.size());
+        assertNotEquals(before.get(0).getId(), after.get(1).getId());
+        // 前面插入章节后位置变化，但未改动分块的ID不变
+        assertEquals(before.get(1).getId(), after.get(2).getId());
+        assertNotEquals(before.get(1).getPosition(), after.get(2).getPosition());
+        assertEquals(before.get(1).getId(), chunker.chunk(URL, body(unchanged)).get(0).getId());
+        assertNotEquals(before.get(1).getId(), chunker.chunk("https://jwc.qlu.edu.cn/info/1002.htm",
+                body(unchanged)).get(0).getId());
+    }
+
+    @Test
+    void testChunk_DuplicateChunksGetDistinctIds() {
+        String table = "<table><tr><th>课程</th></tr><tr><td>高等数学</td></tr></table>";
+        List<DocumentChunk> chunks = chunker.chunk(URL, body(table + table));
+
+        assertEquals(2, chunks.size());
+        assertEquals(chunks.get(0).getText(), chunks.get(1).getText());
+        assertNotEquals(chunks.get(0).getId(), chunks.get(1).getId());
+    }
+
+    private static Element body(String html) {
+        return Jsoup.parse("<html><body>" + html + "</body></html>").body();
+    }
+}
@@ -0,0 +1,115 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.config.IntentRouterProperties;
+import edu.qlu.chatbot.config.ToolExecutionProperties;
+import edu.qlu.chatbot.model.ExamSlot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * IntentRouter 测试类
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class IntentRouterTest {
+
+    @Mock
+    private AcademicSystemClient academicSystemClient;
+
+    @Mock
+    private AcademicScheduleStore academicScheduleStore;
+
+    @Mock
+    private ObjectProvider<EmbeddingModel> embeddingModelProvider;
+
+    @Mock
+    private EmbeddingModel embeddingModel;
+
+    private SimpleMeterRegistry meterRegistry;
+    private IntentRouter intentRouter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        AcademicToolsService academicToolsService = new AcademicToolsService(academicSystemClient, academicScheduleStore);
+        ToolExecutionService toolExecutionService = new ToolExecutionService(new ToolExecutionProperties(), meterRegistry);
+        intentRouter = new IntentRouter(academicToolsService, academicScheduleStore, toolExecutionService,
+                embeddingModelProvider, new IntentRouterProperties(), meterRegistry);
+    }
+
+    @Test
+    void testRoute_AnswersFaqWithoutModelAndReportsRatio() {
+        Optional<IntentRouter.Route> library = intentRouter.route("图书馆几点开门？");
+        Optional<IntentRouter.Route> exams = intentRouter.route("考试时间");
+        Optional<IntentRouter.Route> open = intentRouter.route("帮我写一份关于人工智能的学习计划");
+
+        assertEquals(IntentRouter.Intent.LIBRARY_HOURS, library.orElseThrow().intent());
+        assertTrue(library.get().answer().contains("08:00-22:00"));
+        assertTrue(exams.isEmpty(), "未指明课程的考试问题应交给大模型");
+        assertTrue(open.isEmpty());
+        verifyNoInteractions(embeddingModelProvider);
+
+        assertEquals(1.0 / 3, intentRouter.getFastPathRatio(), 1e-9);
+        assertEquals(1.0 / 3, meterRegistry.get("qlu.intent.fast.path.ratio").gauge().value(), 1e-9);
+        assertEquals(1.0, meterRegistry.get("qlu.intent.routes").tags("path", "fast", "intent", "library_hours")
+                .counter().count());
+    }
+
+    @Test
+    void testClassify_VetoAndAmbiguousMessagesFallBackToModel() {
+        assertFalse(intentRouter.classify("为什么图书馆几点开门").confident());
+        assertFalse(intentRouter.classify("补考时间").confident());
+        // 同时命中图书馆与考试两个意图
+        assertNull(intentRouter.classify("图书馆考试时间").intent());
+        assertNull(intentRouter.classify("几点开门").intent(), "意图词权重不足时不应命中");
+        assertFalse(intentRouter.classify("图书馆在哪里").confident(), "问地点不应回答开放时间");
+    }
+
+    @Test
+    void testClassify_ResidualCourseNameBecomesQuery() {
+        when(academicScheduleStore.isLoaded()).thenReturn(true);
+        when(academicScheduleStore.findExamsByCourse("高等数学")).thenReturn(List.of(new ExamSlot(
+                "2024-2025学年第一学期", "高等数学A", LocalDate.of(2025, 1, 6),
+                LocalTime.of(9, 0), LocalTime.of(11, 0), "教学楼B201")));
+
+        IntentRouter.Classification classification = intentRouter.classify("高等数学什么时候考试");
+
+        assertTrue(classification.confident());
+        assertEquals("高等数学", classification.courseName());
+    }
+
+    @Test
+    void testClassify_LowCoverageConfirmedByNearestCentroid() {
+        when(embeddingModelProvider.getIfAvailable()).thenReturn(embeddingModel);
+        when(embeddingModel.embed(anyList())).thenAnswer(invocation -> {
+            List<String> examples = invocation.getArgument(0);
+            return examples.stream()
+                    .map(example -> example.contains("图书馆") ? new float[]{1, 0, 0}
+                            : example.contains("考") ? new float[]{0, 1, 0} : new float[]{0, 0, 1})
+                    .toList();
+        });
+        when(embeddingModel.embed(anyString())).thenReturn(new float[]{0.95f, 0.1f, 0f}, new float[]{0f, 0.2f, 1f});
+
+        assertTrue(intentRouter.classify("图书馆周末一般开到晚上几点").confident());
+        assertFalse(intentRouter.classify("图书馆周末一般开到晚上几点").confident(),
+                "最近质心与关键词意图不一致时不应走快速通道");
+        verify(embeddingModel, times(1)).embed(anyList());
+    }
+}
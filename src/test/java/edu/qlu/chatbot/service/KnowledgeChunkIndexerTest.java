@@ -0,0 +1,82 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.model.DocumentChunk;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * KnowledgeChunkIndexer单元测试
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class KnowledgeChunkIndexerTest {
+
+    private static final String URL = "https://jwc.qlu.edu.cn/info/1001.htm";
+
+    @Mock
+    private VectorStore vectorStore;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private KnowledgeChunkIndexer indexer;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSync_EmbedsOnlyNewChunksAndDeletesStale() {
+        DocumentChunk kept = chunk("考试于第十九周进行。");
+        DocumentChunk changed = chunk("考试于第二十周进行。");
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(URL)))
+                .thenReturn(List.of(kept.getId(), "stale-id"));
+
+        int embedded = indexer.sync(URL, "期末考试通知", List.of(kept, changed));
+
+        assertEquals(1, embedded);
+        ArgumentCaptor<List<Document>> added = ArgumentCaptor.forClass(List.class);
+        verify(vectorStore).add(added.capture());
+        assertEquals(1, added.getValue().size());
+        Document document = added.getValue().get(0);
+        assertEquals(changed.getId(), document.getId());
+        assertEquals("考试时间\n考试于第二十周进行。", document.getText());
+        assertEquals("期末考试通知", document.getMetadata().get("title"));
+        assertEquals(URL, document.getMetadata().get("source_url"));
+        verify(vectorStore).delete(List.of("stale-id"));
+        assertEquals(1.0, meterRegistry.counter("qlu.knowledge.chunks", "result", "unchanged").count());
+    }
+
+    @Test
+    void testSync_UnchangedPageSkipsVectorStore() {
+        DocumentChunk kept = chunk("考试于第十九周进行。");
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(URL))).thenReturn(List.of(kept.getId()));
+
+        assertEquals(0, indexer.sync(URL, "期末考试通知", List.of(kept)));
+
+        verifyNoInteractions(vectorStore);
+    }
+
+    private static DocumentChunk chunk(String text) {
+        return new DocumentChunk(URL, List.of("考试时间"), DocumentChunk.Type.TEXT, text, 0, 0);
+    }
+}
@@ -0,0 +1,150 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.config.DataCollectionProperties;
+import edu.qlu.chatbot.mapper.KnowledgeDocumentMapper;
+import edu.qlu.chatbot.model.KnowledgeDocument;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * KnowledgeDocumentBulkWriter单元测试
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+class KnowledgeDocumentBulkWriterTest {
+
+    private KnowledgeDocumentMapper mapper;
+    private DataSource dataSource;
+    private Connection connection;
+    private DataCollectionProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private KnowledgeDocumentBulkWriter writer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mapper = mock(KnowledgeDocumentMapper.class);
+        dataSource = mock(DataSource.class);
+        connection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        properties = new DataCollectionProperties();
+        properties.getBulk().setBatchSize(2);
+        meterRegistry = new SimpleMeterRegistry();
+        writer = new KnowledgeDocumentBulkWriter(mapper, new JdbcTemplate(dataSource), properties, meterRegistry);
+    }
+
+    @Test
+    void testUpsert_SplitsBatchesAndKeepsLastDocumentPerUrl() {
+        List<List<String>> batches = new ArrayList<>();
+        when(mapper.batchUpsert(anyList())).thenAnswer(invocation -> {
+            List<KnowledgeDocument> batch = invocation.getArgument(0);
+            batches.add(batch.stream().map(KnowledgeDocument::getTitle).toList());
+            return batch.size();
+        });
+
+        KnowledgeDocumentBulkWriter.BulkLoadResult result = writer.upsert(List.of(
+                document("a", "旧标题"), document("b", "B"), document("c", "C"), document("a", "新标题")));
+
+        assertEquals(List.of(List.of("B", "C"), List.of("新标题")), batches);
+        assertEquals("upsert", result.mode());
+        assertEquals(3, result.rows());
+        assertTrue(result.rowsPerSecond() > 0);
+        assertEquals(3.0, meterRegistry.counter("qlu.knowledge.bulk.rows", "mode", "upsert").count());
+        assertEquals(1L, meterRegistry.timer("qlu.knowledge.bulk.write", "mode", "upsert").count());
+    }
+
+    @Test
+    void testCopy_FallsBackToUpsertWithoutPostgresConnection() throws Exception {
+        when(connection.isWrapperFor(PGConnection.class)).thenReturn(false);
+
+        KnowledgeDocumentBulkWriter.BulkLoadResult result = writer.copy(List.of(document("a", "A")));
+
+        assertEquals("upsert", result.mode());
+        verify(mapper).batchUpsert(anyList());
+        assertEquals(0, writer.copy(List.of()).rows());
+    }
+
+    @Test
+    void testCopy_StreamsRowsToStagingAndMergesIds() throws Exception {
+        PGConnection pgConnection = mock(PGConnection.class);
+        CopyManager copyManager = mock(CopyManager.class);
+        CopyIn copyIn = mock(CopyIn.class);
+        Statement statement = mock(Statement.class);
+        PreparedStatement merge = mock(PreparedStatement.class);
+        ResultSet keys = mock(ResultSet.class);
+        when(connection.isWrapperFor(PGConnection.class)).thenReturn(true);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.createStatement()).thenReturn(statement);
+        when(connection.prepareStatement(KnowledgeDocumentBulkWriter.MERGE_SQL)).thenReturn(merge);
+        when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+        when(copyManager.copyIn(KnowledgeDocumentBulkWriter.COPY_SQL)).thenReturn(copyIn);
+        ByteArrayOutputStream copied = new ByteArrayOutputStream();
+        doAnswer(invocation -> {
+            copied.write(invocation.<byte[]>getArgument(0), invocation.getArgument(1), invocation.getArgument(2));
+            return null;
+        }).when(copyIn).writeToCopy(any(byte[].class), anyInt(), anyInt());
+        when(merge.executeQuery()).thenReturn(keys);
+        when(keys.next()).thenReturn(true, true, false);
+        when(keys.getLong(1)).thenReturn(11L, 12L);
+        when(keys.getString(2)).thenReturn("https://www.qlu.edu.cn/b", "https://www.qlu.edu.cn/a");
+        KnowledgeDocument a = document("a", "A");
+        KnowledgeDocument b = document("b", "B");
+
+        KnowledgeDocumentBulkWriter.BulkLoadResult result = writer.copy(List.of(a, b));
+
+        assertEquals("copy", result.mode());
+        assertEquals(2, result.rows());
+        assertEquals(12L, a.getId());
+        assertEquals(11L, b.getId());
+        assertEquals(2, copied.toString(StandardCharsets.UTF_8).split("\n").length);
+        verify(statement).execute(KnowledgeDocumentBulkWriter.STAGING_DDL);
+        verify(copyIn).endCopy();
+        verify(connection).setAutoCommit(false);
+        verify(connection).commit();
+        verify(connection).setAutoCommit(true);
+        verifyNoInteractions(mapper);
+    }
+
+    @Test
+    void testAppendCopyRow_EscapesSpecialCharactersAndNulls() {
+        KnowledgeDocument document = document("a", "标题\t一");
+        document.setContent("第一行\n第二行\\r\r\0");
+        document.setCategory(null);
+        document.setCreatedAt(LocalDateTime.of(2025, 9, 1, 8, 30));
+        document.setUpdatedAt(LocalDateTime.of(2025, 9, 1, 8, 30));
+        document.setSimhash(-5L);
+
+        StringBuilder row = new StringBuilder();
+        KnowledgeDocumentBulkWriter.appendCopyRow(row, document);
+
+        assertEquals("标题\\t一\t第一行\\n第二行\\\\r\\r\thttps://www.qlu.edu.cn/a\t网页\t\\N"
+                + "\t2025-09-01T08:30\t2025-09-01T08:30\tfalse\tPENDING\t-5\n", row.toString());
+    }
+
+    private static KnowledgeDocument document(String path, String title) {
+        KnowledgeDocument document = new KnowledgeDocument(title, "内容" + path, "https://www.qlu.edu.cn/" + path);
+        document.setDocumentType("网页");
+        return document;
+    }
+}
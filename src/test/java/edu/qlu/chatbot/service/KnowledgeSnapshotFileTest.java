@@ -0,0 +1,148 @@
+package edu.qlu.chatbot.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * KnowledgeSnapshotFile与快照行转换单元测试
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+class KnowledgeSnapshotFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRoundTrip_ColumnsAndZeroCopyFloatVectors() throws IOException {
+        Path file = tempDir.resolve("kb.qkb");
+        try (KnowledgeSnapshotFile.Writer writer = new KnowledgeSnapshotFile.Writer(file,
+                new KnowledgeSnapshotFile.Header(3, KnowledgeSnapshotFile.EmbeddingEncoding.FLOAT32))) {
+            KnowledgeSnapshotFile.Column names = KnowledgeSnapshotFile.Column.compressed()
+                    .putString("招生简章").putString(null);
+            KnowledgeSnapshotFile.Column hashes = KnowledgeSnapshotFile.Column.compressed()
+                    .putNullableLong(-7L).putNullableLong(null);
+            KnowledgeSnapshotFile.Column vectors = KnowledgeSnapshotFile.Column.raw()
+                    .putFloat(0.5f).putFloat(-1f).putFloat(2f)
+                    .putFloat(3f).putFloat(0f).putFloat(-0.25f);
+            writer.writeBlock(KnowledgeSnapshotFile.TABLE_VECTORS, 2, List.of(names, hashes, vectors));
+        }
+
+        try (KnowledgeSnapshotFile.Reader reader = new KnowledgeSnapshotFile.Reader(file)) {
+            assertEquals(3, reader.header().dimensions());
+            assertEquals(KnowledgeSnapshotFile.EmbeddingEncoding.FLOAT32, reader.header().encoding());
+            KnowledgeSnapshotFile.Block block = reader.next();
+            assertEquals(KnowledgeSnapshotFile.TABLE_VECTORS, block.table());
+            assertEquals(2, block.rows());
+            KnowledgeSnapshotFile.ColumnReader names = block.column(0);
+            assertEquals("招生简章", names.getString());
+            assertNull(names.getString());
+            KnowledgeSnapshotFile.ColumnReader hashes = block.column(1);
+            assertEquals(-7L, hashes.getNullableLong());
+            assertNull(hashes.getNullableLong());
+            FloatBuffer floats = block.floatColumn(2);
+            float[] vector = new float[6];
+            floats.get(vector);
+            assertArrayEquals(new float[]{0.5f, -1f, 2f, 3f, 0f, -0.25f}, vector);
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void testCompressedColumns_SmallerThanRawText() throws IOException {
+        Path compressed = tempDir.resolve("compressed.qkb");
+        Path raw = tempDir.resolve("raw.qkb");
+        write(compressed, KnowledgeSnapshotFile.Column.compressed());
+        write(raw, KnowledgeSnapshotFile.Column.raw());
+
+        assertTrue(Files.size(compressed) * 4 < Files.size(raw));
+    }
+
+    @Test
+    void testQuantize_Int8WithinOneStep() {
+        float[] vector = {0.9f, -0.3f, 0.05f, -0.9f};
+        byte[] quantized = new byte[vector.length];
+
+        float scale = KnowledgeSnapshotFile.quantize(vector, quantized);
+
+        assertEquals(127, quantized[0]);
+        assertEquals(-127, quantized[3]);
+        for (int i = 0; i < vector.length; i++) {
+            assertEquals(vector[i], quantized[i] * scale, scale);
+        }
+    }
+
+    @Test
+    void testReader_RejectsForeignFile() throws IOException {
+        Path file = tempDir.resolve("foreign.qkb");
+        Files.writeString(file, "not a snapshot file at all");
+
+        assertThrows(IOException.class, () -> new KnowledgeSnapshotFile.Reader(file));
+    }
+
+    @Test
+    void testCopyRows_DequantizesVectorsIntoPgvectorText() throws IOException {
+        Path file = tempDir.resolve("int8.qkb");
+        float[] embedding = {1f, -0.5f};
+        byte[] quantized = new byte[2];
+        float scale = KnowledgeSnapshotFile.quantize(embedding, quantized);
+        try (KnowledgeSnapshotFile.Writer writer = new KnowledgeSnapshotFile.Writer(file,
+                new KnowledgeSnapshotFile.Header(2, KnowledgeSnapshotFile.EmbeddingEncoding.INT8))) {
+            writer.writeBlock(KnowledgeSnapshotFile.TABLE_VECTORS, 1, List.of(
+                    KnowledgeSnapshotFile.Column.compressed().putString("chunk-1"),
+                    KnowledgeSnapshotFile.Column.compressed().putString("第一行\n第二行"),
+                    KnowledgeSnapshotFile.Column.compressed().putString("{\"chunk\":0}"),
+                    KnowledgeSnapshotFile.Column.raw().putFloat(scale),
+                    KnowledgeSnapshotFile.Column.raw().putByte(quantized[0]).putByte(quantized[1])));
+            writer.writeBlock(KnowledgeSnapshotFile.TABLE_ALIASES, 1, List.of(
+                    KnowledgeSnapshotFile.Column.compressed().putString("https://www.qlu.edu.cn/print"),
+                    KnowledgeSnapshotFile.Column.compressed().putLong(12L),
+                    KnowledgeSnapshotFile.Column.compressed().putInt(2),
+                    KnowledgeSnapshotFile.Column.compressed().putNullableLong(1_756_715_400_000_001L)));
+        }
+
+        try (KnowledgeSnapshotFile.Reader reader = new KnowledgeSnapshotFile.Reader(file)) {
+            List<String> vectors = KnowledgeSnapshotService.copyRows(reader.next(), reader.header(), new StringBuilder());
+            String[] fields = vectors.get(0).split("\t");
+            assertEquals("chunk-1", fields[0]);
+            assertEquals("第一行\\n第二行", fields[1]);
+            float[] restored = KnowledgeSnapshotService.parseVector(fields[3].trim(), 2);
+            assertEquals(1f, restored[0], scale);
+            assertEquals(-0.5f, restored[1], scale);
+
+            List<String> aliases = KnowledgeSnapshotService.copyRows(reader.next(), reader.header(), new StringBuilder());
+            assertEquals("https://www.qlu.edu.cn/print\t12\t2\t"
+                    + Instant.parse("2025-09-01T08:30:00.000001Z") + "\n", aliases.get(0));
+        }
+    }
+
+    @Test
+    void testParseVector_RejectsWrongDimensions() throws IOException {
+        StringBuilder text = new StringBuilder();
+        KnowledgeSnapshotService.appendVector(text, new float[]{0.25f, -3f, 1e-3f});
+
+        assertArrayEquals(new float[]{0.25f, -3f, 1e-3f}, KnowledgeSnapshotService.parseVector(text.toString(), 3));
+        assertThrows(IOException.class, () -> KnowledgeSnapshotService.parseVector(text.toString(), 2));
+        assertThrows(IOException.class, () -> KnowledgeSnapshotService.parseVector(text.toString(), 4));
+    }
+
+    private static void write(Path file, KnowledgeSnapshotFile.Column column) throws IOException {
+        for (int i = 0; i < 500; i++) {
+            column.putString("齐鲁工业大学关于2025年秋季学期教学安排的通知 第" + (i % 10) + "条");
+        }
+        try (KnowledgeSnapshotFile.Writer writer = new KnowledgeSnapshotFile.Writer(file,
+                new KnowledgeSnapshotFile.Header(0, KnowledgeSnapshotFile.EmbeddingEncoding.FLOAT32))) {
+            writer.writeBlock(KnowledgeSnapshotFile.TABLE_DOCUMENTS, 500, List.of(column));
+        }
+    }
+}
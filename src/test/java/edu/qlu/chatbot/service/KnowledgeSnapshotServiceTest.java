@@ -0,0 +1,41 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.config.DataCollectionProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * KnowledgeSnapshotService单元测试
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+class KnowledgeSnapshotServiceTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testImportSnapshot_ReplaceRejectedUnlessAllowed() throws Exception {
+        Files.write(directory.resolve("kb.qkb"), new byte[]{0});
+        DataCollectionProperties properties = new DataCollectionProperties();
+        properties.getSnapshot().setDirectory(directory.toString());
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        NearDuplicateIndex nearDuplicateIndex = mock(NearDuplicateIndex.class);
+        KnowledgeSnapshotService service = new KnowledgeSnapshotService(jdbcTemplate, nearDuplicateIndex,
+                properties, new SimpleMeterRegistry());
+
+        SecurityException e = assertThrows(SecurityException.class, () -> service.importSnapshot("kb.qkb", true));
+
+        assertTrue(e.getMessage().contains("allow-replace"));
+        verifyNoInteractions(jdbcTemplate, nearDuplicateIndex);
+    }
+}
@@ -0,0 +1,110 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.config.DataCollectionProperties;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MainContentExtractor单元测试
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+class MainContentExtractorTest {
+
+    private static final String PARAGRAPH =
+            "根据学校教学工作安排，本学期期末考试将于第十九周进行，请各学院按照教学进度组织复习，考生须携带学生证和身份证按时参加考试。";
+
+    private DataCollectionProperties properties;
+    private MainContentExtractor extractor;
+
+    @BeforeEach
+    void setUp() {
+        properties = new DataCollectionProperties();
+        extractor = new MainContentExtractor(properties);
+    }
+
+    @Test
+    void testExtract_PicksDenseTextAndDropsNavigation() {
+        Document doc = Jsoup.parse(page(), "https://www.qlu.edu.cn/info/1001.htm");
+
+        Element content = extractor.extract(doc);
+        String text = content.text();
+
+        assertTrue(text.contains("关于期末考试安排的通知"), text);
+        assertTrue(text.contains("本学期期末考试将于第十九周进行"), text);
+        assertFalse(text.contains("栏目"), text);
+        assertFalse(text.contains("版权所有"), text);
+        assertFalse(text.contains("相关阅读"), text);
+        // 不修改原页面
+        assertTrue(doc.body().text().contains("栏目1"));
+    }
+
+    @Test
+    void testExtract_SiteRuleOverridesScoring() {
+        DataCollectionProperties.SiteRule rule = new DataCollectionProperties.SiteRule();
+        rule.setContentSelector(".meta, .v_news_content");
+        rule.setRemoveSelectors(List.of(".print"));
+        properties.getSites().put("qlu.edu.cn", rule);
+        Document doc = Jsoup.parse(page(), "https://jwc.qlu.edu.cn/info/1001.htm");
+
+        String text = extractor.extract(doc).text();
+
+        assertTrue(text.startsWith("发布时间：2025-06-01"), text);
+        assertTrue(text.contains("本学期期末考试将于第十九周进行"), text);
+        assertFalse(text.contains("关于期末考试安排的通知"), text);
+        assertFalse(text.contains("打印本页"), text);
+    }
+
+    @Test
+    void testExtract_SiteRuleWithoutMatchFallsBackToScoring() {
+        DataCollectionProperties.SiteRule rule = new DataCollectionProperties.SiteRule();
+        rule.setContentSelector("#not-exists");
+        properties.getSites().put("www.qlu.edu.cn", rule);
+
+        String text = extractor.extract(Jsoup.parse(page(), "https://www.qlu.edu.cn/")).text();
+
+        assertTrue(text.contains("本学期期末考试将于第十九周进行"), text);
+        assertFalse(text.contains("栏目"), text);
+    }
+
+    @Test
+    void testSiteRuleFor_MatchesLongestDomain() {
+        DataCollectionProperties.SiteRule general = new DataCollectionProperties.SiteRule();
+        DataCollectionProperties.SiteRule jwc = new DataCollectionProperties.SiteRule();
+        properties.getSites().put("qlu.edu.cn", general);
+        properties.getSites().put("jwc.qlu.edu.cn", jwc);
+
+        assertSame(jwc, properties.siteRuleFor("jwc.qlu.edu.cn"));
+        assertSame(general, properties.siteRuleFor("www.qlu.edu.cn"));
+        assertNull(properties.siteRuleFor("notqlu.edu.cn"));
+    }
+
+    private static String page() {
+        StringBuilder nav = new StringBuilder("<div class=\"menu\"><ul>");
+        for (int i = 0; i < 30; i++) {
+            nav.append("<li><a href=\"/column/").append(i).append("\">栏目").append(i).append("</a></li>");
+        }
+        nav.append("</ul></div>");
+        StringBuilder paragraphs = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            paragraphs.append("<p>").append(PARAGRAPH).append("</p>");
+        }
+        return "<html><head><title>教务处</title></head><body>"
+                + "<div class=\"header\"><a href=\"/\">首页</a></div>" + nav
+                + "<div class=\"wrap\"><h1>关于期末考试安排的通知</h1>"
+                + "<div class=\"meta\">发布时间：2025-06-01 来源：教务处</div>"
+                + "<div class=\"v_news_content\">" + paragraphs
+                + "<div class=\"related\"><a href=\"/a\">相关阅读一</a><a href=\"/b\">相关阅读二</a></div>"
+                + "<div class=\"print\">打印本页</div></div></div>"
+                + "<div class=\"footer\">版权所有 齐鲁工业大学 地址：山东省济南市长清区大学路3501号</div>"
+                + "</body></html>";
+    }
+}
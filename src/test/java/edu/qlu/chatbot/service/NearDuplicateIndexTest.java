@@ -0,0 +1,155 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.config.DataCollectionProperties;
+import edu.qlu.chatbot.mapper.KnowledgeDocumentMapper;
+import edu.qlu.chatbot.model.KnowledgeDocument;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * NearDuplicateIndex单元测试
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+class NearDuplicateIndexTest {
+
+    private static final String NOTICE = "关于2025-2026学年第一学期期末考试安排的通知。各学院、各位同学：根据学校教学工作安排，"
+            + "本学期期末考试定于第十九周至第二十周进行，具体考试时间和地点以教务系统公布的考试安排为准。"
+            + "请各学院认真做好考务组织工作，监考教师须提前二十分钟到达考场，学生须携带学生证和身份证参加考试，"
+            + "未携带证件者不得进入考场。考试期间严禁携带手机等通讯工具进入考场，违者按考试违纪处理。"
+            + "缓考申请须在考试前一周通过教务系统提交，经学院审核后报教务处备案。教务处，2025年12月20日。";
+
+    private static final String OTHER = "关于开展2026年春季学期学生评教工作的通知。为进一步提高教学质量，学校将于第八周至第十周"
+            + "组织开展学生网上评教工作。请各位同学登录教务系统，在评教栏目中对本学期所修课程的任课教师进行客观公正的评价，"
+            + "评教结果将作为教师教学质量考核的重要依据。未完成评教的学生将无法查询本学期课程成绩，请相互转告。"
+            + "各学院要加强宣传和组织，确保评教工作顺利完成，评教期间如遇系统问题请联系教务处教学运行科。";
+
+    private KnowledgeDocumentMapper mapper;
+    private DataCollectionProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private NearDuplicateIndex index;
+
+    @BeforeEach
+    void setUp() {
+        mapper = mock(KnowledgeDocumentMapper.class);
+        properties = new DataCollectionProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        index = new NearDuplicateIndex(mapper, properties, meterRegistry);
+    }
+
+    @Test
+    void testFingerprint_IgnoresFormattingAndKeepsNearCopiesClose() {
+        long original = NearDuplicateIndex.fingerprint(NOTICE);
+        long reformatted = NearDuplicateIndex.fingerprint(NOTICE.replace("，", ", ").replace("。", ".\n"));
+        long printView = NearDuplicateIndex.fingerprint(NOTICE + "【打印本页】");
+        long other = NearDuplicateIndex.fingerprint(OTHER);
+
+        assertEquals(original, reformatted);
+        assertTrue(Long.bitCount(original ^ printView) <= 3, Long.toBinaryString(original ^ printView));
+        assertTrue(Long.bitCount(original ^ other) > 10, Long.toBinaryString(original ^ other));
+    }
+
+    @Test
+    void testFind_BandedLookupReturnsMatchesWithinDistanceSortedByDistance() {
+        Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            index.add(1000 + i, random.nextLong());
+        }
+        long fingerprint = 0x0123_4567_89ab_cdefL;
+        // 3位差异分布在3个不同分段，只剩一个分段完全相同
+        index.add(1, fingerprint ^ (1L << 3) ^ (1L << 20) ^ (1L << 40));
+        index.add(2, fingerprint ^ (1L << 63));
+        index.add(3, fingerprint ^ (1L << 1) ^ (1L << 2) ^ (1L << 3) ^ (1L << 4));
+
+        List<NearDuplicateIndex.Match> matches = index.find(fingerprint);
+
+        assertEquals(List.of(new NearDuplicateIndex.Match(2, 1), new NearDuplicateIndex.Match(1, 3)), matches);
+        assertEquals(5003, index.size());
+        assertEquals(5003.0, meterRegistry.get("qlu.crawler.fingerprints").gauge().value());
+    }
+
+    @Test
+    void testResolve_RecordsAliasAndSkipsCanonicalUrlAndDeletedDocuments() {
+        KnowledgeDocument canonical = document("https://www.qlu.edu.cn/info/1001.htm", NOTICE);
+        assertNull(index.resolve(canonical));
+        canonical.setId(1L);
+        index.register(canonical);
+        when(mapper.findSourceUrlById(1L)).thenReturn(canonical.getSourceUrl());
+
+        KnowledgeDocument mirror = document("https://jwc.qlu.edu.cn/info/2002.htm", NOTICE + "【打印本页】");
+        NearDuplicateIndex.Match match = index.resolve(mirror);
+
+        assertNotNull(match);
+        assertEquals(1L, match.canonicalId());
+        assertNotNull(mirror.getSimhash());
+        verify(mapper).insertAlias(eq("https://jwc.qlu.edu.cn/info/2002.htm"), eq(1L), eq(match.distance()));
+        assertEquals(1.0, meterRegistry.counter("qlu.crawler.duplicates").count());
+
+        // 重新采集规范文档本身的URL
+        assertNull(index.resolve(document(canonical.getSourceUrl(), NOTICE)));
+
+        // 规范文档已删除：移除索引项，不再归并
+        when(mapper.findSourceUrlById(1L)).thenReturn(null);
+        assertNull(index.resolve(document("https://www.qlu.edu.cn/info/3003.htm", NOTICE)));
+        assertEquals(0, index.size());
+        verify(mapper, times(1)).insertAlias(anyString(), anyLong(), anyInt());
+    }
+
+    @Test
+    void testResolve_SkipsShortTextAndDisabled() {
+        KnowledgeDocument shortDocument = document("https://www.qlu.edu.cn/info/1.htm", "放假通知");
+        assertNull(index.resolve(shortDocument));
+        assertNull(shortDocument.getSimhash());
+
+        properties.getDedup().setEnabled(false);
+        KnowledgeDocument document = document("https://www.qlu.edu.cn/info/2.htm", NOTICE);
+        assertNull(index.resolve(document));
+        assertNull(document.getSimhash());
+        verifyNoInteractions(mapper);
+    }
+
+    @Test
+    void testConstructor_RejectsDistanceBeyondBandLimit() {
+        properties.getDedup().setMaxHammingDistance(4);
+        assertThrows(IllegalArgumentException.class, () -> new NearDuplicateIndex(mapper, properties, meterRegistry));
+
+        properties.getDedup().setMaxHammingDistance(-1);
+        assertThrows(IllegalArgumentException.class, () -> new NearDuplicateIndex(mapper, properties, meterRegistry));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testLoad_RebuildsIndexFromPersistedFingerprints() {
+        long fingerprint = NearDuplicateIndex.fingerprint(NOTICE);
+        doAnswer(invocation -> {
+            ResultHandler<KnowledgeDocumentMapper.Fingerprint> handler = invocation.getArgument(0);
+            KnowledgeDocumentMapper.Fingerprint row = new KnowledgeDocumentMapper.Fingerprint();
+            row.setId(7L);
+            row.setSimhash(fingerprint);
+            ResultContext<KnowledgeDocumentMapper.Fingerprint> context = mock(ResultContext.class);
+            when(context.getResultObject()).thenReturn(row);
+            handler.handleResult(context);
+            return null;
+        }).when(mapper).scanFingerprints(any());
+
+        index.load();
+
+        assertEquals(1, index.size());
+        assertEquals(List.of(new NearDuplicateIndex.Match(7L, 0)), index.find(fingerprint));
+    }
+
+    private static KnowledgeDocument document(String url, String content) {
+        return new KnowledgeDocument("期末考试安排", content, url);
+    }
+}
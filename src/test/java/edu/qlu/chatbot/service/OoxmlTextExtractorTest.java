@@ -0,0 +1,109 @@
+package edu.qlu.chatbot.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * OoxmlTextExtractor单元测试
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+class OoxmlTextExtractorTest {
+
+    private final OoxmlTextExtractor extractor = new OoxmlTextExtractor();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testExtractDocx_ParagraphsAndTableRows() throws IOException {
+        Path file = docx(tempDir.resolve("notice.docx"),
+                "<w:p><w:r><w:t>关于期末考试安排的通知</w:t></w:r></w:p>"
+                + "<w:p><w:r><w:t xml:space=\"preserve\">考试于第十九周</w:t></w:r><w:r><w:t>进行。</w:t></w:r></w:p>"
+                + "<w:tbl><w:tr><w:tc><w:p><w:r><w:t>课程</w:t></w:r></w:p></w:tc>"
+                + "<w:tc><w:p><w:r><w:t>地点</w:t></w:r></w:p></w:tc></w:tr>"
+                + "<w:tr><w:tc><w:p><w:r><w:t>高等数学</w:t></w:r></w:p></w:tc>"
+                + "<w:tc><w:p><w:r><w:t>1号楼101</w:t></w:r></w:p></w:tc></w:tr></w:tbl>"
+                + "<w:p/>");
+
+        String text = extractor.extract(file, "DOCX", 10000);
+
+        assertEquals("关于期末考试安排的通知\n考试于第十九周进行。\n课程 | 地点\n高等数学 | 1号楼101", text);
+    }
+
+    @Test
+    void testExtractXlsx_SharedStringsAfterSheetsAndInlineStrings() throws IOException {
+        Map<String, String> parts = new LinkedHashMap<>();
+        parts.put("xl/worksheets/sheet2.xml", sheet("<row r=\"1\"><c r=\"A1\" t=\"inlineStr\"><is><t>第二页</t></is></c></row>"));
+        parts.put("xl/worksheets/sheet1.xml", sheet(
+                "<row r=\"1\"><c r=\"A1\" t=\"s\"><v>0</v></c><c r=\"B1\" t=\"s\"><v>1</v></c></row>"
+                + "<row r=\"2\"/>"
+                + "<row r=\"3\"><c r=\"A3\" t=\"s\"><v>2</v></c><c r=\"B3\"><v>4.5</v></c></row>"));
+        parts.put("xl/sharedStrings.xml", "<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">"
+                + "<si><t>课程</t></si><si><t>学分</t></si>"
+                + "<si><r><t>高等</t></r><r><t>数学</t></r><rPh><t>ガク</t></rPh></si></sst>");
+        Path file = zip(tempDir.resolve("plan.xlsx"), parts);
+
+        String text = extractor.extract(file, "XLSX", 10000);
+
+        assertEquals("课程 | 学分\n高等数学 | 4.5\n第二页", text);
+    }
+
+    @Test
+    void testExtract_StopsAtMaxChars() throws IOException {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            body.append("<w:p><w:r><w:t>第").append(i).append("段内容</w:t></w:r></w:p>");
+        }
+        Path file = docx(tempDir.resolve("long.docx"), body.toString());
+
+        String text = extractor.extract(file, "DOCX", 50);
+
+        assertTrue(text.length() <= 50, text);
+        assertTrue(text.startsWith("第0段内容\n第1段内容"), text);
+    }
+
+    @Test
+    void testExtract_InvalidFileThrows() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("fake.docx"), "not a zip");
+
+        assertThrows(IOException.class, () -> extractor.extract(file, "DOCX", 1000));
+        Path empty = zip(tempDir.resolve("empty.docx"), Map.of("[Content_Types].xml", "<Types/>"));
+        assertThrows(IOException.class, () -> extractor.extract(empty, "DOCX", 1000));
+    }
+
+    static Path docx(Path file, String body) throws IOException {
+        return zip(file, Map.of("word/document.xml",
+                "<w:document xmlns:w=\"http://schemas.openxmlformats.org/wordprocessingml/2006/main\"><w:body>"
+                + body + "</w:body></w:document>"));
+    }
+
+    private static String sheet(String rows) {
+        return "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>"
+                + rows + "</sheetData></worksheet>";
+    }
+
+    private static Path zip(Path file, Map<String, String> parts) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file); ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (Map.Entry<String, String> part : parts.entrySet()) {
+                zip.putNextEntry(new ZipEntry(part.getKey()));
+                zip.write(part.getValue().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,68 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.config.MetricsConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PerformanceMetricsService 测试类
+ */
+class PerformanceMetricsServiceTest {
+
+    private MeterRegistry meterRegistry;
+    private PerformanceMetricsService performanceMetricsService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new MetricsConfig().meterRegistry();
+        performanceMetricsService = new PerformanceMetricsService(meterRegistry);
+    }
+
+    @Test
+    void testScrapePrometheus_ExportsTimerQuantilesAndCounters() {
+        Timer timer = Timer.builder("qlu.iflytek.requests")
+                .tag("func", "searchFea")
+                .tag("outcome", "success")
+                .register(meterRegistry);
+        timer.record(Duration.ofMillis(120));
+        timer.record(Duration.ofMillis(80));
+        meterRegistry.counter("qlu.test.events").increment(3);
+
+        String text = performanceMetricsService.scrapePrometheus();
+
+        assertTrue(text.contains("# TYPE qlu_iflytek_requests_seconds summary"));
+        assertTrue(text.contains("qlu_iflytek_requests_seconds_count{application=\"academic-affairs-chatbot\","
+                + "func=\"searchFea\",outcome=\"success\"} 2"));
+        assertTrue(text.contains("quantile=\"0.95\""));
+        assertTrue(text.contains("qlu_test_events_total{application=\"academic-affairs-chatbot\"} 3"));
+        assertTrue(text.contains("# TYPE jvm_memory_used_bytes gauge") || text.contains("# TYPE jvm_memory_used gauge"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetPerformanceSummary_ReportsPercentilesInMillis() {
+        Timer timer = meterRegistry.timer("qlu.llm.requests", "outcome", "success");
+        for (int i = 1; i <= 100; i++) {
+            timer.record(Duration.ofMillis(i * 10L));
+        }
+
+        Map<String, Object> summary = performanceMetricsService.getPerformanceSummary();
+
+        Map<String, List<Map<String, Object>>> timers =
+                (Map<String, List<Map<String, Object>>>) summary.get("timers");
+        Map<String, Object> llm = timers.get("qlu.llm.requests").get(0);
+        assertEquals(100L, llm.get("count"));
+        assertEquals(1000.0, (Double) llm.get("maxMs"), 0.01);
+        double p95 = (Double) llm.get("p95Ms");
+        assertTrue(p95 > 850 && p95 < 1100, "p95应约为950ms，实际: " + p95);
+        assertNotNull(summary.get("lookupCache"));
+    }
+}
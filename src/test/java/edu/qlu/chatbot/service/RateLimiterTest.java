@@ -0,0 +1,76 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RateLimiter 单元测试
+ */
+class RateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        RateLimitProperties.Rule rule = new RateLimitProperties.Rule();
+        rule.setPath("/api/v1/chat");
+        rule.setPermitsPerMinute(60);
+        rule.setBurst(3);
+        properties.getRules().put("chat", rule);
+        rateLimiter = new RateLimiter(properties, new SimpleMeterRegistry(), clock::get);
+    }
+
+    @Test
+    void testBurstAllowedThenRejectedWithRetryAfter() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("chat", "ip:1.1.1.1"));
+        }
+        long retryAfter = rateLimiter.tryAcquire("chat", "ip:1.1.1.1");
+        assertTrue(retryAfter > 0 && retryAfter <= 1000, "每秒补充一个令牌，重试等待不应超过1秒: " + retryAfter);
+    }
+
+    @Test
+    void testTokensRefillOverTime() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("chat", "ip:1.1.1.1");
+        }
+        assertTrue(rateLimiter.tryAcquire("chat", "ip:1.1.1.1") > 0);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(0, rateLimiter.tryAcquire("chat", "ip:1.1.1.1"));
+        assertTrue(rateLimiter.tryAcquire("chat", "ip:1.1.1.1") > 0);
+    }
+
+    @Test
+    void testClientsHaveIndependentBuckets() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("chat", "ip:1.1.1.1");
+        }
+        assertTrue(rateLimiter.tryAcquire("chat", "ip:1.1.1.1") > 0);
+        assertEquals(0, rateLimiter.tryAcquire("chat", "ip:2.2.2.2"));
+        assertEquals(0, rateLimiter.tryAcquire("unknown", "ip:1.1.1.1"), "未配置的规则应直接放行");
+    }
+
+    @Test
+    void testEvictIdleBuckets() {
+        rateLimiter.tryAcquire("chat", "ip:1.1.1.1");
+        rateLimiter.tryAcquire("chat", "ip:2.2.2.2");
+        assertEquals(2, rateLimiter.bucketCount());
+
+        rateLimiter.evictIdleBuckets();
+        assertEquals(2, rateLimiter.bucketCount(), "未回满的桶不应被清除");
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        rateLimiter.evictIdleBuckets();
+        assertEquals(0, rateLimiter.bucketCount());
+    }
+}
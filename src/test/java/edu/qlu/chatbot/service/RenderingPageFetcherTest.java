@@ -0,0 +1,96 @@
+package edu.qlu.chatbot.service;
+
+import com.sun.net.httpserver.HttpServer;
+import edu.qlu.chatbot.config.DataCollectionProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RenderingPageFetcher单元测试
+ *
+ * 使用JDK内置HttpServer提供由脚本生成正文的页面
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+class RenderingPageFetcherTest {
+
+    private static final String PAGE = "<html><head><title>通知列表</title>"
+            + "<link rel=\"stylesheet\" href=\"/style.css\">"
+            + "<script src=\"https://hm.baidu.com/hm.js?abc\"></script></head>"
+            + "<body><img src=\"/logo.png\"><div id=\"list\"></div>"
+            + "<script>document.getElementById('list').innerHTML ="
+            + " '<p>关于期末考试安排的通知</p><p>关于选课的通知</p>';</script></body></html>";
+
+    private HttpServer server;
+    private String baseUrl;
+    private final AtomicInteger resourceHits = new AtomicInteger();
+    private DataCollectionProperties properties;
+    private RenderingPageFetcher fetcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/list.htm", exchange -> {
+            byte[] body = PAGE.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/", exchange -> {
+            resourceHits.incrementAndGet();
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        properties = new DataCollectionProperties();
+        properties.getRendering().setUrlPatterns(List.of("/list\\.htm$"));
+        properties.getRendering().setPoolSize(1);
+        fetcher = new RenderingPageFetcher(properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        fetcher.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void testShouldRender_OnlyMatchingUrlsWithTooLittleText() {
+        assertTrue(fetcher.shouldRender(baseUrl + "/list.htm", 10));
+        assertFalse(fetcher.shouldRender(baseUrl + "/list.htm", 500));
+        assertFalse(fetcher.shouldRender(baseUrl + "/info/1001.htm", 10));
+
+        properties.getRendering().setEnabled(false);
+        assertFalse(fetcher.shouldRender(baseUrl + "/list.htm", 10));
+    }
+
+    @Test
+    void testRender_ExecutesScriptsBlocksResourcesAndReusesClient() throws IOException {
+        Document first = fetcher.render(baseUrl + "/list.htm");
+        Document second = fetcher.render(baseUrl + "/list.htm");
+
+        assertEquals("关于期末考试安排的通知 关于选课的通知", first.getElementById("list").text());
+        assertEquals(first.getElementById("list").text(), second.getElementById("list").text());
+        assertEquals(baseUrl + "/list.htm", first.location());
+        assertEquals(1, fetcher.createdClientCount());
+        assertEquals(0, resourceHits.get());
+        assertTrue(fetcher.blockedRequestCount() >= 2);
+    }
+}
@@ -0,0 +1,66 @@
+package edu.qlu.chatbot.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RequestDeadline 测试类
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+class RequestDeadlineTest {
+
+    @Test
+    void testCapMillisUsesRemainingBudget() {
+        assertEquals(5000, RequestDeadline.capMillis(5000, "test"), "未绑定截止时间时保持原超时");
+
+        try (RequestDeadline.Scope deadline = RequestDeadline.start(1000)) {
+            long capped = RequestDeadline.capMillis(5000, "test");
+            assertTrue(capped > 0 && capped <= 1000, "超时应收紧到剩余时间: " + capped);
+            assertEquals(100, RequestDeadline.capMillis(100, "test"));
+        }
+        assertNull(RequestDeadline.current(), "作用域关闭后应解除绑定");
+    }
+
+    @Test
+    void testNestedStartKeepsEarlierDeadline() {
+        try (RequestDeadline.Scope outer = RequestDeadline.start(500)) {
+            RequestDeadline outerDeadline = RequestDeadline.current();
+            try (RequestDeadline.Scope inner = RequestDeadline.start(60000)) {
+                assertSame(outerDeadline, RequestDeadline.current(), "较晚的截止时间不应放宽外层预算");
+            }
+            try (RequestDeadline.Scope inner = RequestDeadline.start(10)) {
+                assertNotSame(outerDeadline, RequestDeadline.current());
+            }
+            assertSame(outerDeadline, RequestDeadline.current());
+        }
+        try (RequestDeadline.Scope disabled = RequestDeadline.start(0)) {
+            assertNull(RequestDeadline.current(), "预算为0时不设截止时间");
+        }
+    }
+
+    @Test
+    void testCancelFailsDownstreamCallsInOtherThreads() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            RequestDeadline deadline = RequestDeadline.of(60000);
+            deadline.cancel();
+            try (RequestDeadline.Scope scope = RequestDeadline.bind(deadline)) {
+                assertThrows(DeadlineExceededException.class, () -> RequestDeadline.check("llm"));
+                var future = executor.submit(RequestDeadline.wrap(() -> RequestDeadline.capMillis(1000, "iflytek")));
+                Exception e = assertThrows(Exception.class, () -> future.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(DeadlineExceededException.class, e.getCause());
+            }
+            assertEquals(1000, executor.submit(() -> RequestDeadline.capMillis(1000, "iflytek")).get(),
+                    "工具线程执行完毕后应解除绑定");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.config.ToolExecutionProperties;
+import edu.qlu.chatbot.service.AcademicToolsService.CalendarQuery;
+import edu.qlu.chatbot.service.ToolExecutionService.ToolInvocation;
+import edu.qlu.chatbot.service.ToolExecutionService.ToolResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ToolExecutionService 测试类
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+class ToolExecutionServiceTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+
+    private SimpleMeterRegistry meterRegistry;
+    private ExecutorService executor;
+    private ToolExecutionService toolExecutionService;
+
+    @BeforeEach
+    void setUp() {
+        ToolExecutionProperties properties = new ToolExecutionProperties();
+        properties.setDefaultTimeoutMs(2000);
+        ToolExecutionProperties.Tool calendar = new ToolExecutionProperties.Tool();
+        calendar.setCacheTtlSeconds(60);
+        properties.getTool().put("getAcademicCalendar", calendar);
+        ToolExecutionProperties.Tool library = new ToolExecutionProperties.Tool();
+        library.setTimeoutMs(100);
+        properties.getTool().put("getLibraryInfo", library);
+
+        meterRegistry = new SimpleMeterRegistry();
+        executor = Executors.newFixedThreadPool(4);
+        toolExecutionService = new ToolExecutionService(properties, meterRegistry, executor, now::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testCached_HitsUntilTtlExpires() {
+        AtomicInteger loads = new AtomicInteger();
+        CalendarQuery query = calendarQuery("2024");
+
+        toolExecutionService.cached("getAcademicCalendar", query, q -> "校历" + loads.incrementAndGet());
+        String second = toolExecutionService.cached("getAcademicCalendar", calendarQuery("2024"),
+                q -> "校历" + loads.incrementAndGet());
+
+        assertEquals("校历1", second, "相同查询条件应命中缓存");
+        assertEquals(1, loads.get());
+
+        now.addAndGet(TimeUnit.SECONDS.toMillis(61));
+        String expired = toolExecutionService.cached("getAcademicCalendar", query, q -> "校历" + loads.incrementAndGet());
+
+        assertEquals("校历2", expired);
+        assertEquals(1.0, meterRegistry.counter("qlu.tools.cache", "tool", "getAcademicCalendar", "result", "hit").count());
+        assertEquals(2.0, meterRegistry.counter("qlu.tools.cache", "tool", "getAcademicCalendar", "result", "miss").count());
+    }
+
+    @Test
+    void testCached_ConcurrentMissesLoadOnce() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() ->
+                toolExecutionService.cached("getAcademicCalendar", calendarQuery("2024"), q -> {
+                    loading.countDown();
+                    awaitQuietly(release);
+                    return "校历" + loads.incrementAndGet();
+                }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() ->
+                toolExecutionService.cached("getAcademicCalendar", calendarQuery("2024"),
+                        q -> "校历" + loads.incrementAndGet()));
+        Thread.sleep(50);
+        release.countDown();
+
+        assertEquals("校历1", first.get(5, TimeUnit.SECONDS));
+        assertEquals("校历1", second.get(5, TimeUnit.SECONDS), "并发未命中应共享同一次加载");
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testCached_ToolWithoutTtlIsNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+
+        toolExecutionService.cached("getLibraryInfo", "q", q -> loads.incrementAndGet());
+        toolExecutionService.cached("getLibraryInfo", "q", q -> loads.incrementAndGet());
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testInvokeAll_RunsToolsConcurrently() {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        ToolInvocation course = new ToolInvocation("getCourseInfo", () -> awaitPeer(bothStarted, "课程"));
+        ToolInvocation exam = new ToolInvocation("getExamSchedule", () -> awaitPeer(bothStarted, "考试"));
+
+        List<ToolResult> results = toolExecutionService.invokeAll(List.of(course, exam));
+
+        // 两个工具互相等待对方开始，只有并行执行才能都成功
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("课程", results.get(0).result());
+        assertEquals("考试", results.get(1).result());
+        assertEquals(1, meterRegistry.timer("qlu.tools.invocations", "tool", "getCourseInfo", "outcome", "success").count());
+    }
+
+    @Test
+    void testInvokeAll_TimesOutSlowToolWithoutFailingOthers() {
+        ToolInvocation slow = new ToolInvocation("getLibraryInfo", () -> {
+            Thread.sleep(5000);
+            return "座位";
+        });
+        ToolInvocation failing = new ToolInvocation("getGradeInfo", () -> {
+            throw new IllegalArgumentException("学号不能为空");
+        });
+        ToolInvocation fast = new ToolInvocation("getAcademicCalendar", () -> "校历");
+
+        List<ToolResult> results = toolExecutionService.invokeAll(List.of(slow, failing, fast));
+
+        assertInstanceOf(TimeoutException.class, results.get(0).error());
+        assertInstanceOf(IllegalArgumentException.class, results.get(1).error());
+        assertEquals("校历", results.get(2).result());
+        assertEquals(1, meterRegistry.timer("qlu.tools.invocations", "tool", "getLibraryInfo", "outcome", "timeout").count());
+        assertEquals(1, meterRegistry.timer("qlu.tools.invocations", "tool", "getGradeInfo", "outcome", "error").count());
+    }
+
+    @Test
+    void testInvokeAll_StopsWaitingAtRequestDeadline() {
+        ToolInvocation slow = new ToolInvocation("getCourseInfo", () -> {
+            Thread.sleep(5000);
+            return "课程";
+        });
+        ToolInvocation deadlineAware = new ToolInvocation("getExamSchedule",
+                () -> RequestDeadline.current() != null ? "已传递" : "未传递");
+
+        List<ToolResult> results;
+        long start = System.nanoTime();
+        try (RequestDeadline.Scope deadline = RequestDeadline.start(200)) {
+            results = toolExecutionService.invokeAll(List.of(slow, deadlineAware));
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // 默认超时为2000ms，截止时间更早时按截止时间放弃等待
+        assertTrue(elapsedMs < 1500, "应在请求截止时间到达后停止等待: " + elapsedMs + "ms");
+        assertInstanceOf(TimeoutException.class, results.get(0).error());
+        assertEquals("已传递", results.get(1).result(), "截止时间应随任务传递到工具线程");
+        assertNull(RequestDeadline.current());
+    }
+
+    @Test
+    void testInvokeAll_RejectedWhenQueueFullIsReportedAsTimeout() throws Exception {
+        ToolExecutionProperties properties = new ToolExecutionProperties();
+        properties.setDefaultTimeoutMs(2000);
+        ThreadPoolExecutor saturated = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1), new ThreadPoolExecutor.AbortPolicy());
+        ToolExecutionService service = new ToolExecutionService(properties, meterRegistry, saturated, now::get);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            saturated.execute(() -> awaitQuietly(release));
+            saturated.execute(() -> awaitQuietly(release));
+            AtomicInteger calls = new AtomicInteger();
+            ToolInvocation course = new ToolInvocation("getCourseInfo", () -> "课程" + calls.incrementAndGet());
+
+            List<ToolResult> results = service.invokeAll(List.of(course));
+
+            // 不在请求线程上执行，直接按超时返回
+            assertEquals(0, calls.get());
+            assertInstanceOf(TimeoutException.class, results.get(0).error());
+            assertEquals(1, meterRegistry.timer("qlu.tools.invocations",
+                    "tool", "getCourseInfo", "outcome", "rejected").count());
+        } finally {
+            release.countDown();
+            saturated.shutdownNow();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String awaitPeer(CountDownLatch latch, String result) throws InterruptedException {
+        latch.countDown();
+        if (!latch.await(1, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("工具未并行执行");
+        }
+        return result;
+    }
+
+    private static CalendarQuery calendarQuery(String year) {
+        CalendarQuery query = new CalendarQuery();
+        query.setYear(year);
+        return query;
+    }
+}
@@ -0,0 +1,179 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.config.VectorSearchProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * VectorSearchService单元测试
+ *
+ * @author AI Assistant
+ * @version 1.0.0
+ */
+class VectorSearchServiceTest {
+
+    private Connection connection;
+    private Statement statement;
+    private EmbeddingModel embeddingModel;
+    private VectorSearchProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private VectorSearchService service;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        connection = mock(Connection.class);
+        statement = mock(Statement.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(connection.getAutoCommit()).thenReturn(true);
+        embeddingModel = mock(EmbeddingModel.class);
+        properties = new VectorSearchProperties();
+        properties.setDimensions(4);
+        meterRegistry = new SimpleMeterRegistry();
+        service = new VectorSearchService(new JdbcTemplate(dataSource), embeddingModel, properties, meterRegistry);
+    }
+
+    @Test
+    void testSearchPlan_IndexExpressionsPerStorageMode() {
+        VectorSearchService.SearchPlan exact = new VectorSearchService.SearchPlan(
+                VectorSearchService.StorageMode.FLOAT32, 1536, 0);
+        VectorSearchService.SearchPlan half = new VectorSearchService.SearchPlan(
+                VectorSearchService.StorageMode.HALFVEC, 1536, 1536);
+        VectorSearchService.SearchPlan binary = new VectorSearchService.SearchPlan(
+                VectorSearchService.StorageMode.BINARY, 1536, 512);
+
+        assertTrue(exact.exact());
+        assertEquals("idx_vector_store_embedding", exact.indexName());
+        assertFalse(exact.searchSql().contains("candidates"));
+        assertEquals("CREATE INDEX IF NOT EXISTS idx_vector_store_embedding_halfvec_1536 ON vector_store "
+                + "USING hnsw ((embedding::halfvec(1536)) halfvec_cosine_ops) WITH (m = 16, ef_construction = 64)",
+                half.indexDdl("CREATE INDEX IF NOT EXISTS", half.indexName(), 16, 64));
+        assertEquals("CREATE INDEX CONCURRENTLY tmp ON vector_store USING hnsw "
+                + "((binary_quantize(subvector(embedding, 1, 512))::bit(512)) bit_hamming_ops) "
+                + "WITH (m = 24, ef_construction = 128)",
+                binary.indexDdl("CREATE INDEX CONCURRENTLY", "tmp", 24, 128));
+        assertTrue(binary.searchSql().contains(
+                "binary_quantize(subvector(embedding, 1, 512))::bit(512) <~> "
+                        + "binary_quantize(subvector(?::vector, 1, 512))::bit(512) LIMIT ?) candidates"));
+    }
+
+    @Test
+    void testSearch_SetsLocalEfSearchAndReranksCandidates() throws SQLException {
+        properties.setStorageMode("binary");
+        properties.setRerankFactor(3);
+        properties.getHnsw().setEfSearch(10);
+        PreparedStatement query = mock(PreparedStatement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(connection.prepareStatement(service.currentPlan().searchSql())).thenReturn(query);
+        when(query.executeQuery()).thenReturn(rs);
+        when(rs.next()).thenReturn(true, false);
+        when(rs.getString("id")).thenReturn("c1");
+        when(rs.getString("content")).thenReturn("奖学金评定办法");
+        when(rs.getDouble("distance")).thenReturn(0.1);
+        when(embeddingModel.embed("奖学金申请")).thenReturn(new float[]{0.5f, -1f, 0f, 2f});
+
+        List<VectorSearchService.VectorHit> hits = service.search("奖学金申请", 5);
+
+        assertEquals(List.of(new VectorSearchService.VectorHit("c1", "奖学金评定办法", 0.1)), hits);
+        InOrder order = inOrder(connection, statement, query);
+        order.verify(connection).setAutoCommit(false);
+        // ef_search 不小于候选数 5 * 3
+        order.verify(statement).execute("SET LOCAL hnsw.ef_search = 15");
+        order.verify(query).executeQuery();
+        order.verify(connection).rollback();
+        order.verify(connection).setAutoCommit(true);
+        verify(query, times(2)).setString(anyInt(), eq("[0.5,-1.0,0.0,2.0]"));
+        verify(query).setInt(3, 15);
+        verify(query).setInt(4, 5);
+        assertEquals(1L, meterRegistry.timer("qlu.vector.search", "mode", "BINARY", "dimensions", "4").count());
+    }
+
+    @Test
+    void testEffectiveEfSearch_ClampedToCandidatesAndUpperBound() {
+        assertEquals(80, VectorSearchService.effectiveEfSearch(80, 20));
+        assertEquals(20, VectorSearchService.effectiveEfSearch(10, 20));
+        assertEquals(1000, VectorSearchService.effectiveEfSearch(5000, 20));
+    }
+
+    @Test
+    void testRebuildIndex_BuildsConcurrentlyAndSwapsNames() throws SQLException {
+        VectorSearchService.SearchPlan plan = new VectorSearchService.SearchPlan(
+                VectorSearchService.StorageMode.HALFVEC, 4, 0);
+
+        assertThrows(IllegalArgumentException.class, () -> service.rebuildIndex(plan, 16, 20));
+        assertThrows(IllegalArgumentException.class, () -> service.rebuildIndex(plan, 1, 64));
+
+        PreparedStatement size = mock(PreparedStatement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(connection.prepareStatement(anyString())).thenReturn(size);
+        when(size.executeQuery()).thenReturn(rs);
+        when(rs.next()).thenReturn(true, false);
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(rs.getMetaData()).thenReturn(metaData);
+        when(metaData.getColumnCount()).thenReturn(1);
+        when(rs.getLong(1)).thenReturn(8192L);
+
+        VectorSearchService.IndexBuild build = service.rebuildIndex(plan, 24, 128);
+
+        assertEquals("idx_vector_store_embedding_halfvec_4", build.index());
+        assertEquals(8192L, build.indexBytes());
+        InOrder order = inOrder(statement, connection);
+        order.verify(statement).execute("DROP INDEX CONCURRENTLY IF EXISTS idx_vector_store_embedding_halfvec_4_rebuild");
+        order.verify(statement).execute("DROP INDEX CONCURRENTLY IF EXISTS idx_vector_store_embedding_halfvec_4_old");
+        order.verify(statement).execute("CREATE INDEX CONCURRENTLY idx_vector_store_embedding_halfvec_4_rebuild "
+                + "ON vector_store USING hnsw ((embedding::halfvec(4)) halfvec_cosine_ops) "
+                + "WITH (m = 24, ef_construction = 128)");
+        order.verify(statement).execute("ALTER INDEX IF EXISTS idx_vector_store_embedding_halfvec_4 "
+                + "RENAME TO idx_vector_store_embedding_halfvec_4_old");
+        order.verify(statement).execute("ALTER INDEX idx_vector_store_embedding_halfvec_4_rebuild "
+                + "RENAME TO idx_vector_store_embedding_halfvec_4");
+        order.verify(connection).commit();
+        order.verify(statement).execute("DROP INDEX CONCURRENTLY IF EXISTS idx_vector_store_embedding_halfvec_4_old");
+    }
+
+    @Test
+    void testEnsureIndex_FailureIsLoggedNotThrown() throws SQLException {
+        properties.setStorageMode("HALFVEC");
+        properties.setIndexDimensions(2);
+        when(statement.execute(anyString())).thenThrow(new SQLException("extension missing"));
+
+        assertDoesNotThrow(() -> service.ensureIndex());
+
+        verify(statement).execute("CREATE INDEX IF NOT EXISTS idx_vector_store_embedding_halfvec_2 ON vector_store "
+                + "USING hnsw ((subvector(embedding, 1, 2)::halfvec(2)) halfvec_cosine_ops) "
+                + "WITH (m = 16, ef_construction = 64)");
+    }
+
+    @Test
+    void testBenchmarkHelpers_RecallPercentileAndSelfExclusion() {
+        assertEquals(List.of("b", "c"), VectorSearchBenchmark.withoutSelf(List.of("a", "b", "c", "d"), "a", 2));
+        assertEquals(0.5, VectorSearchBenchmark.recall(Set.of("b", "c"), List.of("b", "x")));
+        double[] millis = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20};
+        assertEquals(19, VectorSearchBenchmark.percentile(millis, 0.95));
+        assertEquals(10, VectorSearchBenchmark.percentile(millis, 0.5));
+
+        properties.setIndexDimensions(2);
+        VectorSearchBenchmark benchmark = new VectorSearchBenchmark(service, mock(JdbcTemplate.class), properties);
+        assertEquals("[FLOAT32/4, FLOAT32/2, HALFVEC/4, HALFVEC/2, BINARY/4, BINARY/2]",
+                benchmark.plans().toString());
+    }
+}
@@ -0,0 +1,189 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.config.VoiceprintConfig;
+import edu.qlu.chatbot.mapper.UserMapper;
+import edu.qlu.chatbot.mapper.VoiceprintMapper;
+import edu.qlu.chatbot.model.User;
+import edu.qlu.chatbot.model.VoiceprintEnrollResponse;
+import edu.qlu.chatbot.service.VoiceprintBatchEnrollmentService.BatchEnrollItem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * VoiceprintBatchEnrollmentService 测试类
+ */
+@ExtendWith(MockitoExtension.class)
+class VoiceprintBatchEnrollmentServiceTest {
+
+    @Mock
+    private IFlytekVoiceprintClient iflytekClient;
+
+    @Mock
+    private AudioProcessingService audioProcessingService;
+
+    @Mock
+    private UserMapper userMapper;
+
+    @Mock
+    private VoiceprintMapper voiceprintMapper;
+
+    private VoiceprintBatchEnrollmentService batchService;
+
+    @BeforeEach
+    void setUp() {
+        VoiceprintConfig config = new VoiceprintConfig();
+        config.setGroupId("test_group");
+        config.getBatch().setDecodeParallelism(2);
+        config.getBatch().setApiConcurrency(2);
+        batchService = new VoiceprintBatchEnrollmentService(
+            config, iflytekClient, audioProcessingService, userMapper, voiceprintMapper);
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchService.shutdown();
+    }
+
+    @Test
+    void testEnrollBatch_PreloadsOnceAndInsertsInOneBatch() throws Exception {
+        // Arrange
+        when(userMapper.findByIds(any())).thenReturn(List.of(user(1L), user(2L), user(3L)));
+        when(voiceprintMapper.findEnrolledUserIds(any())).thenReturn(List.of(3L));
+        when(audioProcessingService.processAudioBytes(any(), any())).thenReturn("base64audio");
+        when(iflytekClient.addAudioFeature(any(), any(), any(), any()))
+            .thenAnswer(invocation -> Map.of("featureId", invocation.getArgument(1)));
+        when(voiceprintMapper.batchInsert(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+        List<BatchEnrollItem> items = List.of(
+            new BatchEnrollItem(1L, "1.wav", new byte[]{1}),
+            new BatchEnrollItem(2L, "2.wav", new byte[]{2}),
+            new BatchEnrollItem(3L, "3.wav", new byte[]{3}),
+            new BatchEnrollItem(4L, "4.wav", new byte[]{4})
+        );
+        List<Object> results = Collections.synchronizedList(new ArrayList<>());
+
+        // Act
+        batchService.enrollBatch(items, null, results::add);
+
+        // Assert
+        verify(userMapper, times(1)).findByIds(any());
+        verify(voiceprintMapper, times(1)).findEnrolledUserIds(any());
+        verify(voiceprintMapper, times(1)).batchInsert(argThat(list -> list.size() == 2));
+        verify(iflytekClient, times(2)).addAudioFeature(any(), any(), any(), any());
+
+        long succeeded = results.stream()
+            .filter(r -> r instanceof VoiceprintEnrollResponse response && response.isSuccess())
+            .count();
+        assertEquals(2, succeeded);
+
+        Map<?, ?> summary = (Map<?, ?>) results.get(results.size() - 1);
+        assertEquals(4, summary.get("total"));
+        assertEquals(2, summary.get("succeeded"));
+        assertEquals(2, summary.get("failed"));
+    }
+
+    @Test
+    void testReadZipArchive_ParsesUserIdFromNames() throws Exception {
+        // Arrange
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            zip.putNextEntry(new ZipEntry("1001_张三.wav"));
+            zip.write(new byte[]{1, 2, 3});
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("1002/sample.mp3"));
+            zip.write(new byte[]{4, 5});
+            zip.closeEntry();
+        }
+
+        // Act
+        List<BatchEnrollItem> items = batchService.readZipArchive(new ByteArrayInputStream(bytes.toByteArray()));
+
+        // Assert
+        assertEquals(2, items.size());
+        assertEquals(1001L, items.get(0).getUserId());
+        assertEquals("1001_张三.wav", items.get(0).getFileName());
+        assertEquals(1002L, items.get(1).getUserId());
+        assertEquals(2, items.get(1).getSize());
+        assertArrayEquals(new byte[]{4, 5}, items.get(1).readAudio());
+
+        // 临时文件在条目处理后删除
+        items.forEach(BatchEnrollItem::discard);
+        assertThrows(java.nio.file.NoSuchFileException.class, () -> items.get(1).readAudio());
+    }
+
+    @Test
+    void testEnrollBatch_FailedChunkRetriedPerItem() throws Exception {
+        // Arrange
+        when(userMapper.findByIds(any())).thenReturn(List.of(user(1L), user(2L)));
+        when(voiceprintMapper.findEnrolledUserIds(any())).thenReturn(List.of());
+        when(audioProcessingService.processAudioBytes(any(), any())).thenReturn("base64audio");
+        when(iflytekClient.addAudioFeature(any(), any(), any(), any()))
+            .thenAnswer(invocation -> Map.of("featureId", invocation.getArgument(1)));
+        when(voiceprintMapper.batchInsert(anyList())).thenThrow(new RuntimeException("duplicate key"));
+        when(voiceprintMapper.insert(argThat(v -> v != null && v.getUserId() == 1L))).thenReturn(1);
+        when(voiceprintMapper.insert(argThat(v -> v != null && v.getUserId() == 2L)))
+            .thenThrow(new RuntimeException("duplicate key"));
+
+        List<BatchEnrollItem> items = List.of(
+            new BatchEnrollItem(1L, "1.wav", new byte[]{1}),
+            new BatchEnrollItem(2L, "2.wav", new byte[]{2})
+        );
+        List<Object> results = Collections.synchronizedList(new ArrayList<>());
+
+        // Act
+        batchService.enrollBatch(items, null, results::add);
+
+        // Assert：只有写入失败的条目回滚讯飞特征
+        verify(iflytekClient, times(1)).deleteAudioFeature(eq("test_group"), startsWith("user_2_"));
+        verify(iflytekClient, never()).deleteAudioFeature(any(), startsWith("user_1_"));
+        Map<?, ?> summary = (Map<?, ?>) results.get(results.size() - 1);
+        assertEquals(1, summary.get("succeeded"));
+        assertEquals(1, summary.get("failed"));
+    }
+
+    @Test
+    void testEnrollBatch_StopsWhenOutputFails() {
+        // Arrange：用户9不存在，其失败结果是第一条输出，输出时客户端已断开
+        when(userMapper.findByIds(any())).thenReturn(List.of(user(1L), user(2L)));
+        when(voiceprintMapper.findEnrolledUserIds(any())).thenReturn(List.of());
+        List<BatchEnrollItem> items = List.of(
+            new BatchEnrollItem(9L, "9.wav", new byte[]{9}),
+            new BatchEnrollItem(1L, "1.wav", new byte[]{1}),
+            new BatchEnrollItem(2L, "2.wav", new byte[]{2})
+        );
+        List<Object> results = new ArrayList<>();
+
+        // Act
+        batchService.enrollBatch(items, null, result -> {
+            results.add(result);
+            throw new java.io.UncheckedIOException(new java.io.IOException("Broken pipe"));
+        });
+
+        // Assert：剩余条目不再调用讯飞，也不再输出
+        assertEquals(1, results.size());
+        verifyNoInteractions(iflytekClient, audioProcessingService);
+        verify(voiceprintMapper, never()).batchInsert(anyList());
+    }
+
+    private User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user" + id);
+        user.setIsActive(true);
+        return user;
+    }
+}
@@ -11,12 +11,18 @@ import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.multipart.MultipartFile;
 import jakarta.servlet.http.HttpServletRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
+import edu.qlu.chatbot.config.RateLimitProperties;
 import edu.qlu.chatbot.config.VoiceprintConfig;
 import edu.qlu.chatbot.mapper.UserMapper;
 import edu.qlu.chatbot.mapper.VoiceprintMapper;
@@ -55,6 +61,15 @@ class VoiceprintServiceTest {
     @Mock
     private HttpServletRequest mockRequest;
 
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private WeightedFairQueue fairQueue = new WeightedFairQueue(new RateLimitProperties(), new SimpleMeterRegistry());
+
     @InjectMocks
     private VoiceprintService voiceprintService;
 
@@ -113,8 +128,6 @@ class VoiceprintServiceTest {
             .thenReturn(testVoiceprint);
         when(voiceprintMapper.updateIdentificationStats(any(), any())).thenReturn(1);
         when(mockRequest.getHeader("User-Agent")).thenReturn("Test Agent");
-        when(mockRequest.getHeader("X-Forwarded-For")).thenReturn(null);
-        when(mockRequest.getHeader("X-Real-IP")).thenReturn(null);
         when(mockRequest.getRemoteAddr()).thenReturn("127.0.0.1");
         testVoiceprint.setUser(testUser);
 
@@ -128,6 +141,13 @@ class VoiceprintServiceTest {
         assertEquals(1, response.getResults().size());
         verify(iFlytekVoiceprintClient).searchByAudioFeature(any(), any(), anyInt());
         verify(voiceprintMapper).findByFeatureIdWithUser("test_feature_id");
+        // 日志与统计在识别调用之后的短事务中写入
+        InOrder order = inOrder(iFlytekVoiceprintClient, transactionManager, logMapper, voiceprintMapper);
+        order.verify(iFlytekVoiceprintClient).searchByAudioFeature(any(), any(), anyInt());
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(logMapper).insert(any());
+        order.verify(voiceprintMapper).updateIdentificationStats(eq("test_feature_id"), any());
+        order.verify(transactionManager).commit(any());
     }
 
     @Test
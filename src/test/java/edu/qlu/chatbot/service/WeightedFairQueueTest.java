@@ -0,0 +1,143 @@
+package edu.qlu.chatbot.service;
+
+import edu.qlu.chatbot.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * WeightedFairQueue 单元测试
+ */
+class WeightedFairQueueTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RateLimitProperties.Queue config;
+    private WeightedFairQueue fairQueue;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        config = new RateLimitProperties.Queue();
+        config.setMaxConcurrency(1);
+        config.setMaxWaitMs(5000);
+        config.setMaxQueuedPerClient(3);
+        properties.getQueues().put("llm", config);
+        fairQueue = new WeightedFairQueue(properties, meterRegistry);
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testHeavyClientDoesNotStarveLightClient() throws Exception {
+        WeightedFairQueue.Permit holder = fairQueue.acquire("llm", "heavy", 1);
+        // 持有许可期间继续消耗份额，使 heavy 的结束标签远超 light
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(enqueue("heavy", 1, order));
+            awaitQueued(i + 1);
+        }
+        futures.add(enqueue("light", 1, order));
+        awaitQueued(4);
+
+        holder.close();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals("light", order.get(0), "轻量客户端应优先于已排队的重度客户端: " + order);
+    }
+
+    @Test
+    void testRejectsWhenClientQueueFull() throws Exception {
+        config.setMaxQueuedPerClient(1);
+        WeightedFairQueue.Permit holder = fairQueue.acquire("llm", "a", 1);
+        Future<?> queued = enqueue("a", 1, Collections.synchronizedList(new ArrayList<>()));
+        awaitQueued(1);
+
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class,
+                () -> fairQueue.acquire("llm", "a", 1));
+        assertTrue(e.getRetryAfterSeconds() >= 1);
+        assertEquals(1.0, meterRegistry.counter("qlu.fairqueue.rejected",
+                "resource", "llm", "reason", "client_queue_full").count());
+
+        holder.close();
+        queued.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testRejectsAfterMaxWait() {
+        config.setMaxWaitMs(50);
+        WeightedFairQueue.Permit holder = fairQueue.acquire("llm", "a", 1);
+
+        assertThrows(RateLimitExceededException.class, () -> fairQueue.acquire("llm", "b", 1));
+        assertEquals(0.0, meterRegistry.get("qlu.fairqueue.queued").gauge().value(), "超时的请求应移出队列");
+
+        holder.close();
+        try (WeightedFairQueue.Permit permit = fairQueue.acquire("llm", "b", 1)) {
+            assertNotNull(permit);
+        }
+    }
+
+    @Test
+    void testTimedOutWaiterDoesNotChargeClient() throws Exception {
+        config.setMaxWaitMs(50);
+        WeightedFairQueue.Permit holder = fairQueue.acquire("llm", "x", 1);
+        assertThrows(RateLimitExceededException.class, () -> fairQueue.acquire("llm", "a", 100));
+
+        // 超时放弃的请求没有执行，a 的份额不应被扣除，同一起始标签下按入队顺序先于 b
+        config.setMaxWaitMs(5000);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        Future<?> first = enqueue("a", 1, order);
+        awaitQueued(1);
+        Future<?> second = enqueue("b", 1, order);
+        awaitQueued(2);
+
+        holder.close();
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("a", "b"), order);
+    }
+
+    private Future<?> enqueue(String clientKey, double cost, List<String> order) {
+        CountDownLatch started = new CountDownLatch(1);
+        Future<?> future = executor.submit(() -> {
+            started.countDown();
+            try (WeightedFairQueue.Permit permit = fairQueue.acquire("llm", clientKey, cost)) {
+                order.add(clientKey);
+            }
+        });
+        try {
+            started.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return future;
+    }
+
+    private void awaitQueued(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.get("qlu.fairqueue.queued").gauge().value() < expected) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("排队数未达到预期: " + expected);
+            }
+            Thread.sleep(5);
+        }
+    }
+}
@@ -1,7 +1,10 @@
 -- H2 测试数据库初始化脚本
 -- 为KnowledgeDocument创建表结构
 
+DROP TABLE IF EXISTS knowledge_document_aliases;
 DROP TABLE IF EXISTS knowledge_documents;
+DROP TABLE IF EXISTS academic_calendar_events;
+DROP TABLE IF EXISTS exam_slots;
 
 CREATE TABLE knowledge_documents (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -13,7 +16,15 @@ CREATE TABLE knowledge_documents (
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     vectorized BOOLEAN DEFAULT FALSE,
-    status VARCHAR(20) DEFAULT 'PENDING'
+    status VARCHAR(20) DEFAULT 'PENDING',
+    simhash BIGINT
+);
+
+CREATE TABLE knowledge_document_aliases (
+    source_url VARCHAR(1000) PRIMARY KEY,
+    canonical_id BIGINT NOT NULL REFERENCES knowledge_documents(id) ON DELETE CASCADE,
+    hamming_distance SMALLINT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
 -- 创建索引以提高查询性能
@@ -25,6 +36,28 @@ CREATE INDEX idx_knowledge_documents_vectorized ON knowledge_documents(vectorize
 CREATE INDEX idx_knowledge_documents_updated_at ON knowledge_documents(updated_at);
 CREATE INDEX idx_knowledge_documents_created_at ON knowledge_documents(created_at);
 
+-- 教务日程表
+CREATE TABLE academic_calendar_events (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    semester VARCHAR(50) NOT NULL,
+    title VARCHAR(200) NOT NULL,
+    category VARCHAR(50),
+    start_date DATE NOT NULL,
+    end_date DATE NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE exam_slots (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    semester VARCHAR(50) NOT NULL,
+    course_name VARCHAR(200) NOT NULL,
+    exam_date DATE NOT NULL,
+    start_time TIME NOT NULL,
+    end_time TIME NOT NULL,
+    location VARCHAR(100),
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
 -- 插入一些测试数据（可选）
 INSERT INTO knowledge_documents (title, content, source_url, document_type, category, vectorized, status) VALUES
 ('测试文档1', '这是第一个测试文档的内容', 'https://www.qlu.edu.cn/test1', 'ACADEMIC_AFFAIRS', '教务处', false, 'COMPLETED'),